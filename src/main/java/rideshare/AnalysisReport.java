@@ -1,18 +1,21 @@
 package rideshare;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import rideshare.Controller.SimulationClock;
 import rideshare.objects.Request;
 
 /**
  * Generate an analysis report, including average waiting time, average riding time,
- * average number of handled rides for a driver, and the optimal number of drivers.
+ * average number of handled rides for a driver, passengers served per driver-hour,
+ * the requests rejected under overload and the optimal number of drivers.
+ * Simulation times are epoch seconds; they are converted to dates only when printed.
  */
 public class AnalysisReport {
 
@@ -35,6 +38,60 @@ public class AnalysisReport {
     return averageTime;
   }
 
+  /**
+   * calculate a percentile of the waiting time of the requests (nearest-rank method)
+   * @param requests a list of requests, as a List<Request>
+   * @param percentile the percentile, between 0 and 100, as a double
+   * @return the waiting seconds at the percentile, as an int
+   */
+  public static int calculatePercentileWaitingSeconds(List<Request> requests, double percentile) {
+    if (requests.isEmpty()) {
+      return 0;
+    }
+    int[] waitingSeconds = new int[requests.size()];
+    for (int i = 0; i < waitingSeconds.length; i++) {
+      waitingSeconds[i] = requests.get(i).calculateWaitingSeconds();
+    }
+    Arrays.sort(waitingSeconds);
+    int rank = (int) Math.ceil(percentile / 100 * waitingSeconds.length);
+    return waitingSeconds[Math.min(waitingSeconds.length, Math.max(1, rank)) - 1];
+  }
+
+  /**
+   * calculate the passengers served per driver-hour: the finished requests over the hours of the
+   * whole fleet from the first request to the last arrival. Shared rides raise it, as one driver
+   * carries several passengers at once.
+   * @param requests a list of finished requests, as a List<Request>
+   * @param numberOfDrivers number of drivers, as an int
+   * @return the passengers per driver-hour, or 0 if no time passed, as a double
+   */
+  public static double calculatePassengersPerDriverHour(List<Request> requests,
+      int numberOfDrivers) {
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (Request request : requests) {
+      first = Math.min(first, request.getRequestEpochSecond());
+      last = Math.max(last, request.getActualArrivalEpochSecond());
+    }
+    if (requests.isEmpty() || numberOfDrivers == 0 || last <= first) {
+      return 0;
+    }
+    return requests.size() / (numberOfDrivers * ((last - first) / 3600.0));
+  }
+
+  /**
+   * calculate the share of the requests rejected under overload, see
+   * SimulationConfig.setOverloadPolicy
+   * @param servedRequests number of requests served, as an int
+   * @param rejectedRequests number of requests rejected, as a long
+   * @return the rejected requests in percent of the served and rejected ones, or 0 if there's
+   *     none, as a double
+   */
+  public static double calculateRejectionPercentage(int servedRequests, long rejectedRequests) {
+    long total = servedRequests + rejectedRequests;
+    return total == 0 ? 0 : 100.0 * rejectedRequests / total;
+  }
+
   /**
    * Calculate the optimal number of drivers required to make all requests' waiting time to be 0
    * @param requestsHistory a list of requests, as a List<Request>
@@ -43,11 +100,11 @@ public class AnalysisReport {
   public static Integer calculateOptimalDriverNumber(List<Request> requestsHistory) {
     // copy the original requestsHistory's request time and estimated time
     // to avoid alter its estimatedArrivalTime
-    List<List<LocalDateTime>> intervals = new ArrayList<>();
+    List<long[]> intervals = new ArrayList<>();
     for (Request request: requestsHistory) {
-      List<LocalDateTime> interval = new ArrayList<>();
-      interval.add(request.getRequestTime());
-      interval.add(request.getEstimatedArrivalTime());
+      long[] interval = new long[2];
+      interval[0] = request.getRequestEpochSecond();
+      interval[1] = request.getEstimatedArrivalEpochSecond();
       intervals.add(interval);
     }
 
@@ -58,29 +115,29 @@ public class AnalysisReport {
     }
 
     // sort the request by requesting time
-    Collections.sort(intervals, new Comparator<List<LocalDateTime>>() {
+    Collections.sort(intervals, new Comparator<long[]>() {
       @Override
-      public int compare(List<LocalDateTime> a, List<LocalDateTime> b) {
-        return a.get(0).compareTo(b.get(0));
+      public int compare(long[] a, long[] b) {
+        return Long.compare(a[0], b[0]);
       }
     });
 
     // use a min heap to track the min estimated arrival time of merged requests
-    Queue<List<LocalDateTime>> heap = new PriorityQueue<>(size, new Comparator<List<LocalDateTime>>() {
+    Queue<long[]> heap = new PriorityQueue<>(size, new Comparator<long[]>() {
       @Override
-      public int compare(List<LocalDateTime> o1, List<LocalDateTime> o2) {
-        return o1.get(1).compareTo(o2.get(1));
+      public int compare(long[] o1, long[] o2) {
+        return Long.compare(o1[1], o2[1]);
       }
     });
 
     heap.offer(intervals.get(0));
 
     for (int i = 1; i < size; i++) {
-      List<LocalDateTime> currentHead = heap.poll();
-      List<LocalDateTime> interval = intervals.get(i);
+      long[] currentHead = heap.poll();
+      long[] interval = intervals.get(i);
       // no crossed time range between two intervals
-      if (interval.get(0).compareTo(currentHead.get(1)) >= 0) {
-        currentHead.set(1, (interval.get(1)));
+      if (interval[0] >= currentHead[1]) {
+        currentHead[1] = interval[1];
       } else {
         heap.offer(interval);
       }
@@ -113,9 +170,14 @@ public class AnalysisReport {
           hours, minutes, seconds);
 
       System.out.println(
-          "Request: " + request.getRequestTime().format(formatter)
-              + " EstimatedArrival: " + request.getEstimatedArrivalTime().format(formatter)
-              + " ActualArrival: " + request.getActualArrivalTime().format(formatter)
+          "Request: " + SimulationClock.toLocalDateTime(request.getRequestEpochSecond())
+                  .format(formatter)
+              + " EstimatedArrival: "
+              + SimulationClock.toLocalDateTime(request.getEstimatedArrivalEpochSecond())
+                  .format(formatter)
+              + " ActualArrival: "
+              + SimulationClock.toLocalDateTime(request.getActualArrivalEpochSecond())
+                  .format(formatter)
               + " Distance (miles): " + formattedDistance
               + " RidingMinutes: " + formattedMinutes
               + " Waiting: " + formmatedWaitingTime
@@ -130,6 +192,18 @@ public class AnalysisReport {
    * @param numberOfDrivers number of drivers, as an Integer
    */
   public static void generateReport(List<Request> requestsHistory , Integer numberOfDrivers) {
+    generateReport(requestsHistory, numberOfDrivers, 0);
+  }
+
+  /**
+   * generate an analysis report, with the requests rejected under overload if there's any
+   * @param requestsHistory a list of requests, as a List<Request>
+   * @param numberOfDrivers number of drivers, as an Integer
+   * @param rejectedRequests number of requests rejected, see
+   *     RideshareDispatchSimulator.getRejectedRequestCount, as a long
+   */
+  public static void generateReport(List<Request> requestsHistory, Integer numberOfDrivers,
+      long rejectedRequests) {
     System.out.println("=========================== Simulation Analysis Report ==========================="
         + System.lineSeparator());
     Integer totalWaitingSeconds = calculateAverageWaitingAndRidingTime(requestsHistory)[0];
@@ -154,6 +228,17 @@ public class AnalysisReport {
             + System.lineSeparator(), requestsHistory.size() / numberOfDrivers);
     System.out.println(averageNumberOfHandledRides);
 
+    String passengersPerDriverHour = String.format("Passengers served per driver-hour: %.2f"
+        + System.lineSeparator(),
+        calculatePassengersPerDriverHour(requestsHistory, numberOfDrivers));
+    System.out.println(passengersPerDriverHour);
+
+    if (rejectedRequests > 0) {
+      System.out.println(String.format("Requests rejected under overload: %d (%.2f%%)"
+          + System.lineSeparator(), rejectedRequests,
+          calculateRejectionPercentage(requestsHistory.size(), rejectedRequests)));
+    }
+
     String optimalNumberOfDrivers = String.format("To balance the business operating costs with the "
         + "customer convenience, the optimal number of drivers is %d" +
         System.lineSeparator(), calculateOptimalDriverNumber(requestsHistory));
@@ -0,0 +1,75 @@
+package rideshare.Benchmark;
+
+import java.util.List;
+import java.util.Random;
+import rideshare.AnalysisReport;
+import rideshare.Controller.DispatchListener;
+import rideshare.Controller.OverloadPolicy;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+/**
+ * AdmissionControlBenchmark overloads a fleet far too small for its workload, with and without
+ * admission control. It reports the run time, the largest number of waiting requests, how many
+ * requests were served, rejected and deferred, and the 99th percentile wait of the served ones.
+ *
+ * Usage: AdmissionControlBenchmark [requests] [drivers] [most waiting requests]
+ */
+public class AdmissionControlBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests (default 40000), drivers (default 2000) and most waiting requests
+   *     (default 1000)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+    int maxWaiting = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+    List<Request> workload = RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    run("no limit", numberOfDrivers, workload, new SimulationConfig());
+    for (OverloadPolicy policy : OverloadPolicy.values()) {
+      run(policy + ", " + maxWaiting + " waiting", numberOfDrivers, workload,
+          new SimulationConfig().setMaxWaitingRequests(maxWaiting).setOverloadPolicy(policy)
+              .setMaxWaitSeconds(3600).setDeferSeconds(300));
+    }
+    run("REJECT, 30 minutes predicted", numberOfDrivers, workload,
+        new SimulationConfig().setMaxPredictedWaitSeconds(1800));
+  }
+
+  /**
+   * simulate the workload once and print the results
+   * @param name the name of the configuration, as a String
+   * @param numberOfDrivers number of drivers, as an int
+   * @param workload the requests, as a List of Request
+   * @param config the simulation options, as a SimulationConfig
+   */
+  private static void run(String name, int numberOfDrivers, List<Request> workload,
+      SimulationConfig config) {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+        workload, config.setSeed(1L));
+    int[] largestWaiting = new int[1];
+    simulator.setDispatchListener(new DispatchListener() {
+      @Override
+      public void onRideQueued(Request request, long time) {
+        largestWaiting[0] = Math.max(largestWaiting[0], simulator.getWaitingRequests().size());
+      }
+    });
+    long start = System.nanoTime();
+    simulator.run();
+    long nanos = System.nanoTime() - start;
+    List<Request> finished = simulator.getFinishedRequests();
+    System.out.println(String.format("%-36s %8.1f ms, largest waiting %,7d, served %,7d, "
+            + "rejected %,7d (%5.1f%%), deferred %,8d, p99 wait %6.1f min", name, nanos / 1e6,
+        largestWaiting[0], finished.size(), simulator.getRejectedRequestCount(),
+        AnalysisReport.calculateRejectionPercentage(finished.size(),
+            simulator.getRejectedRequestCount()),
+        simulator.getDeferredRequestCount(),
+        AnalysisReport.calculatePercentileWaitingSeconds(finished, 99) / 60.0));
+  }
+}
@@ -0,0 +1,86 @@
+package rideshare.Benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import rideshare.AnalysisReport;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Controller.StandardDispatchPolicy;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+/**
+ * DispatchPolicyBenchmark runs every StandardDispatchPolicy on one generated workload and reports
+ * the CPU time of the simulation per event next to the waiting time the policy results in:
+ * the average, the 50th, 95th and 99th percentile, the maximum, and the average of express rides.
+ * Every policy is run once to warm up before it is measured.
+ *
+ * Usage: DispatchPolicyBenchmark [requests] [drivers]
+ */
+public class DispatchPolicyBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests (default 200000) and drivers (default 40000)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 40_000;
+
+    List<Request> workload = RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    // every request is one requested and one finished event
+    long events = 2L * numberOfRequests;
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    System.out.println(String.format("%-20s %10s %10s %8s %8s %8s %8s %10s", "policy",
+        "ns/event", "avg wait", "p50", "p95", "p99", "max", "express"));
+    for (StandardDispatchPolicy policy : StandardDispatchPolicy.values()) {
+      SimulationConfig config = new SimulationConfig()
+          .setEventQueueType(EventQueueType.TIMING_WHEEL)
+          .setDispatchPolicy(policy);
+      new RideshareDispatchSimulator(numberOfDrivers, workload, config.copy()).run();
+
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+          workload, config.copy());
+      long start = threads.getCurrentThreadCpuTime();
+      simulator.run();
+      long cpuNanos = threads.getCurrentThreadCpuTime() - start;
+
+      List<Request> finished = simulator.getFinishedRequests();
+      List<Request> express = new ArrayList<>();
+      for (Request request : finished) {
+        if (request.getRideType() == RideType.EXPRESS) {
+          express.add(request);
+        }
+      }
+      System.out.println(String.format("%-20s %10.0f %9ds %7ds %7ds %7ds %7ds %9ds", policy,
+          (double) cpuNanos / events,
+          averageWaitingSeconds(finished),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 50),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 95),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 99),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 100),
+          averageWaitingSeconds(express)));
+    }
+  }
+
+  /**
+   * calculate the average waiting time, summed as a long since waits can be long with few drivers
+   * @param requests the finished requests, as a List of Request
+   * @return the average waiting seconds, or 0 without requests, as a long
+   */
+  private static long averageWaitingSeconds(List<Request> requests) {
+    long total = 0;
+    for (Request request : requests) {
+      total += request.calculateWaitingSeconds();
+    }
+    return requests.isEmpty() ? 0 : total / requests.size();
+  }
+}
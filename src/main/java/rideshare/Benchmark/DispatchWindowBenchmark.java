@@ -0,0 +1,81 @@
+package rideshare.Benchmark;
+
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.DispatchListener;
+import rideshare.Controller.DriverMatching;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DispatchWindowBenchmark compares greedy nearest driver dispatch with batched optimal matching
+ * at the end of dispatch windows of different lengths, on one spatial workload.
+ * It reports the run time, the average time until a request is assigned, the average pickup time
+ * and the largest number of pairs matched at once.
+ *
+ * Usage: DispatchWindowBenchmark [requests] [drivers] [city size in miles] [candidates]
+ */
+public class DispatchWindowBenchmark {
+
+  private static final long[] WINDOWS = {0, 2, 5, 10};
+
+  /**
+   * run the benchmark
+   * @param args requests (default 200000), drivers (default 36000), city size (default 20)
+   *     and candidate drivers per request (default 8)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 36_000;
+    double citySizeMiles = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+    int candidates = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+    List<Request> workload = RequestGenerator.generateSpatialRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, citySizeMiles, new Random(1));
+    for (long window : WINDOWS) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+          workload, new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+              .setDriverMatching(DriverMatching.NEAREST).setCitySizeMiles(citySizeMiles)
+              .setDispatchWindowSeconds(window).setMatchingCandidates(candidates).setSeed(1L));
+      AssignmentStatistics statistics = new AssignmentStatistics();
+      simulator.setDispatchListener(statistics);
+      long start = System.nanoTime();
+      simulator.run();
+      long nanos = System.nanoTime() - start;
+      System.out.println(String.format("%-24s %8.1f ms, assigned after %6.1f s, pickup %6.1f s, "
+              + "wait incl. pickup %6.1f s, largest batch %,d pairs",
+          window == 0 ? "greedy" : "window " + window + " s", nanos / 1e6,
+          statistics.assignmentSeconds / numberOfRequests,
+          statistics.pickupSeconds / numberOfRequests,
+          (statistics.assignmentSeconds + statistics.pickupSeconds) / numberOfRequests,
+          statistics.largestBatch));
+    }
+  }
+
+  /**
+   * AssignmentStatistics sums the assignment delay and pickup time of every ride and tracks the
+   * largest number of rides assigned in one second.
+   */
+  private static class AssignmentStatistics implements DispatchListener {
+
+    private double assignmentSeconds;
+    private double pickupSeconds;
+    private long lastTime = Long.MIN_VALUE;
+    private int batch;
+    private int largestBatch;
+
+    @Override
+    public void onRideAssigned(Request request, Driver driver, long time) {
+      assignmentSeconds += time - request.getRequestEpochSecond();
+      pickupSeconds += request.getActualArrivalEpochSecond() - time - request.getRidingSeconds();
+      batch = time == lastTime ? batch + 1 : 1;
+      lastTime = time;
+      largestBatch = Math.max(largestBatch, batch);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package rideshare.Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventMode;
+import rideshare.Model.RequestGenerator;
+import rideshare.Trace.EventTraceRecorder;
+import rideshare.objects.Request;
+
+/**
+ * EventTraceBenchmark measures the cost of recording an event trace, by running one workload
+ * with and without an EventTraceRecorder, in both event modes.
+ *
+ * Usage: EventTraceBenchmark [requests] [drivers] [rounds]
+ */
+public class EventTraceBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests (default 1000000), drivers (default 2000) and rounds (default 3)
+   * @throws IOException if the trace file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+    List<Request> workload = RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    Path file = Files.createTempFile("rideshare", ".trace");
+    try {
+      for (int round = 0; round < rounds; round++) {
+        for (EventMode mode : EventMode.values()) {
+          SimulationConfig config = new SimulationConfig().setEventMode(mode);
+          long untraced = time(new RideshareDispatchSimulator(numberOfDrivers, workload, config),
+              null);
+          long traced;
+          long records;
+          try (EventTraceRecorder recorder = new EventTraceRecorder(file)) {
+            traced = time(new RideshareDispatchSimulator(numberOfDrivers, workload, config),
+                recorder);
+            records = recorder.getCount();
+          }
+          System.out.println(String.format("%-6s untraced %8.1f ms, traced %8.1f ms "
+                  + "(%+.1f%%), %,d records, %,d bytes", mode, untraced / 1e6, traced / 1e6,
+              100.0 * (traced - untraced) / untraced, records, Files.size(file)));
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * run a simulator
+   * @param simulator the simulator, as a RideshareDispatchSimulator
+   * @param recorder the trace recorder, or null, as an EventTraceRecorder
+   * @return the elapsed time in nanoseconds, as a long
+   */
+  private static long time(RideshareDispatchSimulator simulator, EventTraceRecorder recorder) {
+    simulator.setEventTrace(recorder);
+    long start = System.nanoTime();
+    simulator.run();
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,202 @@
+package rideshare.Benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Stream.DispatchHttpServer;
+import rideshare.Stream.SimulationPacer;
+
+/**
+ * HttpLoadGenerator drives the HTTP front end of a dispatcher with a growing number of
+ * concurrent clients. Every client submits a ride, asks for its state, and starts over as soon as
+ * it has the answers. It prints the throughput and the p50 and p99 latency of both calls at every
+ * concurrency. Without a URL, it starts a DispatchHttpServer in this process, running the
+ * simulation 60 times as fast as real time.
+ *
+ * Usage: HttpLoadGenerator [url or -] [seconds per concurrency] [most clients]
+ */
+public class HttpLoadGenerator {
+
+  private static final Pattern RIDE_ID = Pattern.compile("\"id\":(\\d+)");
+  private static final int LOCAL_DRIVERS = 2000;
+
+  /**
+   * run the load
+   * @param args the URL of the server or - for a local one (default -), seconds per concurrency
+   *     (default 5) and most concurrent clients (default 256)
+   * @throws IOException if the local server can't be started
+   * @throws InterruptedException if interrupted while waiting for the clients
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String url = args.length > 0 && !"-".equals(args[0]) ? args[0] : null;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+    int maxClients = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+    DispatchHttpServer server = null;
+    if (url == null) {
+      server = new DispatchHttpServer(new RideshareDispatchSimulator(LOCAL_DRIVERS,
+          Collections.emptyList(), new SimulationConfig().setRetainFinishedRequests(false)),
+          SimulationPacer.accelerated(60),
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      server.start();
+      url = "http://127.0.0.1:" + server.getPort();
+      System.out.println(String.format("local server with %,d drivers, %s", LOCAL_DRIVERS,
+          server.usesVirtualThreads() ? "a virtual thread per request" : "a thread pool"));
+    }
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    try {
+      for (int clients = 1; clients <= maxClients; clients *= 4) {
+        run(client, url, clients, (long) (seconds * 1e9));
+      }
+      System.out.println("queues: " + client.send(HttpRequest.newBuilder(
+          URI.create(url + "/queues")).build(), HttpResponse.BodyHandlers.ofString()).body());
+    } finally {
+      if (server != null) {
+        server.stop();
+      }
+    }
+  }
+
+  /**
+   * run concurrent clients for a while and print the latencies of their calls
+   * @param client the HTTP client, as an HttpClient
+   * @param url the URL of the server, as a String
+   * @param clients number of concurrent clients, as an int
+   * @param nanos how long to run in nanoseconds, as a long
+   * @throws InterruptedException if interrupted while waiting for the clients
+   */
+  private static void run(HttpClient client, String url, int clients, long nanos)
+      throws InterruptedException {
+    List<Client> threads = new ArrayList<>();
+    long end = System.nanoTime() + nanos;
+    for (int i = 0; i < clients; i++) {
+      threads.add(new Client(client, url, end, i));
+    }
+    long start = System.nanoTime();
+    for (Client thread : threads) {
+      thread.start();
+    }
+    long[] submits = new long[0];
+    long[] states = new long[0];
+    int errors = 0;
+    for (Client thread : threads) {
+      thread.join();
+      submits = concat(submits, thread.submitNanos, thread.calls);
+      states = concat(states, thread.stateNanos, thread.calls);
+      errors += thread.errors;
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(submits);
+    Arrays.sort(states);
+    System.out.println(String.format("%4d clients %,10d rides %,10.0f rides/second, submit p50"
+            + " %,8.2f ms p99 %,8.2f ms, state p50 %,8.2f ms p99 %,8.2f ms, %d errors", clients,
+        submits.length, submits.length / (elapsed / 1e9), percentile(submits, 0.5) / 1e6,
+        percentile(submits, 0.99) / 1e6, percentile(states, 0.5) / 1e6,
+        percentile(states, 0.99) / 1e6, errors));
+  }
+
+  /**
+   * append the first values of an array to another
+   * @param all the values so far, as a long[]
+   * @param more the values to append, as a long[]
+   * @param count the number of values to append, as an int
+   * @return all the values, as a long[]
+   */
+  private static long[] concat(long[] all, long[] more, int count) {
+    long[] result = Arrays.copyOf(all, all.length + count);
+    System.arraycopy(more, 0, result, all.length, count);
+    return result;
+  }
+
+  /**
+   * get a percentile of sorted values
+   * @param sorted the values in increasing order, as a long[]
+   * @param fraction the percentile between 0 and 1, as a double
+   * @return the value, or 0 if there's none, as a long
+   */
+  private static long percentile(long[] sorted, double fraction) {
+    return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1,
+        sorted.length * fraction)];
+  }
+
+  /**
+   * Client submits rides and asks for their state, one after the other, until the end time.
+   */
+  private static class Client extends Thread {
+
+    private final HttpClient client;
+    private final String url;
+    private final long end;
+    private final Random random;
+    private long[] submitNanos = new long[1024];
+    private long[] stateNanos = new long[1024];
+    private int calls;
+    private int errors;
+
+    /**
+     * Constructor of Client
+     * @param client the HTTP client, as an HttpClient
+     * @param url the URL of the server, as a String
+     * @param end the time to stop at, from System.nanoTime, as a long
+     * @param seed the seed of the rides, as a long
+     */
+    Client(HttpClient client, String url, long end, long seed) {
+      this.client = client;
+      this.url = url;
+      this.end = end;
+      this.random = new Random(seed);
+    }
+
+    @Override
+    public void run() {
+      while (System.nanoTime() < end) {
+        try {
+          String line = "Customer" + random.nextInt(1_000_000) + ",A" + random.nextInt(100)
+              + ",B" + random.nextInt(100) + "," + (1 + random.nextInt(20)) + ".0,,STANDARD";
+          long start = System.nanoTime();
+          HttpResponse<String> submitted = client.send(HttpRequest.newBuilder(
+                  URI.create(url + "/rides")).POST(HttpRequest.BodyPublishers.ofString(line))
+              .build(), HttpResponse.BodyHandlers.ofString());
+          long submittedAt = System.nanoTime();
+          Matcher id = RIDE_ID.matcher(submitted.body());
+          if (submitted.statusCode() != 202 || !id.find()) {
+            errors++;
+            continue;
+          }
+          HttpResponse<String> state = client.send(HttpRequest.newBuilder(
+                  URI.create(url + "/rides/" + id.group(1))).build(),
+              HttpResponse.BodyHandlers.ofString());
+          if (state.statusCode() != 200) {
+            errors++;
+            continue;
+          }
+          if (calls == submitNanos.length) {
+            submitNanos = Arrays.copyOf(submitNanos, 2 * calls);
+            stateNanos = Arrays.copyOf(stateNanos, 2 * calls);
+          }
+          submitNanos[calls] = submittedAt - start;
+          stateNanos[calls] = System.nanoTime() - submittedAt;
+          calls++;
+        } catch (IOException e) {
+          errors++;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
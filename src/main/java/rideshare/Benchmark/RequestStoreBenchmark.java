@@ -0,0 +1,88 @@
+package rideshare.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+import rideshare.objects.RequestStore;
+
+/**
+ * RequestStoreBenchmark compares the heap used per request by a List of Request and by a
+ * RequestStore of the same rides, then simulates a RequestStore workload without keeping the
+ * finished requests, so only the requests in flight are Request objects.
+ *
+ * Usage: RequestStoreBenchmark [requests] [requests simulated] [drivers]
+ */
+public class RequestStoreBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests measured (default 2000000), requests simulated (default 10000000) and
+   *     drivers (default 20000)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    int simulatedRequests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+    int numberOfDrivers = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    int rangeOfSeconds = 30 * 24 * 3600;
+
+    long before = BenchmarkSupport.usedHeap();
+    List<Request> list = new ArrayList<>(numberOfRequests);
+    Random random = new Random(1);
+    for (int i = 0; i < numberOfRequests; i++) {
+      list.add(RequestGenerator.generateRandomRequest(i, start, random));
+    }
+    long listBytes = BenchmarkSupport.usedHeap() - before;
+    report("List<Request>", numberOfRequests, listBytes);
+    RequestStore named = RequestStore.of(list);
+    long namedBytes = BenchmarkSupport.usedHeap() - before - listBytes;
+    report("RequestStore, unique names", numberOfRequests, namedBytes);
+    list = null;
+    named = null;
+
+    before = BenchmarkSupport.usedHeap();
+    RequestStore store = RequestGenerator.generateRequestStore(simulatedRequests, start,
+        rangeOfSeconds, new Random(1));
+    report("RequestStore, without names", simulatedRequests, BenchmarkSupport.usedHeap() - before);
+
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers, store,
+        new SimulationConfig().setSeed(1L).setRetainFinishedRequests(false));
+    long startNanos = System.nanoTime();
+    simulator.run();
+    long nanos = System.nanoTime() - startNanos;
+    System.out.println(String.format("simulated %,d requests from the store in %.1f s, "
+            + "%,d assigned, heap after %,d MB", store.size(), nanos / 1e9,
+        countAssigned(store), BenchmarkSupport.usedHeap() >> 20));
+  }
+
+  /**
+   * count the rows of the store that were given a driver
+   * @param store the requests, as a RequestStore
+   * @return number of assigned requests, as an int
+   */
+  private static int countAssigned(RequestStore store) {
+    int assigned = 0;
+    for (int row = 0; row < store.size(); row++) {
+      if (store.getAssignedDriverId(row) >= 0) {
+        assigned++;
+      }
+    }
+    return assigned;
+  }
+
+  /**
+   * print the heap used by a representation
+   * @param name the name of the representation, as a String
+   * @param numberOfRequests number of requests it holds, as an int
+   * @param bytes heap used, as a long
+   */
+  private static void report(String name, int numberOfRequests, long bytes) {
+    System.out.println(String.format("%-28s %,12d requests %,8d MB %6.1f bytes per request",
+        name, numberOfRequests, bytes >> 20, (double) bytes / numberOfRequests));
+  }
+}
@@ -0,0 +1,210 @@
+package rideshare.Benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.Stream.QueueRequestSource;
+import rideshare.Stream.RequestSource;
+import rideshare.Stream.RingBufferRequestSource;
+import rideshare.Stream.SimulationPacer;
+import rideshare.Stream.StreamingDispatcher;
+import rideshare.Stream.WaitStrategy;
+import rideshare.objects.Request;
+
+/**
+ * RingBufferBenchmark feeds one consumer from several producer threads through a
+ * RingBufferRequestSource with every WaitStrategy, and through the LinkedBlockingQueue of a
+ * QueueRequestSource. It measures the throughput with the producers submitting as fast as they
+ * can, the latency from submission to consumption with the producers paced to a fixed rate, and
+ * then a StreamingDispatcher dispatching what the producers submit.
+ *
+ * Usage: RingBufferBenchmark [requests per producer] [most producers] [paced requests/second]
+ */
+public class RingBufferBenchmark {
+
+  private static final int CAPACITY = 1 << 14;
+  private static final int BATCH_SIZE = 256;
+
+  /**
+   * run the benchmark
+   * @param args requests per producer (default 1000000), most producers (default 4) and the
+   *     total rate of the paced runs (default 200000 requests a second)
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int requestsPerProducer = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int maxProducers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int pacedRate = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+    for (int producers = 1; producers <= maxProducers; producers *= 2) {
+      Request[][] requests = requests(producers, requestsPerProducer);
+      for (boolean paced : new boolean[] {false, true}) {
+        System.out.println(String.format("%d producers, %s", producers,
+            paced ? String.format("paced to %,d requests/second", pacedRate) : "unpaced"));
+        run("LinkedBlockingQueue", new QueueRequestSource(), requests, paced ? pacedRate : 0);
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+          run("ring, " + waitStrategy, new RingBufferRequestSource(CAPACITY, waitStrategy),
+              requests, paced ? pacedRate : 0);
+        }
+      }
+    }
+
+    int dispatched = Math.min(requestsPerProducer, 250_000);
+    System.out.println(String.format("dispatching %,d requests from each of %d producers",
+        dispatched, maxProducers));
+    dispatch("LinkedBlockingQueue", new QueueRequestSource(), maxProducers, dispatched);
+    dispatch("ring, " + WaitStrategy.PARKING, new RingBufferRequestSource(CAPACITY,
+        WaitStrategy.PARKING), maxProducers, dispatched);
+  }
+
+  /**
+   * build the requests of every producer, with the index of the request over all producers as
+   * its id
+   * @param producers number of producers, as an int
+   * @param requestsPerProducer requests of every producer, as an int
+   * @return the requests of every producer, as a Request[][]
+   */
+  private static Request[][] requests(int producers, int requestsPerProducer) {
+    Request template = RequestGenerator.generateRandomRequest(0,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    Request[][] requests = new Request[producers][requestsPerProducer];
+    for (int producer = 0; producer < producers; producer++) {
+      for (int i = 0; i < requestsPerProducer; i++) {
+        requests[producer][i] = new Request(template);
+        requests[producer][i].setId(producer * requestsPerProducer + i);
+      }
+    }
+    return requests;
+  }
+
+  /**
+   * submit every request from its producer thread, and consume them on this thread in batches
+   * @param name the name of the run, as a String
+   * @param source the source, as a RequestSource
+   * @param requests the requests of every producer, as a Request[][]
+   * @param rate the total requests a second, or 0 to submit as fast as possible, as an int
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  private static void run(String name, RequestSource source, Request[][] requests, int rate)
+      throws InterruptedException {
+    int producers = requests.length;
+    int total = producers * requests[0].length;
+    long[] submitNanos = new long[total];
+    long[] latencyNanos = new long[total];
+    long start = System.nanoTime();
+    List<Thread> threads = new ArrayList<>();
+    for (Request[] ofProducer : requests) {
+      threads.add(new Thread(() -> {
+        long intervalNanos = rate == 0 ? 0 : 1_000_000_000L * producers / rate;
+        for (int i = 0; i < ofProducer.length; i++) {
+          if (rate > 0) {
+            long wait = start + i * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+              LockSupport.parkNanos(wait);
+            }
+          }
+          submitNanos[ofProducer[i].getId()] = System.nanoTime();
+          submit(source, ofProducer[i]);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    int[] received = {0};
+    while (received[0] < total) {
+      Request request = source.poll(100);
+      if (request == null) {
+        continue;
+      }
+      latencyNanos[received[0]++] = System.nanoTime() - submitNanos[request.getId()];
+      source.drainTo(r -> latencyNanos[received[0]++] = System.nanoTime()
+          - submitNanos[r.getId()], BATCH_SIZE);
+    }
+    long nanos = System.nanoTime() - start;
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    source.close();
+
+    Arrays.sort(latencyNanos);
+    System.out.println(String.format("  %-28s %,12d requests in %8.1f ms, %,14.0f requests/second,"
+            + " latency p50 %,9.1f us, p99 %,9.1f us, p99.9 %,9.1f us", name, total, nanos / 1e6,
+        total / (nanos / 1e9), latencyNanos[total / 2] / 1e3,
+        latencyNanos[(int) (total * 0.99)] / 1e3, latencyNanos[(int) (total * 0.999)] / 1e3));
+  }
+
+  /**
+   * submit a request to either kind of source
+   * @param source the source, as a RequestSource
+   * @param request the request, as a Request
+   */
+  private static void submit(RequestSource source, Request request) {
+    if (source instanceof RingBufferRequestSource) {
+      ((RingBufferRequestSource) source).submit(request);
+    } else {
+      ((QueueRequestSource) source).submit(request);
+    }
+  }
+
+  /**
+   * dispatch the requests of several producer threads with a StreamingDispatcher
+   * @param name the name of the run, as a String
+   * @param source the source, as a RequestSource
+   * @param producers number of producers, as an int
+   * @param requestsPerProducer requests of every producer, as an int
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  private static void dispatch(String name, RequestSource source, int producers,
+      int requestsPerProducer) throws InterruptedException {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(
+        Math.max(1, producers * requestsPerProducer / 50), Collections.emptyList(),
+        new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+            .setRetainFinishedRequests(false));
+    StreamingDispatcher dispatcher = new StreamingDispatcher(simulator, source,
+        SimulationPacer.asFastAsPossible());
+    List<Thread> threads = new ArrayList<>();
+    for (int producer = 0; producer < producers; producer++) {
+      // every producer's requests in request time order, like a front end forwarding them
+      List<Request> requests = RequestGenerator.generateRequests(requestsPerProducer,
+          SimulationClock.DEFAULT_START_SECOND, new Random(producer));
+      requests.sort((a, b) -> Long.compare(a.getRequestEpochSecond(),
+          b.getRequestEpochSecond()));
+      threads.add(new Thread(() -> {
+        for (Request request : requests) {
+          submit(source, request);
+        }
+      }));
+    }
+    long start = System.nanoTime();
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    Thread closer = new Thread(() -> {
+      try {
+        for (Thread thread : threads) {
+          thread.join();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      source.close();
+    });
+    closer.start();
+    dispatcher.run();
+    long nanos = System.nanoTime() - start;
+    closer.join();
+    System.out.println(String.format("  %-28s %,12d requests in %8.1f ms, %,14.0f requests/second",
+        name, dispatcher.getReceivedRequests(), nanos / 1e6,
+        dispatcher.getReceivedRequests() / (nanos / 1e9)));
+  }
+}
@@ -0,0 +1,136 @@
+package rideshare.Benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.DriverMatching;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.Model.RoadNetworkGenerator;
+import rideshare.Routing.ContractionHierarchy;
+import rideshare.Routing.DijkstraRouter;
+import rideshare.Routing.RoadNetwork;
+import rideshare.Routing.TravelTimes;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * RoutingBenchmark loads a generated city road network from a file, preprocesses it into a
+ * ContractionHierarchy, and measures point-to-point query throughput against plain Dijkstra,
+ * checking that both agree. It then simulates one spatial workload with straight-line and with
+ * road travel times.
+ *
+ * Usage: RoutingBenchmark [streets per side] [queries] [city size in miles] [requests]
+ */
+public class RoutingBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args streets per side (default 200), queries (default 1000000), city size
+   *     (default 20) and requests (default 50000)
+   * @throws IOException if the road file can't be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int streetsPerSide = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int numberOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+    double citySizeMiles = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+    int numberOfRequests = args.length > 3 ? Integer.parseInt(args[3]) : 50_000;
+
+    Path file = Files.createTempFile("city", ".roads");
+    RoadNetwork network;
+    try {
+      RoadNetworkGenerator.generateGrid(streetsPerSide, citySizeMiles, new Random(1)).write(file);
+      long start = System.nanoTime();
+      network = RoadNetwork.read(file);
+      System.out.println(String.format("loaded %,d nodes and %,d arcs (%,d KB of text) in %.1f ms,"
+              + " %,d KB of arrays", network.getNodeCount(), network.getArcCount(),
+          Files.size(file) / 1024, (System.nanoTime() - start) / 1e6,
+          network.getMemoryBytes() / 1024));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    long start = System.nanoTime();
+    ContractionHierarchy hierarchy = ContractionHierarchy.build(network);
+    System.out.println(String.format("contracted in %.1f ms, %,d shortcuts, %,d KB search graph",
+        (System.nanoTime() - start) / 1e6, hierarchy.getShortcutCount(),
+        hierarchy.getMemoryBytes() / 1024));
+
+    // both must agree before their speed means anything
+    DijkstraRouter dijkstra = new DijkstraRouter(network);
+    Random random = new Random(2);
+    int nodeCount = network.getNodeCount();
+    for (int i = 0; i < 1000; i++) {
+      int source = random.nextInt(nodeCount);
+      int target = random.nextInt(nodeCount);
+      if (dijkstra.shortestMillis(source, target) != hierarchy.shortestMillis(source, target)) {
+        throw new IllegalStateException("Routes differ from " + source + " to " + target);
+      }
+    }
+
+    long checksum = 0;
+    int dijkstraQueries = Math.max(1, numberOfQueries / 1000);
+    start = System.nanoTime();
+    for (int i = 0; i < dijkstraQueries; i++) {
+      checksum += dijkstra.shortestMillis(random.nextInt(nodeCount), random.nextInt(nodeCount));
+    }
+    report("dijkstra node to node", dijkstraQueries, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    for (int i = 0; i < numberOfQueries; i++) {
+      checksum += hierarchy.shortestMillis(random.nextInt(nodeCount), random.nextInt(nodeCount));
+    }
+    report("contraction node to node", numberOfQueries, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    for (int i = 0; i < numberOfQueries; i++) {
+      Location from = RequestGenerator.generateRandomLocation(citySizeMiles, random);
+      Location to = RequestGenerator.generateRandomLocation(citySizeMiles, random);
+      checksum += (long) hierarchy.travelSeconds(from, to);
+    }
+    report("contraction location to location", numberOfQueries, System.nanoTime() - start);
+
+    List<Request> workload = RequestGenerator.generateSpatialRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, citySizeMiles, new Random(1));
+    int simulatedDrivers = Math.max(1, numberOfRequests / 20);
+    for (TravelTimes travelTimes : new TravelTimes[] {TravelTimes.STRAIGHT_LINE, hierarchy}) {
+      start = System.nanoTime();
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(simulatedDrivers,
+          workload, new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+              .setDriverMatching(DriverMatching.NEAREST).setCitySizeMiles(citySizeMiles)
+              .setTravelTimes(travelTimes).setSeed(1L));
+      simulator.run();
+      long nanos = System.nanoTime() - start;
+      double ridingSeconds = 0;
+      double waitingSeconds = 0;
+      for (Request request : simulator.getFinishedRequests()) {
+        ridingSeconds += request.getRidingSeconds();
+        waitingSeconds += request.getActualArrivalEpochSecond() - request.getRequestEpochSecond()
+            - request.getRidingSeconds();
+      }
+      System.out.println(String.format("%-32s %,12d requests in %8.1f ms, average ride %.1f "
+              + "seconds, average wait incl. pickup %.1f seconds",
+          travelTimes == hierarchy ? "road travel times" : "straight-line travel times",
+          numberOfRequests, nanos / 1e6, ridingSeconds / numberOfRequests,
+          waitingSeconds / numberOfRequests));
+    }
+    System.out.println("Checksum: " + checksum);
+  }
+
+  /**
+   * print the throughput of a run
+   * @param name the name of the run, as a String
+   * @param queries number of queries, as a long
+   * @param nanos the elapsed time in nanoseconds, as a long
+   */
+  private static void report(String name, long queries, long nanos) {
+    System.out.println(String.format("%-32s %,12d queries in %8.1f ms, %,14.0f queries/second, "
+        + "%.2f us/query", name, queries, nanos / 1e6, queries / (nanos / 1e9),
+        nanos / 1e3 / queries));
+  }
+}
@@ -0,0 +1,152 @@
+package rideshare.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.ShardMetrics;
+import rideshare.Controller.ShardedDispatcher;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+/**
+ * ShardedDispatcherBenchmark hosts markets of very different sizes, the size of market i
+ * proportional to 1 / (i + 1), in one ShardedDispatcher, and measures event throughput as the
+ * number of workers grows, against running the markets one after the other. A thread reads the
+ * aggregate metrics while the markets run.
+ *
+ * Usage: ShardedDispatcherBenchmark [requests] [markets] [max workers]
+ */
+public class ShardedDispatcherBenchmark {
+
+  private static final int REQUESTS_PER_DRIVER = 50;
+
+  /**
+   * run the benchmark
+   * @param args requests over all markets (default 1000000), markets (default 32) and most
+   *     workers (default 2 times the available processors)
+   * @throws InterruptedException if interrupted while waiting for the markets
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int numberOfMarkets = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+    int maxWorkers = args.length > 2 ? Integer.parseInt(args[2])
+        : 2 * Runtime.getRuntime().availableProcessors();
+
+    double harmonic = 0;
+    for (int market = 0; market < numberOfMarkets; market++) {
+      harmonic += 1.0 / (market + 1);
+    }
+    List<List<Request>> workloads = new ArrayList<>();
+    long events = 0;
+    for (int market = 0; market < numberOfMarkets; market++) {
+      int requests = Math.max(1, (int) (numberOfRequests / harmonic / (market + 1)));
+      workloads.add(RequestGenerator.generateRequests(requests,
+          SimulationClock.DEFAULT_START_SECOND, new Random(market)));
+      // every request is one requested and one finished event
+      events += 2L * requests;
+    }
+    System.out.println(String.format("%d markets from %,d to %,d requests, %d processors",
+        numberOfMarkets, workloads.get(0).size(), workloads.get(numberOfMarkets - 1).size(),
+        Runtime.getRuntime().availableProcessors()));
+
+    long sequentialNanos = 0;
+    for (int round = 0; round < 2; round++) { // the first round warms the JIT up
+      List<RideshareDispatchSimulator> simulators = build(workloads);
+      long start = System.nanoTime();
+      for (RideshareDispatchSimulator simulator : simulators) {
+        simulator.runUntil(Long.MAX_VALUE);
+      }
+      sequentialNanos = System.nanoTime() - start;
+    }
+    report("one market after the other", events, sequentialNanos, sequentialNanos);
+
+    for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+      ShardedDispatcher dispatcher = new ShardedDispatcher(workers);
+      List<RideshareDispatchSimulator> simulators = build(workloads);
+      for (int market = 0; market < numberOfMarkets; market++) {
+        dispatcher.addShard("market" + market, simulators.get(market));
+      }
+      MetricsReader reader = new MetricsReader(dispatcher);
+      reader.start();
+      long start = System.nanoTime();
+      dispatcher.finish();
+      long nanos = System.nanoTime() - start;
+      reader.interrupt();
+      reader.join();
+      report("sharded, " + workers + " workers", events, nanos, sequentialNanos);
+      ShardMetrics metrics = dispatcher.getMetrics();
+      System.out.println(String.format("  %,d slices, %,d steals, %,d finished rides, %,d metric"
+              + " reads while running", metrics.getSlices(), dispatcher.getStealCount(),
+          metrics.getFinishedRequests(), reader.reads));
+    }
+  }
+
+  /**
+   * build one simulator per market
+   * @param workloads the requests of every market, as a List of List of Request
+   * @return the simulators, as a List of RideshareDispatchSimulator
+   */
+  private static List<RideshareDispatchSimulator> build(List<List<Request>> workloads) {
+    List<RideshareDispatchSimulator> simulators = new ArrayList<>();
+    for (List<Request> workload : workloads) {
+      List<Request> copies = new ArrayList<>();
+      for (Request request : workload) {
+        copies.add(new Request(request));
+      }
+      simulators.add(new RideshareDispatchSimulator(
+          Math.max(1, workload.size() / REQUESTS_PER_DRIVER), copies,
+          new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+              .setRetainFinishedRequests(false).setSeed(1L)));
+    }
+    return simulators;
+  }
+
+  /**
+   * print the throughput of a run
+   * @param name the name of the run, as a String
+   * @param events number of events processed, as a long
+   * @param nanos the elapsed time in nanoseconds, as a long
+   * @param sequentialNanos the elapsed time of the markets one after the other, as a long
+   */
+  private static void report(String name, long events, long nanos, long sequentialNanos) {
+    System.out.println(String.format("%-32s %,12d events in %8.1f ms, %,14.0f events/second,"
+            + " speedup %.2f", name, events, nanos / 1e6, events / (nanos / 1e9),
+        (double) sequentialNanos / nanos));
+  }
+
+  /**
+   * MetricsReader reads the aggregate metrics of a dispatcher every 10 milliseconds until
+   * interrupted, as a monitoring thread would.
+   */
+  private static class MetricsReader extends Thread {
+
+    private final ShardedDispatcher dispatcher;
+    private volatile long reads;
+
+    /**
+     * Constructor of MetricsReader
+     * @param dispatcher the dispatcher, as a ShardedDispatcher
+     */
+    MetricsReader(ShardedDispatcher dispatcher) {
+      this.dispatcher = dispatcher;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          dispatcher.getMetrics();
+          reads++;
+          Thread.sleep(10);
+        }
+      } catch (InterruptedException e) {
+        // done
+      }
+    }
+  }
+}
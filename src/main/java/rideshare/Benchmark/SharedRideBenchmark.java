@@ -0,0 +1,74 @@
+package rideshare.Benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Random;
+import rideshare.AnalysisReport;
+import rideshare.Controller.DriverMatching;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+/**
+ * SharedRideBenchmark runs one spatial workload with nearest driver matching and growing seat
+ * capacities, and reports the CPU time of the dispatch per request next to the passengers served
+ * per driver-hour and the waiting time. One seat is the baseline without shared rides.
+ * Every capacity is run once to warm up before it is measured.
+ *
+ * Usage: SharedRideBenchmark [requests] [drivers] [city size in miles] [longest detour seconds]
+ */
+public class SharedRideBenchmark {
+
+  private static final int[] SEAT_CAPACITIES = {1, 2, 3, 4};
+
+  /**
+   * run the benchmark
+   * @param args requests (default 40000), drivers (default 2000), city size (default 10)
+   *     and longest detour (default 300)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    double citySizeMiles = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    long maxDetourSeconds = args.length > 3 ? Long.parseLong(args[3]) : 300;
+
+    List<Request> workload = RequestGenerator.generateSpatialRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, citySizeMiles, new Random(1));
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    System.out.println(String.format("%-6s %12s %16s %10s %8s %8s", "seats", "ns/request",
+        "passengers/d-h", "avg wait", "p95", "p99"));
+    for (int seats : SEAT_CAPACITIES) {
+      SimulationConfig config = new SimulationConfig()
+          .setEventQueueType(EventQueueType.TIMING_WHEEL)
+          .setDriverMatching(DriverMatching.NEAREST)
+          .setCitySizeMiles(citySizeMiles)
+          .setSeed(1L)
+          .setSeatCapacity(seats)
+          .setMaxDetourSeconds(maxDetourSeconds);
+      new RideshareDispatchSimulator(numberOfDrivers, workload, config.copy()).run();
+
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+          workload, config.copy());
+      long start = threads.getCurrentThreadCpuTime();
+      simulator.run();
+      long cpuNanos = threads.getCurrentThreadCpuTime() - start;
+
+      List<Request> finished = simulator.getFinishedRequests();
+      long totalWaitingSeconds = 0;
+      for (Request request : finished) {
+        totalWaitingSeconds += request.calculateWaitingSeconds();
+      }
+      System.out.println(String.format("%-6d %12.0f %16.2f %9ds %7ds %7ds", seats,
+          (double) cpuNanos / numberOfRequests,
+          AnalysisReport.calculatePassengersPerDriverHour(finished, numberOfDrivers),
+          totalWaitingSeconds / finished.size(),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 95),
+          AnalysisReport.calculatePercentileWaitingSeconds(finished, 99)));
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package rideshare.Benchmark;
+
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.DriverMatching;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Controller.SpatialDriverIndex;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * SpatialMatchingBenchmark measures the SpatialDriverIndex against a linear scan over the idle
+ * drivers, with every driver moving between queries, and then compares the waiting time of
+ * longest idle and nearest driver matching on one spatial workload.
+ *
+ * Usage: SpatialMatchingBenchmark [drivers] [queries] [requests] [city size in miles]
+ */
+public class SpatialMatchingBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args drivers (default 50000), queries (default 1000000),
+   *     requests (default 200000) and city size (default 20)
+   */
+  public static void main(String[] args) {
+    int numberOfDrivers = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+    int numberOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+    int numberOfRequests = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+    double citySizeMiles = args.length > 3 ? Double.parseDouble(args[3]) : 20;
+
+    Random random = new Random(1);
+    Driver[] drivers = new Driver[numberOfDrivers];
+    SpatialDriverIndex index = SpatialDriverIndex.forCity(citySizeMiles, numberOfDrivers);
+    for (int i = 0; i < numberOfDrivers; i++) {
+      drivers[i] = new Driver(i, "Driver" + i);
+      drivers[i].setPosition(RequestGenerator.generateRandomLocation(citySizeMiles, random));
+      index.add(drivers[i]);
+    }
+
+    // every query moves one driver and finds the driver nearest to a random point
+    long checksum = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < numberOfQueries; i++) {
+      index.move(drivers[random.nextInt(numberOfDrivers)],
+          RequestGenerator.generateRandomLocation(citySizeMiles, random));
+      checksum += index.nearest(RequestGenerator.generateRandomLocation(citySizeMiles, random))
+          .getId();
+    }
+    report("grid index move + nearest", numberOfQueries, System.nanoTime() - start);
+
+    int scanQueries = Math.max(1, numberOfQueries / 1000);
+    start = System.nanoTime();
+    for (int i = 0; i < scanQueries; i++) {
+      Location point = RequestGenerator.generateRandomLocation(citySizeMiles, random);
+      Driver nearest = null;
+      double nearestDistance = Double.POSITIVE_INFINITY;
+      for (Driver driver : drivers) {
+        double distance = driver.getPosition().distanceTo(point);
+        if (distance < nearestDistance) {
+          nearest = driver;
+          nearestDistance = distance;
+        }
+      }
+      checksum += nearest.getId();
+    }
+    report("linear scan nearest", scanQueries, System.nanoTime() - start);
+
+    List<Request> workload = RequestGenerator.generateSpatialRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, citySizeMiles, new Random(1));
+    int simulatedDrivers = Math.max(1, numberOfRequests / 20);
+    for (DriverMatching matching : DriverMatching.values()) {
+      start = System.nanoTime();
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(simulatedDrivers,
+          workload, new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+              .setDriverMatching(matching).setCitySizeMiles(citySizeMiles).setSeed(1L));
+      simulator.run();
+      long nanos = System.nanoTime() - start;
+      double waitingSeconds = 0;
+      for (Request request : simulator.getFinishedRequests()) {
+        waitingSeconds += request.getActualArrivalEpochSecond() - request.getRequestEpochSecond()
+            - request.getRidingSeconds();
+      }
+      System.out.println(String.format("%-32s %,12d requests in %8.1f ms, average wait incl. "
+              + "pickup %.1f seconds", matching, numberOfRequests, nanos / 1e6,
+          waitingSeconds / numberOfRequests));
+    }
+    System.out.println("Checksum: " + checksum);
+  }
+
+  /**
+   * print the throughput of a run
+   * @param name the name of the run, as a String
+   * @param queries number of queries, as a long
+   * @param nanos the elapsed time in nanoseconds, as a long
+   */
+  private static void report(String name, long queries, long nanos) {
+    System.out.println(String.format("%-32s %,12d queries in %8.1f ms, %,14.0f queries/second",
+        name, queries, nanos / 1e6, queries / (nanos / 1e9)));
+  }
+}
@@ -0,0 +1,156 @@
+package rideshare.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import rideshare.Controller.DriverMatching;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.Model.RoadNetworkGenerator;
+import rideshare.Routing.ContractionHierarchy;
+import rideshare.Routing.TravelTimeCache;
+import rideshare.Routing.TravelTimes;
+import rideshare.objects.Location;
+
+/**
+ * TravelTimeCacheBenchmark measures a TravelTimeCache in front of a ContractionHierarchy: raw
+ * lookups from one and from several threads sharing the cache, and then replications of one
+ * workload with different driver seeds run at once, with and without a shared cache.
+ *
+ * Usage: TravelTimeCacheBenchmark [threads] [cell size in miles] [capacity] [requests]
+ */
+public class TravelTimeCacheBenchmark {
+
+  private static final double CITY_SIZE_MILES = 10;
+  private static final int STREETS_PER_SIDE = 100;
+
+  /**
+   * run the benchmark
+   * @param args threads (default 4), cell size (default 0.25), capacity (default 1048576) and
+   *     requests per simulation (default 20000)
+   * @throws InterruptedException if interrupted while waiting for the threads
+   * @throws ExecutionException if a thread fails
+   */
+  public static void main(String[] args) throws InterruptedException, ExecutionException {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    double cellSizeMiles = args.length > 1 ? Double.parseDouble(args[1]) : 0.25;
+    int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 20;
+    int numberOfRequests = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+
+    ContractionHierarchy hierarchy = ContractionHierarchy.build(RoadNetworkGenerator
+        .generateGrid(STREETS_PER_SIDE, CITY_SIZE_MILES, new Random(1)));
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      // lookups between 1,000 popular places, like pickups and drop-offs cluster in a city
+      int lookups = 200_000;
+      Location[] points = new Location[1000];
+      Random random = new Random(2);
+      for (int i = 0; i < points.length; i++) {
+        points[i] = RequestGenerator.generateRandomLocation(CITY_SIZE_MILES, random);
+      }
+      lookups(pool, 1, "contraction", hierarchy, points, lookups);
+      TravelTimeCache cache = new TravelTimeCache(hierarchy, CITY_SIZE_MILES, cellSizeMiles,
+          capacity);
+      lookups(pool, 1, "cache, 1 thread", cache, points, lookups);
+      lookups(pool, threads, "cache, " + threads + " threads", cache, points, lookups);
+      report("lookups", cache);
+
+      for (TravelTimes travelTimes : new TravelTimes[] {hierarchy,
+          new TravelTimeCache(hierarchy, CITY_SIZE_MILES, cellSizeMiles, capacity)}) {
+        List<Callable<Long>> simulations = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+          long seed = i;
+          simulations.add(() -> simulate(travelTimes, numberOfRequests, seed));
+        }
+        long start = System.nanoTime();
+        long finished = 0;
+        for (Future<Long> future : pool.invokeAll(simulations)) {
+          finished += future.get();
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.println(String.format("%-32s %,12d requests in %8.1f ms, %,.0f ns/request",
+            threads + " replications, " + (travelTimes == hierarchy ? "no cache" : "shared cache"),
+            finished, nanos / 1e6, (double) nanos / finished));
+        if (travelTimes instanceof TravelTimeCache) {
+          report("simulations", (TravelTimeCache) travelTimes);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * look up travel times between random points on several threads, each with its own copy
+   * @param pool the threads, as an ExecutorService
+   * @param threads number of threads, as an int
+   * @param name the name of the run, as a String
+   * @param travelTimes the travel times, as a TravelTimes
+   * @param points the points, as a Location[]
+   * @param lookups number of lookups per thread, as an int
+   * @throws InterruptedException if interrupted while waiting for the threads
+   * @throws ExecutionException if a thread fails
+   */
+  private static void lookups(ExecutorService pool, int threads, String name,
+      TravelTimes travelTimes, Location[] points, int lookups)
+      throws InterruptedException, ExecutionException {
+    List<Callable<Double>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      TravelTimes copy = travelTimes.copy();
+      Random random = new Random(t);
+      tasks.add(() -> {
+        double checksum = 0;
+        for (int i = 0; i < lookups; i++) {
+          checksum += copy.travelSeconds(points[random.nextInt(points.length)],
+              points[random.nextInt(points.length)]);
+        }
+        return checksum;
+      });
+    }
+    long start = System.nanoTime();
+    for (Future<Double> future : pool.invokeAll(tasks)) {
+      future.get();
+    }
+    long nanos = System.nanoTime() - start;
+    long total = (long) lookups * threads;
+    System.out.println(String.format("%-32s %,12d lookups in %8.1f ms, %,14.0f lookups/second",
+        name, total, nanos / 1e6, total / (nanos / 1e9)));
+  }
+
+  /**
+   * simulate the same spatial workload with nearest driver matching
+   * @param travelTimes the travel times, as a TravelTimes
+   * @param numberOfRequests number of requests, as an int
+   * @param seed the seed of the drivers, as a long
+   * @return the number of finished requests, as a long
+   */
+  private static long simulate(TravelTimes travelTimes, int numberOfRequests, long seed) {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(
+        Math.max(1, numberOfRequests / 10), RequestGenerator.generateSpatialRequests(
+            numberOfRequests, SimulationClock.DEFAULT_START_SECOND, CITY_SIZE_MILES,
+            new Random(1)), new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL)
+            .setDriverMatching(DriverMatching.NEAREST).setCitySizeMiles(CITY_SIZE_MILES)
+            .setTravelTimes(travelTimes).setRetainFinishedRequests(false).setSeed(seed));
+    simulator.run();
+    return numberOfRequests;
+  }
+
+  /**
+   * print the counters of a cache
+   * @param name the name of the run, as a String
+   * @param cache the cache, as a TravelTimeCache
+   */
+  private static void report(String name, TravelTimeCache cache) {
+    System.out.println(String.format("  %s: %,d hits, %,d misses (hit rate %.1f%%), %,d evictions,"
+            + " %,d of %,d held", name, cache.getHits(), cache.getMisses(),
+        100 * cache.getHitRate(), cache.getEvictions(), cache.size(), cache.getCapacity()));
+  }
+}
@@ -0,0 +1,70 @@
+package rideshare.Benchmark;
+
+import java.util.Random;
+import rideshare.AnalysisReport;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.RequestStore;
+import rideshare.objects.TripLog;
+
+/**
+ * TripLogBenchmark simulates the same long workload with its finished requests kept on the heap
+ * and kept off the heap in a TripLog, the workload itself being off the heap in a TripLog for
+ * the second run. It reports the run time, the time spent in garbage collection, the heap in use
+ * afterwards and the bytes off the heap, then scans the finished requests for the average wait.
+ *
+ * Usage: TripLogBenchmark [requests] [drivers]
+ */
+public class TripLogBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests (default 4000000) and drivers (default 20000)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    int rangeOfSeconds = 30 * 24 * 3600;
+
+    RequestStore store = RequestGenerator.generateRequestStore(numberOfRequests, start,
+        rangeOfSeconds, new Random(1));
+    run("store, finished on the heap", new RideshareDispatchSimulator(numberOfDrivers, store,
+        new SimulationConfig().setSeed(1L)), 0);
+    store = null;
+
+    TripLog trips = RequestGenerator.generateTripLog(numberOfRequests, start, rangeOfSeconds,
+        new Random(1));
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers, trips,
+        new SimulationConfig().setSeed(1L).setFinishedRequestsOffHeap(true));
+    run("trip log, finished off the heap", simulator, trips.getOffHeapBytes());
+  }
+
+  /**
+   * simulate once and print the results
+   * @param name the name of the configuration, as a String
+   * @param simulator the simulator, as a RideshareDispatchSimulator
+   * @param workloadOffHeapBytes bytes of the workload off the heap before the run, as a long
+   */
+  private static void run(String name, RideshareDispatchSimulator simulator,
+      long workloadOffHeapBytes) {
+    long gcMillis = BenchmarkSupport.gcMillis();
+    long startNanos = System.nanoTime();
+    simulator.run();
+    long nanos = System.nanoTime() - startNanos;
+    gcMillis = BenchmarkSupport.gcMillis() - gcMillis;
+    long offHeapBytes = simulator.getFinishedRequests() instanceof TripLog
+        ? workloadOffHeapBytes + ((TripLog) simulator.getFinishedRequests()).getOffHeapBytes()
+        : 0;
+    long scanNanos = System.nanoTime();
+    int averageWait = AnalysisReport.calculateAverageWaitingAndRidingTime(
+        simulator.getFinishedRequests())[0];
+    scanNanos = System.nanoTime() - scanNanos;
+    System.out.println(String.format("%-32s %7.1f s, gc %,7d ms, heap after %,6d MB, "
+            + "off the heap %,6d MB, average wait %,6d s scanned in %6.1f ms", name, nanos / 1e9,
+        gcMillis, BenchmarkSupport.usedHeap() >> 20, offHeapBytes >> 20, averageWait,
+        scanNanos / 1e6));
+  }
+}
@@ -0,0 +1,96 @@
+package rideshare.Benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import rideshare.Controller.PriorityLevelQueue;
+import rideshare.Controller.SimulationClock;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+import rideshare.objects.WaitingComparator;
+
+/**
+ * WaitingQueueBenchmark compares a PriorityQueue with WaitingComparator against a
+ * PriorityLevelQueue as the waiting queue during a surge: every request is added while no driver
+ * is free, and the queue is then drained. A second phase keeps the queue at the surge size while
+ * adding and polling one request at a time, as when drivers are freed one by one. A third phase
+ * cancels random requests from the full queue, which PriorityQueue.remove does by a linear search.
+ *
+ * Usage: WaitingQueueBenchmark [waiting requests] [rounds]
+ */
+public class WaitingQueueBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args waiting requests (default 500000) and rounds (default 10)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    List<Request> requests = RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    // a request can wait in a queue only once, so the steady phase adds copies
+    List<Request> copies = new ArrayList<>();
+    for (Request request : requests) {
+      copies.add(new Request(request));
+    }
+
+    for (int round = 1; round <= rounds; round++) {
+      // the last round is the measured one, the others warm up
+      boolean report = round == rounds;
+      measure("PriorityQueue", new PriorityQueue<>(new WaitingComparator()), requests, copies,
+          report);
+      measure("PriorityLevelQueue", new PriorityLevelQueue(), requests, copies, report);
+    }
+  }
+
+  /**
+   * fill and drain a queue, then add and poll at a steady size
+   * @param name the name of the queue, as a String
+   * @param queue the empty queue, as a Queue of Request
+   * @param requests the requests, as a List of Request
+   * @param copies copies of the requests, as a List of Request
+   * @param report true to print the result
+   */
+  private static void measure(String name, Queue<Request> queue, List<Request> requests,
+      List<Request> copies, boolean report) {
+    long checksum = 0;
+    long start = System.nanoTime();
+    for (Request request : requests) {
+      queue.add(request);
+    }
+    while (!queue.isEmpty()) {
+      checksum += queue.poll().getEstimatedArrivalEpochSecond();
+    }
+    long surgeNanos = System.nanoTime() - start;
+
+    queue.addAll(requests);
+    start = System.nanoTime();
+    for (Request copy : copies) {
+      checksum += queue.poll().getEstimatedArrivalEpochSecond();
+      queue.add(copy);
+    }
+    long steadyNanos = System.nanoTime() - start;
+
+    // every 1000th request is cancelled
+    int cancellations = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < requests.size(); i += 1000) {
+      if (queue.remove(requests.get(i))) {
+        cancellations++;
+      }
+    }
+    long cancelNanos = System.nanoTime() - start;
+    queue.clear();
+
+    if (report) {
+      System.out.println(String.format("%-20s surge %7.1f ms (%5.0f ns per add and poll), "
+              + "steady %7.1f ms (%5.0f ns), cancel %,10.0f ns, checksum %d", name,
+          surgeNanos / 1e6, (double) surgeNanos / requests.size(), steadyNanos / 1e6,
+          (double) steadyNanos / requests.size(), (double) cancelNanos / cancellations,
+          checksum));
+    }
+  }
+}
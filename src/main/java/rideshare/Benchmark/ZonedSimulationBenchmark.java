@@ -0,0 +1,79 @@
+package rideshare.Benchmark;
+
+import java.util.List;
+import java.util.Random;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Controller.ZonedSimulation;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+/**
+ * ZonedSimulationBenchmark measures event throughput of one global simulator against the zoned
+ * simulation run sequentially and in parallel, on one generated workload.
+ * Note the zoned model only dispatches drivers inside the zone of the request, so its waiting
+ * times differ from the global simulator; the zoned sequential and parallel runs agree exactly.
+ *
+ * Usage: ZonedSimulationBenchmark [requests] [drivers] [zones] [threads]
+ */
+public class ZonedSimulationBenchmark {
+
+  /**
+   * run the benchmark
+   * @param args requests (default 1000000), drivers (default 20000), zones (default 16)
+   *     and threads (default available processors)
+   */
+  public static void main(String[] args) {
+    int numberOfRequests = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int numberOfDrivers = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    int numberOfZones = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    int threads = args.length > 3 ? Integer.parseInt(args[3])
+        : Runtime.getRuntime().availableProcessors();
+
+    SimulationConfig config = new SimulationConfig()
+        .setEventQueueType(EventQueueType.TIMING_WHEEL)
+        .setSeed(1L);
+    List<Request> workload = RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(1));
+    // every request is one requested and one finished event
+    long events = 2L * numberOfRequests;
+
+    long start = System.nanoTime();
+    RideshareDispatchSimulator global = new RideshareDispatchSimulator(numberOfDrivers, workload,
+        config.copy());
+    global.run();
+    report("global sequential", events, System.nanoTime() - start);
+
+    start = System.nanoTime();
+    ZonedSimulation sequential = new ZonedSimulation(numberOfDrivers, workload, numberOfZones,
+        config);
+    sequential.runSequential();
+    report("zoned sequential", events + sequential.getNumberOfHandoffs(),
+        System.nanoTime() - start);
+
+    start = System.nanoTime();
+    ZonedSimulation parallel = new ZonedSimulation(numberOfDrivers, workload, numberOfZones,
+        config);
+    parallel.runParallel(threads);
+    report("zoned parallel (" + threads + " threads)", events + parallel.getNumberOfHandoffs(),
+        System.nanoTime() - start);
+
+    System.out.println(String.format("Zones: %d, lookahead: %d seconds, handoffs: %d, "
+            + "same result as sequential: %b", numberOfZones, parallel.getLookahead(),
+        parallel.getNumberOfHandoffs(),
+        sequential.getFinishedRequests().equals(parallel.getFinishedRequests())));
+  }
+
+  /**
+   * print the throughput of a run
+   * @param name the name of the run, as a String
+   * @param events number of events processed, as a long
+   * @param nanos the elapsed time in nanoseconds, as a long
+   */
+  private static void report(String name, long events, long nanos) {
+    System.out.println(String.format("%-32s %,12d events in %8.1f ms, %,14.0f events/second",
+        name, events, nanos / 1e6, events / (nanos / 1e9)));
+  }
+}
@@ -0,0 +1,228 @@
+package rideshare.Controller;
+
+import java.util.Arrays;
+
+/**
+ * AssignmentSolver finds a minimum cost assignment of rows (requests) to columns (drivers) over a
+ * sparse set of candidate edges. It is the Hungarian method in its successive shortest path form:
+ * rows are added one at a time, each by the cheapest augmenting path found with Dijkstra on
+ * reduced costs, which the row and column potentials keep non-negative.
+ *
+ * Every augmenting path keeps the rows matched before matched, so when the candidate edges don't
+ * admit a match for every row, the rows given first win. The matched rows always have the lowest
+ * total cost among all assignments matching them. The work is bounded by the number of edges:
+ * every path search visits each edge at most once.
+ * The scratch arrays are reused between calls, so a solver is not thread-safe.
+ */
+public class AssignmentSolver {
+
+  public static final int NONE = -1;
+
+  private double[] potential = new double[0]; // rows first, then columns
+  private double[] distance = new double[0];
+  private int[] parent = new int[0]; // previous node on the shortest path
+  private double[] parentCost = new double[0]; // cost of the edge from the parent of a column
+  private boolean[] done = new boolean[0];
+  private int[] touched = new int[0];
+  private int[] rowMatch = new int[0];
+  private double[] rowMatchCost = new double[0];
+  private int[] columnMatch = new int[0];
+  private double[] heapDistance = new double[16];
+  private int[] heapNode = new int[16];
+  private int heapSize;
+
+  /**
+   * solve an assignment problem
+   * @param rows the number of rows, as an int
+   * @param columns the number of columns, as an int
+   * @param edgeStart the first edge of every row, with edgeStart[rows] the number of edges,
+   *     as an int[]
+   * @param edgeColumn the column of every edge, as an int[]
+   * @param edgeCost the non-negative cost of every edge, as a double[]
+   * @return the column of every row, or NONE if the row is not matched, as an int[]
+   */
+  public int[] solve(int rows, int columns, int[] edgeStart, int[] edgeColumn, double[] edgeCost) {
+    int nodes = rows + columns;
+    ensureCapacity(nodes, rows, columns);
+    Arrays.fill(potential, 0, nodes, 0);
+    Arrays.fill(distance, 0, nodes, Double.POSITIVE_INFINITY);
+    Arrays.fill(rowMatch, 0, rows, NONE);
+    Arrays.fill(columnMatch, 0, columns, NONE);
+
+    for (int row = 0; row < rows; row++) {
+      if (edgeStart[row] == edgeStart[row + 1]) {
+        continue;
+      }
+      int touchedCount = 0;
+      heapSize = 0;
+      distance[row] = 0;
+      parent[row] = NONE;
+      touched[touchedCount++] = row;
+      push(0, row);
+      int target = NONE;
+      while (heapSize > 0) {
+        double nodeDistance = heapDistance[0];
+        int node = pop();
+        if (done[node] || nodeDistance > distance[node]) {
+          continue;
+        }
+        done[node] = true;
+        if (node >= rows) {
+          int matchedRow = columnMatch[node - rows];
+          if (matchedRow == NONE) {
+            target = node;
+            break;
+          }
+          // back along the matched edge to its row
+          double reduced = -rowMatchCost[matchedRow] + potential[node] - potential[matchedRow];
+          touchedCount = relax(matchedRow, nodeDistance + Math.max(0, reduced), node, 0,
+              touchedCount);
+        } else {
+          for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+            int column = edgeColumn[edge];
+            if (column == rowMatch[node]) {
+              continue;
+            }
+            double reduced = edgeCost[edge] + potential[node] - potential[rows + column];
+            touchedCount = relax(rows + column, nodeDistance + Math.max(0, reduced), node,
+                edgeCost[edge], touchedCount);
+          }
+        }
+      }
+
+      if (target != NONE) {
+        double targetDistance = distance[target];
+        for (int i = 0; i < touchedCount; i++) {
+          int node = touched[i];
+          if (done[node] && distance[node] < targetDistance) {
+            potential[node] += distance[node] - targetDistance;
+          }
+        }
+        augment(target, rows);
+      }
+      for (int i = 0; i < touchedCount; i++) {
+        distance[touched[i]] = Double.POSITIVE_INFINITY;
+        done[touched[i]] = false;
+      }
+    }
+    return Arrays.copyOf(rowMatch, rows);
+  }
+
+  /**
+   * lower the distance of a node if the new path is shorter
+   * @param node the node, as an int
+   * @param newDistance the distance over the new path, as a double
+   * @param from the previous node on the new path, as an int
+   * @param cost the cost of the edge from the previous node, as a double
+   * @param touchedCount the number of nodes reached so far, as an int
+   * @return the new number of nodes reached, as an int
+   */
+  private int relax(int node, double newDistance, int from, double cost, int touchedCount) {
+    if (done[node] || newDistance >= distance[node]) {
+      return touchedCount;
+    }
+    if (distance[node] == Double.POSITIVE_INFINITY) {
+      touched[touchedCount++] = node;
+    }
+    distance[node] = newDistance;
+    parent[node] = from;
+    parentCost[node] = cost;
+    push(newDistance, node);
+    return touchedCount;
+  }
+
+  /**
+   * flip the matched and unmatched edges along the shortest path ending in a free column
+   * @param target the free column node, as an int
+   * @param rows the number of rows, as an int
+   */
+  private void augment(int target, int rows) {
+    int columnNode = target;
+    while (columnNode != NONE) {
+      int row = parent[columnNode];
+      int previousColumnNode = parent[row]; // the column the row was matched to, if any
+      rowMatch[row] = columnNode - rows;
+      rowMatchCost[row] = parentCost[columnNode];
+      columnMatch[columnNode - rows] = row;
+      columnNode = previousColumnNode;
+    }
+  }
+
+  /**
+   * add a node to the binary heap of the path search
+   * @param nodeDistance the distance of the node, as a double
+   * @param node the node, as an int
+   */
+  private void push(double nodeDistance, int node) {
+    if (heapSize == heapNode.length) {
+      heapDistance = Arrays.copyOf(heapDistance, heapSize * 2);
+      heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+    }
+    int i = heapSize++;
+    while (i > 0) {
+      int up = (i - 1) >>> 1;
+      if (heapDistance[up] <= nodeDistance) {
+        break;
+      }
+      heapDistance[i] = heapDistance[up];
+      heapNode[i] = heapNode[up];
+      i = up;
+    }
+    heapDistance[i] = nodeDistance;
+    heapNode[i] = node;
+  }
+
+  /**
+   * remove the node with the smallest distance from the heap
+   * @return the node, as an int
+   */
+  private int pop() {
+    int top = heapNode[0];
+    heapSize--;
+    double lastDistance = heapDistance[heapSize];
+    int lastNode = heapNode[heapSize];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && heapDistance[child + 1] < heapDistance[child]) {
+        child++;
+      }
+      if (heapDistance[child] >= lastDistance) {
+        break;
+      }
+      heapDistance[i] = heapDistance[child];
+      heapNode[i] = heapNode[child];
+      i = child;
+    }
+    heapDistance[i] = lastDistance;
+    heapNode[i] = lastNode;
+    return top;
+  }
+
+  /**
+   * grow the scratch arrays
+   * @param nodes the number of rows and columns, as an int
+   * @param rows the number of rows, as an int
+   * @param columns the number of columns, as an int
+   */
+  private void ensureCapacity(int nodes, int rows, int columns) {
+    if (potential.length < nodes) {
+      potential = new double[nodes];
+      distance = new double[nodes];
+      parent = new int[nodes];
+      parentCost = new double[nodes];
+      done = new boolean[nodes];
+      touched = new int[nodes];
+    }
+    if (rowMatch.length < rows) {
+      rowMatch = new int[rows];
+      rowMatchCost = new double[rows];
+    }
+    if (columnMatch.length < columns) {
+      columnMatch = new int[columns];
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package rideshare.Controller;
+
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DispatchListener is notified by a RideshareDispatchSimulator as rides are dispatched,
+ * on the thread running the simulation. Every method does nothing by default.
+ */
+public interface DispatchListener {
+
+  /**
+   * called when a request has to wait because there's no idle driver
+   * @param request the request, as a Request
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRideQueued(Request request, long time) {
+  }
+
+  /**
+   * called when a driver is assigned to a request
+   * @param request the request, with its actual arrival time set, as a Request
+   * @param driver the driver, as a Driver
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRideAssigned(Request request, Driver driver, long time) {
+  }
+
+  /**
+   * called when a ride finishes
+   * @param request the request, as a Request
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRideFinished(Request request, long time) {
+  }
+
+  /**
+   * called when a waiting request is cancelled by its customer
+   * @param request the request, as a Request
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRideCancelled(Request request, long time) {
+  }
+
+  /**
+   * called when a waiting request times out, see SimulationConfig.setMaxWaitSeconds
+   * @param request the request, as a Request
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRequestTimedOut(Request request, long time) {
+  }
+
+  /**
+   * called when a request is rejected under overload, see SimulationConfig.setOverloadPolicy:
+   * either a new request, or a waiting request shed to make room for one
+   * @param request the request, as a Request
+   * @param time the current time in epoch seconds, as a long
+   */
+  default void onRequestRejected(Request request, long time) {
+  }
+}
@@ -0,0 +1,45 @@
+package rideshare.Controller;
+
+import java.util.Comparator;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DispatchPolicy decides the order in which waiting requests are served and which idle driver
+ * serves a request. The simulator asks it whenever a request and a driver are paired, both for
+ * new requests and for waiting requests when drivers are released.
+ * StandardDispatchPolicy holds the shipped policies.
+ */
+public interface DispatchPolicy {
+
+  /**
+   * get the order of the waiting requests: the first request is served first
+   * @return the order, as a Comparator of Request
+   */
+  Comparator<Request> waitingOrder();
+
+  /**
+   * create an empty waiting queue that polls requests in waitingOrder
+   * @return the queue, an IndexedWaitingHeap by default, as a WaitingQueue
+   */
+  default WaitingQueue newWaitingQueue() {
+    return new IndexedWaitingHeap(waitingOrder());
+  }
+
+  /**
+   * pick an idle driver for a request. By default the nearest idle driver if the simulator keeps
+   * a spatial index and the request has coordinates, otherwise the longest idle driver.
+   * @param request the request, as a Request
+   * @param idleDrivers the idle drivers, at least one, as a DriverPool
+   * @param nearbyDrivers the idle drivers by position with DriverMatching.NEAREST, otherwise null,
+   *     as a SpatialDriverIndex
+   * @return one of the idle drivers, as a Driver
+   */
+  default Driver selectDriver(Request request, DriverPool idleDrivers,
+      SpatialDriverIndex nearbyDrivers) {
+    if (nearbyDrivers != null && request.getStartCoordinates() != null) {
+      return nearbyDrivers.nearest(request.getStartCoordinates());
+    }
+    return idleDrivers.peek();
+  }
+}
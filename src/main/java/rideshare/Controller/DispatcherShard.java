@@ -0,0 +1,281 @@
+package rideshare.Controller;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DispatcherShard is one market of a ShardedDispatcher: a RideshareDispatchSimulator with its own
+ * single-threaded event loop, and an inbox other threads submit requests to.
+ *
+ * The event loop runs in slices on the workers of the dispatcher. A shard is scheduled only when
+ * it has something to do, at most once at a time, so its simulator is only ever used by one
+ * thread, and it gives its worker up after a bounded number of ticks, so a busy market doesn't
+ * hold a worker the other shards are waiting for.
+ *
+ * Like an unpaced StreamingDispatcher, a shard doesn't run past the latest request it received
+ * until it is closed, and requests arriving after their request time are moved to the current
+ * simulation time. Once closed, it runs its simulator to the end.
+ */
+public class DispatcherShard {
+
+  private static final int SLICE_TICKS = 64; // ticks before giving the worker up
+
+  private final String name;
+  private final RideshareDispatchSimulator simulator;
+  private final Executor workers;
+  private final Queue<Request> inbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final CompletableFuture<Void> done = new CompletableFuture<>();
+  private volatile boolean closed;
+  private volatile ShardMetrics metrics;
+
+  // owned by the thread running the current slice
+  private long horizon = Long.MIN_VALUE; // one second after the latest request received
+  private long receivedRequests;
+  private long queuedRequests;
+  private long assignedRequests;
+  private long finishedRequests;
+  private long cancelledRequests;
+  private long timedOutRequests;
+  private long rejectedRequests;
+  private long ticks;
+  private long slices;
+  private long busyNanos;
+
+  /**
+   * Constructor of DispatcherShard, see ShardedDispatcher.addShard
+   * @param name the name of the market, as a String
+   * @param simulator the simulator with its drivers, as a RideshareDispatchSimulator
+   * @param listener the listener notified as rides are dispatched, or null, as a
+   *     DispatchListener
+   * @param workers the workers running the slices, as an Executor
+   */
+  DispatcherShard(String name, RideshareDispatchSimulator simulator, DispatchListener listener,
+      Executor workers) {
+    this.name = name;
+    this.simulator = simulator;
+    this.workers = workers;
+    this.metrics = snapshot();
+    simulator.setDispatchListener(new CountingListener(listener));
+  }
+
+  /**
+   * add a request to the inbox of this shard, from any thread
+   * @param request the request, as a Request
+   * @throws IllegalStateException if the shard is closed or failed
+   */
+  public void submit(Request request) {
+    synchronized (inbox) {
+      if (closed) {
+        throw new IllegalStateException("Shard " + name + " is closed");
+      }
+      inbox.add(request);
+    }
+    schedule();
+  }
+
+  /**
+   * take no more requests, and run the simulator to the end. Does nothing if already closed.
+   */
+  public void close() {
+    synchronized (inbox) {
+      closed = true;
+    }
+    schedule();
+  }
+
+  /**
+   * schedule a slice of the event loop, unless one is scheduled or running already
+   */
+  void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      workers.execute(this::runSlice);
+    }
+  }
+
+  /**
+   * run a slice of the event loop: take the requests of the inbox, and process up to
+   * SLICE_TICKS ticks before the horizon, or before the end once closed
+   */
+  private void runSlice() {
+    boolean closedBefore = closed; // read before draining, so a closed inbox is drained for good
+    long start = System.nanoTime();
+    long limit;
+    try {
+      Request request;
+      while ((request = inbox.poll()) != null) {
+        receive(request);
+      }
+      limit = closedBefore ? Long.MAX_VALUE : horizon;
+      long tick;
+      for (int i = 0; i < SLICE_TICKS && (tick = simulator.nextEventTime()) < limit; i++) {
+        simulator.runUntil(tick + 1);
+        ticks++;
+      }
+    } catch (RuntimeException | Error e) {
+      synchronized (inbox) {
+        closed = true;
+      }
+      done.completeExceptionally(e);
+      return; // stays scheduled, so it never runs again
+    } finally {
+      slices++;
+      busyNanos += System.nanoTime() - start;
+      metrics = snapshot();
+    }
+
+    if (simulator.nextEventTime() < limit) {
+      workers.execute(this::runSlice); // more to do: back of the queue, behind the other shards
+    } else if (closedBefore) {
+      done.complete(null);
+    } else {
+      scheduled.set(false);
+      // a request or close that came after the checks above couldn't schedule a slice
+      if (!inbox.isEmpty() || closed) {
+        schedule();
+      }
+    }
+  }
+
+  /**
+   * give a request of the inbox to the simulator, not before the simulation time
+   * @param request the request, as a Request
+   */
+  private void receive(Request request) {
+    long requestTime = Math.max(request.getRequestEpochSecond(), simulator.getTime());
+    if (requestTime != request.getRequestEpochSecond()) {
+      request.setRequestEpochSecond(requestTime);
+    }
+    simulator.submitRequest(request);
+    horizon = Math.max(horizon, requestTime + 1);
+    receivedRequests++;
+  }
+
+  /**
+   * get the counters of this shard as of now
+   * @return the counters, as a ShardMetrics
+   */
+  private ShardMetrics snapshot() {
+    return new ShardMetrics(1, receivedRequests, queuedRequests, assignedRequests,
+        finishedRequests, cancelledRequests, timedOutRequests, rejectedRequests, ticks, slices,
+        busyNanos);
+  }
+
+  /**
+   * get the name of the market
+   * @return the name, as a String
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * get the simulator of this shard, only safe to use once the shard is done
+   * @return the simulator, as a RideshareDispatchSimulator
+   */
+  public RideshareDispatchSimulator getSimulator() {
+    return simulator;
+  }
+
+  /**
+   * get the counters of this shard as of the end of its last slice, from any thread
+   * @return the counters, as a ShardMetrics
+   */
+  public ShardMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * get the number of requests submitted but not taken from the inbox yet
+   * @return the number of requests, as an int
+   */
+  public int getInboxSize() {
+    return inbox.size();
+  }
+
+  /**
+   * check if the shard is closed and ran its simulator to the end, or failed
+   * @return true if done, as a boolean
+   */
+  public boolean isDone() {
+    return done.isDone();
+  }
+
+  /**
+   * get the completion of this shard, failed with the exception of the event loop if it threw
+   * @return the completion, as a CompletableFuture
+   */
+  CompletableFuture<Void> getDone() {
+    return done;
+  }
+
+  /**
+   * CountingListener counts what the simulator reports, on the thread of the slice, and passes
+   * it on to the listener of the shard.
+   */
+  private class CountingListener implements DispatchListener {
+
+    private final DispatchListener listener;
+
+    /**
+     * Constructor of CountingListener
+     * @param listener the listener to pass to, or null, as a DispatchListener
+     */
+    CountingListener(DispatchListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void onRideQueued(Request request, long time) {
+      queuedRequests++;
+      if (listener != null) {
+        listener.onRideQueued(request, time);
+      }
+    }
+
+    @Override
+    public void onRideAssigned(Request request, Driver driver, long time) {
+      assignedRequests++;
+      if (listener != null) {
+        listener.onRideAssigned(request, driver, time);
+      }
+    }
+
+    @Override
+    public void onRideFinished(Request request, long time) {
+      finishedRequests++;
+      if (listener != null) {
+        listener.onRideFinished(request, time);
+      }
+    }
+
+    @Override
+    public void onRideCancelled(Request request, long time) {
+      cancelledRequests++;
+      if (listener != null) {
+        listener.onRideCancelled(request, time);
+      }
+    }
+
+    @Override
+    public void onRequestTimedOut(Request request, long time) {
+      timedOutRequests++;
+      if (listener != null) {
+        listener.onRequestTimedOut(request, time);
+      }
+    }
+
+    @Override
+    public void onRequestRejected(Request request, long time) {
+      rejectedRequests++;
+      if (listener != null) {
+        listener.onRequestRejected(request, time);
+      }
+    }
+  }
+}
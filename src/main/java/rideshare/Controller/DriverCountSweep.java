@@ -0,0 +1,154 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import rideshare.objects.Request;
+
+/**
+ * DriverCountSweep finds the smallest number of drivers whose simulation meets a service level
+ * target, by running the full dispatcher on one fixed workload.
+ * Waiting time is assumed not to grow with more drivers, so the search gallops over 1, 2, 4, ...
+ * drivers until the target is met and then narrows the bracket down. Every round simulates up to
+ * parallelism driver counts at once, which turns the bisection into a k-section.
+ */
+public class DriverCountSweep {
+
+  private final List<Request> workload;
+  private final SimulationConfig config;
+  private final ServiceLevelTarget target;
+  private final int parallelism;
+  private final Map<Integer, SweepPoint> evaluatedPoints = new TreeMap<>();
+
+  /**
+   * Constructor of DriverCountSweep
+   * @param workload the requests every candidate is simulated with, as a List of Request
+   * @param config the simulation options, as a SimulationConfig
+   * @param target the service level target, as a ServiceLevelTarget
+   * @param parallelism number of simulations run at once, as an int
+   */
+  public DriverCountSweep(List<Request> workload, SimulationConfig config,
+      ServiceLevelTarget target, int parallelism) {
+    this.workload = Collections.unmodifiableList(new ArrayList<>(workload));
+    this.config = config.copy();
+    this.target = target;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * search for the smallest number of drivers meeting the target
+   * @param maxDrivers the largest number of drivers to consider, as an int
+   * @return the smallest number of drivers meeting the target, or null if even maxDrivers misses it
+   */
+  public SweepPoint findMinimumDrivers(int maxDrivers) {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      int missing = 0; // largest count known to miss the target
+      int meeting = -1; // smallest count known to meet the target
+
+      // gallop: 1, 2, 4, ... drivers, parallelism counts per round
+      int next = 1;
+      while (meeting < 0 && missing < maxDrivers) {
+        List<Integer> candidates = new ArrayList<>();
+        while (candidates.size() < parallelism && next <= maxDrivers) {
+          candidates.add(next);
+          next = next >= maxDrivers ? maxDrivers + 1 : (int) Math.min(maxDrivers, 2L * next);
+        }
+        for (SweepPoint point : evaluate(pool, candidates)) {
+          if (point.isTargetMet()) {
+            meeting = point.getNumberOfDrivers();
+            break;
+          }
+          missing = point.getNumberOfDrivers();
+        }
+      }
+      if (meeting < 0) {
+        return null;
+      }
+
+      // k-section of the bracket (missing, meeting)
+      while (meeting - missing > 1) {
+        int gap = meeting - missing;
+        int count = Math.min(parallelism, gap - 1);
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+          int candidate = missing + (int) ((long) gap * i / (count + 1));
+          if (candidate > missing && candidate < meeting && !candidates.contains(candidate)) {
+            candidates.add(candidate);
+          }
+        }
+        for (SweepPoint point : evaluate(pool, candidates)) {
+          if (point.isTargetMet()) {
+            meeting = point.getNumberOfDrivers();
+            break;
+          }
+          missing = point.getNumberOfDrivers();
+        }
+      }
+      return evaluatedPoints.get(meeting);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * simulate the workload with each of the given driver counts in parallel,
+   * skipping counts simulated before
+   * @param pool the pool to run the simulations on, as a ForkJoinPool
+   * @param candidates ascending driver counts, as a List of Integer
+   * @return the evaluation of every candidate in the same order, as a List of SweepPoint
+   */
+  private List<SweepPoint> evaluate(ForkJoinPool pool, List<Integer> candidates) {
+    List<Callable<SweepPoint>> tasks = new ArrayList<>();
+    for (Integer candidate : candidates) {
+      if (!evaluatedPoints.containsKey(candidate)) {
+        tasks.add(() -> simulate(candidate));
+      }
+    }
+    try {
+      for (Future<SweepPoint> future : pool.invokeAll(tasks)) {
+        SweepPoint point = future.get();
+        evaluatedPoints.put(point.getNumberOfDrivers(), point);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Sweep was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A sweep simulation failed", e.getCause());
+    }
+
+    List<SweepPoint> points = new ArrayList<>();
+    for (Integer candidate : candidates) {
+      points.add(evaluatedPoints.get(candidate));
+    }
+    return points;
+  }
+
+  /**
+   * simulate the workload with a number of drivers
+   * @param numberOfDrivers the number of drivers, as an int
+   * @return the evaluation against the target, as a SweepPoint
+   */
+  public SweepPoint simulate(int numberOfDrivers) {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+        workload, config.copy());
+    simulator.run();
+    return target.evaluate(numberOfDrivers, simulator.getFinishedRequests(),
+        simulator.getCancelledRequestCount() + simulator.getTimedOutRequestCount()
+            + simulator.getRejectedRequestCount());
+  }
+
+  /**
+   * get every driver count simulated so far
+   * @return the evaluations ordered by number of drivers, as a List of SweepPoint
+   */
+  public List<SweepPoint> getEvaluatedPoints() {
+    return new ArrayList<>(evaluatedPoints.values());
+  }
+}
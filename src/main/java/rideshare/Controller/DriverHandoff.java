@@ -0,0 +1,27 @@
+package rideshare.Controller;
+
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DriverHandoff takes drivers whose rides end outside a simulator, e.g. in another zone.
+ * A simulator with a handoff does not release those drivers when their rides finish, but hands
+ * them off as soon as they are assigned, together with the time the ride finishes.
+ */
+public interface DriverHandoff {
+
+  /**
+   * check if the driver of a request leaves the simulator when the ride finishes
+   * @param request the request, as a Request
+   * @return true if the driver is handed off
+   */
+  boolean leaves(Request request);
+
+  /**
+   * hand a driver off
+   * @param request the request the driver is assigned to, as a Request
+   * @param driver the driver, as a Driver
+   * @param finishTime the time the ride finishes in epoch seconds, as a long
+   */
+  void handOff(Request request, Driver driver, long finishTime);
+}
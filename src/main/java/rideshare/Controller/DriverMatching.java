@@ -0,0 +1,10 @@
+package rideshare.Controller;
+
+/**
+ * Enum for how the simulator picks an idle driver for a request.
+ */
+public enum DriverMatching {
+
+  LONGEST_IDLE, // the driver idle for the longest time, regardless of position
+  NEAREST; // the idle driver nearest to the start of the request, through a SpatialDriverIndex
+}
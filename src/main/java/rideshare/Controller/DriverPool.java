@@ -0,0 +1,174 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import rideshare.objects.Driver;
+
+/**
+ * DriverPool holds the idle drivers of a simulator, keyed by their dense driver id.
+ * The idle drivers form a doubly linked list threaded through int arrays indexed by driver id,
+ * so adding a driver, removing any driver and taking the longest idle driver are all O(1),
+ * and the number of idle drivers is the size of the pool itself.
+ * Drivers are taken longest idle first, in the order they were added.
+ */
+public class DriverPool {
+
+  private static final int NONE = -1;
+  private static final int NOT_IDLE = -2; // previous of a driver that is not in the pool
+
+  private Driver[] drivers;
+  private int[] previous;
+  private int[] next;
+  private int head = NONE;
+  private int tail = NONE;
+  private int size;
+
+  /**
+   * Constructor of DriverPool
+   * @param expectedDrivers the expected largest driver id plus one, as an int
+   */
+  public DriverPool(int expectedDrivers) {
+    int capacity = Math.max(16, expectedDrivers);
+    this.drivers = new Driver[capacity];
+    this.previous = new int[capacity];
+    this.next = new int[capacity];
+    Arrays.fill(previous, NOT_IDLE);
+  }
+
+  /**
+   * add an idle driver, after every other idle driver
+   * @param driver the driver, with a driver id of at least 0, as a Driver
+   * @throws IllegalArgumentException if the driver has no id
+   * @throws IllegalStateException if the driver is idle already
+   */
+  public void add(Driver driver) {
+    int id = driver.getId();
+    if (id < 0) {
+      throw new IllegalArgumentException("Driver has no id: " + driver);
+    }
+    if (id >= drivers.length) {
+      grow(id + 1);
+    }
+    if (previous[id] != NOT_IDLE) {
+      throw new IllegalStateException("Driver is idle already: " + driver);
+    }
+    drivers[id] = driver;
+    previous[id] = tail;
+    next[id] = NONE;
+    if (tail == NONE) {
+      head = id;
+    } else {
+      next[tail] = id;
+    }
+    tail = id;
+    size++;
+  }
+
+  /**
+   * remove an idle driver
+   * @param driver the driver, as a Driver
+   * @return true if the driver was idle
+   */
+  public boolean remove(Driver driver) {
+    int id = driver.getId();
+    if (!contains(id)) {
+      return false;
+    }
+    int before = previous[id];
+    int after = next[id];
+    if (before == NONE) {
+      head = after;
+    } else {
+      next[before] = after;
+    }
+    if (after == NONE) {
+      tail = before;
+    } else {
+      previous[after] = before;
+    }
+    previous[id] = NOT_IDLE;
+    drivers[id] = null;
+    size--;
+    return true;
+  }
+
+  /**
+   * get the longest idle driver without removing it
+   * @return the driver, or null if there's no idle driver
+   */
+  public Driver peek() {
+    return head == NONE ? null : drivers[head];
+  }
+
+  /**
+   * remove and return the longest idle driver
+   * @return the driver, or null if there's no idle driver
+   */
+  public Driver poll() {
+    Driver driver = peek();
+    if (driver != null) {
+      remove(driver);
+    }
+    return driver;
+  }
+
+  /**
+   * check if a driver is idle
+   * @param driver the driver, as a Driver
+   * @return true if the driver is in the pool
+   */
+  public boolean contains(Driver driver) {
+    return contains(driver.getId());
+  }
+
+  /**
+   * check if the driver with an id is idle
+   * @param id the driver id, as an int
+   * @return true if the driver is in the pool
+   */
+  private boolean contains(int id) {
+    return id >= 0 && id < drivers.length && previous[id] != NOT_IDLE;
+  }
+
+  /**
+   * get the number of idle drivers
+   * @return the number of idle drivers, as an int
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * check if there's no idle driver
+   * @return true if the pool is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * get the idle drivers, longest idle first
+   * @return a copy of the idle drivers, as a List of Driver
+   */
+  public List<Driver> toList() {
+    List<Driver> list = new ArrayList<>(size);
+    for (int id = head; id != NONE; id = next[id]) {
+      list.add(drivers[id]);
+    }
+    return list;
+  }
+
+  /**
+   * grow the arrays to hold a driver id
+   * @param minimumCapacity the largest driver id plus one, as an int
+   */
+  private void grow(int minimumCapacity) {
+    int capacity = Math.max(minimumCapacity, drivers.length * 2);
+    int oldCapacity = drivers.length;
+    drivers = Arrays.copyOf(drivers, capacity);
+    previous = Arrays.copyOf(previous, capacity);
+    next = Arrays.copyOf(next, capacity);
+    Arrays.fill(previous, oldCapacity, capacity, NOT_IDLE);
+  }
+}
@@ -0,0 +1,198 @@
+package rideshare.Controller;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import rideshare.objects.Request;
+
+/**
+ * IndexedWaitingHeap is a waiting queue for any order of the waiting requests: a binary heap like
+ * PriorityQueue, which also records the slot of every request in its waiting index, so a
+ * request can be removed or moved after a change of its effective priority in O(log n) instead
+ * of the O(n) search of PriorityQueue.remove. The simulator keeps its active requests in one as
+ * well, ordered by actual arrival, which a shared ride can move.
+ * The iterator returns the requests in polling order, so a queue rebuilt from it polls like the
+ * original.
+ */
+public class IndexedWaitingHeap extends AbstractQueue<Request> implements WaitingQueue {
+
+  private final Comparator<Request> order;
+  private Request[] heap = new Request[16];
+  private int size;
+
+  /**
+   * Constructor of IndexedWaitingHeap
+   * @param order the order of the waiting requests, the first served first,
+   *     as a Comparator of Request
+   */
+  public IndexedWaitingHeap(Comparator<Request> order) {
+    this.order = order;
+  }
+
+  /**
+   * add a waiting request
+   * @param request the request, as a Request
+   * @return true
+   * @throws IllegalStateException if the request is in this queue already
+   */
+  @Override
+  public boolean offer(Request request) {
+    if (contains(request)) {
+      throw new IllegalStateException("Request is waiting already: " + request);
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    siftUp(size++, request);
+    return true;
+  }
+
+  @Override
+  public Request poll() {
+    return size == 0 ? null : removeAt(0);
+  }
+
+  @Override
+  public Request peek() {
+    return size == 0 ? null : heap[0];
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof Request)) {
+      return false;
+    }
+    int slot = ((Request) o).getWaitingIndex();
+    return slot >= 0 && slot < size && heap[slot] == o;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!contains(o)) {
+      return false;
+    }
+    removeAt(((Request) o).getWaitingIndex());
+    return true;
+  }
+
+  @Override
+  public boolean changePriority(Request request, int effectivePriority) {
+    if (!contains(request)) {
+      return false;
+    }
+    request.setEffectivePriority(effectivePriority);
+    return update(request);
+  }
+
+  /**
+   * move a request to its place after a change of what the order compares, in O(log n)
+   * @param request the request, as a Request
+   * @return true if the request is in this queue, false if it is not
+   */
+  public boolean update(Request request) {
+    if (!contains(request)) {
+      return false;
+    }
+    int slot = request.getWaitingIndex();
+    siftDown(slot, request);
+    if (heap[slot] == request) {
+      siftUp(slot, request);
+    }
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      heap[i].setWaitingIndex(-1);
+      heap[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * iterate over the waiting requests in the order they would be polled. The iterator sorts a
+   * snapshot of the queue, taking O(n log n), and does not support removing.
+   * @return the iterator, as an Iterator of Request
+   */
+  @Override
+  public Iterator<Request> iterator() {
+    Request[] ordered = Arrays.copyOf(heap, size);
+    Arrays.sort(ordered, order);
+    return Arrays.asList(ordered).iterator();
+  }
+
+  /**
+   * remove the request in a slot
+   * @param slot the slot, as an int
+   * @return the request, as a Request
+   */
+  private Request removeAt(int slot) {
+    Request removed = heap[slot];
+    removed.setWaitingIndex(-1);
+    size--;
+    Request last = heap[size];
+    heap[size] = null;
+    if (slot < size) {
+      siftDown(slot, last);
+      if (heap[slot] == last) {
+        siftUp(slot, last);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * move a request up from a free slot to its place
+   * @param i the free slot, as an int
+   * @param request the request, as a Request
+   */
+  private void siftUp(int i, Request request) {
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (order.compare(request, heap[parent]) >= 0) {
+        break;
+      }
+      set(i, heap[parent]);
+      i = parent;
+    }
+    set(i, request);
+  }
+
+  /**
+   * move a request down from a free slot to its place
+   * @param i the free slot, as an int
+   * @param request the request, as a Request
+   */
+  private void siftDown(int i, Request request) {
+    int half = size >>> 1; // slots below have a child
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+        child++;
+      }
+      if (order.compare(request, heap[child]) <= 0) {
+        break;
+      }
+      set(i, heap[child]);
+      i = child;
+    }
+    set(i, request);
+  }
+
+  /**
+   * put a request into a slot and record the slot in the request
+   * @param i the slot, as an int
+   * @param request the request, as a Request
+   */
+  private void set(int i, Request request) {
+    heap[i] = request;
+    request.setWaitingIndex(i);
+  }
+}
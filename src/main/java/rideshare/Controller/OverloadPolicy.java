@@ -0,0 +1,13 @@
+package rideshare.Controller;
+
+/**
+ * Enum for what the simulator does with a request that has to wait while the waiting requests
+ * are over their limits, see SimulationConfig.setMaxWaitingRequests and
+ * SimulationConfig.setMaxPredictedWaitSeconds.
+ */
+public enum OverloadPolicy {
+
+  REJECT, // the new request is rejected
+  SHED_LOWEST_PRIORITY, // the newest waiting request of the lowest ride type below it is rejected
+  DEFER; // the new request is requested again later, see SimulationConfig.setDeferSeconds
+}
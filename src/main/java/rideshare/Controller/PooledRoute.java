@@ -0,0 +1,446 @@
+package rideshare.Controller;
+
+import java.util.Arrays;
+import java.util.List;
+import rideshare.Routing.TravelTimes;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * PooledRoute is the ordered list of stops of a driver with seat capacity: a pickup and a dropoff
+ * per passenger, each with its scheduled time, and a latest time for every dropoff. It starts at
+ * an origin, the position of the driver at a known time, which moves along the route as the
+ * driver passes stops, so a new passenger can be picked up before the next stop.
+ *
+ * Scheduled times only ever move later: an insertion shifts the stops after its pickup, and again
+ * the stops after its dropoff, by the time it adds there, or not at all if it adds none.
+ * Because of that the cheapest insertion is found from the slack of the stops, the time left
+ * before their latest time, in O(m^2) for m stops instead of rescheduling the route for every
+ * pair of positions.
+ */
+class PooledRoute {
+
+  private static final double NO_LIMIT = Double.POSITIVE_INFINITY;
+
+  private final Driver driver;
+  private final int seatCapacity;
+  private final TravelTimes travelTimes;
+  private Location origin;
+  // slot 0 is the origin, with no request; the stops follow
+  private Request[] requests = new Request[8];
+  private boolean[] pickups = new boolean[8];
+  private double[] times = new double[8];
+  private double[] latestTimes = new double[8];
+  private int size = 1;
+
+  // the cheapest insertion found last, see findCheapestInsertion
+  private int pickupAfter;
+  private int dropoffAfter;
+  private double pickupShift;
+  private double dropoffShift;
+  private double insertedPickupTime;
+  private double insertedDropoffTime;
+
+  /**
+   * Constructor of PooledRoute, without stops
+   * @param driver the driver of the route, as a Driver
+   * @param seatCapacity the number of passengers the driver can carry at once, as an int
+   * @param travelTimes the driving times between stops, as a TravelTimes
+   */
+  PooledRoute(Driver driver, int seatCapacity, TravelTimes travelTimes) {
+    this.driver = driver;
+    this.seatCapacity = seatCapacity;
+    this.travelTimes = travelTimes;
+    latestTimes[0] = NO_LIMIT;
+  }
+
+  /**
+   * start the route of an idle driver with a single passenger, from the position of the driver
+   * @param request the passenger, as a Request
+   * @param now the current time in epoch seconds, as a long
+   * @param latestDropoffTime the latest time of the dropoff in epoch seconds, as a double
+   */
+  void start(Request request, long now, double latestDropoffTime) {
+    Arrays.fill(requests, 0, size, null);
+    size = 1;
+    setOrigin(driver.getPosition(), now);
+    double pickupTime = now + travelTimes.travelSeconds(driver.getPosition(),
+        request.getStartCoordinates());
+    add(request, true, pickupTime, NO_LIMIT);
+    add(request, false, pickupTime + request.getRidingSeconds(), latestDropoffTime);
+  }
+
+  /**
+   * set the origin of the route, e.g. when restoring a route from a SimulationCheckpoint
+   * @param location the position of the driver, or null if unknown, as a Location
+   * @param time the time the driver is there in epoch seconds, as a double
+   */
+  void setOrigin(Location location, double time) {
+    origin = location;
+    times[0] = time;
+  }
+
+  /**
+   * append a stop, e.g. when restoring a route from a SimulationCheckpoint
+   * @param request the passenger of the stop, as a Request
+   * @param pickup true for a pickup, false for a dropoff
+   * @param time the scheduled time in epoch seconds, as a double
+   * @param latestTime the latest time in epoch seconds, infinite for a pickup, as a double
+   */
+  void add(Request request, boolean pickup, double time, double latestTime) {
+    if (size == requests.length) {
+      grow(size + 1);
+    }
+    setStop(size++, request, pickup, time, latestTime);
+  }
+
+  /**
+   * move the origin to the position of the driver now: past the pickups it has passed, and then
+   * along the straight line to the next stop. Dropoffs are only passed by dropOff, when their
+   * ride finishes.
+   * @param now the current time in epoch seconds, as a long
+   */
+  void advance(long now) {
+    passPickups(now);
+    Location next = getNextLocation();
+    if (now > times[0] && next != null && origin != null) {
+      double fraction = Math.min(1, (now - times[0]) / (times[1] - times[0]));
+      setOrigin(new Location(origin.getX() + fraction * (next.getX() - origin.getX()),
+          origin.getY() + fraction * (next.getY() - origin.getY())), now);
+    }
+  }
+
+  /**
+   * remove the dropoff of a passenger whose ride finished, and the pickups passed before it.
+   * If it was the next stop then, the driver is there now, so it becomes the origin.
+   * @param request the passenger, as a Request
+   * @return true if the passenger was on this route
+   */
+  boolean dropOff(Request request) {
+    int slot = 1;
+    while (slot < size && (pickups[slot] || requests[slot] != request)) {
+      slot++;
+    }
+    if (slot == size) {
+      return false;
+    }
+    slot -= passPickups(times[slot]);
+    if (slot == 1) {
+      setOrigin(locationOf(1), times[1]);
+    }
+    removeStops(slot, 1);
+    return true;
+  }
+
+  /**
+   * remove the pickups at the front of the route the driver has passed by a time, moving the
+   * origin to the last of them
+   * @param time the time in epoch seconds, as a double
+   * @return the number of pickups removed, as an int
+   */
+  private int passPickups(double time) {
+    int passed = 0;
+    while (passed + 1 < size && pickups[passed + 1] && times[passed + 1] <= time) {
+      passed++;
+    }
+    if (passed > 0) {
+      setOrigin(locationOf(passed), times[passed]);
+      removeStops(1, passed);
+    }
+    return passed;
+  }
+
+  /**
+   * find the cheapest feasible way to insert a new passenger after the origin: the seats are
+   * never exceeded, and no dropoff, the new one included, is later than its latest time.
+   * Pickup positions are tried in route order, and the search stops at the first stop too late
+   * to still reach the new dropoff in time.
+   * The insertion found is kept for insertCheapest.
+   * @param request the new passenger, with coordinates, as a Request
+   * @param latestDropoffTime the latest time of the new dropoff in epoch seconds, as a double
+   * @return the driving seconds the insertion adds to the route, or infinity if the passenger
+   *     can't be inserted, as a double
+   */
+  double findCheapestInsertion(Request request, double latestDropoffTime) {
+    double bestCost = NO_LIMIT;
+    Location start = request.getStartCoordinates();
+    Location end = request.getEndCoordinates();
+    double directSeconds = travelTimes.travelSeconds(start, end);
+
+    // slack from every slot to the end of the route, the most its stops can be shifted
+    double[] slackFrom = new double[size + 1];
+    slackFrom[size] = NO_LIMIT;
+    int load = 0; // passengers on board at the origin
+    for (int k = size - 1; k >= 0; k--) {
+      slackFrom[k] = Math.min(slackFrom[k + 1], latestTimes[k] - times[k]);
+      load -= loadChange(k);
+    }
+
+    for (int i = 0; i < size && times[i] + directSeconds <= latestDropoffTime; i++) {
+      load += loadChange(i); // on board after slot i
+      if (load >= seatCapacity) {
+        continue;
+      }
+      double pickupTime = times[i] + travelTimes.travelSeconds(locationOf(i), start);
+      if (pickupTime + directSeconds > latestDropoffTime) {
+        continue;
+      }
+
+      // dropoff right after the pickup
+      double dropoffTime = pickupTime + request.getRidingSeconds();
+      double shift = i + 1 < size
+          ? Math.max(0, dropoffTime + secondsTo(end, i + 1) - times[i + 1]) : 0;
+      double cost = i + 1 < size ? shift : dropoffTime - times[i];
+      if (dropoffTime <= latestDropoffTime && shift <= slackFrom[i + 1] && cost < bestCost) {
+        bestCost = cost;
+        keep(i, i, 0, shift, pickupTime, dropoffTime);
+      }
+      if (i + 1 == size) {
+        break;
+      }
+
+      // dropoff after a later stop j: the stops in between are shifted by the pickup
+      double shiftAfterPickup =
+          Math.max(0, pickupTime + secondsTo(start, i + 1) - times[i + 1]);
+      double slackBetween = NO_LIMIT;
+      int loadBetween = load;
+      for (int j = i + 1; j < size && times[j] + shiftAfterPickup <= latestDropoffTime; j++) {
+        loadBetween += loadChange(j);
+        slackBetween = Math.min(slackBetween, latestTimes[j] - times[j]);
+        if (loadBetween >= seatCapacity || shiftAfterPickup > slackBetween) {
+          break;
+        }
+        dropoffTime = times[j] + shiftAfterPickup
+            + travelTimes.travelSeconds(locationOf(j), end);
+        shift = j + 1 < size
+            ? Math.max(0, dropoffTime + secondsTo(end, j + 1) - times[j + 1]) : 0;
+        cost = j + 1 < size ? shift : dropoffTime - times[j];
+        if (dropoffTime <= latestDropoffTime && shift <= slackFrom[j + 1] && cost < bestCost) {
+          bestCost = cost;
+          keep(i, j, shiftAfterPickup, shift, pickupTime, dropoffTime);
+        }
+      }
+    }
+    return bestCost;
+  }
+
+  /**
+   * insert a new passenger where findCheapestInsertion found it, shifting the later stops.
+   * The passengers whose dropoff moved to a later second get that second as their actual arrival
+   * and are added to a list, so their rides can be rescheduled.
+   * @param request the new passenger, the one findCheapestInsertion was called with last,
+   *     as a Request
+   * @param latestDropoffTime the latest time of the new dropoff in epoch seconds, as a double
+   * @param delayed the list to add the delayed passengers to, as a List of Request
+   * @return the time of the new dropoff in epoch seconds, as a double
+   */
+  double insertCheapest(Request request, double latestDropoffTime, List<Request> delayed) {
+    for (int k = pickupAfter + 1; k < size; k++) {
+      long arrival = (long) times[k];
+      times[k] += k <= dropoffAfter ? pickupShift : dropoffShift;
+      if (!pickups[k] && (long) times[k] != arrival) {
+        requests[k].setActualArrivalEpochSecond((long) times[k]);
+        delayed.add(requests[k]);
+      }
+    }
+    if (size + 2 > requests.length) {
+      grow(size + 2);
+    }
+    moveStops(dropoffAfter + 1, dropoffAfter + 3, size - dropoffAfter - 1);
+    moveStops(pickupAfter + 1, pickupAfter + 2, dropoffAfter - pickupAfter);
+    setStop(pickupAfter + 1, request, true, insertedPickupTime, NO_LIMIT);
+    setStop(dropoffAfter + 2, request, false, insertedDropoffTime, latestDropoffTime);
+    size += 2;
+    return insertedDropoffTime;
+  }
+
+  /**
+   * check if the route has no stops left
+   * @return true if the route is empty
+   */
+  boolean isEmpty() {
+    return size == 1;
+  }
+
+  /**
+   * get the number of stops left
+   * @return the number of stops, as an int
+   */
+  int size() {
+    return size - 1;
+  }
+
+  /**
+   * get the driver of the route
+   * @return the driver, as a Driver
+   */
+  Driver getDriver() {
+    return driver;
+  }
+
+  /**
+   * get the origin of the route
+   * @return the position of the driver at the origin time, or null if unknown, as a Location
+   */
+  Location getOrigin() {
+    return origin;
+  }
+
+  /**
+   * get the time the driver is at the origin
+   * @return the time in epoch seconds, as a double
+   */
+  double getOriginTime() {
+    return times[0];
+  }
+
+  /**
+   * get the passenger of a stop
+   * @param stop the stop, from 0 for the next one, as an int
+   * @return the passenger, as a Request
+   */
+  Request getRequest(int stop) {
+    return requests[stop + 1];
+  }
+
+  /**
+   * check if a stop is a pickup
+   * @param stop the stop, from 0 for the next one, as an int
+   * @return true for a pickup, false for a dropoff
+   */
+  boolean isPickup(int stop) {
+    return pickups[stop + 1];
+  }
+
+  /**
+   * get the scheduled time of a stop
+   * @param stop the stop, from 0 for the next one, as an int
+   * @return the time in epoch seconds, as a double
+   */
+  double getTime(int stop) {
+    return times[stop + 1];
+  }
+
+  /**
+   * get the latest time of a stop
+   * @param stop the stop, from 0 for the next one, as an int
+   * @return the time in epoch seconds, infinite for a pickup, as a double
+   */
+  double getLatestTime(int stop) {
+    return latestTimes[stop + 1];
+  }
+
+  /**
+   * get the location of the next stop
+   * @return the location, or null if the route is empty or the ride has no coordinates,
+   *     as a Location
+   */
+  Location getNextLocation() {
+    return size > 1 ? locationOf(1) : null;
+  }
+
+  /**
+   * get the location of a slot: the origin, the start of the ride for a pickup and its end for
+   * a dropoff
+   * @param slot the slot, 0 for the origin, as an int
+   * @return the location, or null if unknown, as a Location
+   */
+  private Location locationOf(int slot) {
+    if (slot == 0) {
+      return origin;
+    }
+    return pickups[slot] ? requests[slot].getStartCoordinates()
+        : requests[slot].getEndCoordinates();
+  }
+
+  /**
+   * get the change of the passengers on board at a slot
+   * @param slot the slot, as an int
+   * @return 1 for a pickup, -1 for a dropoff and 0 for the origin, as an int
+   */
+  private int loadChange(int slot) {
+    return slot == 0 ? 0 : pickups[slot] ? 1 : -1;
+  }
+
+  /**
+   * get the driving time from a location to a slot
+   * @param location the location, as a Location
+   * @param slot the slot, as an int
+   * @return the driving time in seconds, or 0 if the slot has no location, as a double
+   */
+  private double secondsTo(Location location, int slot) {
+    return travelTimes.travelSeconds(location, locationOf(slot));
+  }
+
+  /**
+   * keep an insertion found by findCheapestInsertion
+   * @param pickupAfter the slot the new pickup follows, as an int
+   * @param dropoffAfter the slot the new dropoff follows, the pickup's if equal, as an int
+   * @param pickupShift the shift of the stops between the pickup and the dropoff, as a double
+   * @param dropoffShift the shift of the stops after the dropoff, as a double
+   * @param pickupTime the time of the new pickup, as a double
+   * @param dropoffTime the time of the new dropoff, as a double
+   */
+  private void keep(int pickupAfter, int dropoffAfter, double pickupShift, double dropoffShift,
+      double pickupTime, double dropoffTime) {
+    this.pickupAfter = pickupAfter;
+    this.dropoffAfter = dropoffAfter;
+    this.pickupShift = pickupShift;
+    this.dropoffShift = dropoffShift;
+    this.insertedPickupTime = pickupTime;
+    this.insertedDropoffTime = dropoffTime;
+  }
+
+  /**
+   * remove stops
+   * @param from the slot of the first stop, as an int
+   * @param count the number of stops, as an int
+   */
+  private void removeStops(int from, int count) {
+    moveStops(from + count, from, size - from - count);
+    Arrays.fill(requests, size - count, size, null);
+    size -= count;
+  }
+
+  /**
+   * move a range of slots
+   * @param from the first slot of the range, as an int
+   * @param to the slot to move it to, as an int
+   * @param count the number of slots, as an int
+   */
+  private void moveStops(int from, int to, int count) {
+    System.arraycopy(requests, from, requests, to, count);
+    System.arraycopy(pickups, from, pickups, to, count);
+    System.arraycopy(times, from, times, to, count);
+    System.arraycopy(latestTimes, from, latestTimes, to, count);
+  }
+
+  /**
+   * set the stop in a slot
+   * @param slot the slot, as an int
+   * @param request the passenger, as a Request
+   * @param pickup true for a pickup, false for a dropoff
+   * @param time the scheduled time, as a double
+   * @param latestTime the latest time, as a double
+   */
+  private void setStop(int slot, Request request, boolean pickup, double time,
+      double latestTime) {
+    requests[slot] = request;
+    pickups[slot] = pickup;
+    times[slot] = time;
+    latestTimes[slot] = latestTime;
+  }
+
+  /**
+   * grow the slot arrays
+   * @param minimumCapacity the number of slots needed, as an int
+   */
+  private void grow(int minimumCapacity) {
+    int capacity = Math.max(minimumCapacity, 2 * requests.length);
+    requests = Arrays.copyOf(requests, capacity);
+    pickups = Arrays.copyOf(pickups, capacity);
+    times = Arrays.copyOf(times, capacity);
+    latestTimes = Arrays.copyOf(latestTimes, capacity);
+  }
+}
@@ -0,0 +1,390 @@
+package rideshare.Controller;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import rideshare.objects.Request;
+
+/**
+ * PriorityLevelQueue is a waiting queue for the small range of request priorities. Every priority
+ * level has its own binary heap ordered by estimated arrival time, and a bit mask of the non-empty
+ * levels finds the best level in O(1). A heap entry is the request and one long key packing the
+ * estimated arrival (high 32 bits, relative to the first request added) with the insertion order
+ * (low 32 bits), so a sift compares one long instead of calling a Comparator.
+ *
+ * Requests come out in the order of WaitingComparator: highest effective priority first, then
+ * earliest estimated arrival. Requests equal in both, which WaitingComparator leaves unordered,
+ * come out in the order they were added; a request keeps its place in that order when its
+ * priority is changed. The iterator returns the requests in polling order, so a queue rebuilt
+ * from it, e.g. from a SimulationCheckpoint, polls exactly like the original.
+ * The waiting index of a request holds its level in the low 5 bits and its slot in the heap above.
+ */
+public class PriorityLevelQueue extends AbstractQueue<Request> implements WaitingQueue {
+
+  private static final long SEQUENCE_MASK = 0xFFFFFFFFL;
+  private static final int LEVEL_BITS = 5;
+  private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+
+  private final int maxPriority;
+  private final Level[] levels; // levels[0] holds maxPriority
+  private int nonEmptyLevels; // bit i is set if levels[i] is not empty
+  private long origin = Long.MIN_VALUE; // the estimated arrival keys are relative to
+  private long sequence; // insertion order, to break ties
+  private int size;
+
+  /**
+   * Constructor of PriorityLevelQueue for the priorities a Request can have
+   */
+  public PriorityLevelQueue() {
+    this(Request.MIN_PRIORITY, Request.MAX_PRIORITY);
+  }
+
+  /**
+   * Constructor of PriorityLevelQueue for a range of priorities
+   * @param minPriority the lowest priority, as an int
+   * @param maxPriority the highest priority, at most 31 above the lowest, as an int
+   */
+  public PriorityLevelQueue(int minPriority, int maxPriority) {
+    int numberOfLevels = maxPriority - minPriority + 1;
+    if (numberOfLevels < 1 || numberOfLevels > Integer.SIZE) {
+      throw new IllegalArgumentException("Unsupported priority range " + minPriority + ".."
+          + maxPriority);
+    }
+    this.maxPriority = maxPriority;
+    this.levels = new Level[numberOfLevels];
+    for (int i = 0; i < numberOfLevels; i++) {
+      levels[i] = new Level(i);
+    }
+  }
+
+  /**
+   * add a waiting request
+   * @param request the request, as a Request
+   * @return true
+   * @throws IllegalArgumentException if the effective priority of the request is out of range,
+   *     or its estimated arrival is more than 68 years away from that of the first request added
+   * @throws IllegalStateException if the request is in this queue already
+   */
+  @Override
+  public boolean offer(Request request) {
+    int level = levelOf(request.getEffectivePriority());
+    long arrival = request.getEstimatedArrivalEpochSecond();
+    if (origin == Long.MIN_VALUE) {
+      origin = arrival;
+    }
+    long offset = arrival - origin;
+    if (offset != (int) offset) {
+      throw new IllegalArgumentException("Estimated arrival out of range: " + arrival);
+    }
+    if (findLevel(request) != -1) {
+      throw new IllegalStateException("Request is waiting already: " + request);
+    }
+    if (sequence > SEQUENCE_MASK) {
+      renumber();
+    }
+    levels[level].add(request, (offset << Integer.SIZE) | sequence++);
+    nonEmptyLevels |= 1 << level;
+    size++;
+    return true;
+  }
+
+  @Override
+  public Request poll() {
+    if (size == 0) {
+      return null;
+    }
+    int level = Integer.numberOfTrailingZeros(nonEmptyLevels);
+    Request request = levels[level].removeAt(0);
+    removed(level);
+    return request;
+  }
+
+  @Override
+  public Request peek() {
+    if (size == 0) {
+      return null;
+    }
+    return levels[Integer.numberOfTrailingZeros(nonEmptyLevels)].requests[0];
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return findLevel(o) != -1;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int level = findLevel(o);
+    if (level == -1) {
+      return false;
+    }
+    levels[level].removeAt(((Request) o).getWaitingIndex() >>> LEVEL_BITS);
+    removed(level);
+    return true;
+  }
+
+  /**
+   * change the effective priority of a waiting request and move it to the level of that priority
+   * @param request the request, as a Request
+   * @param effectivePriority the new effective priority, as an int
+   * @return true if the request is in this queue, false if it is not and nothing was changed
+   * @throws IllegalArgumentException if the priority is out of range
+   */
+  @Override
+  public boolean changePriority(Request request, int effectivePriority) {
+    int newLevel = levelOf(effectivePriority);
+    int level = findLevel(request);
+    if (level == -1) {
+      return false;
+    }
+    if (newLevel != level) {
+      int slot = request.getWaitingIndex() >>> LEVEL_BITS;
+      long key = levels[level].keys[slot];
+      levels[level].removeAt(slot);
+      if (levels[level].size == 0) {
+        nonEmptyLevels &= ~(1 << level);
+      }
+      levels[newLevel].add(request, key);
+      nonEmptyLevels |= 1 << newLevel;
+    }
+    request.setEffectivePriority(effectivePriority);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (Level level : levels) {
+      level.clear();
+    }
+    nonEmptyLevels = 0;
+    sequence = 0;
+    size = 0;
+  }
+
+  /**
+   * iterate over the waiting requests in the order they would be polled. The iterator sorts a
+   * snapshot of the queue, taking O(n log n), and does not support removing.
+   * @return the iterator, as an Iterator of Request
+   */
+  @Override
+  public Iterator<Request> iterator() {
+    Request[] ordered = new Request[size];
+    int count = 0;
+    for (Level level : levels) {
+      count = level.copySorted(ordered, count);
+    }
+    return Arrays.asList(ordered).iterator();
+  }
+
+  /**
+   * get the level of a priority
+   * @param priority the priority, as an int
+   * @return the level, as an int
+   * @throws IllegalArgumentException if the priority is out of range
+   */
+  private int levelOf(int priority) {
+    int level = maxPriority - priority;
+    if (level < 0 || level >= levels.length) {
+      throw new IllegalArgumentException("Priority out of range: " + priority);
+    }
+    return level;
+  }
+
+  /**
+   * find the level holding a request, from the waiting index of the request
+   * @param o the request, as an Object
+   * @return the level, or -1 if the request is not in this queue, as an int
+   */
+  private int findLevel(Object o) {
+    if (!(o instanceof Request)) {
+      return -1;
+    }
+    Request request = (Request) o;
+    int index = request.getWaitingIndex();
+    if (index < 0) {
+      return -1;
+    }
+    int level = index & LEVEL_MASK;
+    int slot = index >>> LEVEL_BITS;
+    if (level >= levels.length || slot >= levels[level].size
+        || levels[level].requests[slot] != request) {
+      return -1;
+    }
+    return level;
+  }
+
+  /**
+   * update the bit mask and size after a request was removed from a level
+   * @param level the level, as an int
+   */
+  private void removed(int level) {
+    if (levels[level].size == 0) {
+      nonEmptyLevels &= ~(1 << level);
+    }
+    if (--size == 0) {
+      sequence = 0;
+    }
+  }
+
+  /**
+   * number the waiting requests from 0 again in insertion order, for when the insertion order
+   * would overflow its 32 bits without the queue running empty. The keys keep their order within
+   * every level, so the heaps stay valid.
+   */
+  private void renumber() {
+    long[] sequences = new long[size];
+    int count = 0;
+    for (Level level : levels) {
+      for (int i = 0; i < level.size; i++) {
+        sequences[count++] = level.keys[i] & SEQUENCE_MASK;
+      }
+    }
+    Arrays.sort(sequences);
+    for (Level level : levels) {
+      for (int i = 0; i < level.size; i++) {
+        long renumbered = Arrays.binarySearch(sequences, level.keys[i] & SEQUENCE_MASK);
+        level.keys[i] = (level.keys[i] & ~SEQUENCE_MASK) | renumbered;
+      }
+    }
+    sequence = size;
+  }
+
+  /**
+   * A binary heap of the requests of one priority level, ordered by key.
+   */
+  private static class Level {
+
+    private final int number;
+    private Request[] requests = new Request[16];
+    private long[] keys = new long[16];
+    private int size;
+
+    /**
+     * Constructor of Level
+     * @param number the number of the level in the queue, as an int
+     */
+    Level(int number) {
+      this.number = number;
+    }
+
+    /**
+     * add a request
+     * @param request the request, as a Request
+     * @param key the estimated arrival and insertion order of the request, as a long
+     */
+    void add(Request request, long key) {
+      if (size == requests.length) {
+        requests = Arrays.copyOf(requests, size * 2);
+        keys = Arrays.copyOf(keys, size * 2);
+      }
+      siftUp(size++, request, key);
+    }
+
+    /**
+     * remove the request in a slot
+     * @param slot the slot, as an int
+     * @return the request, as a Request
+     */
+    Request removeAt(int slot) {
+      Request removed = requests[slot];
+      removed.setWaitingIndex(-1);
+      size--;
+      Request last = requests[size];
+      long key = keys[size];
+      requests[size] = null;
+      if (slot < size) {
+        siftDown(slot, last, key);
+        if (requests[slot] == last) {
+          siftUp(slot, last, key);
+        }
+      }
+      return removed;
+    }
+
+    /**
+     * move an entry up from a free slot to its place
+     * @param i the free slot, as an int
+     * @param request the request, as a Request
+     * @param key the key of the request, as a long
+     */
+    private void siftUp(int i, Request request, long key) {
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (keys[parent] <= key) {
+          break;
+        }
+        set(i, requests[parent], keys[parent]);
+        i = parent;
+      }
+      set(i, request, key);
+    }
+
+    /**
+     * move an entry down from a free slot to its place
+     * @param i the free slot, as an int
+     * @param request the request, as a Request
+     * @param key the key of the request, as a long
+     */
+    private void siftDown(int i, Request request, long key) {
+      int half = size >>> 1; // slots below have a child
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && keys[child + 1] < keys[child]) {
+          child++;
+        }
+        if (key <= keys[child]) {
+          break;
+        }
+        set(i, requests[child], keys[child]);
+        i = child;
+      }
+      set(i, request, key);
+    }
+
+    /**
+     * put an entry into a slot and record the slot in the request
+     * @param i the slot, as an int
+     * @param request the request, as a Request
+     * @param key the key of the request, as a long
+     */
+    private void set(int i, Request request, long key) {
+      requests[i] = request;
+      keys[i] = key;
+      request.setWaitingIndex((i << LEVEL_BITS) | number);
+    }
+
+    /**
+     * copy the requests in polling order
+     * @param target the array to copy to, as a Request[]
+     * @param offset the first slot to copy to, as an int
+     * @return the slot after the last copied request, as an int
+     */
+    int copySorted(Request[] target, int offset) {
+      Integer[] slots = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        slots[i] = i;
+      }
+      Arrays.sort(slots, (a, b) -> Long.compare(keys[a], keys[b]));
+      for (Integer slot : slots) {
+        target[offset++] = requests[slot];
+      }
+      return offset;
+    }
+
+    /**
+     * remove every request
+     */
+    void clear() {
+      for (int i = 0; i < size; i++) {
+        requests[i].setWaitingIndex(-1);
+        requests[i] = null;
+      }
+      size = 0;
+    }
+  }
+}
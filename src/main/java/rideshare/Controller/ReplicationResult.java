@@ -0,0 +1,81 @@
+package rideshare.Controller;
+
+/**
+ * ReplicationResult holds the metrics of one independent simulation run.
+ */
+public class ReplicationResult {
+
+  private final int replication;
+  private final long seed;
+  private final int finishedRequests;
+  private final double averageWaitingSeconds;
+  private final double averageRidingSeconds;
+
+  /**
+   * Constructor of ReplicationResult
+   * @param replication the index of the replication, as an int
+   * @param seed the seed of the replication's request stream, as a long
+   * @param finishedRequests the number of finished requests, as an int
+   * @param averageWaitingSeconds the average waiting seconds of the finished requests, as a double
+   * @param averageRidingSeconds the average riding seconds of the finished requests, as a double
+   */
+  public ReplicationResult(int replication, long seed, int finishedRequests,
+      double averageWaitingSeconds, double averageRidingSeconds) {
+    this.replication = replication;
+    this.seed = seed;
+    this.finishedRequests = finishedRequests;
+    this.averageWaitingSeconds = averageWaitingSeconds;
+    this.averageRidingSeconds = averageRidingSeconds;
+  }
+
+  /**
+   * get the index of the replication
+   * @return the index of the replication, as an int
+   */
+  public int getReplication() {
+    return replication;
+  }
+
+  /**
+   * get the seed of the replication
+   * @return the seed, as a long
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * get the number of finished requests
+   * @return the number of finished requests, as an int
+   */
+  public int getFinishedRequests() {
+    return finishedRequests;
+  }
+
+  /**
+   * get the average waiting time
+   * @return the average waiting seconds, as a double
+   */
+  public double getAverageWaitingSeconds() {
+    return averageWaitingSeconds;
+  }
+
+  /**
+   * get the average riding time
+   * @return the average riding seconds, as a double
+   */
+  public double getAverageRidingSeconds() {
+    return averageRidingSeconds;
+  }
+
+  @Override
+  public String toString() {
+    return "ReplicationResult{" +
+        "replication=" + replication +
+        ", seed=" + seed +
+        ", finishedRequests=" + finishedRequests +
+        ", averageWaitingSeconds=" + averageWaitingSeconds +
+        ", averageRidingSeconds=" + averageRidingSeconds +
+        '}';
+  }
+}
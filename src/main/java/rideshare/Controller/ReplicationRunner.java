@@ -0,0 +1,104 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import rideshare.objects.Request;
+
+/**
+ * ReplicationRunner runs independent replications of the same simulation in parallel.
+ * Each replication builds its own RideshareDispatchSimulator with its own seed, so replications
+ * share no mutable state and every replication can be reproduced from its seed alone.
+ */
+public class ReplicationRunner {
+
+  private final int numberOfDrivers;
+  private final int numberOfRequests;
+  private final SimulationConfig config;
+
+  /**
+   * Constructor of ReplicationRunner
+   * @param numberOfDrivers number of drivers of every replication, as an int
+   * @param numberOfRequests number of requests of every replication, as an int
+   * @param config the simulation options; its seed is replaced per replication, as a SimulationConfig
+   */
+  public ReplicationRunner(int numberOfDrivers, int numberOfRequests, SimulationConfig config) {
+    this.numberOfDrivers = numberOfDrivers;
+    this.numberOfRequests = numberOfRequests;
+    this.config = config.copy();
+  }
+
+  /**
+   * run the replications on a ForkJoinPool, one simulator per task
+   * @param replications number of replications, as an int
+   * @param baseSeed the seed the replication seeds are derived from, as a long
+   * @param parallelism number of worker threads, as an int
+   * @return the results ordered by replication index, as a List of ReplicationResult
+   */
+  public List<ReplicationResult> run(int replications, long baseSeed, int parallelism) {
+    long[] seeds = replicationSeeds(replications, baseSeed);
+    List<Callable<ReplicationResult>> tasks = new ArrayList<>();
+    for (int i = 0; i < replications; i++) {
+      int replication = i;
+      tasks.add(() -> runReplication(replication, seeds[replication]));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      List<ReplicationResult> results = new ArrayList<>();
+      for (Future<ReplicationResult> future : pool.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Replications were interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A replication failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * run a single replication
+   * @param replication the index of the replication, as an int
+   * @param seed the seed of the replication, as a long
+   * @return the result of the replication, as a ReplicationResult
+   */
+  public ReplicationResult runReplication(int replication, long seed) {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+        numberOfRequests, config.copy().setSeed(seed));
+    simulator.run();
+
+    List<Request> finishedRequests = simulator.getFinishedRequests();
+    long totalWaitingSeconds = 0;
+    double totalRidingSeconds = 0;
+    for (Request request : finishedRequests) {
+      totalWaitingSeconds += request.calculateWaitingSeconds();
+      totalRidingSeconds += request.getRidingSeconds();
+    }
+    int size = Math.max(1, finishedRequests.size());
+    return new ReplicationResult(replication, seed, finishedRequests.size(),
+        (double) totalWaitingSeconds / size, totalRidingSeconds / size);
+  }
+
+  /**
+   * derive one well-mixed seed per replication from the base seed
+   * @param replications number of replications, as an int
+   * @param baseSeed the base seed, as a long
+   * @return the replication seeds, as a long[]
+   */
+  public static long[] replicationSeeds(int replications, long baseSeed) {
+    SplittableRandom seedStream = new SplittableRandom(baseSeed);
+    long[] seeds = new long[replications];
+    for (int i = 0; i < replications; i++) {
+      seeds[i] = seedStream.nextLong();
+    }
+    return seeds;
+  }
+}
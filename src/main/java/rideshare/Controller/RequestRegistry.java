@@ -0,0 +1,155 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import rideshare.objects.Request;
+
+/**
+ * RequestRegistry gives every request of a simulator the next id and finds requests by id,
+ * e.g. for packed events, which only hold the id.
+ * Requests can be released once nothing refers to their id any more. Released ids at the front
+ * are dropped, so the registry only holds the span of ids from the oldest request in flight,
+ * in a circular array.
+ * Ids can also be referred to by their low bits only, an index, e.g. in a PackedEventQueue,
+ * as long as the span of ids held stays below the number of indexes: the id of an index is then
+ * the only held id with these low bits.
+ */
+class RequestRegistry {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Request[] slots = new Request[INITIAL_CAPACITY];
+  private int start; // slot of firstId
+  private int firstId; // smallest id held
+  private int count; // number of ids held, from firstId
+  private final int indexMask; // low bits of an id making its index
+
+  /**
+   * Constructor of RequestRegistry, with ids as their own indexes
+   */
+  RequestRegistry() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructor of RequestRegistry, with ids referred to by their low bits
+   * @param indexMask the low bits of an id making its index, one less than a power of two, as
+   *     an int
+   */
+  RequestRegistry(int indexMask) {
+    this.indexMask = indexMask;
+  }
+
+  /**
+   * register a request
+   * @param request the request, as a Request
+   * @return the id of the request, as an int
+   * @throws IllegalStateException if the span of ids held would reach the number of indexes
+   */
+  int register(Request request) {
+    if (count == indexMask) {
+      throw new IllegalStateException("Too many requests in flight since request " + firstId
+          + " to tell them apart by their " + Integer.bitCount(indexMask) + "-bit index");
+    }
+    if (count == slots.length) {
+      grow();
+    }
+    slots[(start + count) & (slots.length - 1)] = request;
+    return firstId + count++;
+  }
+
+  /**
+   * get a request by id
+   * @param id the id, as an int
+   * @return the request, as a Request
+   */
+  Request get(int id) {
+    int offset = id - firstId;
+    if (offset < 0 || offset >= count) {
+      throw new IndexOutOfBoundsException("Request id " + id + " is not registered");
+    }
+    return slots[(start + offset) & (slots.length - 1)];
+  }
+
+  /**
+   * get a request by id, if it is still held, e.g. for an event that may outlive its request
+   * @param id the id, as an int
+   * @return the request, or null if it was released, as a Request
+   */
+  Request find(int id) {
+    int offset = id - firstId;
+    if (offset < 0 || offset >= count) {
+      return null;
+    }
+    return slots[(start + offset) & (slots.length - 1)];
+  }
+
+  /**
+   * release a request, so it is not held any more
+   * @param id the id of the request, as an int
+   */
+  void release(int id) {
+    int offset = id - firstId;
+    if (offset < 0 || offset >= count) {
+      return;
+    }
+    slots[(start + offset) & (slots.length - 1)] = null;
+    while (count > 0 && slots[start] == null) {
+      start = (start + 1) & (slots.length - 1);
+      firstId++;
+      count--;
+    }
+  }
+
+  /**
+   * get the index of an id, its low bits
+   * @param id the id, as an int
+   * @return the index, as an int
+   */
+  int indexOf(int id) {
+    return id & indexMask;
+  }
+
+  /**
+   * get the id of an index: the id held with the same low bits, or the id with these low bits
+   * after the ids held, if the request was released. A released request is only mistaken for
+   * a later one if its index is looked up after as many newer requests as there are indexes.
+   * @param index the index, as an int
+   * @return the id, as an int
+   */
+  int idOf(int index) {
+    return firstId + ((index - firstId) & indexMask);
+  }
+
+  /**
+   * get the requests held, in id order, with null for released ones
+   * @return the requests, as a List of Request
+   */
+  List<Request> toList() {
+    List<Request> list = new ArrayList<>(count);
+    for (int offset = 0; offset < count; offset++) {
+      list.add(slots[(start + offset) & (slots.length - 1)]);
+    }
+    return list;
+  }
+
+  /**
+   * get the number of ids held, from the oldest request in flight
+   * @return the number of ids, as an int
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * double the capacity, moving the held requests to the start of the new array
+   */
+  private void grow() {
+    Request[] grown = new Request[slots.length * 2];
+    int firstPart = Math.min(count, slots.length - start);
+    System.arraycopy(slots, start, grown, 0, firstPart);
+    System.arraycopy(slots, 0, grown, firstPart, count - firstPart);
+    slots = grown;
+    start = 0;
+  }
+}
@@ -1,29 +1,136 @@
 package rideshare.Controller;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Random;
 import rideshare.Model.RequestGenerator;
+import rideshare.Routing.TravelTimes;
+import rideshare.Trace.EventTraceRecorder;
 import rideshare.objects.Request;
+import rideshare.Event.DriverArrivedEvent;
 import rideshare.Event.Event;
+import rideshare.Event.EventComparator;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
+import rideshare.Event.EventType;
+import rideshare.Event.PackedEventQueue;
+import rideshare.Event.RequestTimedOutEvent;
+import rideshare.Event.RideCancelledEvent;
 import rideshare.Event.RideFinishedEvent;
 import rideshare.Event.RideRequestedEvent;
 import rideshare.objects.Driver;
-import rideshare.objects.WaitingComparator;
+import rideshare.objects.Location;
+import rideshare.objects.RequestStore;
+import rideshare.objects.RideType;
+import rideshare.objects.TripLog;
 
 /**
  * RideshareDispatchSimulator is the main class of the simulation.
+ * In EventMode.PACKED, events are kept as longs in a PackedEventQueue instead of Event objects,
+ * and are dispatched through a switch on their type.
+ *
+ * Events are processed one tick (one second) at a time: all events of the tick are drained,
+ * finished rides release their drivers first, waiting requests are assigned to the released
+ * drivers in one pass, and then the new requests of the tick are handled in request id order,
+ * followed by cancellations and timeouts.
+ *
+ * Waiting requests age lazily: at the start of every tick, each request that has waited another
+ * full aging interval gets its effective priority raised in the waiting queue. The requests due
+ * for their next raise are found at the head of one FIFO per number of raises, which stay in
+ * request time order because requests start waiting at their request time. A deferred request
+ * starts waiting after newer requests, so it joins a small heap beside the FIFO instead, and
+ * both are polled in request time order, i.e. it ages from its request time like the others.
+ *
+ * With more than one seat per driver, every busy driver follows a PooledRoute and is kept in a
+ * second spatial index at its next stop. A new request is tried on the routes of the nearest busy
+ * drivers before it gets an idle driver of its own. Inserting it can delay the dropoffs of the
+ * passengers on the route; their rides get a new finishing event, and the old one is skipped
+ * when it comes up, as its time no longer matches the actual arrival of the request.
+ *
+ * Pickup, riding and shared ride times come from the TravelTimes of the config, straight lines
+ * by default. Other travel times, e.g. a road network, replace the riding time of every request
+ * with coordinates when it is registered; drivers are still matched by straight-line distance,
+ * and the travel times then decide the ETAs and, in a dispatch window, the cost of each match.
+ *
+ * With admission control, a request that has to wait while the waiting requests are at their
+ * limit, or while its predicted wait is too long, is rejected, takes the place of the newest
+ * waiting request of a lower priority ride type, or is deferred, i.e. requested again later with
+ * its original request time, see OverloadPolicy. The newest waiting requests of every ride type
+ * are found at the tail of one deque per type, from which requests that left the waiting
+ * requests are dropped lazily.
+ *
+ * A workload in a RequestStore is not copied up front: the rows are fed to the simulator as views
+ * when their request time comes, so only the requests in flight exist as objects, and the outcome
+ * of every ride is written to its row. A workload of pending trips in a TripLog is read trip by
+ * trip the same way, and finished requests can be kept in a TripLog too, along with the
+ * cancelled, timed out and rejected ones, so with both off the heap, the heap does not grow with
+ * the length of the simulation.
  */
 public class RideshareDispatchSimulator extends Simulation {
 
-  private Integer numberOfIdleDrivers;
-  private List<Driver> availableDrivers = new ArrayList<>();
+  private final EventMode eventMode;
+  private final PackedEventQueue packedEventQueue;
+  private static final Comparator<Request> REQUEST_TIME_ORDER =
+      Comparator.comparingLong(Request::getRequestEpochSecond).thenComparingInt(Request::getId);
+  private final Random random;
+  private final boolean retainFinishedRequests;
+  private final boolean finishedRequestsOffHeap; // retained in a TripLog
+  private final RequestRegistry requests; // by request id
+  private final List<Event> batch = new ArrayList<>(); // events of the current tick
+  private final EventComparator eventComparator = new EventComparator();
+  private final Map<Integer, Driver> arrivingDrivers = new HashMap<>(); // packed mode, by driver id
+  private DriverHandoff driverHandoff;
+  private DispatchListener dispatchListener;
+  private EventTraceRecorder eventTrace;
+  private final DriverPool idleDrivers;
+  private final DriverMatching driverMatching;
+  private final double citySizeMiles;
+  private final SpatialDriverIndex spatialIndex; // idle drivers by position, NEAREST only
+  private final long dispatchWindowSeconds; // 0 to dispatch immediately
+  private final TravelTimes travelTimes; // this simulator's own copy
+  private final int matchingCandidates;
+  private final AssignmentSolver assignmentSolver = new AssignmentSolver();
+  private int[] matchingColumn = new int[0]; // column of a driver in a dispatch window, by driver id
   private List<Request> finishedRequests = new ArrayList<>();
-  private PriorityQueue<Request> waitingRequests = new PriorityQueue<>(new WaitingComparator()); // sort by priority
-  private PriorityQueue<Request> activeRequests = new PriorityQueue<>(
-      Comparator.comparing(Request::getEstimatedArrivalTime)); // sort by arrival time
+  private final DispatchPolicy dispatchPolicy;
+  private final WaitingQueue waitingRequests; // sorted by the dispatch policy
+  private final long agingIntervalSeconds; // 0 for no aging
+  private final long maxWaitSeconds; // 0 for no timeout
+  private final List<ArrayDeque<Request>> agingQueues = new ArrayList<>(); // by number of raises
+  private final List<PriorityQueue<Request>> lateAgingQueues = new ArrayList<>(); // deferred
+  private List<Request> cancelledRequests = new ArrayList<>();
+  private List<Request> timedOutRequests = new ArrayList<>();
+  private double shortestRidingSeconds = Double.POSITIVE_INFINITY; // of registered requests
+  private long cancelledRequestCount;
+  private long timedOutRequestCount;
+  private final IndexedWaitingHeap activeRequests = new IndexedWaitingHeap(
+      Comparator.comparingLong(Request::getActualArrivalEpochSecond)
+          .thenComparingInt(Request::getId)); // sort by arrival time
+  private final int seatCapacity;
+  private final long maxDetourSeconds;
+  private final SpatialDriverIndex pooledDrivers; // busy drivers by next stop, with seats only
+  private PooledRoute[] routes = new PooledRoute[0]; // by driver id, with seats only
+  private final List<Request> delayedRequests = new ArrayList<>(); // by the last insertion
+  private final int maxWaitingRequests; // 0 for no limit
+  private final long maxPredictedWaitSeconds; // 0 for no limit
+  private final OverloadPolicy overloadPolicy;
+  private final long deferSeconds;
+  private final List<ArrayDeque<Request>> sheddableRequests = new ArrayList<>(); // by ride type
+  private int sheddableEntries; // in all the deques, including the ones no longer waiting
+  private List<Request> rejectedRequests = new ArrayList<>();
+  private long rejectedRequestCount;
+  private long deferredRequestCount;
+  private double averageServiceSeconds; // pickup and ride of the latest assignments, smoothed
+  private RequestStore workloadStore; // fed row by row, or null
+  private TripLog workloadTrips; // fed trip by trip, or null
+  private int nextWorkloadRow;
 
   /**
    * Constructor of RideshareDispatchSimulator
@@ -31,19 +138,169 @@ public class RideshareDispatchSimulator extends Simulation {
    * @param numberOfWaitingRequests number of waiting requests, as an Integer
    */
   public RideshareDispatchSimulator(Integer numberOfIdleDrivers, Integer numberOfWaitingRequests) {
-    super();
-    this.numberOfIdleDrivers = numberOfIdleDrivers;
-    initializeSimulation(numberOfIdleDrivers, numberOfWaitingRequests);
+    this(numberOfIdleDrivers, numberOfWaitingRequests, EventQueueType.HEAP);
   }
 
   /**
-   * initialize drivers and requests
-   * @param numberOfDrivers number of drivers, as an Integer
-   * @param numberOfRequests number of requests, as an Integer
+   * Constructor of RideshareDispatchSimulator with a given event queue implementation
+   * @param numberOfIdleDrivers number of idle drivers, as an Integer
+   * @param numberOfWaitingRequests number of waiting requests, as an Integer
+   * @param eventQueueType the event queue implementation to use, as an EventQueueType
+   */
+  public RideshareDispatchSimulator(Integer numberOfIdleDrivers, Integer numberOfWaitingRequests,
+      EventQueueType eventQueueType) {
+    this(numberOfIdleDrivers, numberOfWaitingRequests,
+        new SimulationConfig().setEventQueueType(eventQueueType));
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator with the given options
+   * @param numberOfIdleDrivers number of idle drivers, as an Integer
+   * @param numberOfWaitingRequests number of waiting requests, as an Integer
+   * @param config the simulation options, as a SimulationConfig
+   */
+  public RideshareDispatchSimulator(Integer numberOfIdleDrivers, Integer numberOfWaitingRequests,
+      SimulationConfig config) {
+    this(config, numberOfIdleDrivers);
+    initializeDrivers(numberOfIdleDrivers);
+    initializeRequests(numberOfWaitingRequests);
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator with a given workload.
+   * The workload is copied, so the same workload can be simulated many times.
+   * @param numberOfIdleDrivers number of idle drivers, as an Integer
+   * @param workload the requests to simulate, as a List of Request
+   * @param config the simulation options, as a SimulationConfig
+   */
+  public RideshareDispatchSimulator(Integer numberOfIdleDrivers, List<Request> workload,
+      SimulationConfig config) {
+    this(config, numberOfIdleDrivers);
+    initializeDrivers(numberOfIdleDrivers);
+    addWorkload(workload);
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator with a workload in a RequestStore.
+   * The rows are not copied: they are fed to the simulator as views when their request time
+   * comes, with their dispatch state cleared, and hold the outcome of the simulation afterwards.
+   * So a store can be simulated many times, but only by one simulator at a time.
+   * @param numberOfIdleDrivers number of idle drivers, as an Integer
+   * @param workload the requests to simulate, sorted by request time, as a RequestStore
+   * @param config the simulation options, as a SimulationConfig
+   * @throws IllegalArgumentException if the workload is not sorted by request time
+   */
+  public RideshareDispatchSimulator(Integer numberOfIdleDrivers, RequestStore workload,
+      SimulationConfig config) {
+    this(config, numberOfIdleDrivers);
+    if (!workload.isSortedByRequestTime()) {
+      throw new IllegalArgumentException(
+          "The workload must be sorted by request time, see RequestStore.sortByRequestTime");
+    }
+    initializeDrivers(numberOfIdleDrivers);
+    this.workloadStore = workload;
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator with a workload of pending trips in a TripLog,
+   * kept off the heap. Every trip is read into a new Request when its request time comes, so
+   * the log is left as it is and can be simulated many times, by many simulators at once.
+   * @param numberOfIdleDrivers number of idle drivers, as an Integer
+   * @param workload the trips to simulate, sorted by request time, as a TripLog
+   * @param config the simulation options, as a SimulationConfig
+   * @throws IllegalArgumentException if the workload is not sorted by request time
+   */
+  public RideshareDispatchSimulator(Integer numberOfIdleDrivers, TripLog workload,
+      SimulationConfig config) {
+    this(config, numberOfIdleDrivers);
+    if (!workload.isSortedByRequestTime()) {
+      throw new IllegalArgumentException(
+          "The workload must be sorted by request time, see TripLog.sortByRequestTime");
+    }
+    initializeDrivers(numberOfIdleDrivers);
+    this.workloadTrips = workload;
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator with given drivers and a given workload.
+   * The workload is copied, so the same workload can be simulated many times.
+   * @param drivers the idle drivers, as a List of Driver
+   * @param workload the requests to simulate, as a List of Request
+   * @param config the simulation options, as a SimulationConfig
    */
-  private void initializeSimulation(Integer numberOfDrivers, Integer numberOfRequests) {
-    initializeDrivers(numberOfDrivers);
-    initializeRequests(numberOfRequests);
+  public RideshareDispatchSimulator(List<Driver> drivers, List<Request> workload,
+      SimulationConfig config) {
+    this(config, drivers.size());
+    for (Driver driver : drivers) {
+      releaseDriver(driver);
+    }
+    addWorkload(workload);
+  }
+
+  /**
+   * Constructor of RideshareDispatchSimulator without drivers and requests,
+   * e.g. to be restored by SimulationCheckpoint
+   * @param config the simulation options, as a SimulationConfig
+   * @param numberOfIdleDrivers number of idle drivers expected, as an Integer
+   */
+  RideshareDispatchSimulator(SimulationConfig config, Integer numberOfIdleDrivers) {
+    super(config.getEventQueueType(), config.getStartTime());
+    this.eventMode = config.getEventMode();
+    this.packedEventQueue = eventMode == EventMode.PACKED ? new PackedEventQueue(startTime) : null;
+    // packed events only hold the low bits of request ids, so long runs don't run out of them
+    this.requests = eventMode == EventMode.PACKED
+        ? new RequestRegistry(PackedEventQueue.MAX_INDEX) : new RequestRegistry();
+    this.random = config.newRandom();
+    this.retainFinishedRequests = config.isRetainFinishedRequests();
+    this.finishedRequestsOffHeap = retainFinishedRequests && config.isFinishedRequestsOffHeap();
+    if (finishedRequestsOffHeap) {
+      this.finishedRequests = new TripLog();
+      this.cancelledRequests = new TripLog();
+      this.timedOutRequests = new TripLog();
+      this.rejectedRequests = new TripLog();
+    }
+    this.idleDrivers = new DriverPool(numberOfIdleDrivers);
+    this.driverMatching = config.getDriverMatching();
+    this.citySizeMiles = config.getCitySizeMiles();
+    this.spatialIndex = driverMatching == DriverMatching.NEAREST
+        ? SpatialDriverIndex.forCity(citySizeMiles, numberOfIdleDrivers) : null;
+    this.dispatchWindowSeconds = config.getDispatchWindowSeconds();
+    this.travelTimes = config.getTravelTimes().copy();
+    this.matchingCandidates = config.getMatchingCandidates();
+    this.dispatchPolicy = config.getDispatchPolicy();
+    this.waitingRequests = dispatchPolicy.newWaitingQueue();
+    this.agingIntervalSeconds = config.getAgingIntervalSeconds();
+    this.maxWaitSeconds = config.getMaxWaitSeconds();
+    for (int raises = 0; raises < Request.MAX_PRIORITY - Request.MIN_PRIORITY; raises++) {
+      agingQueues.add(new ArrayDeque<>());
+      lateAgingQueues.add(new PriorityQueue<>(REQUEST_TIME_ORDER));
+    }
+    this.seatCapacity = config.getSeatCapacity();
+    this.maxDetourSeconds = config.getMaxDetourSeconds();
+    if (seatCapacity > 1 && spatialIndex == null) {
+      throw new IllegalArgumentException("Shared rides need DriverMatching.NEAREST");
+    }
+    this.pooledDrivers = seatCapacity > 1
+        ? SpatialDriverIndex.forCity(citySizeMiles, numberOfIdleDrivers) : null;
+    this.maxWaitingRequests = config.getMaxWaitingRequests();
+    this.maxPredictedWaitSeconds = config.getMaxPredictedWaitSeconds();
+    this.overloadPolicy = config.getOverloadPolicy();
+    this.deferSeconds = config.getDeferSeconds();
+    if (overloadPolicy == OverloadPolicy.SHED_LOWEST_PRIORITY) {
+      for (int type = 0; type < RideType.values().length; type++) {
+        sheddableRequests.add(new ArrayDeque<>());
+      }
+    }
+  }
+
+  /**
+   * add copies of the requests of a workload
+   * @param workload the requests to simulate, as a List of Request
+   */
+  private void addWorkload(List<Request> workload) {
+    for (Request request : workload) {
+      addRequest(new Request(request));
+    }
   }
 
   /**
@@ -54,7 +311,7 @@ public class RideshareDispatchSimulator extends Simulation {
     for (int i = 0; i < numberOfDrivers; i++) {
       // generate random drivers
       String driverName = "Driver" + i;
-      availableDrivers.add(new Driver(driverName));
+      releaseDriver(new Driver(i, driverName));
     }
   }
 
@@ -66,62 +323,936 @@ public class RideshareDispatchSimulator extends Simulation {
   private void initializeRequests(Integer numberOfRequests) {
     for (int i = 0; i < numberOfRequests; i++) {
       // generate a random ride request i based on system starting time
-      Request newRequest = RequestGenerator.generateRandomRequest(i, this.time);
-      this.scheduleEvent(new RideRequestedEvent(newRequest.getRequestTime(), this, newRequest));
+      addRequest(RequestGenerator.generateRandomRequest(i, this.time, random));
     }
   }
 
   /**
-   * run the simulation. Process events in the eventQueue one by one until the eventQueue is empty.
-   * Poll the eventQueue, update the time, and process the event.
+   * register a request and schedule its requested event
+   * @param newRequest the request, as a Request
    */
-  public void run() {
-    while (!eventQueue.isEmpty()) {
-      Event currentEvent = eventQueue.poll();
-      this.time = currentEvent.time;
-      currentEvent.processEvent();
+  private void addRequest(Request newRequest) {
+    registerRequest(newRequest);
+    scheduleRideRequested(newRequest);
+  }
+
+  /**
+   * schedule the requested event of a registered request at its request time
+   * @param newRequest the request, as a Request
+   */
+  void scheduleRideRequested(Request newRequest) {
+    scheduleRideRequested(newRequest.getRequestEpochSecond(), newRequest);
+  }
+
+  /**
+   * schedule the requested event of a registered request, e.g. later than its request time
+   * when it is deferred
+   * @param requestedTime the time of the event in epoch seconds, as a long
+   * @param newRequest the request, as a Request
+   */
+  void scheduleRideRequested(long requestedTime, Request newRequest) {
+    if (eventMode == EventMode.PACKED) {
+      packedEventQueue.add(requestedTime, EventType.RIDE_REQUESTED,
+          requests.indexOf(newRequest.getId()));
+    } else {
+      this.scheduleEvent(new RideRequestedEvent(requestedTime, this, newRequest));
     }
+  }
+
+  /**
+   * give a request the next id, so it can be referred to by index
+   * @param request the request, as a Request
+   */
+  private void registerRequest(Request request) {
+    request.setId(requests.register(request));
+    if (travelTimes != TravelTimes.STRAIGHT_LINE && request.getStartCoordinates() != null
+        && request.getEndCoordinates() != null) {
+      request.setRidingSeconds(travelTimes.travelSeconds(request.getStartCoordinates(),
+          request.getEndCoordinates()));
+    }
+    shortestRidingSeconds = Math.min(shortestRidingSeconds, request.getRidingSeconds());
+  }
+
+  /**
+   * get the shortest riding time of the requests registered so far, with the riding times of
+   * the travel times, e.g. to bound how soon a ride assigned now can finish
+   * @return the riding time in seconds, or infinity if there's none, as a double
+   */
+  double getShortestRidingSeconds() {
+    return shortestRidingSeconds;
+  }
+
+  /**
+   * run the simulation. Process events in the eventQueue tick by tick until the eventQueue is empty.
+   * Drain the events of the next tick, update the time once, and process the tick.
+   */
+  public void run() {
+    runUntil(Long.MAX_VALUE);
 
     System.out.println("All events completes!");
   }
 
+  /**
+   * process every tick before the given time. Events scheduled at or after it stay in the queue.
+   * With a dispatch window, the end of a window is a tick too, even without events.
+   * @param endTime the time to stop at in epoch seconds, exclusive, as a long
+   */
+  public void runUntil(long endTime) {
+    long tick;
+    while ((tick = nextEventTime()) < endTime) {
+      if (workloadStore != null || workloadTrips != null) {
+        feedWorkload(tick);
+      }
+      if (agingIntervalSeconds > 0) {
+        ageWaitingRequests(tick);
+      }
+      if (nextQueuedEventTime() != tick) {
+        this.time = tick; // the end of a dispatch window without events
+      } else if (eventMode == EventMode.PACKED) {
+        processPackedTick();
+      } else {
+        this.time = tick;
+        while (!eventQueue.isEmpty() && eventQueue.peek().time == tick) {
+          batch.add(eventQueue.poll());
+        }
+        processBatch();
+      }
+      if (dispatchWindowSeconds > 0
+          && Math.floorMod(tick - startTime, dispatchWindowSeconds) == 0) {
+        dispatchWindow();
+      }
+    }
+  }
+
+  /**
+   * get the time of the next tick: the next event, or the end of the current dispatch window
+   * if requests and drivers are waiting for it
+   * @return the time of the next tick in epoch seconds, or Long.MAX_VALUE if there's none
+   */
+  public long nextEventTime() {
+    long next = nextQueuedEventTime();
+    if (workloadStore != null && nextWorkloadRow < workloadStore.size()) {
+      next = Math.min(next, workloadStore.getRequestEpochSecond(nextWorkloadRow));
+    }
+    if (workloadTrips != null && nextWorkloadRow < workloadTrips.size()) {
+      next = Math.min(next, workloadTrips.getRequestEpochSecond(nextWorkloadRow));
+    }
+    if (dispatchWindowSeconds > 0 && !waitingRequests.isEmpty() && !idleDrivers.isEmpty()) {
+      long windowEnd = startTime
+          + (Math.floorDiv(time - startTime, dispatchWindowSeconds) + 1) * dispatchWindowSeconds;
+      next = Math.min(next, windowEnd);
+    }
+    return next;
+  }
+
+  /**
+   * add the rows of the workload store requested by a tick, as views with no dispatch state,
+   * or the trips of the workload log, as copies of their rides
+   * @param tick the time of the tick in epoch seconds, as a long
+   */
+  private void feedWorkload(long tick) {
+    if (workloadTrips != null) {
+      while (nextWorkloadRow < workloadTrips.size()
+          && workloadTrips.getRequestEpochSecond(nextWorkloadRow) <= tick) {
+        addRequest(new Request(workloadTrips.get(nextWorkloadRow++)));
+      }
+      return;
+    }
+    while (nextWorkloadRow < workloadStore.size()
+        && workloadStore.getRequestEpochSecond(nextWorkloadRow) <= tick) {
+      workloadStore.resetDispatch(nextWorkloadRow);
+      addRequest(workloadStore.view(nextWorkloadRow++));
+    }
+  }
+
+  /**
+   * get the workload store the simulator is fed from
+   * @return the workload store, or null if the workload was added as requests, as a
+   *     RequestStore
+   */
+  public RequestStore getWorkloadStore() {
+    return workloadStore;
+  }
+
+  /**
+   * get the log of pending trips the simulator is fed from
+   * @return the workload log, or null if the workload was not added as a TripLog, as a TripLog
+   */
+  public TripLog getWorkloadTrips() {
+    return workloadTrips;
+  }
+
+  /**
+   * get the time of the next event in the event queue
+   * @return the time of the next event in epoch seconds, or Long.MAX_VALUE if there's none
+   */
+  private long nextQueuedEventTime() {
+    if (eventMode == EventMode.PACKED) {
+      return packedEventQueue.isEmpty()
+          ? Long.MAX_VALUE : packedEventQueue.timeOf(packedEventQueue.peek());
+    }
+    return eventQueue.isEmpty() ? Long.MAX_VALUE : eventQueue.peek().time;
+  }
+
+  /**
+   * process the events of one tick: finished rides and arriving drivers first, then one pass over
+   * the waiting requests, then the other events. Events are sorted by EventComparator, so ties are
+   * handled in the same order whichever event queue is used.
+   */
+  private void processBatch() {
+    if (batch.size() > 1) {
+      batch.sort(eventComparator);
+    }
+    int i = 0;
+    for (; i < batch.size(); i++) {
+      Event event = batch.get(i);
+      if (event.getType() == EventType.RIDE_FINISHED) {
+        if (isRescheduled(event.getRequest())) {
+          continue;
+        }
+        releaseRide(event.getRequest());
+      } else if (event.getType() == EventType.DRIVER_ARRIVED) {
+        releaseDriver(((DriverArrivedEvent) event).getDriver());
+      } else {
+        break;
+      }
+      if (eventTrace != null) {
+        traceEvent(event);
+      }
+    }
+    assignWaitingRequests();
+    for (; i < batch.size(); i++) {
+      Event event = batch.get(i);
+      event.processEvent();
+      if (eventTrace != null) {
+        traceEvent(event);
+      }
+    }
+    batch.clear();
+  }
+
+  /**
+   * process the packed events of the next tick, dispatching each one on its type tag.
+   * Packed events of a tick already come out ordered by type and index.
+   */
+  private void processPackedTick() {
+    long tick = packedEventQueue.timeOf(packedEventQueue.peek());
+    this.time = tick;
+    while (!packedEventQueue.isEmpty() && packedEventQueue.timeOf(packedEventQueue.peek()) == tick) {
+      long currentEvent = packedEventQueue.peek();
+      int type = PackedEventQueue.typeOf(currentEvent);
+      if (type == EventType.RIDE_FINISHED.ordinal()) {
+        Request request = requests.get(requests.idOf(PackedEventQueue.indexOf(currentEvent)));
+        if (!isRescheduled(request)) {
+          releaseRide(request);
+          if (eventTrace != null) {
+            trace(EventType.RIDE_FINISHED, request, request.getAssignedDriver());
+          }
+        }
+      } else if (type == EventType.DRIVER_ARRIVED.ordinal()) {
+        Driver driver = arrivingDrivers.remove(PackedEventQueue.indexOf(currentEvent));
+        releaseDriver(driver);
+        if (eventTrace != null) {
+          trace(EventType.DRIVER_ARRIVED, null, driver);
+        }
+      } else {
+        break;
+      }
+      packedEventQueue.poll();
+    }
+    assignWaitingRequests();
+    while (!packedEventQueue.isEmpty() && packedEventQueue.timeOf(packedEventQueue.peek()) == tick) {
+      long currentEvent = packedEventQueue.poll();
+      int index = PackedEventQueue.indexOf(currentEvent);
+      EventType type = EventType.fromTag(PackedEventQueue.typeOf(currentEvent));
+      int id = type == EventType.DRIVER_ARRIVED ? -1 : requests.idOf(index);
+      Request request = null;
+      Driver driver;
+      switch (type) {
+        case RIDE_REQUESTED:
+          request = requests.get(id);
+          if (handleRideRequested(request)) {
+            scheduleRideFinished(request.getActualArrivalEpochSecond(), request);
+          }
+          driver = request.getAssignedDriver();
+          break;
+        case RIDE_FINISHED:
+          request = requests.get(id);
+          handleRideFinished(request);
+          driver = request.getAssignedDriver();
+          break;
+        case DRIVER_ARRIVED:
+          driver = arrivingDrivers.remove(index);
+          handleDriverArrived(driver);
+          break;
+        case RIDE_CANCELLED:
+        case REQUEST_TIMED_OUT:
+          // the request may be gone already if it was served and not retained
+          request = requests.find(id);
+          if (request != null && type == EventType.RIDE_CANCELLED) {
+            handleRideCancelled(request);
+          } else if (request != null) {
+            handleRequestTimedOut(request);
+          }
+          driver = null;
+          break;
+        default:
+          throw new IllegalStateException("Unknown event type " + currentEvent);
+      }
+      if (eventTrace != null) {
+        trace(type, id, driver);
+      }
+    }
+  }
+
+  /**
+   * record a processed event in the event trace
+   * @param event the event, as an Event
+   */
+  private void traceEvent(Event event) {
+    Request request = event.getRequest();
+    Driver driver = event.getType() == EventType.DRIVER_ARRIVED
+        ? ((DriverArrivedEvent) event).getDriver()
+        : request.getAssignedDriver();
+    trace(event.getType(), request, driver);
+  }
+
+  /**
+   * record a processed event in the event trace, with the queue depths after it
+   * @param type the type of the event, as an EventType
+   * @param request the request of the event, or null, as a Request
+   * @param driver the driver assigned or released by the event, or null, as a Driver
+   */
+  private void trace(EventType type, Request request, Driver driver) {
+    trace(type, request == null ? -1 : request.getId(), driver);
+  }
+
+  /**
+   * record a processed event in the event trace, with the queue depths after it
+   * @param type the type of the event, as an EventType
+   * @param requestId the id of the request of the event, or -1, as an int
+   * @param driver the driver assigned or released by the event, or null, as a Driver
+   */
+  private void trace(EventType type, int requestId, Driver driver) {
+    eventTrace.record(time, type, requestId, driver == null ? -1 : driver.getId(),
+        idleDrivers.size(), waitingRequests.size(), activeRequests.size());
+  }
+
+  /**
+   * schedule the finishing event of a request, as an object or a packed event depending on the mode
+   * @param finishTime the time the ride finishes in epoch seconds, as a long
+   * @param request the request, as a Request
+   */
+  void scheduleRideFinished(long finishTime, Request request) {
+    if (eventMode == EventMode.PACKED) {
+      if (request.getId() < 0) {
+        registerRequest(request);
+      }
+      packedEventQueue.add(finishTime, EventType.RIDE_FINISHED, requests.indexOf(request.getId()));
+    } else {
+      eventQueue.add(new RideFinishedEvent(finishTime, this, request));
+    }
+  }
+
+  /**
+   * schedule a driver joining this simulator's idle drivers, e.g. after a ride ending in this zone
+   * @param arrivalTime the time the driver arrives in epoch seconds, as a long
+   * @param driver the driver, with an id that is unique among arriving drivers, as a Driver
+   */
+  public void scheduleDriverArrival(long arrivalTime, Driver driver) {
+    if (eventMode == EventMode.PACKED) {
+      arrivingDrivers.put(driver.getId(), driver);
+      packedEventQueue.add(arrivalTime, EventType.DRIVER_ARRIVED, driver.getId());
+    } else {
+      eventQueue.add(new DriverArrivedEvent(arrivalTime, this, driver));
+    }
+  }
+
+  /**
+   * schedule the cancellation of a request by its customer. The request leaves the waiting
+   * requests when the cancellation is processed, unless it got a driver before.
+   * @param cancelTime the time of the cancellation in epoch seconds, not before the current time
+   *     or the request time, as a long
+   * @param request a request of this simulator, as a Request
+   */
+  public void scheduleCancellation(long cancelTime, Request request) {
+    if (cancelTime < time || cancelTime < request.getRequestEpochSecond()) {
+      throw new IllegalArgumentException("Cancellation time " + cancelTime
+          + " is before the simulation time or the request time");
+    }
+    if (eventMode == EventMode.PACKED) {
+      packedEventQueue.add(cancelTime, EventType.RIDE_CANCELLED, requests.indexOf(request.getId()));
+    } else {
+      eventQueue.add(new RideCancelledEvent(cancelTime, this, request));
+    }
+  }
+
+  /**
+   * schedule the timeout of a waiting request
+   * @param timeoutTime the time the request times out in epoch seconds, as a long
+   * @param request the request, as a Request
+   */
+  void scheduleRequestTimedOut(long timeoutTime, Request request) {
+    if (eventMode == EventMode.PACKED) {
+      packedEventQueue.add(timeoutTime, EventType.REQUEST_TIMED_OUT,
+          requests.indexOf(request.getId()));
+    } else {
+      eventQueue.add(new RequestTimedOutEvent(timeoutTime, this, request));
+    }
+  }
+
+  /**
+   * add a request while the simulation runs, e.g. from a request stream
+   * @param request the request, not before the current time, as a Request
+   */
+  public void submitRequest(Request request) {
+    if (request.getRequestEpochSecond() < time) {
+      throw new IllegalArgumentException("Request time " + request.getRequestEpochSecond()
+          + " is before the simulation time " + time);
+    }
+    addRequest(request);
+  }
+
+  /**
+   * set the recorder every processed event is appended to
+   * @param eventTrace the recorder, or null to stop recording, as an EventTraceRecorder
+   */
+  public void setEventTrace(EventTraceRecorder eventTrace) {
+    this.eventTrace = eventTrace;
+  }
+
+  /**
+   * set the listener notified when rides are queued, assigned and finished
+   * @param dispatchListener the listener, or null for none, as a DispatchListener
+   */
+  public void setDispatchListener(DispatchListener dispatchListener) {
+    this.dispatchListener = dispatchListener;
+  }
+
+  /**
+   * set the handoff that takes drivers whose rides end outside this simulator
+   * @param driverHandoff the handoff, or null to keep every driver, as a DriverHandoff
+   */
+  public void setDriverHandoff(DriverHandoff driverHandoff) {
+    if (driverHandoff != null && pooledDrivers != null) {
+      throw new IllegalStateException("Drivers of shared rides can't be handed off");
+    }
+    this.driverHandoff = driverHandoff;
+  }
+
   /**
    * handle a ride requested event.
+   * With shared rides, the request first tries to join the route of a busy driver, see poolRequest.
    * If there's idle drivers, update actual arrival time as request time plus riding seconds.
    * Then assign a driver to the request, decrease idle driver numbers, and push the request into activeRequests.
    *
-   * If there's no idle driver, simply push the request to waitingRequests.
+   * If there's no idle driver, push the request to waitingRequests, unless admission control
+   * turns it away, see admit. With a longest wait, the timeout of the request is scheduled.
    *
    * @param event a RideRequestedEvent, as an RideRequestedEvent
    * @return true if there's idle drivers, false if there's no idle drivers
    */
   public Boolean handleRideRequested(RideRequestedEvent event) {
-    Request currentRequest = event.getRequest();
-    if (numberOfIdleDrivers != 0) {
-      currentRequest.setActualArrivalTime(currentRequest.getRequestTime()
-                                            .plusSeconds((long)(currentRequest.getRidingSeconds())));
-      assignDriver(currentRequest, availableDrivers.get(0));
+    return handleRideRequested(event.getRequest());
+  }
+
+  /**
+   * handle a newly requested ride, see handleRideRequested(RideRequestedEvent)
+   * @param currentRequest the requested ride, as a Request
+   * @return true if the request got a driver, false if it waits, or was deferred or rejected
+   */
+  public boolean handleRideRequested(Request currentRequest) {
+    if (pooledDrivers != null && dispatchWindowSeconds == 0 && poolRequest(currentRequest)) {
+      return true;
+    }
+    if (!idleDrivers.isEmpty() && dispatchWindowSeconds == 0) {
+      Driver driver = selectDriver(currentRequest);
+      // a deferred request starts riding when it is requested again
+      currentRequest.setActualArrivalEpochSecond(
+          Math.max(time, currentRequest.getRequestEpochSecond())
+          + (long) (pickupSeconds(currentRequest, driver) + currentRequest.getRidingSeconds()));
+      assignDriver(currentRequest, driver);
       return true;
+    } else if (!admit(currentRequest)) {
+      return false;
     } else {
       waitingRequests.add(currentRequest);
+      addSheddable(currentRequest);
+      scheduleAging(currentRequest);
+      if (maxWaitSeconds > 0) {
+        scheduleRequestTimedOut(currentRequest.getRequestEpochSecond() + maxWaitSeconds,
+            currentRequest);
+      }
+      if (dispatchListener != null) {
+        dispatchListener.onRideQueued(currentRequest, time);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * decide if a request that has to wait may join the waiting requests. Under overload, i.e.
+   * with the most waiting requests already waiting or a predicted wait over the longest one,
+   * not counting the waiting requests the idle drivers take at the end of a dispatch window,
+   * the overload policy rejects the request, sheds a waiting request to make room for it, or
+   * defers it. Without a limit, every request is admitted.
+   * @param request the new request, as a Request
+   * @return true if the request may wait, false if it was rejected or deferred
+   */
+  private boolean admit(Request request) {
+    if ((maxWaitingRequests == 0
+        || waitingRequests.size() - idleDrivers.size() < maxWaitingRequests)
+        && (maxPredictedWaitSeconds == 0 || predictWaitSeconds() <= maxPredictedWaitSeconds)) {
+      return true;
+    }
+    if (overloadPolicy == OverloadPolicy.SHED_LOWEST_PRIORITY) {
+      Request shed = pollSheddable(request.getRideType());
+      if (shed != null) {
+        leaveWaiting(shed, rejectedRequests);
+        rejected(shed);
+        return true;
+      }
+    } else if (overloadPolicy == OverloadPolicy.DEFER) {
+      long requestedAgain = time + deferSeconds;
+      if (maxWaitSeconds == 0
+          || requestedAgain < request.getRequestEpochSecond() + maxWaitSeconds) {
+        scheduleRideRequested(requestedAgain, request);
+        deferredRequestCount++;
+        return false;
+      }
+    }
+    retire(request, rejectedRequests);
+    rejected(request);
+    return false;
+  }
+
+  /**
+   * count a rejected request and report it
+   * @param request the request, as a Request
+   */
+  private void rejected(Request request) {
+    rejectedRequestCount++;
+    if (dispatchListener != null) {
+      dispatchListener.onRequestRejected(request, time);
+    }
+  }
+
+  /**
+   * predict the wait of a new request if it joined the waiting requests now: until the next
+   * ride finishes, and then for every waiting request ahead of it, the average pickup and ride
+   * shared among the busy drivers. It counts every waiting request as ahead, whatever the
+   * dispatch policy, so it errs on the long side for requests served early, except the ones the
+   * idle drivers take at the end of a dispatch window.
+   * @return the predicted wait in seconds, or 0 if an idle driver is left for it, as a long
+   */
+  public long predictWaitSeconds() {
+    int ahead = waitingRequests.size() - idleDrivers.size();
+    if (ahead < 0 || activeRequests.isEmpty()) {
+      return 0;
+    }
+    long nextFinish = Math.max(0, activeRequests.peek().getActualArrivalEpochSecond() - time);
+    return nextFinish + (long) (ahead * averageServiceSeconds / busyDrivers());
+  }
+
+  /**
+   * count the drivers on a ride: with shared rides, a driver carries several active requests
+   * @return the number of busy drivers, as an int
+   */
+  private int busyDrivers() {
+    return pooledDrivers != null ? Math.max(1, pooledDrivers.size()) : activeRequests.size();
+  }
+
+  /**
+   * keep a new waiting request as a candidate to be shed, with SHED_LOWEST_PRIORITY. Once the
+   * deques hold more than twice the waiting requests, the ones no longer waiting are dropped.
+   * @param request the waiting request, as a Request
+   */
+  private void addSheddable(Request request) {
+    if (sheddableRequests.isEmpty()) {
+      return;
+    }
+    sheddableRequests.get(request.getRideType().ordinal()).add(request);
+    if (++sheddableEntries > 2 * waitingRequests.size() + 64) {
+      sheddableEntries = 0;
+      for (ArrayDeque<Request> sheddable : sheddableRequests) {
+        sheddable.removeIf(waiting -> !waitingRequests.contains(waiting));
+        sheddableEntries += sheddable.size();
+      }
+    }
+  }
+
+  /**
+   * take the newest waiting request of the lowest priority ride type below a given one
+   * @param rideType the ride type of the new request, as a RideType
+   * @return the waiting request to shed, or null if there's none, as a Request
+   */
+  private Request pollSheddable(RideType rideType) {
+    for (int type = sheddableRequests.size() - 1; type > rideType.ordinal(); type--) {
+      ArrayDeque<Request> sheddable = sheddableRequests.get(type);
+      while (!sheddable.isEmpty()) {
+        Request request = sheddable.pollLast();
+        sheddableEntries--;
+        if (waitingRequests.contains(request)) {
+          return request;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * try to add a new request to the route of a busy driver. The nearest busy drivers are tried,
+   * and the request joins the route its cheapest insertion adds the least driving time to, if
+   * that is less than the pickup and ride of the idle driver it would get otherwise.
+   * The request may be dropped off at most the longest detour later than with that driver,
+   * or than riding right away if there's no idle driver.
+   * @param request the new request, as a Request
+   * @return true if the request joined a route, false if it didn't and nothing was changed
+   */
+  private boolean poolRequest(Request request) {
+    if (request.getStartCoordinates() == null || request.getEndCoordinates() == null
+        || pooledDrivers.size() == 0) {
       return false;
     }
+    double soloSeconds = Double.POSITIVE_INFINITY;
+    double soloDropoffTime = request.getRequestEpochSecond() + request.getRidingSeconds();
+    if (!idleDrivers.isEmpty()) {
+      soloSeconds = pickupSeconds(request, selectDriver(request)) + request.getRidingSeconds();
+      soloDropoffTime = time + soloSeconds;
+    }
+    double latestDropoffTime = soloDropoffTime + maxDetourSeconds;
+    PooledRoute best = null;
+    double bestCost = soloSeconds;
+    for (Driver driver : pooledDrivers.nearest(request.getStartCoordinates(),
+        matchingCandidates)) {
+      PooledRoute route = routes[driver.getId()];
+      route.advance(time);
+      double cost = route.findCheapestInsertion(request, latestDropoffTime);
+      if (cost < bestCost) {
+        bestCost = cost;
+        best = route;
+      }
+    }
+    if (best == null) {
+      return false;
+    }
+
+    double dropoffTime = best.insertCheapest(request, latestDropoffTime, delayedRequests);
+    request.setActualArrivalEpochSecond((long) dropoffTime);
+    request.setAssignedDriver(best.getDriver());
+    activeRequests.add(request);
+    for (Request delayed : delayedRequests) {
+      activeRequests.update(delayed);
+      scheduleRideFinished(delayed.getActualArrivalEpochSecond(), delayed);
+    }
+    delayedRequests.clear();
+    indexRoute(best);
+    if (dispatchListener != null) {
+      dispatchListener.onRideAssigned(request, best.getDriver(), time);
+    }
+    return true;
+  }
+
+  /**
+   * start the route of a driver assigned to a single request, and index the driver at its
+   * first stop
+   * @param request the request, with its actual arrival set, as a Request
+   * @param driver the driver, as a Driver
+   */
+  private void startRoute(Request request, Driver driver) {
+    int id = driver.getId();
+    if (id >= routes.length) {
+      routes = Arrays.copyOf(routes, Math.max(id + 1, 2 * routes.length));
+    }
+    if (routes[id] == null) {
+      routes[id] = new PooledRoute(driver, seatCapacity, travelTimes);
+    }
+    routes[id].start(request, time, time + pickupSeconds(request, driver)
+        + request.getRidingSeconds() + maxDetourSeconds);
+    pooledDrivers.add(driver);
+    indexRoute(routes[id]);
+  }
+
+  /**
+   * move the driver of a route to its next stop in the index of busy drivers
+   * @param route the route, not empty, as a PooledRoute
+   */
+  private void indexRoute(PooledRoute route) {
+    Location next = route.getNextLocation();
+    if (next != null) {
+      pooledDrivers.move(route.getDriver(), next);
+    }
+  }
+
+  /**
+   * take a finished ride off the route of its driver
+   * @param request the finished ride, as a Request
+   * @param driver the driver, as a Driver
+   * @return true if the route is done and the driver can be released, false if it goes on
+   */
+  private boolean leaveRoute(Request request, Driver driver) {
+    int id = driver.getId();
+    PooledRoute route = id < routes.length ? routes[id] : null;
+    if (route == null) {
+      return true;
+    }
+    route.dropOff(request);
+    if (route.isEmpty()) {
+      pooledDrivers.remove(driver);
+      return true;
+    }
+    indexRoute(route);
+    return false;
+  }
+
+  /**
+   * check if the finishing event of a ride is out of date, because the ride was delayed by a
+   * shared ride and got a later finishing event
+   * @param request the ride, as a Request
+   * @return true if the event has to be skipped
+   */
+  private boolean isRescheduled(Request request) {
+    return pooledDrivers != null && request.getActualArrivalEpochSecond() != time;
+  }
+
+  /**
+   * handle a customer cancelling a request: a waiting request leaves the waiting requests,
+   * any other request is left alone.
+   * @param request the request, as a Request
+   * @return true if the request was waiting and is cancelled
+   */
+  public boolean handleRideCancelled(Request request) {
+    if (!leaveWaiting(request, cancelledRequests)) {
+      return false;
+    }
+    cancelledRequestCount++;
+    if (dispatchListener != null) {
+      dispatchListener.onRideCancelled(request, time);
+    }
+    return true;
+  }
+
+  /**
+   * handle a request reaching the longest wait: a waiting request leaves the waiting requests,
+   * any other request is left alone.
+   * @param request the request, as a Request
+   * @return true if the request was waiting and timed out
+   */
+  public boolean handleRequestTimedOut(Request request) {
+    if (!leaveWaiting(request, timedOutRequests)) {
+      return false;
+    }
+    timedOutRequestCount++;
+    if (dispatchListener != null) {
+      dispatchListener.onRequestTimedOut(request, time);
+    }
+    return true;
+  }
+
+  /**
+   * remove a request from the waiting requests, in O(log n), and keep it with the requests that
+   * left the same way
+   * @param request the request, as a Request
+   * @param left the requests that left the same way, as a List of Request
+   * @return true if the request was waiting
+   */
+  private boolean leaveWaiting(Request request, List<Request> left) {
+    if (!waitingRequests.remove(request)) {
+      return false;
+    }
+    retire(request, left);
+    return true;
+  }
+
+  /**
+   * keep a request that is done with, if requests are retained, and release its id unless it is
+   * kept as an object, so off the heap only the requests in flight are registered
+   * @param request the finished, cancelled, timed out or rejected request, as a Request
+   * @param kept the requests done with the same way, as a List of Request
+   */
+  private void retire(Request request, List<Request> kept) {
+    if (retainFinishedRequests) {
+      kept.add(request);
+    }
+    if (!retainFinishedRequests || finishedRequestsOffHeap) {
+      requests.release(request.getId());
+    }
+  }
+
+  /**
+   * queue a waiting request for its next raise of effective priority, if it can be raised
+   * @param request the waiting request, as a Request
+   */
+  private void scheduleAging(Request request) {
+    if (agingIntervalSeconds > 0 && request.getEffectivePriority() < Request.MAX_PRIORITY) {
+      int raises = request.getEffectivePriority() - request.getPriority();
+      ArrayDeque<Request> due = agingQueues.get(raises);
+      if (due.isEmpty() || REQUEST_TIME_ORDER.compare(due.peekLast(), request) <= 0) {
+        due.add(request);
+      } else {
+        lateAgingQueues.get(raises).add(request);
+      }
+    }
+  }
+
+  /**
+   * raise the effective priority of every waiting request that has waited another full aging
+   * interval by now, in O(log n) each. Requests that left the waiting requests since they were
+   * queued are dropped from the aging queues on the way.
+   * @param now the current time in epoch seconds, as a long
+   */
+  private void ageWaitingRequests(long now) {
+    for (int raises = 0; raises < agingQueues.size(); raises++) {
+      long requestedBy = now - (raises + 1) * agingIntervalSeconds;
+      for (Queue<Request> due = nextAging(raises);
+          due != null && due.peek().getRequestEpochSecond() <= requestedBy;
+          due = nextAging(raises)) {
+        Request request = due.poll();
+        if (waitingRequests.changePriority(request, request.getEffectivePriority() + 1)) {
+          scheduleAging(request);
+        }
+      }
+    }
+  }
+
+  /**
+   * find the aging queue of a number of raises whose head is the earliest request
+   * @param raises the number of raises, as an int
+   * @return the FIFO or the heap of deferred requests, or null if both are empty, as a Queue
+   */
+  private Queue<Request> nextAging(int raises) {
+    ArrayDeque<Request> due = agingQueues.get(raises);
+    PriorityQueue<Request> late = lateAgingQueues.get(raises);
+    if (late.isEmpty()) {
+      return due.isEmpty() ? null : due;
+    }
+    return due.isEmpty() || REQUEST_TIME_ORDER.compare(late.peek(), due.peek()) < 0 ? late : due;
   }
 
   /**
    * handle a ride finished event.
-   * Poll finished requests from activeRequests, store into finished requests.22
+   * Move the finished request from activeRequests to finished requests, release its driver and
+   * assign the driver to the next waiting request, if any.
    * @param event a RideFinishedEvent, as an RideFinishedEvent
    */
   public void handleRideFinished(RideFinishedEvent event) {
-    // poll finished requests from activeRequests, store into finished requests
-    Request newlyFinishedRequest = activeRequests.poll();
-    finishedRequests.add(newlyFinishedRequest);
-    Driver releaseDriver = event.getRequest().getAssignedDriver();
-    availableDrivers.add(releaseDriver);
-    numberOfIdleDrivers++;
+    handleRideFinished(event.getRequest());
+  }
+
+  /**
+   * handle a finished ride, see handleRideFinished(RideFinishedEvent)
+   * @param request the finished ride, as a Request
+   */
+  public void handleRideFinished(Request request) {
+    if (isRescheduled(request)) {
+      return;
+    }
+    Driver releaseDriver = releaseRide(request);
+    if (releaseDriver != null) {
+      processWaitingRequests(releaseDriver);
+    }
+  }
+
+  /**
+   * handle a driver arriving from outside this simulator: release the driver and
+   * assign the driver to the next waiting request, if any.
+   * @param driver the arriving driver, as a Driver
+   */
+  public void handleDriverArrived(Driver driver) {
+    releaseDriver(driver);
+    processWaitingRequests(driver);
+  }
+
+  /**
+   * move a finished request from activeRequests to finishedRequests and release its driver,
+   * without assigning the driver to a waiting request.
+   * @param request the finished ride, as a Request
+   * @return the released driver, or null if the driver was handed off, goes on with a shared
+   *     ride or there's none, as a Driver
+   */
+  private Driver releaseRide(Request request) {
+    // rides finish in activeRequests order, so the finished request is normally the head
+    if (activeRequests.peek() == request) {
+      activeRequests.poll();
+    } else {
+      activeRequests.remove(request);
+    }
+    if (dispatchListener != null) {
+      dispatchListener.onRideFinished(request, time);
+    }
+    retire(request, finishedRequests);
+    if (driverHandoff != null && driverHandoff.leaves(request)) {
+      return null;
+    }
+    Driver releaseDriver = request.getAssignedDriver();
+    if (releaseDriver != null && pooledDrivers != null && !leaveRoute(request, releaseDriver)) {
+      return null;
+    }
+    if (releaseDriver != null) {
+      moveToEnd(request, releaseDriver);
+      releaseDriver(releaseDriver);
+    }
+    return releaseDriver;
+  }
+
+  /**
+   * add a driver to the idle drivers. With DriverMatching.NEAREST, a driver without a position
+   * is placed in the city at random.
+   * @param driver the driver, as a Driver
+   */
+  private void releaseDriver(Driver driver) {
+    idleDrivers.add(driver);
+    if (spatialIndex != null) {
+      if (driver.getPosition() == null) {
+        driver.setPosition(RequestGenerator.generateRandomLocation(citySizeMiles, random));
+      }
+      spatialIndex.add(driver);
+    }
+  }
 
-    processWaitingRequests(newlyFinishedRequest, releaseDriver);
+  /**
+   * move a driver to the end of its ride, if the ride has coordinates
+   * @param request the ride, as a Request
+   * @param driver the driver, as a Driver
+   */
+  private static void moveToEnd(Request request, Driver driver) {
+    Location end = request.getEndCoordinates();
+    if (end != null) {
+      driver.setPosition(end);
+    }
+  }
+
+  /**
+   * get the time for a driver to reach the start of a ride, with the travel times
+   * @param request the request, as a Request
+   * @param driver the driver, as a Driver
+   * @return the pickup time in seconds, or 0 if either position is unknown, as a double
+   */
+  private double pickupSeconds(Request request, Driver driver) {
+    return travelTimes.travelSeconds(driver.getPosition(), request.getStartCoordinates());
+  }
+
+  /**
+   * pick an idle driver for a request with the dispatch policy. There must be an idle driver.
+   * @param request the request, as a Request
+   * @return the driver, as a Driver
+   */
+  private Driver selectDriver(Request request) {
+    return dispatchPolicy.selectDriver(request, idleDrivers, spatialIndex);
+  }
+
+  /**
+   * assign idle drivers to waiting requests until either runs out.
+   * The waiting requests are taken in the order of the dispatch policy, each with its driver.
+   */
+  private void assignWaitingRequests() {
+    if (dispatchWindowSeconds > 0) {
+      return; // left to the end of the dispatch window
+    }
+    while (!idleDrivers.isEmpty() && !waitingRequests.isEmpty()) {
+      Request request = waitingRequests.poll();
+      startWaitingRequest(request, selectDriver(request));
+    }
   }
 
   /**
@@ -132,72 +1263,473 @@ public class RideshareDispatchSimulator extends Simulation {
    */
   private void assignDriver(Request request, Driver driver) {
     request.setAssignedDriver(driver);
-    availableDrivers.remove(driver);
-    numberOfIdleDrivers--;
+    double serviceSeconds = request.getActualArrivalEpochSecond() - time;
+    averageServiceSeconds = averageServiceSeconds == 0
+        ? serviceSeconds : averageServiceSeconds + (serviceSeconds - averageServiceSeconds) / 16;
+    idleDrivers.remove(driver);
+    if (spatialIndex != null) {
+      spatialIndex.remove(driver);
+    }
+    if (pooledDrivers != null) {
+      startRoute(request, driver);
+    }
     activeRequests.add(request);
+    if (dispatchListener != null) {
+      dispatchListener.onRideAssigned(request, driver, time);
+    }
+    if (driverHandoff != null && driverHandoff.leaves(request)) {
+      // the finish time is known now, so the driver is handed off ahead of time
+      moveToEnd(request, driver);
+      driverHandoff.handOff(request, driver, request.getActualArrivalEpochSecond());
+    }
   }
 
   /**
    * process waiting requests.
-   * When there's requests waiting, assign a driver, poll from waitingRequests, add into activeRequests
-   * @param lastFinishedRequest the last finished request, as a Request
+   * When there's requests waiting, assign a driver, poll from waitingRequests, add into activeRequests.
+   * The ride starts now, when the driver was freed, and finishes after the pickup and riding time.
    * @param driver the driver, as a Driver
    * @return the selected request, as a Request
    */
-  private Request processWaitingRequests(Request lastFinishedRequest, Driver driver) {
+  private Request processWaitingRequests(Driver driver) {
     // When there's requests waiting, assign a driver, poll from waitingRequests, add into activeRequests
     Request selectedRequest = null;
-    if (!waitingRequests.isEmpty()) {
+    if (!waitingRequests.isEmpty() && dispatchWindowSeconds == 0) {
       selectedRequest = waitingRequests.poll();
-      selectedRequest.setActualArrivalTime(lastFinishedRequest.getActualArrivalTime()
-          .plusSeconds((long) (selectedRequest.getRidingSeconds())));
-      assignDriver(selectedRequest, driver);
-
-      // generate new finishEvent
-      RideFinishedEvent rideFinishedEvent = new RideFinishedEvent(time,this, selectedRequest);
-      eventQueue.add(rideFinishedEvent);
+      startWaitingRequest(selectedRequest, driver);
     }
     return selectedRequest;
   }
 
+  /**
+   * match waiting requests and idle drivers at the end of a dispatch window. As many requests as
+   * there are idle drivers are taken in the order of the dispatch policy. With a spatial index, they are matched to
+   * minimize the total pickup time over the nearest candidate drivers of every request, and a
+   * request without a candidate left gets its nearest remaining driver. Otherwise the dispatch
+   * policy picks their drivers.
+   */
+  private void dispatchWindow() {
+    int pairs = Math.min(waitingRequests.size(), idleDrivers.size());
+    if (pairs == 0) {
+      return;
+    }
+    Request[] selected = new Request[pairs];
+    for (int i = 0; i < pairs; i++) {
+      selected[i] = waitingRequests.poll();
+    }
+    if (spatialIndex == null) {
+      for (Request request : selected) {
+        startWaitingRequest(request, selectDriver(request));
+      }
+      return;
+    }
+
+    // sparse cost matrix: the pickup time of every request from each of its candidate drivers
+    int[] edgeStart = new int[pairs + 1];
+    int[] edgeColumn = new int[pairs * matchingCandidates];
+    double[] edgeCost = new double[edgeColumn.length];
+    List<Driver> columns = new ArrayList<>();
+    int edges = 0;
+    for (int i = 0; i < pairs; i++) {
+      Request request = selected[i];
+      if (request.getStartCoordinates() != null) {
+        for (Driver driver : spatialIndex.nearest(request.getStartCoordinates(),
+            matchingCandidates)) {
+          edgeColumn[edges] = matchingColumnOf(driver, columns);
+          edgeCost[edges] = pickupSeconds(request, driver);
+          edges++;
+        }
+      }
+      edgeStart[i + 1] = edges;
+    }
+    int[] match = assignmentSolver.solve(pairs, columns.size(), edgeStart, edgeColumn, edgeCost);
+    for (Driver driver : columns) {
+      matchingColumn[driver.getId()] = AssignmentSolver.NONE;
+    }
+
+    for (int i = 0; i < pairs; i++) {
+      if (match[i] != AssignmentSolver.NONE) {
+        startWaitingRequest(selected[i], columns.get(match[i]));
+      }
+    }
+    for (int i = 0; i < pairs; i++) {
+      if (match[i] == AssignmentSolver.NONE) {
+        startWaitingRequest(selected[i], selectDriver(selected[i]));
+      }
+    }
+  }
+
+  /**
+   * get the column of a candidate driver in the cost matrix of a dispatch window,
+   * adding the driver as a new column if needed
+   * @param driver the driver, as a Driver
+   * @param columns the drivers of the columns so far, as a List of Driver
+   * @return the column, as an int
+   */
+  private int matchingColumnOf(Driver driver, List<Driver> columns) {
+    int id = driver.getId();
+    if (id >= matchingColumn.length) {
+      int oldLength = matchingColumn.length;
+      matchingColumn = Arrays.copyOf(matchingColumn, Math.max(id + 1, 2 * oldLength));
+      Arrays.fill(matchingColumn, oldLength, matchingColumn.length, AssignmentSolver.NONE);
+    }
+    if (matchingColumn[id] == AssignmentSolver.NONE) {
+      matchingColumn[id] = columns.size();
+      columns.add(driver);
+    }
+    return matchingColumn[id];
+  }
+
+  /**
+   * start a waiting request with a driver, now. The ride finishes after the pickup and riding time.
+   * @param request the request polled from waitingRequests, as a Request
+   * @param driver the idle driver, as a Driver
+   */
+  private void startWaitingRequest(Request request, Driver driver) {
+    request.setActualArrivalEpochSecond(time + (long) (pickupSeconds(request, driver)
+        + request.getRidingSeconds()));
+    assignDriver(request, driver);
+
+    // generate new finishEvent
+    scheduleRideFinished(request.getActualArrivalEpochSecond(), request);
+  }
+
+  /**
+   * restore the state of a checkpoint into this simulator, which must have no drivers, requests
+   * or events yet. The events are scheduled separately, see SimulationCheckpoint.
+   * @param checkpointTime the time of the checkpoint in epoch seconds, as a long
+   * @param allRequests every request, in id order, as a List of Request
+   * @param idle the idle drivers, longest idle first, as a List of Driver
+   * @param waiting the waiting requests, as a List of Request
+   * @param active the active requests, as a List of Request
+   * @param finished the finished requests in finishing order, as a List of Request
+   * @param cancelled the cancelled requests in cancelling order, as a List of Request
+   * @param timedOut the timed out requests in timeout order, as a List of Request
+   * @param rejected the rejected requests in rejection order, as a List of Request
+   * @param deferrals the number of times requests were deferred, as a long
+   * @param serviceSeconds the smoothed pickup and ride of the latest assignments, as a double
+   */
+  void restore(long checkpointTime, List<Request> allRequests, List<Driver> idle,
+      List<Request> waiting, List<Request> active, List<Request> finished,
+      List<Request> cancelled, List<Request> timedOut, List<Request> rejected, long deferrals,
+      double serviceSeconds) {
+    this.time = checkpointTime;
+    for (Request request : allRequests) {
+      registerRequest(request);
+    }
+    for (Driver driver : idle) {
+      releaseDriver(driver);
+    }
+    waitingRequests.addAll(waiting);
+    activeRequests.addAll(active);
+    finishedRequests.addAll(finished);
+    cancelledRequests.addAll(cancelled);
+    timedOutRequests.addAll(timedOut);
+    cancelledRequestCount = cancelled.size();
+    timedOutRequestCount = timedOut.size();
+    rejectedRequests.addAll(rejected);
+    rejectedRequestCount = rejected.size();
+    deferredRequestCount = deferrals;
+    averageServiceSeconds = serviceSeconds;
+    List<Request> byRequestTime = new ArrayList<>(waiting);
+    byRequestTime.sort(REQUEST_TIME_ORDER);
+    for (Request request : byRequestTime) {
+      scheduleAging(request);
+      addSheddable(request);
+    }
+  }
+
+  /**
+   * restore the route of a busy driver of a checkpoint, after restore. The driver is indexed at
+   * its position, where it was indexed when the checkpoint was written.
+   * @param route the route, not empty, as a PooledRoute
+   */
+  void restoreRoute(PooledRoute route) {
+    Driver driver = route.getDriver();
+    int id = driver.getId();
+    if (id >= routes.length) {
+      routes = Arrays.copyOf(routes, Math.max(id + 1, 2 * routes.length));
+    }
+    routes[id] = route;
+    pooledDrivers.add(driver);
+  }
+
+  /**
+   * get the routes of the busy drivers with shared rides
+   * @return the routes that are not empty, as a List of PooledRoute
+   */
+  List<PooledRoute> getRoutes() {
+    List<PooledRoute> busy = new ArrayList<>();
+    for (PooledRoute route : routes) {
+      if (route != null && !route.isEmpty()) {
+        busy.add(route);
+      }
+    }
+    return busy;
+  }
+
+  /**
+   * get every request, indexed by request id
+   * @return the requests, as a List of Request
+   */
+  List<Request> getRequests() {
+    if (!retainFinishedRequests || finishedRequestsOffHeap) {
+      throw new IllegalStateException("Finished requests are not retained as objects");
+    }
+    return requests.toList();
+  }
+
+  /**
+   * get the id of the request of a packed event, from the index it holds
+   * @param index the request index of the packed event, as an int
+   * @return the request id, as an int
+   */
+  int getRequestId(int index) {
+    return requests.idOf(index);
+  }
+
+  /**
+   * get a driver on the way to this simulator, by the index of its packed event
+   * @param driverId the id of the driver, as an int
+   * @return the driver, as a Driver
+   */
+  Driver getArrivingDriver(int driverId) {
+    return arrivingDrivers.get(driverId);
+  }
+
+  /**
+   * get the event mode
+   * @return the event mode, as an EventMode
+   */
+  public EventMode getEventMode() {
+    return eventMode;
+  }
+
+  /**
+   * get how an idle driver is picked for a request
+   * @return the driver matching, as a DriverMatching
+   */
+  public DriverMatching getDriverMatching() {
+    return driverMatching;
+  }
+
+  /**
+   * get the length of a dispatch window
+   * @return the dispatch window in seconds, or 0 if requests are dispatched immediately, as a long
+   */
+  public long getDispatchWindowSeconds() {
+    return dispatchWindowSeconds;
+  }
+
+  /**
+   * get the number of candidate drivers per request in a dispatch window
+   * @return the number of candidates, as an int
+   */
+  public int getMatchingCandidates() {
+    return matchingCandidates;
+  }
+
+  /**
+   * get the dispatch policy
+   * @return the dispatch policy, as a DispatchPolicy
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * get the aging interval of waiting requests
+   * @return the aging interval in seconds, or 0 if waiting requests don't age, as a long
+   */
+  public long getAgingIntervalSeconds() {
+    return agingIntervalSeconds;
+  }
+
+  /**
+   * get the longest wait of a request
+   * @return the longest wait in seconds, or 0 if requests wait until served, as a long
+   */
+  public long getMaxWaitSeconds() {
+    return maxWaitSeconds;
+  }
+
+  /**
+   * get the seat capacity of a driver
+   * @return the number of passengers a driver carries at once, 1 without shared rides, as an int
+   */
+  public int getSeatCapacity() {
+    return seatCapacity;
+  }
+
+  /**
+   * get the longest detour of a shared ride
+   * @return the longest detour in seconds, as a long
+   */
+  public long getMaxDetourSeconds() {
+    return maxDetourSeconds;
+  }
+
+  /**
+   * get the most waiting requests
+   * @return the most waiting requests, or 0 for no limit, as an int
+   */
+  public int getMaxWaitingRequests() {
+    return maxWaitingRequests;
+  }
+
+  /**
+   * get the longest predicted wait of a new request
+   * @return the longest predicted wait in seconds, or 0 for no limit, as a long
+   */
+  public long getMaxPredictedWaitSeconds() {
+    return maxPredictedWaitSeconds;
+  }
+
+  /**
+   * get what is done with a request that has to wait under overload
+   * @return the overload policy, as an OverloadPolicy
+   */
+  public OverloadPolicy getOverloadPolicy() {
+    return overloadPolicy;
+  }
+
+  /**
+   * get the time a deferred request waits before it is requested again
+   * @return the time in seconds, as a long
+   */
+  public long getDeferSeconds() {
+    return deferSeconds;
+  }
+
+  /**
+   * get the travel times of pickups and rides
+   * @return the travel times, this simulator's own copy, as a TravelTimes
+   */
+  public TravelTimes getTravelTimes() {
+    return travelTimes;
+  }
+
+  /**
+   * get the size of the city
+   * @return the width and height of the city in miles, as a double
+   */
+  public double getCitySizeMiles() {
+    return citySizeMiles;
+  }
+
+  /**
+   * get the packed event queue
+   * @return the packed event queue, or null unless the event mode is EventMode.PACKED
+   */
+  public PackedEventQueue getPackedEventQueue() {
+    return packedEventQueue;
+  }
+
   /**
    * get the number of idle drivers
    * @return the number of idle drivers, as an Integer
    */
   public Integer getNumberOfIdleDrivers() {
-    return numberOfIdleDrivers;
+    return idleDrivers.size();
   }
 
   /**
    * get the available drivers
    *
-   * @return the available drivers, as a List of Driver
+   * @return a copy of the available drivers, longest idle first, as a List of Driver
    */
   public List<Driver> getAvailableDrivers() {
-    return availableDrivers;
+    return idleDrivers.toList();
   }
 
   /**
    * get the finished requests
-   * @return the finished requests, as a List of Request
+   * @return the finished requests, a TripLog if they are kept off the heap, as a List of Request
    */
   public List<Request> getFinishedRequests() {
     return finishedRequests;
   }
 
+  /**
+   * get the cancelled requests
+   * @return the requests cancelled while waiting, a TripLog with finished requests off the heap,
+   *     as a List of Request
+   */
+  public List<Request> getCancelledRequests() {
+    return cancelledRequests;
+  }
+
+  /**
+   * get the number of cancelled requests, counted whether they are retained or not
+   * @return the number of requests cancelled while waiting, as a long
+   */
+  public long getCancelledRequestCount() {
+    return cancelledRequestCount;
+  }
+
+  /**
+   * get the timed out requests
+   * @return the requests that waited the longest wait without a driver, a TripLog with finished
+   *     requests off the heap, as a List of Request
+   */
+  public List<Request> getTimedOutRequests() {
+    return timedOutRequests;
+  }
+
+  /**
+   * get the number of timed out requests, counted whether they are retained or not
+   * @return the number of requests that waited the longest wait without a driver, as a long
+   */
+  public long getTimedOutRequestCount() {
+    return timedOutRequestCount;
+  }
+
+  /**
+   * get the rejected requests, kept only with retained finished requests
+   * @return the requests rejected under overload, new or shed, a TripLog with finished requests
+   *     off the heap, as a List of Request
+   */
+  public List<Request> getRejectedRequests() {
+    return rejectedRequests;
+  }
+
+  /**
+   * get the number of rejected requests, counted whether they are retained or not
+   * @return the number of requests rejected under overload, as a long
+   */
+  public long getRejectedRequestCount() {
+    return rejectedRequestCount;
+  }
+
+  /**
+   * get the number of times requests were deferred, see OverloadPolicy.DEFER
+   * @return the number of deferrals, as a long
+   */
+  public long getDeferredRequestCount() {
+    return deferredRequestCount;
+  }
+
+  /**
+   * get the smoothed pickup and ride of the latest assignments, see predictWaitSeconds
+   * @return the average in seconds, or 0 before the first assignment, as a double
+   */
+  double getAverageServiceSeconds() {
+    return averageServiceSeconds;
+  }
+
   /**
    * get the waiting requests
-   * @return the waiting requests, as a PriorityQueue of Request
+   * @return the waiting requests, as a WaitingQueue
    */
-  public PriorityQueue<Request> getWaitingRequests() {
+  public WaitingQueue getWaitingRequests() {
     return waitingRequests;
   }
 
   /**
    * get the active requests
-   * @return the active requests, as a PriorityQueue of Request
+   * @return the active requests, by actual arrival, as a Queue of Request
    */
-  public PriorityQueue<Request> getActiveRequests() {
+  public Queue<Request> getActiveRequests() {
     return activeRequests;
   }
 }
@@ -0,0 +1,121 @@
+package rideshare.Controller;
+
+import java.util.List;
+import rideshare.AnalysisReport;
+import rideshare.objects.Request;
+
+/**
+ * ServiceLevelTarget is a waiting time target a simulation run has to meet:
+ * a maximum average waiting time and/or a maximum waiting time at a percentile.
+ * The waiting times only cover served requests, so the target also bounds the share of requests
+ * dropped, i.e. cancelled, timed out or rejected, which is none by default: otherwise too few
+ * drivers could meet it by dropping the requests that would wait longest.
+ */
+public class ServiceLevelTarget {
+
+  private final double maxAverageWaitingSeconds;
+  private final double percentile;
+  private final double maxPercentileWaitingSeconds;
+  private final double maxDropPercentage;
+
+  /**
+   * Constructor of ServiceLevelTarget. Use Double.POSITIVE_INFINITY for a bound that doesn't apply.
+   * @param maxAverageWaitingSeconds the maximum average waiting time in seconds, as a double
+   * @param percentile the percentile of the waiting time bound, between 0 and 100, as a double
+   * @param maxPercentileWaitingSeconds the maximum waiting time in seconds at the percentile, as a double
+   */
+  public ServiceLevelTarget(double maxAverageWaitingSeconds, double percentile,
+      double maxPercentileWaitingSeconds) {
+    this(maxAverageWaitingSeconds, percentile, maxPercentileWaitingSeconds, 0);
+  }
+
+  /**
+   * Constructor of ServiceLevelTarget with a share of requests that may be dropped.
+   * @param maxAverageWaitingSeconds the maximum average waiting time in seconds, as a double
+   * @param percentile the percentile of the waiting time bound, between 0 and 100, as a double
+   * @param maxPercentileWaitingSeconds the maximum waiting time in seconds at the percentile, as a double
+   * @param maxDropPercentage the largest share of requests not served, from 0 to 100, as a double
+   */
+  public ServiceLevelTarget(double maxAverageWaitingSeconds, double percentile,
+      double maxPercentileWaitingSeconds, double maxDropPercentage) {
+    this.maxAverageWaitingSeconds = maxAverageWaitingSeconds;
+    this.percentile = percentile;
+    this.maxPercentileWaitingSeconds = maxPercentileWaitingSeconds;
+    this.maxDropPercentage = maxDropPercentage;
+  }
+
+  /**
+   * Create a target on the average waiting time only.
+   * @param maxAverageWaitingSeconds the maximum average waiting time in seconds, as a double
+   * @return the target, as a ServiceLevelTarget
+   */
+  public static ServiceLevelTarget averageWaiting(double maxAverageWaitingSeconds) {
+    return new ServiceLevelTarget(maxAverageWaitingSeconds, 100, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Create a target on a percentile of the waiting time only.
+   * @param percentile the percentile, between 0 and 100, as a double
+   * @param maxPercentileWaitingSeconds the maximum waiting time in seconds at the percentile, as a double
+   * @return the target, as a ServiceLevelTarget
+   */
+  public static ServiceLevelTarget percentileWaiting(double percentile,
+      double maxPercentileWaitingSeconds) {
+    return new ServiceLevelTarget(Double.POSITIVE_INFINITY, percentile, maxPercentileWaitingSeconds);
+  }
+
+  /**
+   * Create the same target allowing a share of requests to be dropped.
+   * @param maxDropPercentage the largest share of requests not served, from 0 to 100, as a double
+   * @return the target, as a ServiceLevelTarget
+   */
+  public ServiceLevelTarget allowingDrops(double maxDropPercentage) {
+    return new ServiceLevelTarget(maxAverageWaitingSeconds, percentile,
+        maxPercentileWaitingSeconds, maxDropPercentage);
+  }
+
+  /**
+   * Evaluate the finished requests of a run without dropped requests against the target.
+   * @param numberOfDrivers the number of drivers of the run, as an int
+   * @param finishedRequests the finished requests of the run, as a List of Request
+   * @return the evaluation, as a SweepPoint
+   */
+  public SweepPoint evaluate(int numberOfDrivers, List<Request> finishedRequests) {
+    return evaluate(numberOfDrivers, finishedRequests, 0);
+  }
+
+  /**
+   * Evaluate a run against the target: the waiting times of its finished requests and the
+   * share of its requests that were dropped.
+   * @param numberOfDrivers the number of drivers of the run, as an int
+   * @param finishedRequests the finished requests of the run, as a List of Request
+   * @param droppedRequests the number of requests cancelled, timed out or rejected, as a long
+   * @return the evaluation, as a SweepPoint
+   */
+  public SweepPoint evaluate(int numberOfDrivers, List<Request> finishedRequests,
+      long droppedRequests) {
+    long totalWaitingSeconds = 0;
+    for (Request request : finishedRequests) {
+      totalWaitingSeconds += request.calculateWaitingSeconds();
+    }
+    double averageWaitingSeconds = finishedRequests.isEmpty()
+        ? 0 : (double) totalWaitingSeconds / finishedRequests.size();
+    int percentileWaitingSeconds = AnalysisReport.calculatePercentileWaitingSeconds(
+        finishedRequests, percentile);
+    long totalRequests = finishedRequests.size() + droppedRequests;
+    double dropPercentage = totalRequests == 0 ? 0 : 100.0 * droppedRequests / totalRequests;
+    boolean met = averageWaitingSeconds <= maxAverageWaitingSeconds
+        && percentileWaitingSeconds <= maxPercentileWaitingSeconds
+        && dropPercentage <= maxDropPercentage;
+    return new SweepPoint(numberOfDrivers, averageWaitingSeconds, percentileWaitingSeconds,
+        dropPercentage, met);
+  }
+
+  /**
+   * get the percentile of the waiting time bound
+   * @return the percentile, as a double
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+}
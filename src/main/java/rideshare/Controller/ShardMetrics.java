@@ -0,0 +1,171 @@
+package rideshare.Controller;
+
+/**
+ * ShardMetrics holds the counters of one dispatcher shard, or their sum over several shards,
+ * as of the end of the shard's last event loop slice.
+ */
+public class ShardMetrics {
+
+  /** the metrics of no shard at all */
+  public static final ShardMetrics NONE = new ShardMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+  private final int shards;
+  private final long receivedRequests;
+  private final long queuedRequests;
+  private final long assignedRequests;
+  private final long finishedRequests;
+  private final long cancelledRequests;
+  private final long timedOutRequests;
+  private final long rejectedRequests;
+  private final long ticks;
+  private final long slices;
+  private final long busyNanos;
+
+  /**
+   * Constructor of ShardMetrics
+   * @param shards the number of shards counted, as an int
+   * @param receivedRequests requests taken from the inboxes, as a long
+   * @param queuedRequests requests that had to wait for a driver, as a long
+   * @param assignedRequests requests assigned a driver, as a long
+   * @param finishedRequests finished rides, as a long
+   * @param cancelledRequests requests cancelled while waiting, as a long
+   * @param timedOutRequests requests that timed out while waiting, as a long
+   * @param rejectedRequests requests rejected under overload, as a long
+   * @param ticks simulated event times processed, as a long
+   * @param slices event loop slices run on the workers, as a long
+   * @param busyNanos time spent in the slices in nanoseconds, as a long
+   */
+  public ShardMetrics(int shards, long receivedRequests, long queuedRequests,
+      long assignedRequests, long finishedRequests, long cancelledRequests,
+      long timedOutRequests, long rejectedRequests, long ticks, long slices, long busyNanos) {
+    this.shards = shards;
+    this.receivedRequests = receivedRequests;
+    this.queuedRequests = queuedRequests;
+    this.assignedRequests = assignedRequests;
+    this.finishedRequests = finishedRequests;
+    this.cancelledRequests = cancelledRequests;
+    this.timedOutRequests = timedOutRequests;
+    this.rejectedRequests = rejectedRequests;
+    this.ticks = ticks;
+    this.slices = slices;
+    this.busyNanos = busyNanos;
+  }
+
+  /**
+   * add the counters of other shards to these
+   * @param other the metrics of the other shards, as a ShardMetrics
+   * @return the sum, as a ShardMetrics
+   */
+  public ShardMetrics plus(ShardMetrics other) {
+    return new ShardMetrics(shards + other.shards, receivedRequests + other.receivedRequests,
+        queuedRequests + other.queuedRequests, assignedRequests + other.assignedRequests,
+        finishedRequests + other.finishedRequests, cancelledRequests + other.cancelledRequests,
+        timedOutRequests + other.timedOutRequests, rejectedRequests + other.rejectedRequests,
+        ticks + other.ticks, slices + other.slices, busyNanos + other.busyNanos);
+  }
+
+  /**
+   * get the number of shards counted
+   * @return the number of shards, as an int
+   */
+  public int getShards() {
+    return shards;
+  }
+
+  /**
+   * get the number of requests taken from the inboxes of the shards
+   * @return the number of requests, as a long
+   */
+  public long getReceivedRequests() {
+    return receivedRequests;
+  }
+
+  /**
+   * get the number of requests that had to wait for a driver
+   * @return the number of requests, as a long
+   */
+  public long getQueuedRequests() {
+    return queuedRequests;
+  }
+
+  /**
+   * get the number of requests assigned a driver
+   * @return the number of requests, as a long
+   */
+  public long getAssignedRequests() {
+    return assignedRequests;
+  }
+
+  /**
+   * get the number of finished rides
+   * @return the number of rides, as a long
+   */
+  public long getFinishedRequests() {
+    return finishedRequests;
+  }
+
+  /**
+   * get the number of requests cancelled while waiting
+   * @return the number of requests, as a long
+   */
+  public long getCancelledRequests() {
+    return cancelledRequests;
+  }
+
+  /**
+   * get the number of requests that timed out while waiting
+   * @return the number of requests, as a long
+   */
+  public long getTimedOutRequests() {
+    return timedOutRequests;
+  }
+
+  /**
+   * get the number of requests rejected under overload
+   * @return the number of requests, as a long
+   */
+  public long getRejectedRequests() {
+    return rejectedRequests;
+  }
+
+  /**
+   * get the number of simulated event times processed
+   * @return the number of ticks, as a long
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * get the number of event loop slices run on the workers
+   * @return the number of slices, as a long
+   */
+  public long getSlices() {
+    return slices;
+  }
+
+  /**
+   * get the time spent in the event loops, summed over the shards
+   * @return the time in nanoseconds, as a long
+   */
+  public long getBusyNanos() {
+    return busyNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "ShardMetrics{" +
+        "shards=" + shards +
+        ", receivedRequests=" + receivedRequests +
+        ", queuedRequests=" + queuedRequests +
+        ", assignedRequests=" + assignedRequests +
+        ", finishedRequests=" + finishedRequests +
+        ", cancelledRequests=" + cancelledRequests +
+        ", timedOutRequests=" + timedOutRequests +
+        ", rejectedRequests=" + rejectedRequests +
+        ", ticks=" + ticks +
+        ", slices=" + slices +
+        ", busyNanos=" + busyNanos +
+        '}';
+  }
+}
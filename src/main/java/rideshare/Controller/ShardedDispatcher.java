@@ -0,0 +1,153 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import rideshare.objects.Request;
+
+/**
+ * ShardedDispatcher hosts many independent markets in one process, one DispatcherShard per city
+ * or region, each with its own simulator and single-threaded event loop.
+ *
+ * The event loops run in slices over a fixed pool of workers that steal work from each other:
+ * a ForkJoinPool in FIFO mode. A shard with nothing to do takes no worker, and a busy shard
+ * gives its worker up between slices, so a worker that runs out of shards takes slices queued
+ * behind a busy one instead of idling. The counters of every shard are published after each of
+ * its slices, so getMetrics sums them while the shards run.
+ */
+public class ShardedDispatcher {
+
+  private final ForkJoinPool workers;
+  private final Map<String, DispatcherShard> shardsByName = new ConcurrentHashMap<>();
+  private final List<DispatcherShard> shards = new CopyOnWriteArrayList<>();
+
+  /**
+   * Constructor of ShardedDispatcher
+   * @param parallelism number of workers, as an int
+   */
+  public ShardedDispatcher(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    this.workers = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+        null, true);
+  }
+
+  /**
+   * add a market. Its simulator is then only run by the shard, and reports to the shard's own
+   * DispatchListener, which passes everything on to the given one.
+   * @param name the name of the market, as a String
+   * @param simulator the simulator with its drivers and any requests known up front, as a
+   *     RideshareDispatchSimulator
+   * @param listener the listener notified as rides are dispatched, on the workers, or null, as a
+   *     DispatchListener
+   * @return the shard, as a DispatcherShard
+   * @throws IllegalArgumentException if a market has the same name
+   */
+  public DispatcherShard addShard(String name, RideshareDispatchSimulator simulator,
+      DispatchListener listener) {
+    DispatcherShard shard = new DispatcherShard(name, simulator, listener, workers);
+    if (shardsByName.putIfAbsent(name, shard) != null) {
+      throw new IllegalArgumentException("Duplicate shard: " + name);
+    }
+    shards.add(shard);
+    return shard;
+  }
+
+  /**
+   * add a market, see addShard(String, RideshareDispatchSimulator, DispatchListener)
+   * @param name the name of the market, as a String
+   * @param simulator the simulator with its drivers, as a RideshareDispatchSimulator
+   * @return the shard, as a DispatcherShard
+   */
+  public DispatcherShard addShard(String name, RideshareDispatchSimulator simulator) {
+    return addShard(name, simulator, null);
+  }
+
+  /**
+   * submit a request to a market, from any thread
+   * @param name the name of the market, as a String
+   * @param request the request, as a Request
+   * @throws IllegalArgumentException if there's no such market
+   * @throws IllegalStateException if the market is closed
+   */
+  public void submit(String name, Request request) {
+    DispatcherShard shard = shardsByName.get(name);
+    if (shard == null) {
+      throw new IllegalArgumentException("Unknown shard: " + name);
+    }
+    shard.submit(request);
+  }
+
+  /**
+   * close every market, wait until each ran its simulator to the end, and stop the workers
+   * @throws InterruptedException if interrupted while waiting
+   * @throws IllegalStateException if the event loop of a market failed
+   */
+  public void finish() throws InterruptedException {
+    try {
+      for (DispatcherShard shard : shards) {
+        shard.close();
+      }
+      for (DispatcherShard shard : shards) {
+        try {
+          shard.getDone().get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Shard " + shard.getName() + " failed", e.getCause());
+        }
+      }
+    } finally {
+      workers.shutdown();
+    }
+  }
+
+  /**
+   * get a market
+   * @param name the name of the market, as a String
+   * @return the shard, or null if there's none, as a DispatcherShard
+   */
+  public DispatcherShard getShard(String name) {
+    return shardsByName.get(name);
+  }
+
+  /**
+   * get the markets, in the order they were added
+   * @return the shards, as a List of DispatcherShard
+   */
+  public List<DispatcherShard> getShards() {
+    return new ArrayList<>(shards);
+  }
+
+  /**
+   * get the sum of the counters of every market, without stopping them. Every shard counts as of
+   * the end of its last slice.
+   * @return the counters, as a ShardMetrics
+   */
+  public ShardMetrics getMetrics() {
+    ShardMetrics total = ShardMetrics.NONE;
+    for (DispatcherShard shard : shards) {
+      total = total.plus(shard.getMetrics());
+    }
+    return total;
+  }
+
+  /**
+   * get the number of slices a worker took from another worker's queue
+   * @return the number of steals, as a long
+   */
+  public long getStealCount() {
+    return workers.getStealCount();
+  }
+
+  /**
+   * get the number of workers
+   * @return the parallelism, as an int
+   */
+  public int getParallelism() {
+    return workers.getParallelism();
+  }
+}
@@ -1,25 +1,45 @@
 package rideshare.Controller;
 
-import java.time.LocalDateTime;
-import java.util.PriorityQueue;
-import java.util.Queue;
 import rideshare.Event.Event;
-import rideshare.Event.EventComparator;
+import rideshare.Event.EventQueue;
+import rideshare.Event.EventQueueType;
 
 /**
  * Simulation class is the main class of the simulation. It contains the eventQueue and the current time.
+ * Time is kept in epoch seconds, see SimulationClock.
  */
 public class Simulation {
 
-  protected Queue<Event> eventQueue;
-  protected LocalDateTime time;
+  protected EventQueue eventQueue;
+  protected final EventQueueType eventQueueType;
+  protected final long startTime;
+  protected long time;
 
   /**
-   * Constructor of the Simulation class.
+   * Constructor of the Simulation class. Uses the binary heap event queue and the default start time.
    */
   public Simulation() {
-    this.eventQueue = new PriorityQueue<>(new EventComparator());
-    this.time = LocalDateTime.now();
+    this(EventQueueType.HEAP);
+  }
+
+  /**
+   * Constructor of the Simulation class. Uses the default start time.
+   * @param eventQueueType the event queue implementation to use, as an EventQueueType
+   */
+  public Simulation(EventQueueType eventQueueType) {
+    this(eventQueueType, SimulationClock.DEFAULT_START_SECOND);
+  }
+
+  /**
+   * Constructor of the Simulation class.
+   * @param eventQueueType the event queue implementation to use, as an EventQueueType
+   * @param startTime the start time of the simulation in epoch seconds, as a long
+   */
+  public Simulation(EventQueueType eventQueueType, long startTime) {
+    this.eventQueueType = eventQueueType;
+    this.startTime = startTime;
+    this.time = startTime;
+    this.eventQueue = eventQueueType.create(startTime);
   }
 
   /**
@@ -32,17 +52,33 @@ public class Simulation {
 
   /**
    * Get the event queue in the eventQueue.
-   * @return the  event queue, as a PriorityQueue
+   * @return the  event queue, as an EventQueue
    */
-  public Queue<Event> getEventQueue() {
+  public EventQueue getEventQueue() {
     return eventQueue;
   }
 
+  /**
+   * Get the event queue implementation.
+   * @return the event queue implementation, as an EventQueueType
+   */
+  public EventQueueType getEventQueueType() {
+    return eventQueueType;
+  }
+
+  /**
+   * Get the start time.
+   * @return the start time in epoch seconds, as a long
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
   /**
    * Get the current time.
-   * @return the current time
+   * @return the current time in epoch seconds, as a long
    */
-  public LocalDateTime getTime() {
+  public long getTime() {
     return time;
   }
 }
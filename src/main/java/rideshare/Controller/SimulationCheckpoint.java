@@ -0,0 +1,440 @@
+package rideshare.Controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import rideshare.Event.DriverArrivedEvent;
+import rideshare.Event.Event;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
+import rideshare.Event.EventType;
+import rideshare.Event.PackedEventQueue;
+import rideshare.Routing.TravelTimes;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+/**
+ * SimulationCheckpoint writes the full state of a RideshareDispatchSimulator between two ticks
+ * to a compact binary format, and resumes a simulator from it. A resumed simulator continues
+ * exactly like the original would have, so one warmed-up checkpoint can be forked into many runs.
+ *
+ * The format is big-endian (DataOutput), in this order:
+ * magic and version; event queue type, event mode, start time, driver matching, city size,
+ * dispatch window, matching candidates, dispatch policy, aging interval, longest wait, seat
+ * capacity, longest detour, most waiting requests, longest predicted wait, overload policy, defer
+ * time and current time; the driver table (id, name, position); every request in id order (ride,
+ * coordinates, effective priority, actual arrival time and the driver table index of the assigned
+ * driver, or -1); the idle drivers as driver table indexes; the waiting, active, finished,
+ * cancelled, timed out and rejected requests as request ids; the number of deferrals and the
+ * average pickup and ride of the wait prediction; the routes of shared rides
+ * as driver table index, origin, origin time and stops (request id, pickup flag, time and latest
+ * time); and the pending events as type, time and request id or driver table index.
+ * A location is written as a presence flag followed by its x and y coordinates.
+ * A DriverHandoff is not part of the state and has to be set again after resuming.
+ */
+public final class SimulationCheckpoint {
+
+  private static final int MAGIC = 0x52534350; // "RSCP"
+  private static final int VERSION = 7;
+  private static final int NONE = -1;
+
+  private SimulationCheckpoint() {
+  }
+
+  /**
+   * write the state of a simulator, which must not be in the middle of a tick and must retain
+   * its finished requests
+   * @param simulator the simulator, as a RideshareDispatchSimulator
+   * @param out the stream to write to, which is flushed but not closed, as an OutputStream
+   * @throws IOException if the stream fails
+   * @throws IllegalStateException if the simulator does not retain finished requests, has
+   *     a dispatch policy other than a StandardDispatchPolicy, travel times other than
+   *     straight lines, or a workload or finished requests off the heap
+   */
+  public static void write(RideshareDispatchSimulator simulator, OutputStream out)
+      throws IOException {
+    if (!(simulator.getDispatchPolicy() instanceof StandardDispatchPolicy)) {
+      throw new IllegalStateException("Only standard dispatch policies can be checkpointed");
+    }
+    if (simulator.getTravelTimes() != TravelTimes.STRAIGHT_LINE) {
+      throw new IllegalStateException("Only straight-line travel times can be checkpointed");
+    }
+    if (simulator.getWorkloadStore() != null || simulator.getWorkloadTrips() != null) {
+      throw new IllegalStateException(
+          "Simulations of a request store or a trip log can't be checkpointed");
+    }
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeByte(simulator.getEventQueueType().ordinal());
+    data.writeByte(simulator.getEventMode().ordinal());
+    data.writeLong(simulator.getStartTime());
+    data.writeByte(simulator.getDriverMatching().ordinal());
+    data.writeDouble(simulator.getCitySizeMiles());
+    data.writeLong(simulator.getDispatchWindowSeconds());
+    data.writeInt(simulator.getMatchingCandidates());
+    data.writeByte(((StandardDispatchPolicy) simulator.getDispatchPolicy()).ordinal());
+    data.writeLong(simulator.getAgingIntervalSeconds());
+    data.writeLong(simulator.getMaxWaitSeconds());
+    data.writeInt(simulator.getSeatCapacity());
+    data.writeLong(simulator.getMaxDetourSeconds());
+    data.writeInt(simulator.getMaxWaitingRequests());
+    data.writeLong(simulator.getMaxPredictedWaitSeconds());
+    data.writeByte(simulator.getOverloadPolicy().ordinal());
+    data.writeLong(simulator.getDeferSeconds());
+    data.writeLong(simulator.getTime());
+    List<Request> requests = simulator.getRequests();
+    List<Driver> idleDrivers = simulator.getAvailableDrivers();
+
+    // pending events, resolved to their requests and drivers
+    List<EventType> eventTypes = new ArrayList<>();
+    List<Long> eventTimes = new ArrayList<>();
+    List<Object> eventSubjects = new ArrayList<>();
+    if (simulator.getEventMode() == EventMode.PACKED) {
+      for (long packedEvent : simulator.getPackedEventQueue().toArray()) {
+        EventType type = EventType.fromTag(PackedEventQueue.typeOf(packedEvent));
+        int index = PackedEventQueue.indexOf(packedEvent);
+        eventTypes.add(type);
+        eventTimes.add(simulator.getPackedEventQueue().timeOf(packedEvent));
+        eventSubjects.add(type == EventType.DRIVER_ARRIVED
+            ? simulator.getArrivingDriver(index) : requests.get(simulator.getRequestId(index)));
+      }
+    } else {
+      for (Event event : simulator.getEventQueue().toList()) {
+        eventTypes.add(event.getType());
+        eventTimes.add(event.time);
+        eventSubjects.add(event.getType() == EventType.DRIVER_ARRIVED
+            ? ((DriverArrivedEvent) event).getDriver() : event.getRequest());
+      }
+    }
+
+    // every driver is idle, on a ride or on the way from another simulator
+    Map<Driver, Integer> driverIndex = new IdentityHashMap<>();
+    List<Driver> drivers = new ArrayList<>();
+    for (Driver driver : idleDrivers) {
+      addDriver(driver, driverIndex, drivers);
+    }
+    for (Request request : requests) {
+      addDriver(request.getAssignedDriver(), driverIndex, drivers);
+    }
+    for (Object subject : eventSubjects) {
+      if (subject instanceof Driver) {
+        addDriver((Driver) subject, driverIndex, drivers);
+      }
+    }
+    data.writeInt(drivers.size());
+    for (Driver driver : drivers) {
+      data.writeInt(driver.getId());
+      data.writeUTF(driver.getName());
+      writeLocation(data, driver.getPosition());
+    }
+
+    data.writeInt(requests.size());
+    for (Request request : requests) {
+      data.writeUTF(request.getCustomerName());
+      data.writeUTF(request.getStartLocation());
+      data.writeUTF(request.getEndLocation());
+      data.writeDouble(request.getDistance());
+      data.writeLong(request.getRequestEpochSecond());
+      data.writeByte(request.getRideType().ordinal());
+      writeLocation(data, request.getStartCoordinates());
+      writeLocation(data, request.getEndCoordinates());
+      data.writeByte(request.getEffectivePriority());
+      data.writeLong(request.getActualArrivalEpochSecond());
+      Driver driver = request.getAssignedDriver();
+      data.writeInt(driver == null ? NONE : driverIndex.get(driver));
+    }
+
+    data.writeInt(idleDrivers.size());
+    for (Driver driver : idleDrivers) {
+      data.writeInt(driverIndex.get(driver));
+    }
+    writeRequestIds(data, simulator.getWaitingRequests());
+    writeRequestIds(data, simulator.getActiveRequests());
+    writeRequestIds(data, simulator.getFinishedRequests());
+    writeRequestIds(data, simulator.getCancelledRequests());
+    writeRequestIds(data, simulator.getTimedOutRequests());
+    writeRequestIds(data, simulator.getRejectedRequests());
+    data.writeLong(simulator.getDeferredRequestCount());
+    data.writeDouble(simulator.getAverageServiceSeconds());
+
+    List<PooledRoute> routes = simulator.getRoutes();
+    data.writeInt(routes.size());
+    for (PooledRoute route : routes) {
+      data.writeInt(driverIndex.get(route.getDriver()));
+      writeLocation(data, route.getOrigin());
+      data.writeDouble(route.getOriginTime());
+      data.writeInt(route.size());
+      for (int stop = 0; stop < route.size(); stop++) {
+        data.writeInt(route.getRequest(stop).getId());
+        data.writeBoolean(route.isPickup(stop));
+        data.writeDouble(route.getTime(stop));
+        data.writeDouble(route.getLatestTime(stop));
+      }
+    }
+
+    data.writeInt(eventTypes.size());
+    for (int i = 0; i < eventTypes.size(); i++) {
+      Object subject = eventSubjects.get(i);
+      data.writeByte(eventTypes.get(i).ordinal());
+      data.writeLong(eventTimes.get(i));
+      data.writeInt(subject instanceof Driver
+          ? driverIndex.get(subject) : ((Request) subject).getId());
+    }
+    data.flush();
+  }
+
+  /**
+   * resume a simulator from a checkpoint
+   * @param in the stream to read from, which is not closed, as an InputStream.
+   *     Only the checkpoint is read, so a buffered stream is best passed in
+   * @return the resumed simulator, as a RideshareDispatchSimulator
+   * @throws IOException if the stream fails or does not hold a checkpoint
+   */
+  public static RideshareDispatchSimulator read(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a simulation checkpoint");
+    }
+    int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version " + version);
+    }
+    SimulationConfig config = new SimulationConfig()
+        .setEventQueueType(EventQueueType.values()[data.readUnsignedByte()])
+        .setEventMode(EventMode.values()[data.readUnsignedByte()])
+        .setStartTime(data.readLong())
+        .setDriverMatching(DriverMatching.values()[data.readUnsignedByte()])
+        .setCitySizeMiles(data.readDouble())
+        .setDispatchWindowSeconds(data.readLong())
+        .setMatchingCandidates(data.readInt())
+        .setDispatchPolicy(StandardDispatchPolicy.values()[data.readUnsignedByte()])
+        .setAgingIntervalSeconds(data.readLong())
+        .setMaxWaitSeconds(data.readLong())
+        .setSeatCapacity(data.readInt())
+        .setMaxDetourSeconds(data.readLong())
+        .setMaxWaitingRequests(data.readInt())
+        .setMaxPredictedWaitSeconds(data.readLong())
+        .setOverloadPolicy(OverloadPolicy.values()[data.readUnsignedByte()])
+        .setDeferSeconds(data.readLong());
+    long time = data.readLong();
+
+    Driver[] drivers = new Driver[data.readInt()];
+    for (int i = 0; i < drivers.length; i++) {
+      int id = data.readInt();
+      drivers[i] = new Driver(id, data.readUTF());
+      drivers[i].setPosition(readLocation(data));
+    }
+
+    List<Request> requests = new ArrayList<>();
+    int numberOfRequests = data.readInt();
+    RideType[] rideTypes = RideType.values();
+    for (int i = 0; i < numberOfRequests; i++) {
+      Request request = new Request(data.readUTF(), data.readUTF(), data.readUTF(),
+          data.readDouble(), data.readLong(), rideTypes[data.readUnsignedByte()]);
+      request.setCoordinates(readLocation(data), readLocation(data));
+      request.setEffectivePriority(data.readByte());
+      request.setActualArrivalEpochSecond(data.readLong());
+      int driver = data.readInt();
+      if (driver != NONE) {
+        request.setAssignedDriver(drivers[driver]);
+      }
+      requests.add(request);
+    }
+
+    List<Driver> idleDrivers = new ArrayList<>();
+    int numberOfIdleDrivers = data.readInt();
+    for (int i = 0; i < numberOfIdleDrivers; i++) {
+      idleDrivers.add(drivers[data.readInt()]);
+    }
+    List<Request> waiting = readRequests(data, requests);
+    List<Request> active = readRequests(data, requests);
+    List<Request> finished = readRequests(data, requests);
+    List<Request> cancelled = readRequests(data, requests);
+    List<Request> timedOut = readRequests(data, requests);
+    List<Request> rejected = readRequests(data, requests);
+    long deferrals = data.readLong();
+    double serviceSeconds = data.readDouble();
+
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(config, 0);
+    simulator.restore(time, requests, idleDrivers, waiting, active, finished, cancelled,
+        timedOut, rejected, deferrals, serviceSeconds);
+
+    int numberOfRoutes = data.readInt();
+    for (int i = 0; i < numberOfRoutes; i++) {
+      PooledRoute route = new PooledRoute(drivers[data.readInt()], config.getSeatCapacity(),
+          simulator.getTravelTimes());
+      route.setOrigin(readLocation(data), data.readDouble());
+      int numberOfStops = data.readInt();
+      for (int stop = 0; stop < numberOfStops; stop++) {
+        route.add(requests.get(data.readInt()), data.readBoolean(), data.readDouble(),
+            data.readDouble());
+      }
+      simulator.restoreRoute(route);
+    }
+
+    int numberOfEvents = data.readInt();
+    for (int i = 0; i < numberOfEvents; i++) {
+      EventType type = EventType.fromTag(data.readUnsignedByte());
+      long eventTime = data.readLong();
+      int subject = data.readInt();
+      switch (type) {
+        case RIDE_REQUESTED:
+          simulator.scheduleRideRequested(eventTime, requests.get(subject));
+          break;
+        case RIDE_FINISHED:
+          simulator.scheduleRideFinished(eventTime, requests.get(subject));
+          break;
+        case DRIVER_ARRIVED:
+          simulator.scheduleDriverArrival(eventTime, drivers[subject]);
+          break;
+        case RIDE_CANCELLED:
+          simulator.scheduleCancellation(eventTime, requests.get(subject));
+          break;
+        case REQUEST_TIMED_OUT:
+          simulator.scheduleRequestTimedOut(eventTime, requests.get(subject));
+          break;
+        default:
+          throw new IOException("Unknown event type " + type);
+      }
+    }
+    return simulator;
+  }
+
+  /**
+   * write a checkpoint to a file
+   * @param simulator the simulator, as a RideshareDispatchSimulator
+   * @param file the file, as a Path
+   * @throws IOException if the file can't be written
+   */
+  public static void save(RideshareDispatchSimulator simulator, Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      write(simulator, out);
+    }
+  }
+
+  /**
+   * resume a simulator from a checkpoint file
+   * @param file the file, as a Path
+   * @return the resumed simulator, as a RideshareDispatchSimulator
+   * @throws IOException if the file can't be read or does not hold a checkpoint
+   */
+  public static RideshareDispatchSimulator load(Path file) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+      return read(in);
+    }
+  }
+
+  /**
+   * write a checkpoint into memory, e.g. to fork many runs from it with fromBytes
+   * @param simulator the simulator, as a RideshareDispatchSimulator
+   * @return the checkpoint, as a byte[]
+   */
+  public static byte[] toBytes(RideshareDispatchSimulator simulator) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      write(simulator, out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * resume a simulator from a checkpoint in memory
+   * @param checkpoint the checkpoint, as a byte[]
+   * @return the resumed simulator, as a RideshareDispatchSimulator
+   */
+  public static RideshareDispatchSimulator fromBytes(byte[] checkpoint) {
+    try {
+      return read(new ByteArrayInputStream(checkpoint));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * add a driver to the driver table if it's not in it yet
+   * @param driver the driver, or null, as a Driver
+   * @param driverIndex the index of every driver in the table, as a Map of Driver to Integer
+   * @param drivers the driver table, as a List of Driver
+   */
+  private static void addDriver(Driver driver, Map<Driver, Integer> driverIndex,
+      List<Driver> drivers) {
+    if (driver != null && !driverIndex.containsKey(driver)) {
+      driverIndex.put(driver, drivers.size());
+      drivers.add(driver);
+    }
+  }
+
+  /**
+   * write a location that may be unknown
+   * @param data the output, as a DataOutputStream
+   * @param location the location, or null, as a Location
+   * @throws IOException if the stream fails
+   */
+  private static void writeLocation(DataOutputStream data, Location location) throws IOException {
+    data.writeBoolean(location != null);
+    if (location != null) {
+      data.writeDouble(location.getX());
+      data.writeDouble(location.getY());
+    }
+  }
+
+  /**
+   * read a location written by writeLocation
+   * @param data the input, as a DataInputStream
+   * @return the location, or null, as a Location
+   * @throws IOException if the stream fails
+   */
+  private static Location readLocation(DataInputStream data) throws IOException {
+    return data.readBoolean() ? new Location(data.readDouble(), data.readDouble()) : null;
+  }
+
+  /**
+   * write the ids of requests, preceded by their number
+   * @param data the output, as a DataOutputStream
+   * @param requests the requests, as a Collection of Request
+   * @throws IOException if the stream fails
+   */
+  private static void writeRequestIds(DataOutputStream data, Collection<Request> requests)
+      throws IOException {
+    data.writeInt(requests.size());
+    for (Request request : requests) {
+      data.writeInt(request.getId());
+    }
+  }
+
+  /**
+   * read request ids written by writeRequestIds
+   * @param data the input, as a DataInputStream
+   * @param requests every request, indexed by id, as a List of Request
+   * @return the requests, as a List of Request
+   * @throws IOException if the stream fails
+   */
+  private static List<Request> readRequests(DataInputStream data, List<Request> requests)
+      throws IOException {
+    int count = data.readInt();
+    List<Request> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(requests.get(data.readInt()));
+    }
+    return result;
+  }
+}
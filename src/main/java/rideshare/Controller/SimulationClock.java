@@ -0,0 +1,43 @@
+package rideshare.Controller;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * SimulationClock defines how simulation time is represented.
+ * Inside the simulation, time is a primitive long counting seconds since the epoch (UTC),
+ * and LocalDateTime is only produced at the boundaries, e.g. in AnalysisReport.
+ */
+public final class SimulationClock {
+
+  /**
+   * The fixed start time of a simulation when none is given, so runs are reproducible.
+   */
+  public static final LocalDateTime DEFAULT_START_TIME = LocalDateTime.of(2023, 10, 1, 0, 0, 0);
+
+  /**
+   * DEFAULT_START_TIME in epoch seconds.
+   */
+  public static final long DEFAULT_START_SECOND = toEpochSecond(DEFAULT_START_TIME);
+
+  private SimulationClock() {
+  }
+
+  /**
+   * Convert a LocalDateTime to simulation time.
+   * @param dateTime the date time, as a LocalDateTime
+   * @return the epoch second of the date time, as a long
+   */
+  public static long toEpochSecond(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  /**
+   * Convert simulation time to a LocalDateTime.
+   * @param epochSecond the simulation time in epoch seconds, as a long
+   * @return the date time, as a LocalDateTime
+   */
+  public static LocalDateTime toLocalDateTime(long epochSecond) {
+    return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,483 @@
+package rideshare.Controller;
+
+import java.util.Random;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
+import rideshare.Routing.TravelTimes;
+
+/**
+ * SimulationConfig holds the options of a RideshareDispatchSimulator.
+ * Every option has a default, so only the ones that differ need to be set.
+ * Setters return the config itself so they can be chained.
+ */
+public class SimulationConfig {
+
+  private EventQueueType eventQueueType = EventQueueType.HEAP;
+  private EventMode eventMode = EventMode.OBJECT;
+  private long startTime = SimulationClock.DEFAULT_START_SECOND;
+  private Long seed = null;
+  private boolean retainFinishedRequests = true;
+  private boolean finishedRequestsOffHeap = false;
+  private DriverMatching driverMatching = DriverMatching.LONGEST_IDLE;
+  private double citySizeMiles = 20;
+  private long dispatchWindowSeconds = 0;
+  private int matchingCandidates = 8;
+  private DispatchPolicy dispatchPolicy = StandardDispatchPolicy.PRIORITY;
+  private long agingIntervalSeconds = 0;
+  private long maxWaitSeconds = 0;
+  private int seatCapacity = 1;
+  private long maxDetourSeconds = 300;
+  private TravelTimes travelTimes = TravelTimes.STRAIGHT_LINE;
+  private int maxWaitingRequests = 0;
+  private long maxPredictedWaitSeconds = 0;
+  private OverloadPolicy overloadPolicy = OverloadPolicy.REJECT;
+  private long deferSeconds = 60;
+
+  /**
+   * Get the event queue implementation, used in EventMode.OBJECT.
+   * @return the event queue implementation, as an EventQueueType
+   */
+  public EventQueueType getEventQueueType() {
+    return eventQueueType;
+  }
+
+  /**
+   * Set the event queue implementation, used in EventMode.OBJECT.
+   * @param eventQueueType the event queue implementation, as an EventQueueType
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setEventQueueType(EventQueueType eventQueueType) {
+    this.eventQueueType = eventQueueType;
+    return this;
+  }
+
+  /**
+   * Get the event representation.
+   * @return the event representation, as an EventMode
+   */
+  public EventMode getEventMode() {
+    return eventMode;
+  }
+
+  /**
+   * Set the event representation.
+   * @param eventMode the event representation, as an EventMode
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setEventMode(EventMode eventMode) {
+    this.eventMode = eventMode;
+    return this;
+  }
+
+  /**
+   * Get the start time of the simulation.
+   * @return the start time in epoch seconds, as a long
+   */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Set the start time of the simulation.
+   * @param startTime the start time in epoch seconds, as a long
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setStartTime(long startTime) {
+    this.startTime = startTime;
+    return this;
+  }
+
+  /**
+   * Get the seed of the random request stream.
+   * @return the seed, or null for an unseeded stream, as a Long
+   */
+  public Long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Set the seed of the random request stream. The same seed generates the same requests.
+   * @param seed the seed, or null for an unseeded stream, as a Long
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setSeed(Long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Check if finished requests are kept, see setRetainFinishedRequests.
+   * @return true if finished requests are kept
+   */
+  public boolean isRetainFinishedRequests() {
+    return retainFinishedRequests;
+  }
+
+  /**
+   * Set if finished requests are kept in the finished requests of the simulator.
+   * Without them, memory is bounded by the requests in flight, e.g. for streaming dispatch,
+   * and finished rides are only reported to a DispatchListener.
+   * @param retainFinishedRequests true to keep finished requests, the default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setRetainFinishedRequests(boolean retainFinishedRequests) {
+    this.retainFinishedRequests = retainFinishedRequests;
+    return this;
+  }
+
+  /**
+   * Check if finished requests are kept off the heap, see setFinishedRequestsOffHeap.
+   * @return true if finished requests are kept in a TripLog
+   */
+  public boolean isFinishedRequestsOffHeap() {
+    return finishedRequestsOffHeap;
+  }
+
+  /**
+   * Set if finished requests are kept off the heap, in a TripLog, instead of as Request objects,
+   * and the cancelled, timed out and rejected requests with them. The heap is then bounded by
+   * the requests in flight, like without retaining them, while all of them can still be
+   * reported, without their names. Only used while finished requests are retained, and such
+   * simulations can't be checkpointed.
+   * @param finishedRequestsOffHeap true to keep finished requests in a TripLog, false by default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setFinishedRequestsOffHeap(boolean finishedRequestsOffHeap) {
+    this.finishedRequestsOffHeap = finishedRequestsOffHeap;
+    return this;
+  }
+
+  /**
+   * Get how an idle driver is picked for a request.
+   * @return the driver matching, as a DriverMatching
+   */
+  public DriverMatching getDriverMatching() {
+    return driverMatching;
+  }
+
+  /**
+   * Set how an idle driver is picked for a request. With DriverMatching.NEAREST, requests with
+   * coordinates get the nearest idle driver, and the pickup time is added to their ride.
+   * @param driverMatching the driver matching, as a DriverMatching
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setDriverMatching(DriverMatching driverMatching) {
+    this.driverMatching = driverMatching;
+    return this;
+  }
+
+  /**
+   * Get the size of the city.
+   * @return the width and height of the city in miles, as a double
+   */
+  public double getCitySizeMiles() {
+    return citySizeMiles;
+  }
+
+  /**
+   * Set the size of the city, used by DriverMatching.NEAREST for the spatial index and to place
+   * drivers without a position at random.
+   * @param citySizeMiles the width and height of the city in miles, as a double
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setCitySizeMiles(double citySizeMiles) {
+    this.citySizeMiles = citySizeMiles;
+    return this;
+  }
+
+  /**
+   * Get the length of a dispatch window, see setDispatchWindowSeconds.
+   * @return the dispatch window in seconds, or 0 to dispatch immediately, as a long
+   */
+  public long getDispatchWindowSeconds() {
+    return dispatchWindowSeconds;
+  }
+
+  /**
+   * Set the length of a dispatch window. With a window, requests and released drivers are
+   * collected and matched all at once at the end of every window, i.e. every dispatchWindowSeconds
+   * after the start time. With DriverMatching.NEAREST the matching minimizes the total pickup time,
+   * otherwise the highest priority requests get the longest idle drivers.
+   * @param dispatchWindowSeconds the dispatch window in seconds, or 0 to dispatch every request
+   *     greedily as soon as it arrives, the default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setDispatchWindowSeconds(long dispatchWindowSeconds) {
+    this.dispatchWindowSeconds = dispatchWindowSeconds;
+    return this;
+  }
+
+  /**
+   * Get the number of candidate drivers per request in a dispatch window.
+   * @return the number of candidates, as an int
+   */
+  public int getMatchingCandidates() {
+    return matchingCandidates;
+  }
+
+  /**
+   * Set the number of nearest idle drivers considered for each request in a dispatch window.
+   * It bounds the work of the matching, which grows with the number of candidate pairs.
+   * @param matchingCandidates the number of candidates, 8 by default, as an int
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setMatchingCandidates(int matchingCandidates) {
+    this.matchingCandidates = matchingCandidates;
+    return this;
+  }
+
+  /**
+   * Get the dispatch policy.
+   * @return the dispatch policy, as a DispatchPolicy
+   */
+  public DispatchPolicy getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * Set the dispatch policy, which orders the waiting requests and picks a driver for a request.
+   * Only a StandardDispatchPolicy can be written to a SimulationCheckpoint.
+   * @param dispatchPolicy the dispatch policy, StandardDispatchPolicy.PRIORITY by default,
+   *     as a DispatchPolicy
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+    this.dispatchPolicy = dispatchPolicy;
+    return this;
+  }
+
+  /**
+   * Get the aging interval, see setAgingIntervalSeconds.
+   * @return the aging interval in seconds, or 0 if waiting requests don't age, as a long
+   */
+  public long getAgingIntervalSeconds() {
+    return agingIntervalSeconds;
+  }
+
+  /**
+   * Set the aging interval. Every full aging interval a request waits raises its effective
+   * priority by one, up to Request.MAX_PRIORITY, so low priority requests are not starved by a
+   * steady stream of higher priority ones. The effective priority orders the waiting requests
+   * with StandardDispatchPolicy.PRIORITY; other policies ignore it.
+   * @param agingIntervalSeconds the aging interval in seconds, or 0 for no aging, the default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setAgingIntervalSeconds(long agingIntervalSeconds) {
+    this.agingIntervalSeconds = agingIntervalSeconds;
+    return this;
+  }
+
+  /**
+   * Get the longest wait, see setMaxWaitSeconds.
+   * @return the longest wait in seconds, or 0 if requests wait until they are served, as a long
+   */
+  public long getMaxWaitSeconds() {
+    return maxWaitSeconds;
+  }
+
+  /**
+   * Set the longest time a request waits for a driver. A request still waiting that long after
+   * it was requested times out and leaves the waiting requests.
+   * @param maxWaitSeconds the longest wait in seconds, or 0 to wait until served, the default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setMaxWaitSeconds(long maxWaitSeconds) {
+    this.maxWaitSeconds = maxWaitSeconds;
+    return this;
+  }
+
+  /**
+   * Get the seat capacity of a driver, see setSeatCapacity.
+   * @return the number of passengers a driver carries at once, as an int
+   */
+  public int getSeatCapacity() {
+    return seatCapacity;
+  }
+
+  /**
+   * Set the seat capacity of a driver. With more than one seat, rides are shared: a new request
+   * can join the route of a busy driver nearby instead of getting a driver of its own, if that
+   * adds less driving time and delays nobody on the route by more than the longest detour.
+   * Pooling needs DriverMatching.NEAREST and applies to requests dispatched immediately, with
+   * coordinates; requests matched at the end of a dispatch window start routes of their own.
+   * @param seatCapacity the number of passengers a driver carries at once, 1 by default for no
+   *     shared rides, as an int
+   * @return this config, as a SimulationConfig
+   * @throws IllegalArgumentException if the seat capacity is less than 1
+   */
+  public SimulationConfig setSeatCapacity(int seatCapacity) {
+    if (seatCapacity < 1) {
+      throw new IllegalArgumentException("Seat capacity must be at least 1: " + seatCapacity);
+    }
+    this.seatCapacity = seatCapacity;
+    return this;
+  }
+
+  /**
+   * Get the longest detour of a shared ride, see setMaxDetourSeconds.
+   * @return the longest detour in seconds, as a long
+   */
+  public long getMaxDetourSeconds() {
+    return maxDetourSeconds;
+  }
+
+  /**
+   * Set the longest detour of a shared ride: no passenger is dropped off later than it would
+   * have been riding alone by more than this, counting the wait for the pickup and the time
+   * spent picking up and dropping off others.
+   * @param maxDetourSeconds the longest detour in seconds, 300 by default, as a long
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setMaxDetourSeconds(long maxDetourSeconds) {
+    this.maxDetourSeconds = maxDetourSeconds;
+    return this;
+  }
+
+  /**
+   * Get the travel times of pickups and rides, see setTravelTimes.
+   * @return the travel times, as a TravelTimes
+   */
+  public TravelTimes getTravelTimes() {
+    return travelTimes;
+  }
+
+  /**
+   * Set the travel times of pickups and rides, e.g. a ContractionHierarchy of a road network.
+   * Other than straight lines, they also replace the riding time of every request with
+   * coordinates. Every simulator takes its own copy, see TravelTimes.copy. Only straight lines
+   * can be written to a SimulationCheckpoint.
+   * @param travelTimes the travel times, TravelTimes.STRAIGHT_LINE by default, as a TravelTimes
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setTravelTimes(TravelTimes travelTimes) {
+    this.travelTimes = travelTimes;
+    return this;
+  }
+
+  /**
+   * Get the most waiting requests, see setMaxWaitingRequests.
+   * @return the most waiting requests, or 0 for no limit, as an int
+   */
+  public int getMaxWaitingRequests() {
+    return maxWaitingRequests;
+  }
+
+  /**
+   * Set the most requests waiting for a driver at once. A new request that has to wait while
+   * that many are waiting is handled by the overload policy, so the waiting requests, and the
+   * time to dispatch from them, stay bounded under a spike of demand.
+   * @param maxWaitingRequests the most waiting requests, or 0 for no limit, the default
+   * @return this config, as a SimulationConfig
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public SimulationConfig setMaxWaitingRequests(int maxWaitingRequests) {
+    if (maxWaitingRequests < 0) {
+      throw new IllegalArgumentException("Most waiting requests can't be negative: "
+          + maxWaitingRequests);
+    }
+    this.maxWaitingRequests = maxWaitingRequests;
+    return this;
+  }
+
+  /**
+   * Get the longest predicted wait, see setMaxPredictedWaitSeconds.
+   * @return the longest predicted wait in seconds, or 0 for no limit, as a long
+   */
+  public long getMaxPredictedWaitSeconds() {
+    return maxPredictedWaitSeconds;
+  }
+
+  /**
+   * Set the longest wait a new request may be predicted to have. A new request that has to wait
+   * longer, see RideshareDispatchSimulator.predictWaitSeconds, is handled by the overload policy.
+   * @param maxPredictedWaitSeconds the longest predicted wait in seconds, or 0 for no limit,
+   *     the default
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setMaxPredictedWaitSeconds(long maxPredictedWaitSeconds) {
+    this.maxPredictedWaitSeconds = maxPredictedWaitSeconds;
+    return this;
+  }
+
+  /**
+   * Get what is done with a request that has to wait under overload.
+   * @return the overload policy, as an OverloadPolicy
+   */
+  public OverloadPolicy getOverloadPolicy() {
+    return overloadPolicy;
+  }
+
+  /**
+   * Set what is done with a request that has to wait while the waiting requests are over the
+   * most waiting requests or the longest predicted wait. With SHED_LOWEST_PRIORITY, a request
+   * with no waiting request of a lower priority ride type to take the place of is rejected.
+   * With DEFER, a request is rejected once it would be requested again after its longest wait.
+   * @param overloadPolicy the overload policy, OverloadPolicy.REJECT by default, as an
+   *     OverloadPolicy
+   * @return this config, as a SimulationConfig
+   */
+  public SimulationConfig setOverloadPolicy(OverloadPolicy overloadPolicy) {
+    this.overloadPolicy = overloadPolicy;
+    return this;
+  }
+
+  /**
+   * Get the time a deferred request waits before it is requested again, see setDeferSeconds.
+   * @return the time in seconds, as a long
+   */
+  public long getDeferSeconds() {
+    return deferSeconds;
+  }
+
+  /**
+   * Set the time a request deferred by OverloadPolicy.DEFER waits before it is requested again.
+   * Deferred requests stay in the event queue rather than the waiting requests, so without a
+   * longest wait to give up at, they still take memory while demand is over the limits.
+   * @param deferSeconds the time in seconds, 60 by default, as a long
+   * @return this config, as a SimulationConfig
+   * @throws IllegalArgumentException if the time is not positive
+   */
+  public SimulationConfig setDeferSeconds(long deferSeconds) {
+    if (deferSeconds < 1) {
+      throw new IllegalArgumentException("Defer time must be positive: " + deferSeconds);
+    }
+    this.deferSeconds = deferSeconds;
+    return this;
+  }
+
+  /**
+   * Create a random number generator for the request stream.
+   * @return a Random seeded with the configured seed, if any
+   */
+  public Random newRandom() {
+    return seed == null ? new Random() : new Random(seed);
+  }
+
+  /**
+   * Copy this config, so a copy can be changed without affecting the original.
+   * @return a copy of this config, as a SimulationConfig
+   */
+  public SimulationConfig copy() {
+    return new SimulationConfig()
+        .setEventQueueType(eventQueueType)
+        .setEventMode(eventMode)
+        .setStartTime(startTime)
+        .setSeed(seed)
+        .setRetainFinishedRequests(retainFinishedRequests)
+        .setFinishedRequestsOffHeap(finishedRequestsOffHeap)
+        .setDriverMatching(driverMatching)
+        .setCitySizeMiles(citySizeMiles)
+        .setDispatchWindowSeconds(dispatchWindowSeconds)
+        .setMatchingCandidates(matchingCandidates)
+        .setDispatchPolicy(dispatchPolicy)
+        .setAgingIntervalSeconds(agingIntervalSeconds)
+        .setMaxWaitSeconds(maxWaitSeconds)
+        .setSeatCapacity(seatCapacity)
+        .setMaxDetourSeconds(maxDetourSeconds)
+        .setTravelTimes(travelTimes)
+        .setMaxWaitingRequests(maxWaitingRequests)
+        .setMaxPredictedWaitSeconds(maxPredictedWaitSeconds)
+        .setOverloadPolicy(overloadPolicy)
+        .setDeferSeconds(deferSeconds);
+  }
+}
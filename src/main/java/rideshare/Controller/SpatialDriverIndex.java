@@ -0,0 +1,418 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+
+/**
+ * SpatialDriverIndex is a uniform grid over the idle drivers of a square city, keyed by their
+ * dense driver id. Every cell holds a doubly linked list threaded through int arrays indexed by
+ * driver id, so adding, removing and moving a driver are O(1) without allocation, which keeps
+ * the index cheap with many moving drivers.
+ *
+ * Nearest and k-nearest queries scan rings of cells around the query point and stop as soon as
+ * the k-th best distance is no larger than the distance to the nearest unscanned cell.
+ * Positions outside the city are clamped to the border cells. Ties are broken by driver id,
+ * so queries are deterministic.
+ */
+public class SpatialDriverIndex {
+
+  private static final int NONE = -1;
+  private static final int MAX_CELLS_PER_SIDE = 1024;
+
+  private final double citySizeMiles;
+  private final int cellsPerSide;
+  private final double cellSize;
+  private final int[] cellHead;
+  private Driver[] drivers;
+  private double[] xs;
+  private double[] ys;
+  private int[] cellOf; // NONE if the driver is not in the index
+  private int[] previous;
+  private int[] next;
+  private int size;
+
+  // best candidates of the last search, nearest first
+  private int[] bestIds = new int[1];
+  private double[] bestDistances = new double[1];
+
+  /**
+   * Constructor of SpatialDriverIndex
+   * @param citySizeMiles the width and height of the city in miles, as a double
+   * @param cellsPerSide the number of grid cells along each side of the city, as an int
+   * @param expectedDrivers the expected largest driver id plus one, as an int
+   */
+  public SpatialDriverIndex(double citySizeMiles, int cellsPerSide, int expectedDrivers) {
+    if (!(citySizeMiles > 0) || cellsPerSide < 1) {
+      throw new IllegalArgumentException("City size and cells per side must be positive");
+    }
+    this.citySizeMiles = citySizeMiles;
+    this.cellsPerSide = cellsPerSide;
+    this.cellSize = citySizeMiles / cellsPerSide;
+    this.cellHead = new int[cellsPerSide * cellsPerSide];
+    Arrays.fill(cellHead, NONE);
+    int capacity = Math.max(16, expectedDrivers);
+    this.drivers = new Driver[capacity];
+    this.xs = new double[capacity];
+    this.ys = new double[capacity];
+    this.cellOf = new int[capacity];
+    this.previous = new int[capacity];
+    this.next = new int[capacity];
+    Arrays.fill(cellOf, NONE);
+  }
+
+  /**
+   * create an index sized for a number of drivers, about two drivers per cell
+   * @param citySizeMiles the width and height of the city in miles, as a double
+   * @param expectedDrivers the expected largest driver id plus one, as an int
+   * @return the index, as a SpatialDriverIndex
+   */
+  public static SpatialDriverIndex forCity(double citySizeMiles, int expectedDrivers) {
+    int cellsPerSide = (int) Math.min(MAX_CELLS_PER_SIDE,
+        Math.max(1, Math.sqrt(expectedDrivers / 2.0)));
+    return new SpatialDriverIndex(citySizeMiles, cellsPerSide, expectedDrivers);
+  }
+
+  /**
+   * add an idle driver at its position
+   * @param driver the driver, with a driver id of at least 0 and a position, as a Driver
+   * @throws IllegalArgumentException if the driver has no id or no position
+   * @throws IllegalStateException if the driver is in the index already
+   */
+  public void add(Driver driver) {
+    int id = driver.getId();
+    Location position = driver.getPosition();
+    if (id < 0 || position == null) {
+      throw new IllegalArgumentException("Driver has no id or no position: " + driver);
+    }
+    if (id >= drivers.length) {
+      grow(id + 1);
+    }
+    if (cellOf[id] != NONE) {
+      throw new IllegalStateException("Driver is in the index already: " + driver);
+    }
+    drivers[id] = driver;
+    xs[id] = position.getX();
+    ys[id] = position.getY();
+    link(id, cellAt(xs[id], ys[id]));
+    size++;
+  }
+
+  /**
+   * remove a driver
+   * @param driver the driver, as a Driver
+   * @return true if the driver was in the index
+   */
+  public boolean remove(Driver driver) {
+    int id = driver.getId();
+    if (!contains(driver)) {
+      return false;
+    }
+    unlink(id);
+    drivers[id] = null;
+    size--;
+    return true;
+  }
+
+  /**
+   * move a driver to a new position. The driver is only relinked if it changes cells.
+   * Drivers not in the index only get their new position.
+   * @param driver the driver, as a Driver
+   * @param position the new position, as a Location
+   */
+  public void move(Driver driver, Location position) {
+    driver.setPosition(position);
+    if (!contains(driver)) {
+      return;
+    }
+    int id = driver.getId();
+    xs[id] = position.getX();
+    ys[id] = position.getY();
+    int cell = cellAt(xs[id], ys[id]);
+    if (cell != cellOf[id]) {
+      unlink(id);
+      link(id, cell);
+    }
+  }
+
+  /**
+   * check if a driver is in the index
+   * @param driver the driver, as a Driver
+   * @return true if the driver is in the index
+   */
+  public boolean contains(Driver driver) {
+    int id = driver.getId();
+    return id >= 0 && id < drivers.length && cellOf[id] != NONE;
+  }
+
+  /**
+   * get the number of drivers in the index
+   * @return the number of drivers, as an int
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * find the driver nearest to a point
+   * @param point the point, as a Location
+   * @return the nearest driver, or null if the index is empty
+   */
+  public Driver nearest(Location point) {
+    return search(point.getX(), point.getY(), 1) == 0 ? null : drivers[bestIds[0]];
+  }
+
+  /**
+   * find the k drivers nearest to a point
+   * @param point the point, as a Location
+   * @param k the number of drivers, as an int
+   * @return up to k drivers, nearest first, as a List of Driver
+   */
+  public List<Driver> nearest(Location point, int k) {
+    if (k < 1) {
+      return new ArrayList<>();
+    }
+    int found = search(point.getX(), point.getY(), k);
+    List<Driver> result = new ArrayList<>(found);
+    for (int i = 0; i < found; i++) {
+      result.add(drivers[bestIds[i]]);
+    }
+    return result;
+  }
+
+  /**
+   * find every driver within a radius of a point
+   * @param point the point, as a Location
+   * @param radiusMiles the radius in miles, as a double
+   * @return the drivers, nearest first, as a List of Driver
+   */
+  public List<Driver> withinRadius(Location point, double radiusMiles) {
+    double x = point.getX();
+    double y = point.getY();
+    int fromColumn = columnOf(x - radiusMiles);
+    int toColumn = columnOf(x + radiusMiles);
+    int fromRow = columnOf(y - radiusMiles);
+    int toRow = columnOf(y + radiusMiles);
+    List<Integer> ids = new ArrayList<>();
+    List<Double> distances = new ArrayList<>();
+    for (int row = fromRow; row <= toRow; row++) {
+      for (int column = fromColumn; column <= toColumn; column++) {
+        for (int id = cellHead[row * cellsPerSide + column]; id != NONE; id = next[id]) {
+          double distance = distance(xs[id] - x, ys[id] - y);
+          if (distance <= radiusMiles) {
+            ids.add(id);
+            distances.add(distance);
+          }
+        }
+      }
+    }
+    Integer[] order = new Integer[ids.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> {
+      int byDistance = Double.compare(distances.get(a), distances.get(b));
+      return byDistance != 0 ? byDistance : Integer.compare(ids.get(a), ids.get(b));
+    });
+    List<Driver> result = new ArrayList<>(order.length);
+    for (Integer i : order) {
+      result.add(drivers[ids.get(i)]);
+    }
+    return result;
+  }
+
+  /**
+   * find the k drivers nearest to a point into bestIds and bestDistances, nearest first
+   * @param x the x coordinate of the point, as a double
+   * @param y the y coordinate of the point, as a double
+   * @param k the number of drivers, at least 1, as an int
+   * @return the number of drivers found, at most k, as an int
+   */
+  private int search(double x, double y, int k) {
+    if (bestIds.length < k) {
+      bestIds = new int[k];
+      bestDistances = new double[k];
+    }
+    int found = 0;
+    int column = columnOf(x);
+    int row = columnOf(y);
+    for (int ring = 0; ; ring++) {
+      for (int c = column - ring; c <= column + ring; c++) {
+        if (c < 0 || c >= cellsPerSide) {
+          continue;
+        }
+        boolean side = c == column - ring || c == column + ring;
+        int step = side ? 1 : 2 * ring; // only the top and bottom cell inside the ring
+        for (int r = row - ring; r <= row + ring; r += Math.max(1, step)) {
+          if (r >= 0 && r < cellsPerSide) {
+            found = scanCell(r * cellsPerSide + c, x, y, k, found);
+          }
+        }
+      }
+      double bound = unscannedDistance(x, y, column, row, ring);
+      if (bound == Double.POSITIVE_INFINITY || (found == k && bestDistances[k - 1] <= bound)) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * offer every driver of a cell to the best candidates
+   * @param cell the cell, as an int
+   * @param x the x coordinate of the point, as a double
+   * @param y the y coordinate of the point, as a double
+   * @param k the number of candidates kept, as an int
+   * @param found the number of candidates so far, as an int
+   * @return the new number of candidates, as an int
+   */
+  private int scanCell(int cell, double x, double y, int k, int found) {
+    for (int id = cellHead[cell]; id != NONE; id = next[id]) {
+      double distance = distance(xs[id] - x, ys[id] - y);
+      if (found == k && !isBefore(distance, id, bestDistances[k - 1], bestIds[k - 1])) {
+        continue;
+      }
+      // insertion into the sorted candidates, dropping the last one if full
+      int i = found < k ? found++ : k - 1;
+      while (i > 0 && isBefore(distance, id, bestDistances[i - 1], bestIds[i - 1])) {
+        bestDistances[i] = bestDistances[i - 1];
+        bestIds[i] = bestIds[i - 1];
+        i--;
+      }
+      bestDistances[i] = distance;
+      bestIds[i] = id;
+    }
+    return found;
+  }
+
+  /**
+   * get the length of an offset, cheaper than Math.hypot, which guards against overflow
+   * @param dx the x offset in miles, as a double
+   * @param dy the y offset in miles, as a double
+   * @return the length in miles, as a double
+   */
+  private static double distance(double dx, double dy) {
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /**
+   * compare two candidates by distance, then by driver id
+   * @param distance the distance of the first candidate, as a double
+   * @param id the driver id of the first candidate, as an int
+   * @param otherDistance the distance of the second candidate, as a double
+   * @param otherId the driver id of the second candidate, as an int
+   * @return true if the first candidate comes first
+   */
+  private static boolean isBefore(double distance, int id, double otherDistance, int otherId) {
+    return distance < otherDistance || (distance == otherDistance && id < otherId);
+  }
+
+  /**
+   * get the distance from a point to the nearest cell outside a ring, a lower bound of the
+   * distance to any driver not scanned yet. Sides of the ring at the border of the city have
+   * nothing beyond them.
+   * @param x the x coordinate of the point, as a double
+   * @param y the y coordinate of the point, as a double
+   * @param column the column of the point, as an int
+   * @param row the row of the point, as an int
+   * @param ring the ring of cells scanned last, as an int
+   * @return the distance in miles, or infinity if the ring covers the whole grid, as a double
+   */
+  private double unscannedDistance(double x, double y, int column, int row, int ring) {
+    double bound = Double.POSITIVE_INFINITY;
+    if (column - ring > 0) {
+      bound = Math.min(bound, x - (column - ring) * cellSize);
+    }
+    if (column + ring < cellsPerSide - 1) {
+      bound = Math.min(bound, (column + ring + 1) * cellSize - x);
+    }
+    if (row - ring > 0) {
+      bound = Math.min(bound, y - (row - ring) * cellSize);
+    }
+    if (row + ring < cellsPerSide - 1) {
+      bound = Math.min(bound, (row + ring + 1) * cellSize - y);
+    }
+    return bound;
+  }
+
+  /**
+   * get the column (or row) of a coordinate, clamped to the grid
+   * @param coordinate the x (or y) coordinate in miles, as a double
+   * @return the column (or row), as an int
+   */
+  private int columnOf(double coordinate) {
+    if (!(coordinate > 0)) {
+      return 0;
+    }
+    return (int) Math.min(cellsPerSide - 1, coordinate / cellSize);
+  }
+
+  /**
+   * get the cell of a position
+   * @param x the x coordinate in miles, as a double
+   * @param y the y coordinate in miles, as a double
+   * @return the cell, as an int
+   */
+  private int cellAt(double x, double y) {
+    return columnOf(y) * cellsPerSide + columnOf(x);
+  }
+
+  /**
+   * link a driver at the head of a cell
+   * @param id the driver id, as an int
+   * @param cell the cell, as an int
+   */
+  private void link(int id, int cell) {
+    int head = cellHead[cell];
+    previous[id] = NONE;
+    next[id] = head;
+    if (head != NONE) {
+      previous[head] = id;
+    }
+    cellHead[cell] = id;
+    cellOf[id] = cell;
+  }
+
+  /**
+   * unlink a driver from its cell
+   * @param id the driver id, as an int
+   */
+  private void unlink(int id) {
+    int before = previous[id];
+    int after = next[id];
+    if (before == NONE) {
+      cellHead[cellOf[id]] = after;
+    } else {
+      next[before] = after;
+    }
+    if (after != NONE) {
+      previous[after] = before;
+    }
+    cellOf[id] = NONE;
+  }
+
+  /**
+   * grow the arrays to hold a driver id
+   * @param minimumCapacity the largest driver id plus one, as an int
+   */
+  private void grow(int minimumCapacity) {
+    int capacity = Math.max(minimumCapacity, drivers.length * 2);
+    int oldCapacity = drivers.length;
+    drivers = Arrays.copyOf(drivers, capacity);
+    xs = Arrays.copyOf(xs, capacity);
+    ys = Arrays.copyOf(ys, capacity);
+    cellOf = Arrays.copyOf(cellOf, capacity);
+    previous = Arrays.copyOf(previous, capacity);
+    next = Arrays.copyOf(next, capacity);
+    Arrays.fill(cellOf, oldCapacity, capacity, NONE);
+  }
+
+  /**
+   * get the width and height of the city
+   * @return the city size in miles, as a double
+   */
+  public double getCitySizeMiles() {
+    return citySizeMiles;
+  }
+}
@@ -0,0 +1,47 @@
+package rideshare.Controller;
+
+import java.util.Comparator;
+import rideshare.objects.Request;
+import rideshare.objects.WaitingComparator;
+
+/**
+ * Enum for the shipped dispatch policies. They differ in the order of the waiting requests and
+ * pick drivers the default way, see DispatchPolicy.selectDriver.
+ * Ties are broken by request id, except for PRIORITY, which breaks them in the order requests
+ * start waiting and keeps its waiting requests in a PriorityLevelQueue.
+ */
+public enum StandardDispatchPolicy implements DispatchPolicy {
+
+  // highest priority first, then earliest estimated arrival, the original order
+  PRIORITY(new WaitingComparator()) {
+    @Override
+    public WaitingQueue newWaitingQueue() {
+      return new PriorityLevelQueue();
+    }
+  },
+  // first requested, first served
+  FIFO(Comparator.comparingLong(Request::getRequestEpochSecond)
+      .thenComparingInt(Request::getId)),
+  // shortest ride first, which minimizes the average wait when drivers are scarce
+  SHORTEST_RIDE_FIRST(Comparator.comparingDouble(Request::getRidingSeconds)
+      .thenComparingLong(Request::getRequestEpochSecond)
+      .thenComparingInt(Request::getId)),
+  // earliest deadline first, the deadline being the estimated arrival without waiting
+  EARLIEST_DEADLINE(Comparator.comparingLong(Request::getEstimatedArrivalEpochSecond)
+      .thenComparingInt(Request::getId));
+
+  private final Comparator<Request> waitingOrder;
+
+  /**
+   * Constructor of StandardDispatchPolicy
+   * @param waitingOrder the order of the waiting requests, as a Comparator of Request
+   */
+  StandardDispatchPolicy(Comparator<Request> waitingOrder) {
+    this.waitingOrder = waitingOrder;
+  }
+
+  @Override
+  public Comparator<Request> waitingOrder() {
+    return waitingOrder;
+  }
+}
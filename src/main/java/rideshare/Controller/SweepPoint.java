@@ -0,0 +1,93 @@
+package rideshare.Controller;
+
+/**
+ * SweepPoint is the outcome of simulating the workload with one number of drivers.
+ */
+public class SweepPoint {
+
+  private final int numberOfDrivers;
+  private final double averageWaitingSeconds;
+  private final int percentileWaitingSeconds;
+  private final double dropPercentage;
+  private final boolean targetMet;
+
+  /**
+   * Constructor of SweepPoint for a run without dropped requests
+   * @param numberOfDrivers the number of drivers, as an int
+   * @param averageWaitingSeconds the average waiting time in seconds, as a double
+   * @param percentileWaitingSeconds the waiting time at the target's percentile in seconds, as an int
+   * @param targetMet true if the service level target was met
+   */
+  public SweepPoint(int numberOfDrivers, double averageWaitingSeconds,
+      int percentileWaitingSeconds, boolean targetMet) {
+    this(numberOfDrivers, averageWaitingSeconds, percentileWaitingSeconds, 0, targetMet);
+  }
+
+  /**
+   * Constructor of SweepPoint
+   * @param numberOfDrivers the number of drivers, as an int
+   * @param averageWaitingSeconds the average waiting time in seconds, as a double
+   * @param percentileWaitingSeconds the waiting time at the target's percentile in seconds, as an int
+   * @param dropPercentage the share of requests not served, from 0 to 100, as a double
+   * @param targetMet true if the service level target was met
+   */
+  public SweepPoint(int numberOfDrivers, double averageWaitingSeconds,
+      int percentileWaitingSeconds, double dropPercentage, boolean targetMet) {
+    this.numberOfDrivers = numberOfDrivers;
+    this.averageWaitingSeconds = averageWaitingSeconds;
+    this.percentileWaitingSeconds = percentileWaitingSeconds;
+    this.dropPercentage = dropPercentage;
+    this.targetMet = targetMet;
+  }
+
+  /**
+   * get the number of drivers
+   * @return the number of drivers, as an int
+   */
+  public int getNumberOfDrivers() {
+    return numberOfDrivers;
+  }
+
+  /**
+   * get the average waiting time
+   * @return the average waiting time in seconds, as a double
+   */
+  public double getAverageWaitingSeconds() {
+    return averageWaitingSeconds;
+  }
+
+  /**
+   * get the waiting time at the target's percentile
+   * @return the waiting time in seconds, as an int
+   */
+  public int getPercentileWaitingSeconds() {
+    return percentileWaitingSeconds;
+  }
+
+  /**
+   * get the share of requests not served, i.e. cancelled, timed out or rejected
+   * @return the percentage, from 0 to 100, as a double
+   */
+  public double getDropPercentage() {
+    return dropPercentage;
+  }
+
+  /**
+   * check if the service level target was met
+   * @return true if the target was met
+   */
+  public boolean isTargetMet() {
+    return targetMet;
+  }
+
+  @Override
+  public String toString() {
+    return "SweepPoint{" +
+        "numberOfDrivers=" + numberOfDrivers +
+        ", averageWaitingSeconds=" + averageWaitingSeconds +
+        ", percentileWaitingSeconds=" + percentileWaitingSeconds +
+        ", dropPercentage=" + dropPercentage +
+        ", targetMet=" + targetMet +
+        '}';
+  }
+}
@@ -0,0 +1,38 @@
+package rideshare.Controller;
+
+import java.util.Queue;
+import rideshare.objects.Request;
+
+/**
+ * WaitingQueue holds the waiting requests of a simulator in the order of its dispatch policy.
+ * It keeps the position of every request in the request itself (Request.getWaitingIndex), so
+ * besides polling the first request, any request can be found in O(1) and removed or moved after
+ * a change of its effective priority in O(log n), e.g. when it is cancelled or aged.
+ * A request can be in one waiting queue at a time.
+ */
+public interface WaitingQueue extends Queue<Request> {
+
+  /**
+   * check if a request is waiting in this queue, in O(1)
+   * @param o the request, as an Object
+   * @return true if the request is in this queue
+   */
+  @Override
+  boolean contains(Object o);
+
+  /**
+   * remove a request from this queue, in O(log n)
+   * @param o the request, as an Object
+   * @return true if the request was in this queue
+   */
+  @Override
+  boolean remove(Object o);
+
+  /**
+   * change the effective priority of a waiting request and move it to its new place, in O(log n)
+   * @param request the request, as a Request
+   * @param effectivePriority the new effective priority, as an int
+   * @return true if the request is in this queue, false if it is not and nothing was changed
+   */
+  boolean changePriority(Request request, int effectivePriority);
+}
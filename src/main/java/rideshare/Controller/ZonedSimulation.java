@@ -0,0 +1,308 @@
+package rideshare.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * ZonedSimulation splits the city into zones, each simulated by its own
+ * RideshareDispatchSimulator. A request is dispatched in the zone of its start location, and a
+ * driver whose ride ends in another zone is handed off to that zone when the ride finishes.
+ *
+ * Locations with coordinates are zoned geographically: the square city of the config is cut
+ * into columns, and every column into rows, so that there are exactly as many cells as zones.
+ * Locations known by name only have no geography, so they are zoned by the hash of the name,
+ * which scatters neighbouring locations over all zones.
+ *
+ * The zones run in parallel with conservative synchronization: a handoff always lands at least
+ * one ride length after the ride was assigned, so with the shortest ride of the workload as the
+ * lookahead L, every zone can process the window [T, T + L) independently. Handoffs are delivered
+ * between windows, so the result is the same as processing the zones one event time at a time.
+ * The rides are measured once every zone has registered its requests, i.e. with the riding
+ * times of the travel times of the config, e.g. of a road network.
+ */
+public class ZonedSimulation {
+
+  private final int numberOfZones;
+  private final double citySizeMiles;
+  private final long lookahead;
+  private final RideshareDispatchSimulator[] zones;
+  private final List<List<Handoff>> outboxes = new ArrayList<>();
+  private int numberOfHandoffs;
+
+  /**
+   * Constructor of ZonedSimulation. Driver i starts in zone i modulo the number of zones.
+   * @param numberOfDrivers number of drivers, as an int
+   * @param workload the requests to simulate, as a List of Request
+   * @param numberOfZones number of zones, as an int
+   * @param config the simulation options of every zone, as a SimulationConfig
+   * @throws IllegalArgumentException if there are no zones or a ride takes less than a second
+   */
+  public ZonedSimulation(int numberOfDrivers, List<Request> workload, int numberOfZones,
+      SimulationConfig config) {
+    if (numberOfZones < 1) {
+      throw new IllegalArgumentException("Number of zones must be positive: " + numberOfZones);
+    }
+    this.numberOfZones = numberOfZones;
+    this.citySizeMiles = config.getCitySizeMiles();
+
+    List<List<Driver>> zoneDrivers = new ArrayList<>();
+    List<List<Request>> zoneRequests = new ArrayList<>();
+    for (int zone = 0; zone < numberOfZones; zone++) {
+      zoneDrivers.add(new ArrayList<>());
+      zoneRequests.add(new ArrayList<>());
+      outboxes.add(new ArrayList<>());
+    }
+    for (int i = 0; i < numberOfDrivers; i++) {
+      zoneDrivers.get(i % numberOfZones).add(new Driver(i, "Driver" + i));
+    }
+    for (Request request : workload) {
+      zoneRequests.get(zoneOf(request.getStartLocation(), request.getStartCoordinates()))
+          .add(request);
+    }
+
+    // the zones replace the riding times with the ones of their travel times on registering
+    this.zones = new RideshareDispatchSimulator[numberOfZones];
+    double shortestRide = Double.POSITIVE_INFINITY;
+    for (int zone = 0; zone < numberOfZones; zone++) {
+      zones[zone] = new RideshareDispatchSimulator(zoneDrivers.get(zone), zoneRequests.get(zone),
+          config.copy());
+      zones[zone].setDriverHandoff(new ZoneHandoff(zone));
+      shortestRide = Math.min(shortestRide, zones[zone].getShortestRidingSeconds());
+    }
+    if (shortestRide < 1) {
+      throw new IllegalArgumentException("Every ride must take at least one second");
+    }
+    this.lookahead = shortestRide == Double.POSITIVE_INFINITY ? Long.MAX_VALUE
+        : (long) shortestRide;
+  }
+
+  /**
+   * get the zone of a location, by its coordinates if it has any, else by its name
+   * @param location the name of the location, as a String
+   * @param coordinates the coordinates of the location, or null, as a Location
+   * @return the zone, as an int
+   */
+  private int zoneOf(String location, Location coordinates) {
+    return coordinates != null ? zoneOf(coordinates, citySizeMiles, numberOfZones)
+        : zoneOf(location, numberOfZones);
+  }
+
+  /**
+   * get the zone of a location known by name only: a hash bucket of the name, not a part of
+   * the city
+   * @param location the location, as a String
+   * @param numberOfZones number of zones, as an int
+   * @return the zone, as an int
+   */
+  public static int zoneOf(String location, int numberOfZones) {
+    return Math.floorMod(location.hashCode(), numberOfZones);
+  }
+
+  /**
+   * get the zone of a location in a square city cut into as many cells as zones: the city is cut
+   * into ceil(sqrt(zones)) columns, and the zones shared out among the columns, the first ones
+   * getting one more row. Locations outside the city are in the cell nearest to them.
+   * @param coordinates the location, as a Location
+   * @param citySizeMiles the width and height of the city in miles, as a double
+   * @param numberOfZones number of zones, as an int
+   * @return the zone, as an int
+   */
+  public static int zoneOf(Location coordinates, double citySizeMiles, int numberOfZones) {
+    int columns = (int) Math.ceil(Math.sqrt(numberOfZones));
+    int column = cell(coordinates.getX(), citySizeMiles, columns);
+    int rowsPerColumn = numberOfZones / columns;
+    int longerColumns = numberOfZones % columns;
+    int rows = rowsPerColumn + (column < longerColumns ? 1 : 0);
+    int firstZone = column * rowsPerColumn + Math.min(column, longerColumns);
+    return firstZone + cell(coordinates.getY(), citySizeMiles, rows);
+  }
+
+  /**
+   * get the cell of a coordinate along one side of the city
+   * @param coordinate the coordinate in miles, as a double
+   * @param citySizeMiles the length of the side in miles, as a double
+   * @param cells the number of cells along the side, as an int
+   * @return the cell, from 0 to cells - 1, as an int
+   */
+  private static int cell(double coordinate, double citySizeMiles, int cells) {
+    int cell = (int) Math.floor(coordinate / citySizeMiles * cells);
+    return Math.max(0, Math.min(cells - 1, cell));
+  }
+
+  /**
+   * run the zones one event time at a time on the calling thread, always advancing the zone with
+   * the earliest next event. This is the reference the parallel run must agree with.
+   */
+  public void runSequential() {
+    while (true) {
+      int next = -1;
+      long nextTime = Long.MAX_VALUE;
+      for (int zone = 0; zone < numberOfZones; zone++) {
+        long zoneTime = zones[zone].nextEventTime();
+        if (zoneTime < nextTime) {
+          next = zone;
+          nextTime = zoneTime;
+        }
+      }
+      if (next < 0) {
+        return;
+      }
+      zones[next].runUntil(nextTime + 1);
+      deliverHandoffs();
+    }
+  }
+
+  /**
+   * run the zones in parallel, one lookahead window at a time
+   * @param parallelism number of zones simulated at once, as an int
+   */
+  public void runParallel(int parallelism) {
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+    try {
+      long windowStart = nextEventTime();
+      while (windowStart != Long.MAX_VALUE) {
+        long windowEnd = windowStart + lookahead;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (RideshareDispatchSimulator zone : zones) {
+          if (zone.nextEventTime() < windowEnd) {
+            tasks.add(() -> {
+              zone.runUntil(windowEnd);
+              return null;
+            });
+          }
+        }
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+          future.get();
+        }
+        deliverHandoffs();
+        windowStart = nextEventTime();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Zoned simulation was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A zone simulation failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * get the time of the earliest next event over all zones
+   * @return the time in epoch seconds, or Long.MAX_VALUE if every zone is done, as a long
+   */
+  private long nextEventTime() {
+    long nextTime = Long.MAX_VALUE;
+    for (RideshareDispatchSimulator zone : zones) {
+      nextTime = Math.min(nextTime, zone.nextEventTime());
+    }
+    return nextTime;
+  }
+
+  /**
+   * schedule the arrival of every handed off driver in its new zone, in zone order
+   */
+  private void deliverHandoffs() {
+    for (List<Handoff> outbox : outboxes) {
+      for (Handoff handoff : outbox) {
+        zones[handoff.zone].scheduleDriverArrival(handoff.time, handoff.driver);
+      }
+      numberOfHandoffs += outbox.size();
+      outbox.clear();
+    }
+  }
+
+  /**
+   * get the simulator of a zone
+   * @param zone the zone, as an int
+   * @return the simulator, as a RideshareDispatchSimulator
+   */
+  public RideshareDispatchSimulator getZone(int zone) {
+    return zones[zone];
+  }
+
+  /**
+   * get the finished requests of every zone, zone by zone
+   * @return the finished requests, as a List of Request
+   */
+  public List<Request> getFinishedRequests() {
+    List<Request> finishedRequests = new ArrayList<>();
+    for (RideshareDispatchSimulator zone : zones) {
+      finishedRequests.addAll(zone.getFinishedRequests());
+    }
+    return finishedRequests;
+  }
+
+  /**
+   * get the lookahead, the shortest ride of the workload as the zones ride it
+   * @return the lookahead in seconds, as a long
+   */
+  public long getLookahead() {
+    return lookahead;
+  }
+
+  /**
+   * get the number of drivers handed off between zones so far
+   * @return the number of handoffs, as an int
+   */
+  public int getNumberOfHandoffs() {
+    return numberOfHandoffs;
+  }
+
+  /**
+   * ZoneHandoff hands the drivers of one zone whose rides end elsewhere to the outbox of the zone.
+   * Every zone only writes its own outbox, so zones can run on different threads.
+   */
+  private class ZoneHandoff implements DriverHandoff {
+
+    private final int zone;
+
+    /**
+     * Constructor of ZoneHandoff
+     * @param zone the zone the drivers leave, as an int
+     */
+    ZoneHandoff(int zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public boolean leaves(Request request) {
+      return zoneOf(request.getEndLocation(), request.getEndCoordinates()) != zone;
+    }
+
+    @Override
+    public void handOff(Request request, Driver driver, long finishTime) {
+      outboxes.get(zone).add(new Handoff(
+          zoneOf(request.getEndLocation(), request.getEndCoordinates()), finishTime, driver));
+    }
+  }
+
+  /**
+   * A driver on the way to another zone.
+   */
+  private static class Handoff {
+
+    private final int zone;
+    private final long time;
+    private final Driver driver;
+
+    /**
+     * Constructor of Handoff
+     * @param zone the zone the driver arrives at, as an int
+     * @param time the time the driver arrives in epoch seconds, as a long
+     * @param driver the driver, as a Driver
+     */
+    Handoff(int zone, long time, Driver driver) {
+      this.zone = zone;
+      this.time = time;
+      this.driver = driver;
+    }
+  }
+}
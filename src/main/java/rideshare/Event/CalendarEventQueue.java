@@ -0,0 +1,238 @@
+package rideshare.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CalendarEventQueue is a calendar queue (R. Brown, 1988).
+ * Events are hashed by time into an array of day buckets, each a sorted linked list,
+ * so enqueue and dequeue take amortized O(1) when the bucket width matches the event spacing.
+ * The number of buckets doubles or halves with the queue size, and the bucket width is
+ * re-estimated on every resize from the separation of the events nearest the head of the queue,
+ * leaving out the separations far above average, so a few far-future events, e.g. timeouts,
+ * don't widen the days the events near the head are dequeued from.
+ * Events with the same time are dequeued in insertion order.
+ */
+public class CalendarEventQueue implements EventQueue {
+
+  private static final int MIN_BUCKETS = 16;
+  private static final int WIDTH_SAMPLE = 25; // events near the head to estimate the width from
+
+  private Node[] buckets;
+  private long width;
+  private int size;
+  private int currentBucket;
+  private long bucketTop; // exclusive upper time bound of currentBucket in the current year
+
+  /**
+   * Constructor of CalendarEventQueue. Starts with a small calendar of one-second days.
+   */
+  public CalendarEventQueue() {
+    this.buckets = new Node[MIN_BUCKETS];
+    this.width = 1;
+    this.size = 0;
+    this.currentBucket = 0;
+    this.bucketTop = width;
+  }
+
+  @Override
+  public void add(Event event) {
+    long key = event.time;
+    if (size == 0 || key < bucketTop - width) {
+      // the new event is earlier than the current day, so restart the scan from its day
+      moveTo(key);
+    }
+    insert(new Node(key, event));
+    size++;
+    if (size > 2 * buckets.length) {
+      resize(buckets.length * 2);
+    }
+  }
+
+  @Override
+  public Event poll() {
+    if (size == 0) {
+      return null;
+    }
+    findNext();
+    Node head = buckets[currentBucket];
+    buckets[currentBucket] = head.next;
+    size--;
+    if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+      resize(buckets.length / 2);
+    }
+    return head.event;
+  }
+
+  @Override
+  public Event peek() {
+    if (size == 0) {
+      return null;
+    }
+    findNext();
+    return buckets[currentBucket].event;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public List<Event> toList() {
+    List<Event> events = new ArrayList<>(size);
+    for (Node head : buckets) {
+      for (Node node = head; node != null; node = node.next) {
+        events.add(node.event);
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Advance currentBucket to the bucket holding the earliest event.
+   * Scan one year of days from the current day, and fall back to a direct search of the bucket
+   * heads if the whole year is empty.
+   */
+  private void findNext() {
+    int mask = buckets.length - 1;
+    int bucket = currentBucket;
+    long top = bucketTop;
+    for (int i = 0; i < buckets.length; i++) {
+      Node head = buckets[bucket];
+      if (head != null && head.key < top) {
+        currentBucket = bucket;
+        bucketTop = top;
+        return;
+      }
+      bucket = (bucket + 1) & mask;
+      top += width;
+    }
+
+    long minKey = Long.MAX_VALUE;
+    for (Node head : buckets) {
+      if (head != null && head.key < minKey) {
+        minKey = head.key;
+      }
+    }
+    moveTo(minKey);
+  }
+
+  /**
+   * Make the day holding the given time the current day.
+   * @param key the time in seconds, as a long
+   */
+  private void moveTo(long key) {
+    long day = Math.floorDiv(key, width);
+    currentBucket = (int) (day & (buckets.length - 1));
+    bucketTop = (day + 1) * width;
+  }
+
+  /**
+   * Insert a node into its day bucket, after any node with the same time.
+   * @param node the node to insert, as a Node
+   */
+  private void insert(Node node) {
+    int bucket = (int) (Math.floorDiv(node.key, width) & (buckets.length - 1));
+    Node head = buckets[bucket];
+    if (head == null || node.key < head.key) {
+      node.next = head;
+      buckets[bucket] = node;
+      return;
+    }
+    Node previous = head;
+    while (previous.next != null && previous.next.key <= node.key) {
+      previous = previous.next;
+    }
+    node.next = previous.next;
+    previous.next = node;
+  }
+
+  /**
+   * Rebuild the calendar with a new number of buckets and a new bucket width, see estimateWidth.
+   * @param newBucketCount the new number of buckets, a power of two, as an int
+   */
+  private void resize(int newBucketCount) {
+    Node[] oldBuckets = buckets;
+    // the earliest times, in order, kept by insertion
+    long[] sample = new long[Math.min(size, WIDTH_SAMPLE)];
+    int sampled = 0;
+    for (Node head : oldBuckets) {
+      for (Node node = head; node != null; node = node.next) {
+        if (sampled < sample.length || node.key < sample[sampled - 1]) {
+          int i = sampled < sample.length ? sampled++ : sampled - 1;
+          while (i > 0 && sample[i - 1] > node.key) {
+            sample[i] = sample[i - 1];
+            i--;
+          }
+          sample[i] = node.key;
+        }
+      }
+    }
+    long minKey = sampled > 0 ? sample[0] : 0;
+
+    buckets = new Node[newBucketCount];
+    width = estimateWidth(sample, sampled);
+
+    // re-insert bucket by bucket in order, so events with the same time keep their order
+    Node[] ordered = new Node[size];
+    int count = 0;
+    for (Node head : oldBuckets) {
+      for (Node node = head; node != null; node = node.next) {
+        ordered[count++] = node;
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      ordered[i].next = null;
+      insert(ordered[i]);
+    }
+    if (count > 0) {
+      moveTo(minKey);
+    }
+  }
+
+  /**
+   * Estimate the bucket width like Brown's calendar queue: three times the average separation
+   * of the earliest events, averaged again without the separations above twice the first
+   * average, at least one second.
+   * @param sample the earliest event times, in order, as a long[]
+   * @param count the number of times in the sample, as an int
+   * @return the width in seconds, as a long
+   */
+  static long estimateWidth(long[] sample, int count) {
+    if (count < 2) {
+      return 1;
+    }
+    double average = (double) (sample[count - 1] - sample[0]) / (count - 1);
+    long total = 0;
+    int separations = 0;
+    for (int i = 1; i < count; i++) {
+      long separation = sample[i] - sample[i - 1];
+      if (separation <= 2 * average) {
+        total += separation;
+        separations++;
+      }
+    }
+    return Math.max(1, 3 * total / Math.max(1, separations));
+  }
+
+  /**
+   * A node of a bucket list.
+   */
+  private static class Node {
+
+    private final long key;
+    private final Event event;
+    private Node next;
+
+    /**
+     * Constructor of Node.
+     * @param key the event time in seconds, as a long
+     * @param event the event, as an Event
+     */
+    Node(long key, Event event) {
+      this.key = key;
+      this.event = event;
+    }
+  }
+}
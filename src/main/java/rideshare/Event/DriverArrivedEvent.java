@@ -0,0 +1,62 @@
+package rideshare.Event;
+
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.objects.Driver;
+
+/**
+ * DriverArrivedEvent represents a driver joining the idle drivers of a simulator,
+ * e.g. a driver whose last ride ended in the zone of that simulator.
+ */
+public class DriverArrivedEvent extends Event {
+
+  private final Driver driver;
+
+  /**
+   * Constructor for DriverArrivedEvent
+   * @param time time of the event in epoch seconds, as a long
+   * @param theSimulator the simulator the driver arrives at, as a RideshareDispatchSimulator
+   * @param driver the arriving driver, as a Driver
+   */
+  public DriverArrivedEvent(long time, RideshareDispatchSimulator theSimulator, Driver driver) {
+    super(time, theSimulator, null);
+    this.driver = driver;
+  }
+
+  /**
+   * Release the driver, and assign the driver to the next waiting request if there's one.
+   */
+  @Override
+  public void processEvent() {
+    this.theSimulator.handleDriverArrived(driver);
+  }
+
+  @Override
+  public EventType getType() {
+    return EventType.DRIVER_ARRIVED;
+  }
+
+  /**
+   * get the id of the arriving driver, which breaks ties between arrivals at the same time
+   * @return the driver id, as an int
+   */
+  @Override
+  public int getSequenceId() {
+    return driver.getId();
+  }
+
+  /**
+   * get the arriving driver
+   * @return the driver, as a Driver
+   */
+  public Driver getDriver() {
+    return driver;
+  }
+
+  @Override
+  public String toString() {
+    return "DriverArrivedEvent{" +
+        "driver=" + driver +
+        ", time=" + time +
+        "} " + super.toString();
+  }
+}
@@ -2,37 +2,54 @@ package rideshare.Event;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import rideshare.Controller.SimulationClock;
 import rideshare.objects.Request;
 import rideshare.Controller.RideshareDispatchSimulator;
 
 /**
  * Event represents an event in the simulation
- * It is the parent class of RideRequestedEvent and RideFinishedEvent
+ * It is the parent class of RideRequestedEvent, RideFinishedEvent and DriverArrivedEvent
  */
 public abstract class Event {
 
   protected Request request;
-  public LocalDateTime time;
+  public long time; // epoch seconds
 
   public RideshareDispatchSimulator theSimulator;
 
   /**
    * Constructor for Event
-   * @param time time when the event will happen as a LocalDateTime
+   * @param time time when the event will happen in epoch seconds, as a long
    * @param theSimulator the simulator, as a RideshareDispatchSimulator
    * @param request the request, as a Request
    */
-  public Event(LocalDateTime time, RideshareDispatchSimulator theSimulator, Request request) {
+  public Event(long time, RideshareDispatchSimulator theSimulator, Request request) {
     this.time = time;
     this.theSimulator = theSimulator;
     this.request = request;
   }
 
+  /**
+   * Constructor for Event
+   * @param time time when the event will happen as a LocalDateTime
+   * @param theSimulator the simulator, as a RideshareDispatchSimulator
+   * @param request the request, as a Request
+   */
+  public Event(LocalDateTime time, RideshareDispatchSimulator theSimulator, Request request) {
+    this(SimulationClock.toEpochSecond(time), theSimulator, request);
+  }
+
   /**
    * process the event
    */
   public abstract void processEvent();
 
+  /**
+   * get the type of the event
+   * @return the type, as an EventType
+   */
+  public abstract EventType getType();
+
   /**
    * get the request of the event
    * @return the request, as a Request
@@ -41,6 +58,14 @@ public abstract class Event {
     return request;
   }
 
+  /**
+   * get the id that breaks ties between events of the same time and type
+   * @return the request id, or -1 if the event has no request, as an int
+   */
+  public int getSequenceId() {
+    return request == null ? -1 : request.getId();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -50,8 +75,8 @@ public abstract class Event {
       return false;
     }
     Event event = (Event) o;
-    return Objects.equals(request, event.request) && Objects.equals(time,
-        event.time) && Objects.equals(theSimulator, event.theSimulator);
+    return Objects.equals(request, event.request) && time == event.time
+        && Objects.equals(theSimulator, event.theSimulator);
   }
 
   @Override
@@ -4,16 +4,20 @@ import java.util.Comparator;
 
 /**
  * EventComparator is a comparator for events , which compares the time of the events.
+ * Events at the same time are ordered by type (finished rides first), then by sequence id,
+ * so ties are always broken the same way.
  */
 public class EventComparator implements Comparator<Event> {
 
   @Override
   public int compare(Event o1, Event o2) {
-    if (o1.time.isBefore(o2.time)) {
-      return -1;
-    } else if (!o1.time.isBefore(o2.time)) {
-      return 1;
+    if (o1.time != o2.time) {
+      return o1.time < o2.time ? -1 : 1;
     }
-    return 0;
+    int typeCompareResult = Integer.compare(o1.getType().ordinal(), o2.getType().ordinal());
+    if (typeCompareResult != 0) {
+      return typeCompareResult;
+    }
+    return Integer.compare(o1.getSequenceId(), o2.getSequenceId());
   }
 }
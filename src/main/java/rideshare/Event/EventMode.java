@@ -0,0 +1,10 @@
+package rideshare.Event;
+
+/**
+ * Enum for how the simulator represents its events.
+ */
+public enum EventMode {
+
+  OBJECT, // one Event object per event, dispatched through processEvent()
+  PACKED; // one long per event in a PackedEventQueue, dispatched through a type switch
+}
@@ -0,0 +1,48 @@
+package rideshare.Event;
+
+import java.util.List;
+
+/**
+ * EventQueue is the future event list of the simulation.
+ * Events are polled in ascending order of their time.
+ */
+public interface EventQueue {
+
+  /**
+   * Add an event to the queue.
+   * @param event the event to be added, as an Event
+   */
+  void add(Event event);
+
+  /**
+   * Remove and return the earliest event.
+   * @return the earliest event, or null if the queue is empty
+   */
+  Event poll();
+
+  /**
+   * Return the earliest event without removing it.
+   * @return the earliest event, or null if the queue is empty
+   */
+  Event peek();
+
+  /**
+   * Get the number of events in the queue.
+   * @return the number of events, as an int
+   */
+  int size();
+
+  /**
+   * Get every event in the queue without removing them, e.g. to checkpoint the queue.
+   * @return the events in no particular order, as a List of Event
+   */
+  List<Event> toList();
+
+  /**
+   * Check if the queue is empty.
+   * @return true if there's no event in the queue
+   */
+  default boolean isEmpty() {
+    return size() == 0;
+  }
+}
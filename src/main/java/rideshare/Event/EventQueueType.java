@@ -0,0 +1,27 @@
+package rideshare.Event;
+
+/**
+ * Enum for the available event queue implementations.
+ */
+public enum EventQueueType {
+
+  HEAP, // binary heap, the reference implementation
+  CALENDAR, // calendar queue
+  TIMING_WHEEL; // hierarchical timing wheel
+
+  /**
+   * Create an empty event queue of this type.
+   * @param originSecond the simulation start time in epoch seconds, as a long
+   * @return a new event queue, as an EventQueue
+   */
+  public EventQueue create(long originSecond) {
+    switch (this) {
+      case CALENDAR:
+        return new CalendarEventQueue();
+      case TIMING_WHEEL:
+        return new TimingWheelEventQueue(originSecond);
+      default:
+        return new HeapEventQueue();
+    }
+  }
+}
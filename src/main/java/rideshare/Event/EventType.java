@@ -0,0 +1,26 @@
+package rideshare.Event;
+
+/**
+ * Enum for the kinds of events in the simulation.
+ * The ordinal is the type tag stored in a packed event, and events of the same time are
+ * processed in the order of their type.
+ */
+public enum EventType {
+
+  RIDE_FINISHED,
+  DRIVER_ARRIVED,
+  RIDE_REQUESTED,
+  RIDE_CANCELLED,
+  REQUEST_TIMED_OUT;
+
+  private static final EventType[] TYPES = values();
+
+  /**
+   * Get the event type of a type tag.
+   * @param tag the type tag, as an int
+   * @return the event type, as an EventType
+   */
+  public static EventType fromTag(int tag) {
+    return TYPES[tag];
+  }
+}
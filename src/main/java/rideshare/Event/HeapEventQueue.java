@@ -0,0 +1,39 @@
+package rideshare.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * HeapEventQueue keeps events in a binary heap ordered by EventComparator.
+ * It is the reference implementation the other queues are checked against.
+ */
+public class HeapEventQueue implements EventQueue {
+
+  private final PriorityQueue<Event> heap = new PriorityQueue<>(new EventComparator());
+
+  @Override
+  public void add(Event event) {
+    heap.add(event);
+  }
+
+  @Override
+  public Event poll() {
+    return heap.poll();
+  }
+
+  @Override
+  public Event peek() {
+    return heap.peek();
+  }
+
+  @Override
+  public int size() {
+    return heap.size();
+  }
+
+  @Override
+  public List<Event> toList() {
+    return new ArrayList<>(heap);
+  }
+}
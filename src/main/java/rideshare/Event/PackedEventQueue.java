@@ -0,0 +1,164 @@
+package rideshare.Event;
+
+import java.util.Arrays;
+
+/**
+ * PackedEventQueue is a binary min-heap of events packed into primitive longs, so scheduling
+ * an event allocates nothing. A packed event holds, from the most significant bit down,
+ * the event time in seconds after the origin (31 bits), the event type tag (4 bits)
+ * and the request index (28 bits). Comparing packed events as longs therefore orders them by
+ * time, then by type, then by request index.
+ * Request ids grow without bound in a long run, so a simulator packs the low bits of the id as
+ * the index and finds the id again among the ids it holds, see RequestRegistry.indexOf.
+ */
+public class PackedEventQueue {
+
+  private static final int TYPE_BITS = 4;
+  private static final int INDEX_BITS = 28;
+  private static final int TIME_SHIFT = TYPE_BITS + INDEX_BITS;
+  private static final long MAX_OFFSET = (1L << 31) - 1;
+  public static final int MAX_INDEX = (1 << INDEX_BITS) - 1; // also the mask of the index
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final long origin;
+  private long[] heap;
+  private int size;
+
+  /**
+   * Constructor of PackedEventQueue.
+   * @param origin the earliest event time in epoch seconds, as a long
+   */
+  public PackedEventQueue(long origin) {
+    this.origin = origin;
+    this.heap = new long[INITIAL_CAPACITY];
+    this.size = 0;
+  }
+
+  /**
+   * Add an event to the queue.
+   * @param time the time of the event in epoch seconds, as a long
+   * @param type the type of the event, as an EventType
+   * @param requestIndex the index of the request of the event, as an int
+   */
+  public void add(long time, EventType type, int requestIndex) {
+    long offset = time - origin;
+    if (offset < 0 || offset > MAX_OFFSET) {
+      throw new IllegalArgumentException("Event time out of range: " + time);
+    }
+    if (requestIndex < 0 || requestIndex > MAX_INDEX) {
+      throw new IllegalArgumentException("Request index out of range: " + requestIndex);
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    long key = (offset << TIME_SHIFT) | ((long) type.ordinal() << INDEX_BITS) | requestIndex;
+    siftUp(size++, key);
+  }
+
+  /**
+   * Get every packed event in the queue without removing them, e.g. to checkpoint the queue.
+   * @return the packed events in no particular order, as a long[]
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(heap, size);
+  }
+
+  /**
+   * Remove and return the earliest packed event.
+   * @return the earliest packed event, as a long
+   */
+  public long poll() {
+    if (size == 0) {
+      throw new IllegalStateException("Event queue is empty");
+    }
+    long first = heap[0];
+    long last = heap[--size];
+    if (size > 0) {
+      siftDown(0, last);
+    }
+    return first;
+  }
+
+  /**
+   * Return the earliest packed event without removing it.
+   * @return the earliest packed event, as a long
+   */
+  public long peek() {
+    if (size == 0) {
+      throw new IllegalStateException("Event queue is empty");
+    }
+    return heap[0];
+  }
+
+  /**
+   * Get the number of events in the queue.
+   * @return the number of events, as an int
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Check if the queue is empty.
+   * @return true if there's no event in the queue
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get the time of a packed event.
+   * @param event the packed event, as a long
+   * @return the time of the event in epoch seconds, as a long
+   */
+  public long timeOf(long event) {
+    return origin + (event >>> TIME_SHIFT);
+  }
+
+  /**
+   * Get the type tag of a packed event.
+   * @param event the packed event, as a long
+   * @return the type tag, see EventType.fromTag, as an int
+   */
+  public static int typeOf(long event) {
+    return (int) (event >>> INDEX_BITS) & ((1 << TYPE_BITS) - 1);
+  }
+
+  /**
+   * Get the request index of a packed event.
+   * @param event the packed event, as a long
+   * @return the request index, as an int
+   */
+  public static int indexOf(long event) {
+    return (int) event & MAX_INDEX;
+  }
+
+  private void siftUp(int position, long key) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (heap[parent] <= key) {
+        break;
+      }
+      heap[position] = heap[parent];
+      position = parent;
+    }
+    heap[position] = key;
+  }
+
+  private void siftDown(int position, long key) {
+    int half = size >>> 1;
+    while (position < half) {
+      int child = 2 * position + 1;
+      int right = child + 1;
+      if (right < size && heap[right] < heap[child]) {
+        child = right;
+      }
+      if (key <= heap[child]) {
+        break;
+      }
+      heap[position] = heap[child];
+      position = child;
+    }
+    heap[position] = key;
+  }
+}
@@ -0,0 +1,44 @@
+package rideshare.Event;
+
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.objects.Request;
+
+/**
+ * RequestTimedOutEvent represents a waiting request reaching the longest wait of the simulator.
+ * It is scheduled when a request starts waiting, and does nothing if the request got a driver
+ * or was cancelled before.
+ */
+public class RequestTimedOutEvent extends Event {
+
+  /**
+   * Constructor for RequestTimedOutEvent
+   * @param time time of the event in epoch seconds, as a long
+   * @param theSimulator the simulator, as a RideshareDispatchSimulator
+   * @param request the waiting request, as a Request
+   */
+  public RequestTimedOutEvent(long time, RideshareDispatchSimulator theSimulator,
+      Request request) {
+    super(time, theSimulator, request);
+  }
+
+  /**
+   * Remove the request from the waiting requests, if it is still waiting.
+   */
+  @Override
+  public void processEvent() {
+    this.theSimulator.handleRequestTimedOut(request);
+  }
+
+  @Override
+  public EventType getType() {
+    return EventType.REQUEST_TIMED_OUT;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestTimedOutEvent{" +
+        "request=" + request +
+        ", time=" + time +
+        "} " + super.toString();
+  }
+}
@@ -0,0 +1,42 @@
+package rideshare.Event;
+
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.objects.Request;
+
+/**
+ * RideCancelledEvent represents a customer cancelling a request.
+ * Only a waiting request can be cancelled; once a driver is assigned, the ride goes on.
+ */
+public class RideCancelledEvent extends Event {
+
+  /**
+   * Constructor for RideCancelledEvent
+   * @param time time of the event in epoch seconds, as a long
+   * @param theSimulator the simulator, as a RideshareDispatchSimulator
+   * @param request the cancelled request, as a Request
+   */
+  public RideCancelledEvent(long time, RideshareDispatchSimulator theSimulator, Request request) {
+    super(time, theSimulator, request);
+  }
+
+  /**
+   * Remove the request from the waiting requests, if it is still waiting.
+   */
+  @Override
+  public void processEvent() {
+    this.theSimulator.handleRideCancelled(request);
+  }
+
+  @Override
+  public EventType getType() {
+    return EventType.RIDE_CANCELLED;
+  }
+
+  @Override
+  public String toString() {
+    return "RideCancelledEvent{" +
+        "request=" + request +
+        ", time=" + time +
+        "} " + super.toString();
+  }
+}
@@ -12,7 +12,17 @@ public class RideFinishedEvent extends Event{
 
   /**
    * Constructor for RideFinishedEvent
-   * @param time time of the event
+   * @param time time of the event in epoch seconds, as a long
+   * @param theSimulator the simulator, as a RideshareDispatchSimulator
+   * @param request the active request, as a Request
+   */
+  public RideFinishedEvent(long time, RideshareDispatchSimulator theSimulator, Request request) {
+    super(time, theSimulator, request);
+  }
+
+  /**
+   * Constructor for RideFinishedEvent
+   * @param time time of the event as a LocalDateTime
    * @param theSimulator the simulator, as a RideshareDispatchSimulator
    * @param request the active request, as a Request
    */
@@ -31,6 +41,11 @@ public class RideFinishedEvent extends Event{
     this.theSimulator.handleRideFinished(this);
   }
 
+  @Override
+  public EventType getType() {
+    return EventType.RIDE_FINISHED;
+  }
+
   @Override
   public String toString() {
     return "RideFinishedEvent{" +
@@ -10,6 +10,16 @@ import rideshare.Controller.RideshareDispatchSimulator;
  */
 public class RideRequestedEvent extends Event {
 
+  /**
+   * Constructor for RideRequestedEvent
+   * @param time time of the event in epoch seconds, as a long
+   * @param theSimulator the simulator, as a RideshareDispatchSimulator
+   * @param request the incoming request, as a Request
+   */
+  public RideRequestedEvent(long time, RideshareDispatchSimulator theSimulator, Request request) {
+    super(time, theSimulator, request);
+  }
+
   /**
    * Constructor for RideRequestedEvent
    * @param time time of the event as a LocalDateTime
@@ -31,10 +41,16 @@ public class RideRequestedEvent extends Event {
   public void processEvent() {
     if (this.theSimulator.handleRideRequested(this)) {
       // should be actual arrival time
-      this.theSimulator.scheduleEvent(new RideFinishedEvent(request.getActualArrivalTime(), this.theSimulator, this.request));
+      this.theSimulator.scheduleEvent(new RideFinishedEvent(request.getActualArrivalEpochSecond(),
+          this.theSimulator, this.request));
     }
   }
 
+  @Override
+  public EventType getType() {
+    return EventType.RIDE_REQUESTED;
+  }
+
   @Override
   public String toString() {
     return "RideRequestedEvent{" +
@@ -0,0 +1,182 @@
+package rideshare.Event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * TimingWheelEventQueue is a hierarchical timing wheel with one-second ticks.
+ * Level 0 has one slot per second of the current 64-second block, level 1 one slot per
+ * 64-second block of the current 4096-second block, and so on. An event is placed on the
+ * lowest level whose block still contains it, and is cascaded down one or more levels when the
+ * cursor reaches its slot, so insert and poll take amortized O(1) regardless of queue size.
+ * Events further away than the top level can reach wait in an overflow list.
+ * Events with the same second are polled in insertion order.
+ */
+public class TimingWheelEventQueue implements EventQueue {
+
+  private static final int BITS = 6;
+  private static final int SLOTS = 1 << BITS;
+  private static final int LEVELS = 6;
+
+  private final ArrayDeque<Event>[][] wheels;
+  private final long[] occupied = new long[LEVELS]; // bitmap of non-empty slots per level
+  private final List<Event> overflow = new ArrayList<>();
+  // events added behind the cursor, which can only happen after peek moved the cursor ahead
+  private final PriorityQueue<Event> late = new PriorityQueue<>(new EventComparator());
+  private long cursor;
+  private int size;
+
+  /**
+   * Constructor of TimingWheelEventQueue.
+   * @param originSecond the earliest event time expected, in epoch seconds, as a long
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public TimingWheelEventQueue(long originSecond) {
+    this.wheels = new ArrayDeque[LEVELS][SLOTS];
+    for (int level = 0; level < LEVELS; level++) {
+      for (int slot = 0; slot < SLOTS; slot++) {
+        wheels[level][slot] = new ArrayDeque<>();
+      }
+    }
+    this.cursor = originSecond;
+    this.size = 0;
+  }
+
+  @Override
+  public void add(Event event) {
+    long key = event.time;
+    if (key < cursor) {
+      late.add(event);
+    } else {
+      place(event, key);
+    }
+    size++;
+  }
+
+  @Override
+  public Event poll() {
+    if (size == 0) {
+      return null;
+    }
+    size--;
+    if (!late.isEmpty()) {
+      return late.poll();
+    }
+    int slot = advance();
+    Event event = wheels[0][slot].pollFirst();
+    if (wheels[0][slot].isEmpty()) {
+      occupied[0] &= ~(1L << slot);
+    }
+    return event;
+  }
+
+  @Override
+  public Event peek() {
+    if (size == 0) {
+      return null;
+    }
+    if (!late.isEmpty()) {
+      return late.peek();
+    }
+    return wheels[0][advance()].peekFirst();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public List<Event> toList() {
+    List<Event> events = new ArrayList<>(size);
+    for (ArrayDeque<Event>[] wheel : wheels) {
+      for (ArrayDeque<Event> slot : wheel) {
+        events.addAll(slot);
+      }
+    }
+    events.addAll(overflow);
+    events.addAll(late);
+    return events;
+  }
+
+  /**
+   * Move the cursor to the earliest event, cascading higher levels down as needed.
+   * Must only be called when the wheel holds at least one event.
+   * @return the level 0 slot of the earliest event, as an int
+   */
+  private int advance() {
+    while (true) {
+      long ready = occupied[0] & (-1L << (cursor & (SLOTS - 1)));
+      if (ready != 0) {
+        int slot = Long.numberOfTrailingZeros(ready);
+        cursor = (cursor & ~(long) (SLOTS - 1)) | slot;
+        return slot;
+      }
+      if (!cascade()) {
+        reloadOverflow();
+      }
+    }
+  }
+
+  /**
+   * Find the next non-empty slot above level 0, move the cursor to the start of that slot
+   * and spread its events over the lower levels.
+   * @return true if a slot was cascaded, false if all levels are empty
+   */
+  private boolean cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      int shift = BITS * level;
+      int current = (int) ((cursor >>> shift) & (SLOTS - 1));
+      long ready = occupied[level] & (-1L << current);
+      if (ready != 0) {
+        int slot = Long.numberOfTrailingZeros(ready);
+        long blockStart = (cursor >>> (shift + BITS)) << (shift + BITS);
+        cursor = blockStart | ((long) slot << shift);
+        occupied[level] &= ~(1L << slot);
+        ArrayDeque<Event> events = wheels[level][slot];
+        while (!events.isEmpty()) {
+          Event event = events.pollFirst();
+          place(event, event.time);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Move the cursor to the earliest overflowed event and put every overflowed event
+   * that is now in reach back on the wheel.
+   */
+  private void reloadOverflow() {
+    long minKey = Long.MAX_VALUE;
+    for (Event event : overflow) {
+      minKey = Math.min(minKey, event.time);
+    }
+    cursor = minKey;
+    List<Event> pending = new ArrayList<>(overflow);
+    overflow.clear();
+    for (Event event : pending) {
+      place(event, event.time);
+    }
+  }
+
+  /**
+   * Put an event on the lowest level whose current block contains its time.
+   * @param event the event, as an Event
+   * @param key the time of the event in seconds, not before the cursor, as a long
+   */
+  private void place(Event event, long key) {
+    long difference = key ^ cursor;
+    int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / BITS;
+    if (level >= LEVELS) {
+      overflow.add(event);
+      return;
+    }
+    int slot = (int) ((key >>> (BITS * level)) & (SLOTS - 1));
+    wheels[level][slot].addLast(event);
+    occupied[level] |= 1L << slot;
+  }
+}
@@ -1,21 +1,61 @@
 package rideshare;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Collections;
 import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationConfig;
 import rideshare.Model.CommandLineParser;
+import rideshare.Stream.DispatchHttpServer;
+import rideshare.Stream.SimulationPacer;
 
 /**
  * Main class for the rideshare dispatch simulator.
  */
 public class Main {
 
+  private static final int DEFAULT_HTTP_DRIVERS = 100;
+
   /**
    * Main method for the rideshare dispatch simulator.
+   * With --http port [drivers], dispatches rides submitted over HTTP in real time until killed,
+   * see DispatchHttpServer; otherwise asks for the numbers of drivers and requests on stdin.
    * @param args command line arguments
+   * @throws IOException if the HTTP port can't be bound
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    if (args.length >= 2 && "--http".equals(args[0])) {
+      serveHttp(Integer.parseInt(args[1]),
+          args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HTTP_DRIVERS);
+      return;
+    }
     int[] parsedArgs = CommandLineParser.parseArguments();
     RideshareDispatchSimulator theSimulator = new RideshareDispatchSimulator(parsedArgs[0], parsedArgs[1]);
     theSimulator.run();
-    AnalysisReport.generateReport(theSimulator.getFinishedRequests(), parsedArgs[0]);
+    AnalysisReport.generateReport(theSimulator.getFinishedRequests(), parsedArgs[0],
+        theSimulator.getRejectedRequestCount());
+  }
+
+  /**
+   * dispatch rides submitted over HTTP until the process is stopped
+   * @param port the port to listen on, as an int
+   * @param numberOfDrivers number of drivers, as an int
+   * @throws IOException if the port can't be bound
+   */
+  private static void serveHttp(int port, int numberOfDrivers) throws IOException {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(numberOfDrivers,
+        Collections.emptyList(), new SimulationConfig().setRetainFinishedRequests(false));
+    DispatchHttpServer server = new DispatchHttpServer(simulator, SimulationPacer.realTime(),
+        new InetSocketAddress(port));
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        server.stop();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    server.start();
+    System.out.println("Dispatching on port " + server.getPort() + " with " + numberOfDrivers
+        + " drivers" + (server.usesVirtualThreads() ? ", a virtual thread per request" : ""));
   }
 }
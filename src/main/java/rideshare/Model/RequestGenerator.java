@@ -1,12 +1,17 @@
 package rideshare.Model;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import rideshare.objects.Location;
 import rideshare.objects.Request;
+import rideshare.objects.RequestStore;
 import rideshare.objects.RideType;
+import rideshare.objects.TripLog;
 
 /**
  * RequestGenerator is a class that generates random requests
+ * All randomness comes from the Random passed in, so a seeded Random gives a reproducible stream.
  */
 public class RequestGenerator {
 
@@ -20,17 +25,17 @@ public class RequestGenerator {
    * The other attributes like name, location are generated randomly according to given i.
    * ride type is randomly selected from the enum RideType.
    * @param i The index of the request, as an Integer
-   * @param systemTime The current time of the system, as a LocalDateTime
+   * @param systemTime The current time of the system in epoch seconds, as a long
+   * @param random The source of randomness, as a Random
    * @return A random Request
    */
-  public static Request generateRandomRequest(int i, LocalDateTime systemTime) {
-    Random random = new Random();
+  public static Request generateRandomRequest(int i, long systemTime, Random random) {
     String customerName = "Customer" + i;
     String startLocation = "Start location" + i;
     String endLocation = "Ending Location" + i;
     Double distance = random.nextDouble() * 50 + 10;
-    LocalDateTime requestTime = generateRandomTimeWithinRange(systemTime, rangeOfSeconds);
-    RideType rideType = getRandomRideType();
+    long requestTime = generateRandomTimeWithinRange(systemTime, rangeOfSeconds, random);
+    RideType rideType = getRandomRideType(random);
 
     Request request = new Request(customerName, startLocation, endLocation, distance,
         requestTime, rideType);
@@ -39,23 +44,120 @@ public class RequestGenerator {
   }
 
   /**
-   * Generate a random LocalDateTime starting from systemTime within the given range
-   * @param systemTime The current time of the system, as a LocalDateTime
+   * Generate a workload of random requests, see generateRandomRequest.
+   * @param numberOfRequests The number of requests, as an int
+   * @param systemTime The current time of the system in epoch seconds, as a long
+   * @param random The source of randomness, as a Random
+   * @return The requests, as a List of Request
+   */
+  public static List<Request> generateRequests(int numberOfRequests, long systemTime,
+      Random random) {
+    List<Request> requests = new ArrayList<>(numberOfRequests);
+    for (int i = 0; i < numberOfRequests; i++) {
+      requests.add(generateRandomRequest(i, systemTime, random));
+    }
+    return requests;
+  }
+
+  /**
+   * Generate a workload of random requests into a RequestStore, sorted by request time, e.g. for
+   * workloads too large to keep as Request objects. Rides are drawn like in
+   * generateRandomRequest, but over a given range of request times and without names.
+   * @param numberOfRequests number of requests, as an int
+   * @param systemTime The current time of the system in epoch seconds, as a long
+   * @param rangeOfSeconds The range of seconds of the request times, as an int
+   * @param random The source of randomness, as a Random
+   * @return the requests, as a RequestStore
+   */
+  public static RequestStore generateRequestStore(int numberOfRequests, long systemTime,
+      int rangeOfSeconds, Random random) {
+    RequestStore store = new RequestStore(numberOfRequests);
+    for (int i = 0; i < numberOfRequests; i++) {
+      double distance = random.nextDouble() * 50 + 10;
+      long requestTime = generateRandomTimeWithinRange(systemTime, rangeOfSeconds, random);
+      store.add(null, null, null, distance, requestTime, getRandomRideType(random));
+    }
+    store.sortByRequestTime();
+    return store;
+  }
+
+  /**
+   * Generate a workload of random pending trips into a TripLog, off the heap and sorted by
+   * request time, e.g. for workloads too large for the heap. Rides are drawn like in
+   * generateRequestStore.
+   * @param numberOfRequests number of requests, as an int
+   * @param systemTime The current time of the system in epoch seconds, as a long
+   * @param rangeOfSeconds The range of seconds of the request times, as an int
+   * @param random The source of randomness, as a Random
+   * @return the trips, as a TripLog
+   */
+  public static TripLog generateTripLog(int numberOfRequests, long systemTime,
+      int rangeOfSeconds, Random random) {
+    TripLog trips = new TripLog();
+    for (int i = 0; i < numberOfRequests; i++) {
+      double distance = random.nextDouble() * 50 + 10;
+      long requestTime = generateRandomTimeWithinRange(systemTime, rangeOfSeconds, random);
+      trips.add(new Request(null, null, null, distance, requestTime, getRandomRideType(random)));
+    }
+    trips.sortByRequestTime();
+    return trips;
+  }
+
+  /**
+   * Generate a workload of random requests with coordinates in a square city.
+   * Start and end are uniformly distributed in the city, and the distance of the ride is the
+   * straight-line distance between them, at least half a mile.
+   * @param numberOfRequests The number of requests, as an int
+   * @param systemTime The current time of the system in epoch seconds, as a long
+   * @param citySizeMiles The width and height of the city in miles, as a double
+   * @param random The source of randomness, as a Random
+   * @return The requests, as a List of Request
+   */
+  public static List<Request> generateSpatialRequests(int numberOfRequests, long systemTime,
+      double citySizeMiles, Random random) {
+    List<Request> requests = new ArrayList<>(numberOfRequests);
+    for (int i = 0; i < numberOfRequests; i++) {
+      Location start = generateRandomLocation(citySizeMiles, random);
+      Location end = generateRandomLocation(citySizeMiles, random);
+      long requestTime = generateRandomTimeWithinRange(systemTime, rangeOfSeconds, random);
+      Request request = new Request("Customer" + i, "Start location" + i,
+          "Ending Location" + i, Math.max(0.5, start.distanceTo(end)), requestTime,
+          getRandomRideType(random));
+      request.setCoordinates(start, end);
+      requests.add(request);
+    }
+    return requests;
+  }
+
+  /**
+   * Generate a uniformly distributed location in a square city
+   * @param citySizeMiles The width and height of the city in miles, as a double
+   * @param random The source of randomness, as a Random
+   * @return A random location, as a Location
+   */
+  public static Location generateRandomLocation(double citySizeMiles, Random random) {
+    return new Location(random.nextDouble() * citySizeMiles, random.nextDouble() * citySizeMiles);
+  }
+
+  /**
+   * Generate a random time starting from systemTime within the given range
+   * @param systemTime The current time of the system in epoch seconds, as a long
    * @param rangeOfSeconds The range of seconds to generate a random time within, as an Integer
-   * @return A random LocalDateTime within the given range
+   * @param random The source of randomness, as a Random
+   * @return A random time within the given range in epoch seconds, as a long
    */
-  private static LocalDateTime generateRandomTimeWithinRange(LocalDateTime systemTime, Integer rangeOfSeconds) {
-    Random random = new Random();
-    return systemTime.plusSeconds(random.nextInt(rangeOfSeconds));
+  private static long generateRandomTimeWithinRange(long systemTime, Integer rangeOfSeconds,
+      Random random) {
+    return systemTime + random.nextInt(rangeOfSeconds);
   }
 
   /**
    * Get a random RideType
+   * @param random The source of randomness, as a Random
    * @return A random RideType, as a RideType
    */
-  private static RideType getRandomRideType() {
+  private static RideType getRandomRideType(Random random) {
     RideType[] rideTypes = RideType.values();
-    Random random = new Random();
     return rideTypes[random.nextInt(rideTypes.length)];
   }
 }
@@ -0,0 +1,93 @@
+package rideshare.Model;
+
+import java.util.Random;
+import rideshare.Routing.RoadNetwork;
+
+/**
+ * RoadNetworkGenerator generates random city road networks, e.g. for benchmarks and tests
+ * without a road file.
+ * All randomness comes from the Random passed in, so a seeded Random gives a reproducible city.
+ */
+public class RoadNetworkGenerator {
+
+  private static final int ARTERIAL_EVERY = 8; // every 8th street is an arterial
+  private static final double ARTERIAL_MILE_PER_HOUR = 45;
+  private static final double LOCAL_MILE_PER_HOUR = 25;
+  private static final double HOUR_TO_SECONDS = 3600;
+
+  /**
+   * Generate a square city of two-way streets on a grid, slightly bent. Arterials are faster
+   * than local streets, and every direction of every block is slowed by up to half by traffic,
+   * so the fastest route is rarely the straight one.
+   * @param streetsPerSide The number of streets each way, at least 2, as an int
+   * @param citySizeMiles The width and height of the city in miles, as a double
+   * @param random The source of randomness, as a Random
+   * @return The road network, with streetsPerSide squared nodes, as a RoadNetwork
+   */
+  public static RoadNetwork generateGrid(int streetsPerSide, double citySizeMiles,
+      Random random) {
+    if (streetsPerSide < 2) {
+      throw new IllegalArgumentException("A grid needs 2 streets each way");
+    }
+    int nodeCount = streetsPerSide * streetsPerSide;
+    double block = citySizeMiles / (streetsPerSide - 1);
+    double[] xs = new double[nodeCount];
+    double[] ys = new double[nodeCount];
+    for (int row = 0; row < streetsPerSide; row++) {
+      for (int column = 0; column < streetsPerSide; column++) {
+        int node = row * streetsPerSide + column;
+        xs[node] = Math.max(0, Math.min(citySizeMiles,
+            column * block + (random.nextDouble() - 0.5) * block / 4));
+        ys[node] = Math.max(0, Math.min(citySizeMiles,
+            row * block + (random.nextDouble() - 0.5) * block / 4));
+      }
+    }
+
+    int arcCount = 4 * streetsPerSide * (streetsPerSide - 1);
+    int[] tails = new int[arcCount];
+    int[] heads = new int[arcCount];
+    int[] millis = new int[arcCount];
+    int arc = 0;
+    for (int row = 0; row < streetsPerSide; row++) {
+      for (int column = 0; column < streetsPerSide; column++) {
+        int node = row * streetsPerSide + column;
+        if (column + 1 < streetsPerSide) {
+          arc = addStreet(node, node + 1, row % ARTERIAL_EVERY == 0, xs, ys, tails, heads,
+              millis, arc, random);
+        }
+        if (row + 1 < streetsPerSide) {
+          arc = addStreet(node, node + streetsPerSide, column % ARTERIAL_EVERY == 0, xs, ys,
+              tails, heads, millis, arc, random);
+        }
+      }
+    }
+    return new RoadNetwork(xs, ys, tails, heads, millis);
+  }
+
+  /**
+   * Add a block of a two-way street, one arc each way
+   * @param from One end of the block, as an int
+   * @param to The other end of the block, as an int
+   * @param arterial Whether the street is an arterial, as a boolean
+   * @param xs Miles east of every node, as a double[]
+   * @param ys Miles north of every node, as a double[]
+   * @param tails The tail of every arc, as an int[]
+   * @param heads The head of every arc, as an int[]
+   * @param millis The driving time of every arc in milliseconds, as an int[]
+   * @param arc The next free arc, as an int
+   * @param random The source of randomness, as a Random
+   * @return The next free arc after the two added, as an int
+   */
+  private static int addStreet(int from, int to, boolean arterial, double[] xs, double[] ys,
+      int[] tails, int[] heads, int[] millis, int arc, Random random) {
+    double miles = Math.hypot(xs[to] - xs[from], ys[to] - ys[from]);
+    double speed = arterial ? ARTERIAL_MILE_PER_HOUR : LOCAL_MILE_PER_HOUR;
+    for (int direction = 0; direction < 2; direction++) {
+      double traffic = 1 + random.nextDouble();
+      tails[arc] = direction == 0 ? from : to;
+      heads[arc] = direction == 0 ? to : from;
+      millis[arc++] = RoadNetwork.toMillis(miles / speed * HOUR_TO_SECONDS * traffic);
+    }
+    return arc;
+  }
+}
@@ -0,0 +1,151 @@
+package rideshare;
+
+import java.util.List;
+import rideshare.Controller.ReplicationResult;
+
+/**
+ * Generate a report over independent replications: mean, sample variance and a Student t
+ * confidence interval of the average waiting time and average riding time.
+ */
+public class ReplicationReport {
+
+  /**
+   * calculate the mean of the values
+   * @param values the values, as a double[]
+   * @return the mean, as a double
+   */
+  public static double mean(double[] values) {
+    double sum = 0;
+    for (double value : values) {
+      sum += value;
+    }
+    return sum / values.length;
+  }
+
+  /**
+   * calculate the sample variance of the values
+   * @param values the values, at least two, as a double[]
+   * @return the sample variance, as a double
+   */
+  public static double variance(double[] values) {
+    if (values.length < 2) {
+      return 0;
+    }
+    double mean = mean(values);
+    double sumOfSquares = 0;
+    for (double value : values) {
+      sumOfSquares += (value - mean) * (value - mean);
+    }
+    return sumOfSquares / (values.length - 1);
+  }
+
+  /**
+   * calculate a two-sided Student t confidence interval of the mean of the values
+   * @param values the values, at least two, as a double[]
+   * @param confidenceLevel the confidence level, e.g. 0.95, as a double
+   * @return the lower and upper bound of the interval, as a double[]
+   */
+  public static double[] confidenceInterval(double[] values, double confidenceLevel) {
+    double mean = mean(values);
+    if (values.length < 2) {
+      return new double[] {mean, mean};
+    }
+    double t = studentTQuantile(1 - (1 - confidenceLevel) / 2, values.length - 1);
+    double halfWidth = t * Math.sqrt(variance(values) / values.length);
+    return new double[] {mean - halfWidth, mean + halfWidth};
+  }
+
+  /**
+   * calculate the quantile of the Student t distribution.
+   * Exact for one and two degrees of freedom, and a Cornish-Fisher expansion around the normal
+   * quantile otherwise, which is accurate to about 0.01 from three degrees of freedom.
+   * @param p the probability, between 0 and 1, as a double
+   * @param degreesOfFreedom the degrees of freedom, as an int
+   * @return the quantile, as a double
+   */
+  public static double studentTQuantile(double p, int degreesOfFreedom) {
+    if (degreesOfFreedom == 1) {
+      return Math.tan(Math.PI * (p - 0.5));
+    }
+    if (degreesOfFreedom == 2) {
+      return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+    }
+    double z = normalQuantile(p);
+    double v = degreesOfFreedom;
+    double z3 = z * z * z;
+    double z5 = z3 * z * z;
+    double z7 = z5 * z * z;
+    double z9 = z7 * z * z;
+    double g1 = (z3 + z) / 4;
+    double g2 = (5 * z5 + 16 * z3 + 3 * z) / 96;
+    double g3 = (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / 384;
+    double g4 = (79 * z9 + 776 * z7 + 1482 * z5 - 1920 * z3 - 945 * z) / 92160;
+    return z + g1 / v + g2 / (v * v) + g3 / (v * v * v) + g4 / (v * v * v * v);
+  }
+
+  /**
+   * calculate the quantile of the standard normal distribution (P. Acklam's rational approximation)
+   * @param p the probability, between 0 and 1, as a double
+   * @return the quantile, as a double
+   */
+  public static double normalQuantile(double p) {
+    double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+        1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+        6.680131188771972e+01, -1.328068155288572e+01};
+    double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+        -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+        3.754408661907416e+00};
+    double low = 0.02425;
+
+    if (p < low) {
+      double q = Math.sqrt(-2 * Math.log(p));
+      return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+          / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+    }
+    if (p > 1 - low) {
+      return -normalQuantile(1 - p);
+    }
+    double q = p - 0.5;
+    double r = q * q;
+    return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+        / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+  }
+
+  /**
+   * generate a report over the replications
+   * @param results the replication results, as a List of ReplicationResult
+   * @param confidenceLevel the confidence level of the intervals, e.g. 0.95, as a double
+   */
+  public static void generateReport(List<ReplicationResult> results, double confidenceLevel) {
+    double[] waitingSeconds = new double[results.size()];
+    double[] ridingSeconds = new double[results.size()];
+    for (int i = 0; i < results.size(); i++) {
+      waitingSeconds[i] = results.get(i).getAverageWaitingSeconds();
+      ridingSeconds[i] = results.get(i).getAverageRidingSeconds();
+    }
+
+    System.out.println("========================== Replication Analysis Report =========================="
+        + System.lineSeparator());
+    System.out.println(String.format("Replications: %d" + System.lineSeparator(), results.size()));
+    System.out.println(formatMetric("Average waiting time", waitingSeconds, confidenceLevel));
+    System.out.println(formatMetric("Average riding time", ridingSeconds, confidenceLevel));
+    System.out.println("================================= End Of Report ==================================="
+        + System.lineSeparator());
+  }
+
+  /**
+   * format the mean, variance and confidence interval of a metric, in seconds
+   * @param name the name of the metric, as a String
+   * @param values the metric of every replication, as a double[]
+   * @param confidenceLevel the confidence level of the interval, as a double
+   * @return the formatted metric, as a String
+   */
+  private static String formatMetric(String name, double[] values, double confidenceLevel) {
+    double[] interval = confidenceInterval(values, confidenceLevel);
+    return String.format("%s: mean %.1f seconds, variance %.1f, %.0f%% confidence interval "
+            + "[%.1f, %.1f] seconds" + System.lineSeparator(), name, mean(values), variance(values),
+        confidenceLevel * 100, interval[0], interval[1]);
+  }
+}
@@ -0,0 +1,557 @@
+package rideshare.Routing;
+
+import java.util.Arrays;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * ContractionHierarchy answers point-to-point queries on a RoadNetwork in microseconds, after a
+ * preprocessing step that contracts the nodes one by one, least important first. Contracting a
+ * node adds a shortcut between two of its neighbours wherever the path through it is the only
+ * shortest one, found with a bounded witness search. A query is then a bidirectional Dijkstra
+ * search that only climbs to more important nodes, and skips nodes that a more important node
+ * already reached faster (stall-on-demand), so it settles a few hundred nodes on a city graph.
+ *
+ * Nodes are numbered by importance in the search graph, so the upward arcs of both searches are
+ * stored in compressed sparse row form close to each other. The search graph is immutable and
+ * shared by copies; a copy keeps the state of its own searches, so a hierarchy is not thread
+ * safe, but its copies can be used by one thread each.
+ */
+public final class ContractionHierarchy implements TravelTimes {
+
+  private static final int INFINITE = Integer.MAX_VALUE;
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+
+  private final RoadNetwork network;
+  private final int[] rankOf; // rank of every node of the network
+  // arcs to more important nodes, by rank
+  private final int[] upFirst;
+  private final int[] upHead;
+  private final int[] upMillis;
+  // arcs from more important nodes, by rank of their head
+  private final int[] downFirst;
+  private final int[] downTail;
+  private final int[] downMillis;
+  private final int shortcutCount;
+
+  private final int[] forwardMillis;
+  private final int[] backwardMillis;
+  private final int[] forwardReached; // search that reached each rank forward last
+  private final int[] backwardReached;
+  private final NodeHeap forwardHeap;
+  private final NodeHeap backwardHeap;
+  private int search;
+
+  /**
+   * Constructor of ContractionHierarchy, from a search graph
+   * @param network the road network, as a RoadNetwork
+   * @param rankOf the rank of every node, as an int[]
+   * @param upFirst the first upward arc of every rank, as an int[]
+   * @param upHead the head rank of every upward arc, as an int[]
+   * @param upMillis the time of every upward arc, as an int[]
+   * @param downFirst the first downward arc of every rank, as an int[]
+   * @param downTail the tail rank of every downward arc, as an int[]
+   * @param downMillis the time of every downward arc, as an int[]
+   * @param shortcutCount the number of shortcuts added, as an int
+   */
+  private ContractionHierarchy(RoadNetwork network, int[] rankOf, int[] upFirst, int[] upHead,
+      int[] upMillis, int[] downFirst, int[] downTail, int[] downMillis, int shortcutCount) {
+    this.network = network;
+    this.rankOf = rankOf;
+    this.upFirst = upFirst;
+    this.upHead = upHead;
+    this.upMillis = upMillis;
+    this.downFirst = downFirst;
+    this.downTail = downTail;
+    this.downMillis = downMillis;
+    this.shortcutCount = shortcutCount;
+    int nodeCount = rankOf.length;
+    forwardMillis = new int[nodeCount];
+    backwardMillis = new int[nodeCount];
+    forwardReached = new int[nodeCount];
+    backwardReached = new int[nodeCount];
+    forwardHeap = new NodeHeap(nodeCount);
+    backwardHeap = new NodeHeap(nodeCount);
+  }
+
+  /**
+   * preprocess a road network
+   * @param network the road network, as a RoadNetwork
+   * @return the hierarchy, as a ContractionHierarchy
+   */
+  public static ContractionHierarchy build(RoadNetwork network) {
+    return new Contraction(network).run();
+  }
+
+  /**
+   * get a hierarchy sharing the search graph of this one, with its own search state, e.g. for
+   * another thread
+   * @return the copy, as a ContractionHierarchy
+   */
+  @Override
+  public ContractionHierarchy copy() {
+    return new ContractionHierarchy(network, rankOf, upFirst, upHead, upMillis, downFirst,
+        downTail, downMillis, shortcutCount);
+  }
+
+  /**
+   * find the shortest driving time between two nodes
+   * @param source the node to drive from, as an int
+   * @param target the node to drive to, as an int
+   * @return the driving time in milliseconds, or RoadNetwork.NO_PATH if the target can't be
+   *     reached, as an int
+   */
+  public int shortestMillis(int source, int target) {
+    if (source == target) {
+      return 0;
+    }
+    if (++search == Integer.MAX_VALUE) {
+      Arrays.fill(forwardReached, 0);
+      Arrays.fill(backwardReached, 0);
+      search = 1;
+    }
+    forwardHeap.clear();
+    backwardHeap.clear();
+    reach(forwardMillis, forwardReached, forwardHeap, rankOf[source], 0);
+    reach(backwardMillis, backwardReached, backwardHeap, rankOf[target], 0);
+    int best = INFINITE;
+    while (true) {
+      boolean forward = !forwardHeap.isEmpty() && forwardHeap.minKey() < best;
+      boolean backward = !backwardHeap.isEmpty() && backwardHeap.minKey() < best;
+      if (!forward && !backward) {
+        break;
+      }
+      if (forward && (!backward || forwardHeap.minKey() <= backwardHeap.minKey())) {
+        int rank = forwardHeap.poll();
+        int time = forwardMillis[rank];
+        if (backwardReached[rank] == search) {
+          best = Math.min(best, time + backwardMillis[rank]);
+        }
+        if (!isStalled(rank, time, downFirst, downTail, downMillis, forwardMillis,
+            forwardReached)) {
+          for (int arc = upFirst[rank]; arc < upFirst[rank + 1]; arc++) {
+            relax(forwardMillis, forwardReached, forwardHeap, upHead[arc], time + upMillis[arc]);
+          }
+        }
+      } else {
+        int rank = backwardHeap.poll();
+        int time = backwardMillis[rank];
+        if (forwardReached[rank] == search) {
+          best = Math.min(best, time + forwardMillis[rank]);
+        }
+        if (!isStalled(rank, time, upFirst, upHead, upMillis, backwardMillis,
+            backwardReached)) {
+          for (int arc = downFirst[rank]; arc < downFirst[rank + 1]; arc++) {
+            relax(backwardMillis, backwardReached, backwardHeap, downTail[arc],
+                time + downMillis[arc]);
+          }
+        }
+      }
+    }
+    return best == INFINITE ? RoadNetwork.NO_PATH : best;
+  }
+
+  /**
+   * get the driving time between the nodes nearest to two locations, or the straight-line time
+   * if no road connects them
+   * @param from the location to drive from, or null if unknown, as a Location
+   * @param to the location to drive to, or null if unknown, as a Location
+   * @return the driving time in seconds, or 0 if either location is unknown, as a double
+   */
+  @Override
+  public double travelSeconds(Location from, Location to) {
+    if (from == null || to == null) {
+      return 0;
+    }
+    int time = shortestMillis(network.nearestNode(from), network.nearestNode(to));
+    return time == RoadNetwork.NO_PATH ? Request.calculateTravelSeconds(from, to) : time / 1000.0;
+  }
+
+  /**
+   * get the road network
+   * @return the road network, as a RoadNetwork
+   */
+  public RoadNetwork getNetwork() {
+    return network;
+  }
+
+  /**
+   * get the number of shortcuts added by the preprocessing
+   * @return the number of shortcuts, as an int
+   */
+  public int getShortcutCount() {
+    return shortcutCount;
+  }
+
+  /**
+   * get the memory taken by the search graph, shared by copies, a measure of its compactness
+   * @return the size in bytes, not counting object headers, as a long
+   */
+  public long getMemoryBytes() {
+    return 4L * (rankOf.length + upFirst.length + upHead.length + upMillis.length
+        + downFirst.length + downTail.length + downMillis.length);
+  }
+
+  /**
+   * check if a more important node reached by a search gets to a node faster than the search
+   * did, so the node can't be on a shortest path and its arcs need not be relaxed
+   * @param rank the node, as an int
+   * @param time the time the search reached it in, as an int
+   * @param first the first arc of every rank towards the start of the search, as an int[]
+   * @param other the other end of every arc, as an int[]
+   * @param millis the time of every arc, as an int[]
+   * @param searchMillis the time the search reached every rank in, as an int[]
+   * @param reached the search that reached every rank last, as an int[]
+   * @return true if the node is stalled
+   */
+  private boolean isStalled(int rank, int time, int[] first, int[] other, int[] millis,
+      int[] searchMillis, int[] reached) {
+    for (int arc = first[rank]; arc < first[rank + 1]; arc++) {
+      int node = other[arc];
+      if (reached[node] == search && searchMillis[node] + millis[arc] < time) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * lower the time a search reaches a node in, if it is faster
+   * @param millis the time the search reached every rank in, as an int[]
+   * @param reached the search that reached every rank last, as an int[]
+   * @param heap the heap of the search, as a NodeHeap
+   * @param rank the node, as an int
+   * @param time the time in milliseconds, as an int
+   */
+  private void relax(int[] millis, int[] reached, NodeHeap heap, int rank, int time) {
+    if (reached[rank] != search || time < millis[rank]) {
+      reach(millis, reached, heap, rank, time);
+    }
+  }
+
+  /**
+   * set the time a search reaches a node in
+   * @param millis the time the search reached every rank in, as an int[]
+   * @param reached the search that reached every rank last, as an int[]
+   * @param heap the heap of the search, as a NodeHeap
+   * @param rank the node, as an int
+   * @param time the time in milliseconds, as an int
+   */
+  private void reach(int[] millis, int[] reached, NodeHeap heap, int rank, int time) {
+    reached[rank] = search;
+    millis[rank] = time;
+    heap.set(rank, time);
+  }
+
+  /**
+   * Contraction is the preprocessing of a ContractionHierarchy: the remaining graph, with the
+   * arcs in and out of every node in growable int arrays, and the search graph recorded so far.
+   * The next node is the one with the smallest priority: twice its edge difference (shortcuts
+   * added minus arcs removed), plus its contracted neighbours and its level, which spread
+   * contraction evenly over the city and keep the hierarchy shallow. Priorities are updated for
+   * the neighbours of every contracted node, and lazily on polling.
+   */
+  private static final class Contraction {
+
+    private final RoadNetwork network;
+    private final int nodeCount;
+    private final int[][] outNode;
+    private final int[][] outMillis;
+    private final int[] outCount;
+    private final int[][] inNode;
+    private final int[][] inMillis;
+    private final int[] inCount;
+    private final int[] contractedNeighbours;
+    private final int[] level; // longest chain of contracted nodes below each node
+    private final int[] rankOf;
+
+    private final int[] witnessMillis;
+    private final int[] witnessReached;
+    private final int[] witnessTarget; // search that looks for each node last
+    private final NodeHeap witnessHeap;
+    private int witnessSearch;
+
+    // search graph by rank, with the other end of every arc as a node until the end
+    private final int[] upFirst;
+    private int[] upHead = new int[16];
+    private int[] upMillis = new int[16];
+    private final int[] downFirst;
+    private int[] downTail = new int[16];
+    private int[] downMillis = new int[16];
+    private int shortcutCount;
+
+    /**
+     * Constructor of Contraction, with the arcs of a network, parallel arcs merged and loops
+     * dropped
+     * @param network the road network, as a RoadNetwork
+     */
+    Contraction(RoadNetwork network) {
+      this.network = network;
+      nodeCount = network.getNodeCount();
+      outNode = new int[nodeCount][];
+      outMillis = new int[nodeCount][];
+      outCount = new int[nodeCount];
+      inNode = new int[nodeCount][];
+      inMillis = new int[nodeCount][];
+      inCount = new int[nodeCount];
+      for (int node = 0; node < nodeCount; node++) {
+        outNode[node] = new int[4];
+        outMillis[node] = new int[4];
+        inNode[node] = new int[4];
+        inMillis[node] = new int[4];
+      }
+      for (int node = 0; node < nodeCount; node++) {
+        for (int arc = network.getFirstArc(node); arc < network.getFirstArc(node + 1); arc++) {
+          if (network.getArcHead(arc) != node) {
+            addArc(node, network.getArcHead(arc), network.getArcMillis(arc));
+          }
+        }
+      }
+      contractedNeighbours = new int[nodeCount];
+      level = new int[nodeCount];
+      rankOf = new int[nodeCount];
+      witnessMillis = new int[nodeCount];
+      witnessReached = new int[nodeCount];
+      witnessTarget = new int[nodeCount];
+      witnessHeap = new NodeHeap(nodeCount);
+      upFirst = new int[nodeCount + 1];
+      downFirst = new int[nodeCount + 1];
+    }
+
+    /**
+     * contract every node and build the hierarchy
+     * @return the hierarchy, as a ContractionHierarchy
+     */
+    ContractionHierarchy run() {
+      NodeHeap queue = new NodeHeap(nodeCount);
+      for (int node = 0; node < nodeCount; node++) {
+        queue.set(node, priority(node));
+      }
+      int[] neighbours = new int[16];
+      int[] touched = new int[nodeCount]; // rank after the last contraction next to each node
+      int rank = 0;
+      while (!queue.isEmpty()) {
+        int node = queue.poll();
+        int priority = priority(node);
+        if (!queue.isEmpty() && priority > queue.minKey()) {
+          queue.set(node, priority);
+          continue;
+        }
+        int degree = inCount[node] + outCount[node];
+        if (neighbours.length < degree) {
+          neighbours = new int[2 * degree];
+        }
+        System.arraycopy(outNode[node], 0, neighbours, 0, outCount[node]);
+        System.arraycopy(inNode[node], 0, neighbours, outCount[node], inCount[node]);
+        contract(node, rank++);
+        for (int i = 0; i < degree; i++) {
+          int neighbour = neighbours[i];
+          if (touched[neighbour] != rank) { // a neighbour both ways is updated once
+            touched[neighbour] = rank;
+            level[neighbour] = Math.max(level[neighbour], level[node] + 1);
+            contractedNeighbours[neighbour]++;
+            queue.set(neighbour, priority(neighbour));
+          }
+        }
+      }
+
+      int upCount = upFirst[nodeCount];
+      int downCount = downFirst[nodeCount];
+      for (int arc = 0; arc < upCount; arc++) {
+        upHead[arc] = rankOf[upHead[arc]];
+      }
+      for (int arc = 0; arc < downCount; arc++) {
+        downTail[arc] = rankOf[downTail[arc]];
+      }
+      return new ContractionHierarchy(network, rankOf, upFirst, Arrays.copyOf(upHead, upCount),
+          Arrays.copyOf(upMillis, upCount), downFirst, Arrays.copyOf(downTail, downCount),
+          Arrays.copyOf(downMillis, downCount), shortcutCount);
+    }
+
+    /**
+     * get the priority of a node: the lower, the sooner it is contracted
+     * @param node the node, not contracted, as an int
+     * @return the priority, as an int
+     */
+    private int priority(int node) {
+      return 2 * (shortcuts(node, false) - inCount[node] - outCount[node])
+          + contractedNeighbours[node] + level[node];
+    }
+
+    /**
+     * contract a node: record its remaining arcs in the search graph, add the shortcuts it needs
+     * and remove it from the remaining graph
+     * @param node the node, as an int
+     * @param rank the rank of the node, as an int
+     */
+    private void contract(int node, int rank) {
+      rankOf[node] = rank;
+      int upCount = upFirst[rank];
+      int downCount = downFirst[rank];
+      if (upCount + outCount[node] > upHead.length) {
+        upHead = Arrays.copyOf(upHead, 2 * (upCount + outCount[node]));
+        upMillis = Arrays.copyOf(upMillis, upHead.length);
+      }
+      if (downCount + inCount[node] > downTail.length) {
+        downTail = Arrays.copyOf(downTail, 2 * (downCount + inCount[node]));
+        downMillis = Arrays.copyOf(downMillis, downTail.length);
+      }
+      System.arraycopy(outNode[node], 0, upHead, upCount, outCount[node]);
+      System.arraycopy(outMillis[node], 0, upMillis, upCount, outCount[node]);
+      System.arraycopy(inNode[node], 0, downTail, downCount, inCount[node]);
+      System.arraycopy(inMillis[node], 0, downMillis, downCount, inCount[node]);
+      upFirst[rank + 1] = upCount + outCount[node];
+      downFirst[rank + 1] = downCount + inCount[node];
+
+      shortcutCount += shortcuts(node, true);
+      for (int i = 0; i < outCount[node]; i++) {
+        remove(outNode[node][i], node, inNode, inMillis, inCount);
+      }
+      for (int i = 0; i < inCount[node]; i++) {
+        remove(inNode[node][i], node, outNode, outMillis, outCount);
+      }
+      outCount[node] = 0;
+      inCount[node] = 0;
+    }
+
+    /**
+     * count, and add if asked, the shortcuts contracting a node needs: one from every node
+     * before it to every node after it, unless a witness search finds a path as fast
+     * that avoids it
+     * @param node the node, as an int
+     * @param add true to add the shortcuts, false to only count them
+     * @return the number of shortcuts, as an int
+     */
+    private int shortcuts(int node, boolean add) {
+      int maxOut = 0;
+      for (int i = 0; i < outCount[node]; i++) {
+        maxOut = Math.max(maxOut, outMillis[node][i]);
+      }
+      int count = 0;
+      for (int i = 0; i < inCount[node]; i++) {
+        int from = inNode[node][i];
+        int toNode = inMillis[node][i];
+        witnessSearch(from, node, toNode + maxOut);
+        for (int j = 0; j < outCount[node]; j++) {
+          int to = outNode[node][j];
+          int through = toNode + outMillis[node][j];
+          if (to != from && (witnessReached[to] != witnessSearch
+              || witnessMillis[to] > through)) {
+            count++;
+            if (add) {
+              addArc(from, to, through);
+            }
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * run a Dijkstra search on the remaining graph from a node before a contracted node,
+     * avoiding it, until every node after it is settled, or up to a time or a number of settled
+     * nodes. The times found are those of real paths, so a stopped search only adds shortcuts
+     * that are not needed.
+     * @param source the node to search from, as an int
+     * @param avoided the node contracted, as an int
+     * @param maxMillis the longest time of interest, as an int
+     */
+    private void witnessSearch(int source, int avoided, int maxMillis) {
+      if (++witnessSearch == Integer.MAX_VALUE) {
+        Arrays.fill(witnessReached, 0);
+        Arrays.fill(witnessTarget, 0);
+        witnessSearch = 1;
+      }
+      int targets = 0;
+      for (int i = 0; i < outCount[avoided]; i++) {
+        if (outNode[avoided][i] != source) {
+          witnessTarget[outNode[avoided][i]] = witnessSearch;
+          targets++;
+        }
+      }
+      witnessHeap.clear();
+      witnessReached[source] = witnessSearch;
+      witnessMillis[source] = 0;
+      witnessHeap.set(source, 0);
+      for (int settled = 0; settled < WITNESS_SETTLE_LIMIT && targets > 0
+          && !witnessHeap.isEmpty() && witnessHeap.minKey() <= maxMillis; settled++) {
+        int node = witnessHeap.poll();
+        if (witnessTarget[node] == witnessSearch) {
+          targets--;
+        }
+        for (int i = 0; i < outCount[node]; i++) {
+          int head = outNode[node][i];
+          int time = witnessMillis[node] + outMillis[node][i];
+          if (head != avoided && (witnessReached[head] != witnessSearch
+              || time < witnessMillis[head])) {
+            witnessReached[head] = witnessSearch;
+            witnessMillis[head] = time;
+            witnessHeap.set(head, time);
+          }
+        }
+      }
+    }
+
+    /**
+     * add an arc to the remaining graph, or lower the time of the arc already there
+     * @param from the tail node, as an int
+     * @param to the head node, as an int
+     * @param millis the time in milliseconds, as an int
+     */
+    private void addArc(int from, int to, int millis) {
+      for (int i = 0; i < outCount[from]; i++) {
+        if (outNode[from][i] == to) {
+          if (millis < outMillis[from][i]) {
+            outMillis[from][i] = millis;
+            for (int j = 0; j < inCount[to]; j++) {
+              if (inNode[to][j] == from) {
+                inMillis[to][j] = millis;
+              }
+            }
+          }
+          return;
+        }
+      }
+      append(from, to, millis, outNode, outMillis, outCount);
+      append(to, from, millis, inNode, inMillis, inCount);
+    }
+
+    /**
+     * append an entry to the arcs of a node in one direction
+     * @param node the node, as an int
+     * @param other the other end of the arc, as an int
+     * @param millis the time in milliseconds, as an int
+     * @param nodes the other ends of the arcs of every node, as an int[][]
+     * @param times the times of the arcs of every node, as an int[][]
+     * @param counts the number of arcs of every node, as an int[]
+     */
+    private static void append(int node, int other, int millis, int[][] nodes, int[][] times,
+        int[] counts) {
+      if (counts[node] == nodes[node].length) {
+        nodes[node] = Arrays.copyOf(nodes[node], 2 * counts[node]);
+        times[node] = Arrays.copyOf(times[node], 2 * counts[node]);
+      }
+      nodes[node][counts[node]] = other;
+      times[node][counts[node]++] = millis;
+    }
+
+    /**
+     * remove an entry from the arcs of a node in one direction, moving the last one in its place
+     * @param node the node, as an int
+     * @param other the other end of the arc, as an int
+     * @param nodes the other ends of the arcs of every node, as an int[][]
+     * @param times the times of the arcs of every node, as an int[][]
+     * @param counts the number of arcs of every node, as an int[]
+     */
+    private static void remove(int node, int other, int[][] nodes, int[][] times, int[] counts) {
+      for (int i = 0; i < counts[node]; i++) {
+        if (nodes[node][i] == other) {
+          int last = --counts[node];
+          nodes[node][i] = nodes[node][last];
+          times[node][i] = times[node][last];
+          return;
+        }
+      }
+    }
+  }
+}
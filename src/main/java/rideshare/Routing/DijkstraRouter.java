@@ -0,0 +1,90 @@
+package rideshare.Routing;
+
+import java.util.Arrays;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * DijkstraRouter answers point-to-point queries on a RoadNetwork with a plain Dijkstra search
+ * that stops at the target. It needs no preprocessing, and is the reference the
+ * ContractionHierarchy is checked and measured against.
+ * A router keeps the state of its searches, so it is not thread safe; use one per thread.
+ */
+public final class DijkstraRouter implements TravelTimes {
+
+  private final RoadNetwork network;
+  private final int[] millis;
+  private final int[] reached; // search that reached each node last
+  private final NodeHeap heap;
+  private int search;
+
+  /**
+   * Constructor of DijkstraRouter
+   * @param network the road network, as a RoadNetwork
+   */
+  public DijkstraRouter(RoadNetwork network) {
+    this.network = network;
+    millis = new int[network.getNodeCount()];
+    reached = new int[network.getNodeCount()];
+    heap = new NodeHeap(network.getNodeCount());
+  }
+
+  /**
+   * get a router on the same network, with its own search state, e.g. for another thread
+   * @return the copy, as a DijkstraRouter
+   */
+  @Override
+  public DijkstraRouter copy() {
+    return new DijkstraRouter(network);
+  }
+
+  /**
+   * find the shortest driving time between two nodes
+   * @param source the node to drive from, as an int
+   * @param target the node to drive to, as an int
+   * @return the driving time in milliseconds, or RoadNetwork.NO_PATH if the target can't be
+   *     reached, as an int
+   */
+  public int shortestMillis(int source, int target) {
+    if (++search == Integer.MAX_VALUE) {
+      Arrays.fill(reached, 0);
+      search = 1;
+    }
+    heap.clear();
+    reached[source] = search;
+    millis[source] = 0;
+    heap.set(source, 0);
+    while (!heap.isEmpty()) {
+      int node = heap.poll();
+      if (node == target) {
+        return millis[node];
+      }
+      for (int arc = network.getFirstArc(node); arc < network.getFirstArc(node + 1); arc++) {
+        int head = network.getArcHead(arc);
+        int time = millis[node] + network.getArcMillis(arc);
+        if (reached[head] != search || time < millis[head]) {
+          reached[head] = search;
+          millis[head] = time;
+          heap.set(head, time);
+        }
+      }
+    }
+    return RoadNetwork.NO_PATH;
+  }
+
+  /**
+   * get the driving time between the nodes nearest to two locations, or the straight-line time
+   * if no road connects them
+   * @param from the location to drive from, or null if unknown, as a Location
+   * @param to the location to drive to, or null if unknown, as a Location
+   * @return the driving time in seconds, or 0 if either location is unknown, as a double
+   */
+  @Override
+  public double travelSeconds(Location from, Location to) {
+    if (from == null || to == null) {
+      return 0;
+    }
+    int time = shortestMillis(network.nearestNode(from), network.nearestNode(to));
+    return time == RoadNetwork.NO_PATH ? Request.calculateTravelSeconds(from, to) : time / 1000.0;
+  }
+}
@@ -0,0 +1,174 @@
+package rideshare.Routing;
+
+import java.util.Arrays;
+
+/**
+ * NodeHeap is a binary min-heap of the nodes of a road network keyed by an int, e.g. the
+ * milliseconds to reach them, with the position of every node kept in an int array so a key can
+ * be changed in O(log n). It holds no objects, so a search allocates nothing.
+ * Ties are broken by node, so searches are deterministic.
+ */
+final class NodeHeap {
+
+  private static final int ABSENT = -1;
+
+  private final int[] nodes;
+  private final int[] keys; // key of the node at each heap position
+  private final int[] positions; // heap position of every node, or ABSENT
+  private int size;
+
+  /**
+   * Constructor of NodeHeap, empty
+   * @param nodeCount the number of nodes, as an int
+   */
+  NodeHeap(int nodeCount) {
+    nodes = new int[nodeCount];
+    keys = new int[nodeCount];
+    positions = new int[nodeCount];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  /**
+   * check if the heap is empty
+   * @return true if there's no node in the heap
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * get the number of nodes in the heap
+   * @return the number of nodes, as an int
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * check if a node is in the heap
+   * @param node the node, as an int
+   * @return true if the node is in the heap
+   */
+  boolean contains(int node) {
+    return positions[node] != ABSENT;
+  }
+
+  /**
+   * get the smallest key. The heap must not be empty.
+   * @return the key, as an int
+   */
+  int minKey() {
+    return keys[0];
+  }
+
+  /**
+   * remove the node with the smallest key. The heap must not be empty.
+   * @return the node, as an int
+   */
+  int poll() {
+    int node = nodes[0];
+    positions[node] = ABSENT;
+    size--;
+    if (size > 0) {
+      place(nodes[size], keys[size], 0);
+      siftDown(0);
+    }
+    return node;
+  }
+
+  /**
+   * add a node, or change its key if it is in the heap already
+   * @param node the node, as an int
+   * @param key the key, as an int
+   */
+  void set(int node, int key) {
+    int position = positions[node];
+    if (position == ABSENT) {
+      place(node, key, size++);
+      siftUp(size - 1);
+    } else if (key < keys[position]) {
+      keys[position] = key;
+      siftUp(position);
+    } else {
+      keys[position] = key;
+      siftDown(position);
+    }
+  }
+
+  /**
+   * remove every node
+   */
+  void clear() {
+    for (int i = 0; i < size; i++) {
+      positions[nodes[i]] = ABSENT;
+    }
+    size = 0;
+  }
+
+  /**
+   * move the node at a position up while it comes before its parent
+   * @param position the position, as an int
+   */
+  private void siftUp(int position) {
+    int node = nodes[position];
+    int key = keys[position];
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (!isBefore(key, node, keys[parent], nodes[parent])) {
+        break;
+      }
+      place(nodes[parent], keys[parent], position);
+      position = parent;
+    }
+    place(node, key, position);
+  }
+
+  /**
+   * move the node at a position down while a child comes before it
+   * @param position the position, as an int
+   */
+  private void siftDown(int position) {
+    int node = nodes[position];
+    int key = keys[position];
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && isBefore(keys[child + 1], nodes[child + 1], keys[child],
+          nodes[child])) {
+        child++;
+      }
+      if (!isBefore(keys[child], nodes[child], key, node)) {
+        break;
+      }
+      place(nodes[child], keys[child], position);
+      position = child;
+    }
+    place(node, key, position);
+  }
+
+  /**
+   * put a node at a heap position
+   * @param node the node, as an int
+   * @param key the key, as an int
+   * @param position the position, as an int
+   */
+  private void place(int node, int key, int position) {
+    nodes[position] = node;
+    keys[position] = key;
+    positions[node] = position;
+  }
+
+  /**
+   * compare two entries by key, then by node
+   * @param key the key of the first entry, as an int
+   * @param node the node of the first entry, as an int
+   * @param otherKey the key of the second entry, as an int
+   * @param otherNode the node of the second entry, as an int
+   * @return true if the first entry comes first
+   */
+  private static boolean isBefore(int key, int node, int otherKey, int otherNode) {
+    return key < otherKey || (key == otherKey && node < otherNode);
+  }
+}
@@ -0,0 +1,412 @@
+package rideshare.Routing;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import rideshare.objects.Location;
+
+/**
+ * RoadNetwork is a directed road graph of a city: intersections (nodes) with coordinates in miles,
+ * as in Location, and one-way road segments (arcs) with their driving time.
+ * Nodes are numbered densely from 0. The arcs are kept in compressed sparse row form, sorted by
+ * tail, in three int arrays, and driving times in milliseconds, so a graph of a million nodes
+ * takes a few dozen megabytes and no objects. A uniform grid over the nodes finds the node
+ * nearest to a location, to snap pickups and dropoffs to the graph.
+ *
+ * The text format read and written, one item per line, blank lines and lines starting with #
+ * ignored:
+ * n id x y - a node and its coordinates in miles
+ * a from to seconds - a one-way arc and its driving time
+ * e from to seconds - a two-way road, the same as an arc each way
+ */
+public final class RoadNetwork {
+
+  /**
+   * Milliseconds returned by searches when no path connects the two nodes.
+   */
+  public static final int NO_PATH = -1;
+
+  private static final int NODES_PER_CELL = 2;
+  private static final int MAX_CELLS_PER_SIDE = 4096;
+
+  private final int nodeCount;
+  private final double[] xs;
+  private final double[] ys;
+  private final int[] firstArc; // arcs of node v are firstArc[v] until firstArc[v + 1]
+  private final int[] arcHead;
+  private final int[] arcMillis;
+
+  // grid over the bounding box of the nodes, the nodes of every cell in one array
+  private final double minX;
+  private final double minY;
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+  private final int[] cellStart;
+  private final int[] cellNodes;
+
+  /**
+   * Constructor of RoadNetwork. The arrays of nodes are kept, the arrays of arcs are not.
+   * @param xs miles east of every node, as a double[]
+   * @param ys miles north of every node, as a double[]
+   * @param tails the tail node of every arc, as an int[]
+   * @param heads the head node of every arc, as an int[]
+   * @param millis the driving time of every arc in milliseconds, as an int[]
+   * @throws IllegalArgumentException if there's no node, the arrays differ in length, an arc
+   *     refers to an unknown node or has a negative time
+   */
+  public RoadNetwork(double[] xs, double[] ys, int[] tails, int[] heads, int[] millis) {
+    if (xs.length == 0 || xs.length != ys.length) {
+      throw new IllegalArgumentException("Nodes need both coordinates, and one node at least");
+    }
+    if (tails.length != heads.length || tails.length != millis.length) {
+      throw new IllegalArgumentException("Arcs need a tail, a head and a time");
+    }
+    nodeCount = xs.length;
+    this.xs = xs;
+    this.ys = ys;
+
+    // counting sort of the arcs by tail, keeping their order otherwise
+    firstArc = new int[nodeCount + 1];
+    for (int arc = 0; arc < tails.length; arc++) {
+      checkNode(tails[arc]);
+      checkNode(heads[arc]);
+      if (millis[arc] < 0) {
+        throw new IllegalArgumentException("Arc " + arc + " has a negative time");
+      }
+      firstArc[tails[arc] + 1]++;
+    }
+    for (int node = 0; node < nodeCount; node++) {
+      firstArc[node + 1] += firstArc[node];
+    }
+    arcHead = new int[tails.length];
+    arcMillis = new int[tails.length];
+    int[] next = Arrays.copyOf(firstArc, nodeCount);
+    for (int arc = 0; arc < tails.length; arc++) {
+      int slot = next[tails[arc]]++;
+      arcHead[slot] = heads[arc];
+      arcMillis[slot] = millis[arc];
+    }
+
+    double maxX = xs[0];
+    double maxY = ys[0];
+    double lowX = xs[0];
+    double lowY = ys[0];
+    for (int node = 1; node < nodeCount; node++) {
+      lowX = Math.min(lowX, xs[node]);
+      lowY = Math.min(lowY, ys[node]);
+      maxX = Math.max(maxX, xs[node]);
+      maxY = Math.max(maxY, ys[node]);
+    }
+    minX = lowX;
+    minY = lowY;
+    double width = Math.max(maxX - minX, 1e-9);
+    double height = Math.max(maxY - minY, 1e-9);
+    cellSize = Math.max(Math.sqrt(width * height * NODES_PER_CELL / nodeCount),
+        Math.max(width, height) / MAX_CELLS_PER_SIDE);
+    columns = (int) (width / cellSize) + 1;
+    rows = (int) (height / cellSize) + 1;
+    cellStart = new int[columns * rows + 1];
+    for (int node = 0; node < nodeCount; node++) {
+      cellStart[cellOf(xs[node], ys[node]) + 1]++;
+    }
+    for (int cell = 0; cell < columns * rows; cell++) {
+      cellStart[cell + 1] += cellStart[cell];
+    }
+    cellNodes = new int[nodeCount];
+    int[] nextInCell = Arrays.copyOf(cellStart, columns * rows);
+    for (int node = 0; node < nodeCount; node++) {
+      cellNodes[nextInCell[cellOf(xs[node], ys[node])]++] = node;
+    }
+  }
+
+  /**
+   * read a road network from a file in the text format of this class
+   * @param file the file, as a Path
+   * @return the road network, as a RoadNetwork
+   * @throws IOException if the file can't be read
+   * @throws IllegalArgumentException if a line is malformed, a node id is missing or repeated,
+   *     or an arc refers to an unknown node
+   */
+  public static RoadNetwork read(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return read(reader);
+    }
+  }
+
+  /**
+   * read a road network in the text format of this class, to the end of the reader
+   * @param reader the reader, which is not closed, as a BufferedReader
+   * @return the road network, as a RoadNetwork
+   * @throws IOException if the reader fails
+   * @throws IllegalArgumentException if a line is malformed, a node id is missing or repeated,
+   *     or an arc refers to an unknown node
+   */
+  public static RoadNetwork read(BufferedReader reader) throws IOException {
+    double[] xs = new double[16];
+    double[] ys = new double[16];
+    boolean[] seen = new boolean[16];
+    int nodes = 0; // largest node id plus one
+    int[] tails = new int[16];
+    int[] heads = new int[16];
+    int[] millis = new int[16];
+    int arcs = 0;
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] fields = trimmed.split("\\s+");
+      try {
+        if (fields.length != 4) {
+          throw new IllegalArgumentException("Expected 4 fields but got " + fields.length);
+        }
+        if (fields[0].equals("n")) {
+          int id = Integer.parseInt(fields[1]);
+          if (id < 0) {
+            throw new IllegalArgumentException("Negative node id");
+          }
+          if (id >= xs.length) {
+            int capacity = Math.max(id + 1, 2 * xs.length);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+          }
+          if (seen[id]) {
+            throw new IllegalArgumentException("Node " + id + " is repeated");
+          }
+          seen[id] = true;
+          xs[id] = Double.parseDouble(fields[2]);
+          ys[id] = Double.parseDouble(fields[3]);
+          nodes = Math.max(nodes, id + 1);
+        } else if (fields[0].equals("a") || fields[0].equals("e")) {
+          int from = Integer.parseInt(fields[1]);
+          int to = Integer.parseInt(fields[2]);
+          int time = toMillis(Double.parseDouble(fields[3]));
+          if (arcs + 2 > tails.length) {
+            tails = Arrays.copyOf(tails, 2 * tails.length);
+            heads = Arrays.copyOf(heads, 2 * heads.length);
+            millis = Arrays.copyOf(millis, 2 * millis.length);
+          }
+          tails[arcs] = from;
+          heads[arcs] = to;
+          millis[arcs++] = time;
+          if (fields[0].equals("e")) {
+            tails[arcs] = to;
+            heads[arcs] = from;
+            millis[arcs++] = time;
+          }
+        } else {
+          throw new IllegalArgumentException("Unknown item " + fields[0]);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage()
+            + ": " + line, e);
+      }
+    }
+    for (int id = 0; id < nodes; id++) {
+      if (!seen[id]) {
+        throw new IllegalArgumentException("Node " + id + " is missing");
+      }
+    }
+    return new RoadNetwork(Arrays.copyOf(xs, nodes), Arrays.copyOf(ys, nodes),
+        Arrays.copyOf(tails, arcs), Arrays.copyOf(heads, arcs), Arrays.copyOf(millis, arcs));
+  }
+
+  /**
+   * write the road network to a file in the text format of this class, every arc one way
+   * @param file the file, as a Path
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      write(writer);
+    }
+  }
+
+  /**
+   * write the road network in the text format of this class, every arc one way
+   * @param writer the writer, which is flushed but not closed, as a Writer
+   * @throws IOException if the writer fails
+   */
+  public void write(Writer writer) throws IOException {
+    writer.write("# " + nodeCount + " nodes, " + getArcCount() + " arcs\n");
+    for (int node = 0; node < nodeCount; node++) {
+      writer.write("n " + node + " " + xs[node] + " " + ys[node] + "\n");
+    }
+    for (int node = 0; node < nodeCount; node++) {
+      for (int arc = firstArc[node]; arc < firstArc[node + 1]; arc++) {
+        writer.write("a " + node + " " + arcHead[arc] + " " + arcMillis[arc] / 1000.0 + "\n");
+      }
+    }
+    writer.flush();
+  }
+
+  /**
+   * convert a driving time to whole milliseconds
+   * @param seconds the driving time in seconds, as a double
+   * @return the driving time in milliseconds, as an int
+   * @throws IllegalArgumentException if the time is negative, not a number or too long
+   */
+  public static int toMillis(double seconds) {
+    if (!(seconds >= 0) || seconds * 1000 > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Not a driving time: " + seconds);
+    }
+    return (int) Math.round(seconds * 1000);
+  }
+
+  /**
+   * get the number of nodes
+   * @return the number of nodes, as an int
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * get the number of arcs
+   * @return the number of arcs, as an int
+   */
+  public int getArcCount() {
+    return arcHead.length;
+  }
+
+  /**
+   * get the location of a node
+   * @param node the node, as an int
+   * @return the location, as a Location
+   */
+  public Location getLocation(int node) {
+    return new Location(xs[node], ys[node]);
+  }
+
+  /**
+   * get the first arc leaving a node; its arcs run until the first arc of the next node
+   * @param node the node, or the number of nodes for the end of the last node's arcs, as an int
+   * @return the arc, as an int
+   */
+  int getFirstArc(int node) {
+    return firstArc[node];
+  }
+
+  /**
+   * get the node an arc leads to
+   * @param arc the arc, as an int
+   * @return the node, as an int
+   */
+  int getArcHead(int arc) {
+    return arcHead[arc];
+  }
+
+  /**
+   * get the driving time of an arc
+   * @param arc the arc, as an int
+   * @return the driving time in milliseconds, as an int
+   */
+  int getArcMillis(int arc) {
+    return arcMillis[arc];
+  }
+
+  /**
+   * find the node nearest to a location by straight-line distance, ties broken by node
+   * @param location the location, as a Location
+   * @return the node, as an int
+   */
+  public int nearestNode(Location location) {
+    double x = location.getX();
+    double y = location.getY();
+    int column = clamp((int) Math.floor((x - minX) / cellSize), columns);
+    int row = clamp((int) Math.floor((y - minY) / cellSize), rows);
+    int best = -1;
+    double bestDistance = Double.POSITIVE_INFINITY;
+    for (int ring = 0; ; ring++) {
+      for (int c = Math.max(0, column - ring); c <= Math.min(columns - 1, column + ring); c++) {
+        boolean side = c == column - ring || c == column + ring;
+        int step = side ? 1 : Math.max(1, 2 * ring); // only the top and bottom cell inside
+        for (int r = row - ring; r <= row + ring; r += step) {
+          if (r < 0 || r >= rows) {
+            continue;
+          }
+          int cell = r * columns + c;
+          for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int node = cellNodes[i];
+            double dx = xs[node] - x;
+            double dy = ys[node] - y;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            if (distance < bestDistance || (distance == bestDistance && node < best)) {
+              best = node;
+              bestDistance = distance;
+            }
+          }
+        }
+      }
+      // nodes outside the ring are at least as far as the nearest side with cells beyond it
+      double bound = Double.POSITIVE_INFINITY;
+      if (column - ring > 0) {
+        bound = Math.min(bound, x - (minX + (column - ring) * cellSize));
+      }
+      if (column + ring < columns - 1) {
+        bound = Math.min(bound, minX + (column + ring + 1) * cellSize - x);
+      }
+      if (row - ring > 0) {
+        bound = Math.min(bound, y - (minY + (row - ring) * cellSize));
+      }
+      if (row + ring < rows - 1) {
+        bound = Math.min(bound, minY + (row + ring + 1) * cellSize - y);
+      }
+      if (bound == Double.POSITIVE_INFINITY || (best >= 0 && bestDistance <= bound)) {
+        return best;
+      }
+    }
+  }
+
+  /**
+   * get the memory taken by the arrays of the network, a measure of its compactness
+   * @return the size in bytes, not counting object headers, as a long
+   */
+  public long getMemoryBytes() {
+    return 8L * (xs.length + ys.length)
+        + 4L * (firstArc.length + arcHead.length + arcMillis.length)
+        + 4L * (cellStart.length + cellNodes.length);
+  }
+
+  /**
+   * check that a node exists
+   * @param node the node, as an int
+   * @throws IllegalArgumentException if it doesn't
+   */
+  private void checkNode(int node) {
+    if (node < 0 || node >= nodeCount) {
+      throw new IllegalArgumentException("Unknown node " + node);
+    }
+  }
+
+  /**
+   * get the grid cell of a point
+   * @param x miles east, as a double
+   * @param y miles north, as a double
+   * @return the cell, as an int
+   */
+  private int cellOf(double x, double y) {
+    return clamp((int) ((y - minY) / cellSize), rows) * columns
+        + clamp((int) ((x - minX) / cellSize), columns);
+  }
+
+  /**
+   * clamp a column or row to the grid
+   * @param index the column or row, as an int
+   * @param count the number of columns or rows, as an int
+   * @return the clamped index, as an int
+   */
+  private static int clamp(int index, int count) {
+    return Math.max(0, Math.min(count - 1, index));
+  }
+}
@@ -0,0 +1,315 @@
+package rideshare.Routing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import rideshare.objects.Location;
+
+/**
+ * TravelTimeCache remembers the travel times between cells of a square grid over the city, in
+ * front of costlier travel times such as a ContractionHierarchy. A location is discretized to its
+ * cell, and the time between two cells is the time between their centers, so a cached time only
+ * depends on the pair of cells and not on which lookup filled it: runs stay reproducible however
+ * many simulations share the cache.
+ *
+ * The pair of cells is packed into a long key, and the times are kept in an open addressing
+ * table of long keys and double values, without boxing. Probing is bounded to a set of 4 slots,
+ * and a miss in a full set evicts the least recently used of them, so the cache never holds more
+ * than its capacity. The sets are split over segments with a StampedLock each: a hit is an
+ * optimistic read, and only a miss takes the write lock, after computing the time outside it.
+ *
+ * The table and the counters are shared by copies, which are safe to use on different threads.
+ * Each copy has its own copy of the travel times behind it, see TravelTimes.copy.
+ */
+public final class TravelTimeCache implements TravelTimes {
+
+  private static final int WAYS = 4; // slots per set
+  private static final long EMPTY = -1;
+  private static final int SEGMENTS = 64;
+  private static final int MAX_CELLS_PER_SIDE = 1 << 15; // so a cell fits in 30 bits
+
+  private final TravelTimes travelTimes; // this copy's own
+  private final Table table;
+
+  /**
+   * Constructor of TravelTimeCache
+   * @param travelTimes the travel times to cache, as a TravelTimes
+   * @param citySizeMiles the width and height of the city in miles, as a double
+   * @param cellSizeMiles the width and height of a cell in miles, as a double
+   * @param capacity the most travel times held, rounded up to a power of two, as an int
+   * @throws IllegalArgumentException if a size is not positive, the capacity is not between 1
+   *     and 2^30 or the grid has more than 32768 cells per side
+   */
+  public TravelTimeCache(TravelTimes travelTimes, double citySizeMiles, double cellSizeMiles,
+      int capacity) {
+    this(travelTimes, new Table(citySizeMiles, cellSizeMiles, capacity));
+  }
+
+  /**
+   * Constructor of TravelTimeCache, sharing a table
+   * @param travelTimes the travel times to cache, as a TravelTimes
+   * @param table the table, as a Table
+   */
+  private TravelTimeCache(TravelTimes travelTimes, Table table) {
+    this.travelTimes = travelTimes;
+    this.table = table;
+  }
+
+  /**
+   * get the travel time between the centers of the cells of two locations, from the cache if
+   * it holds it
+   * @param from the location to drive from, or null if unknown, as a Location
+   * @param to the location to drive to, or null if unknown, as a Location
+   * @return the driving time in seconds, or 0 if either location is unknown, as a double
+   */
+  @Override
+  public double travelSeconds(Location from, Location to) {
+    if (from == null || to == null) {
+      return 0;
+    }
+    int fromCell = table.cellOf(from);
+    int toCell = table.cellOf(to);
+    long key = (long) fromCell << 32 | toCell;
+    double seconds = table.get(key);
+    if (seconds >= 0) {
+      return seconds;
+    }
+    seconds = travelTimes.travelSeconds(table.centerOf(fromCell), table.centerOf(toCell));
+    table.put(key, seconds);
+    return seconds;
+  }
+
+  /**
+   * get a cache sharing the table and the counters of this one, in front of a copy of its
+   * travel times, e.g. for another thread
+   * @return the copy, as a TravelTimeCache
+   */
+  @Override
+  public TravelTimeCache copy() {
+    return new TravelTimeCache(travelTimes.copy(), table);
+  }
+
+  /**
+   * get the number of lookups answered from the cache
+   * @return the number of hits, as a long
+   */
+  public long getHits() {
+    return table.hits.sum();
+  }
+
+  /**
+   * get the number of lookups that had to compute the travel time
+   * @return the number of misses, as a long
+   */
+  public long getMisses() {
+    return table.misses.sum();
+  }
+
+  /**
+   * get the number of travel times dropped to make room for others
+   * @return the number of evictions, as a long
+   */
+  public long getEvictions() {
+    return table.evictions.sum();
+  }
+
+  /**
+   * get the share of lookups answered from the cache
+   * @return the hit rate between 0 and 1, or 0 before the first lookup, as a double
+   */
+  public double getHitRate() {
+    long hits = getHits();
+    long lookups = hits + getMisses();
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  /**
+   * get the number of travel times held, exact when no other thread uses the cache
+   * @return the number of travel times, as an int
+   */
+  public int size() {
+    int size = 0;
+    for (int segment = 0; segment < SEGMENTS; segment++) {
+      size += table.sizes[segment];
+    }
+    return size;
+  }
+
+  /**
+   * get the most travel times the cache holds
+   * @return the capacity, as an int
+   */
+  public int getCapacity() {
+    return table.keys.length;
+  }
+
+  /**
+   * Table is the state shared by the copies of a cache: the grid, the slots and the counters.
+   */
+  private static final class Table {
+
+    private final double cellSize;
+    private final int cellsPerSide;
+    private final long[] keys;
+    private final double[] seconds;
+    private final long[] lastUse; // tick of the last lookup of every slot, for eviction
+    private final int setMask;
+    private final StampedLock[] locks = new StampedLock[SEGMENTS];
+    private final int[] sizes = new int[SEGMENTS]; // travel times held by every segment
+    private final long[] ticks = new long[SEGMENTS]; // lookups of every segment
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor of Table, empty
+     * @param citySizeMiles the width and height of the city in miles, as a double
+     * @param cellSizeMiles the width and height of a cell in miles, as a double
+     * @param capacity the most travel times held, rounded up to a power of two, as an int
+     */
+    Table(double citySizeMiles, double cellSizeMiles, int capacity) {
+      if (!(citySizeMiles > 0) || !(cellSizeMiles > 0) || capacity < 1 || capacity > 1 << 30) {
+        throw new IllegalArgumentException("Sizes and capacity must be positive, capacity at most "
+            + (1 << 30));
+      }
+      double cells = Math.ceil(citySizeMiles / cellSizeMiles);
+      if (cells > MAX_CELLS_PER_SIDE) {
+        throw new IllegalArgumentException("More than " + MAX_CELLS_PER_SIDE
+            + " cells per side: " + cells);
+      }
+      this.cellSize = cellSizeMiles;
+      this.cellsPerSide = (int) cells;
+      int slots = Math.max(WAYS, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+      keys = new long[slots];
+      Arrays.fill(keys, EMPTY);
+      seconds = new double[slots];
+      lastUse = new long[slots];
+      setMask = slots / WAYS - 1;
+      for (int segment = 0; segment < SEGMENTS; segment++) {
+        locks[segment] = new StampedLock();
+      }
+    }
+
+    /**
+     * get the cell of a location, clamped to the city
+     * @param location the location, as a Location
+     * @return the cell, as an int
+     */
+    int cellOf(Location location) {
+      return clamp(location.getY()) * cellsPerSide + clamp(location.getX());
+    }
+
+    /**
+     * get the center of a cell
+     * @param cell the cell, as an int
+     * @return the center, as a Location
+     */
+    Location centerOf(int cell) {
+      return new Location((cell % cellsPerSide + 0.5) * cellSize,
+          (cell / cellsPerSide + 0.5) * cellSize);
+    }
+
+    /**
+     * look a travel time up, counting a hit or a miss
+     * @param key the pair of cells, as a long
+     * @return the travel time in seconds, or -1 if it is not held, as a double
+     */
+    double get(long key) {
+      int set = setOf(key);
+      StampedLock lock = locks[set & (SEGMENTS - 1)];
+      long stamp = lock.tryOptimisticRead();
+      double found = find(key, set);
+      if (!lock.validate(stamp)) {
+        stamp = lock.readLock();
+        try {
+          found = find(key, set);
+        } finally {
+          lock.unlockRead(stamp);
+        }
+      }
+      if (found >= 0) {
+        hits.increment();
+      } else {
+        misses.increment();
+      }
+      return found;
+    }
+
+    /**
+     * find a travel time in its set, marking it as used. The mark is a plain write that may be
+     * lost to a concurrent one, which only makes eviction slightly less exact.
+     * @param key the pair of cells, as a long
+     * @param set the set of the key, as an int
+     * @return the travel time in seconds, or -1 if it is not held, as a double
+     */
+    private double find(long key, int set) {
+      int first = set * WAYS;
+      for (int slot = first; slot < first + WAYS; slot++) {
+        if (keys[slot] == key) {
+          double found = seconds[slot];
+          lastUse[slot] = ++ticks[set & (SEGMENTS - 1)];
+          return found;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * hold a travel time, in an empty slot of its set or else in place of the least recently
+     * used one. Nothing changes if another thread put the same key meanwhile.
+     * @param key the pair of cells, as a long
+     * @param time the travel time in seconds, as a double
+     */
+    void put(long key, double time) {
+      int set = setOf(key);
+      int segment = set & (SEGMENTS - 1);
+      StampedLock lock = locks[segment];
+      long stamp = lock.writeLock();
+      try {
+        int first = set * WAYS;
+        int victim = first;
+        for (int slot = first; slot < first + WAYS; slot++) {
+          if (keys[slot] == key) {
+            return;
+          }
+          if (keys[slot] == EMPTY) {
+            if (keys[victim] != EMPTY) {
+              victim = slot;
+            }
+          } else if (keys[victim] != EMPTY && lastUse[slot] < lastUse[victim]) {
+            victim = slot;
+          }
+        }
+        if (keys[victim] == EMPTY) {
+          sizes[segment]++;
+        } else {
+          evictions.increment();
+        }
+        keys[victim] = key;
+        seconds[victim] = time;
+        lastUse[victim] = ++ticks[segment];
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * get the set of a key, from a mix of its bits
+     * @param key the pair of cells, as a long
+     * @return the set, as an int
+     */
+    private int setOf(long key) {
+      long mixed = key * 0x9E3779B97F4A7C15L;
+      return (int) (mixed >>> 32) & setMask;
+    }
+
+    /**
+     * get the column or row of a coordinate, clamped to the city
+     * @param miles the coordinate in miles, as a double
+     * @return the column or row, as an int
+     */
+    private int clamp(double miles) {
+      return Math.max(0, Math.min(cellsPerSide - 1, (int) Math.floor(miles / cellSize)));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package rideshare.Routing;
+
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+/**
+ * TravelTimes gives the driving time between two locations of the city. A
+ * RideshareDispatchSimulator takes its pickup, riding and shared ride times from it, see
+ * SimulationConfig.setTravelTimes.
+ */
+@FunctionalInterface
+public interface TravelTimes {
+
+  /**
+   * Straight line at the speed of a ride, see Request.calculateTravelSeconds. The default.
+   */
+  TravelTimes STRAIGHT_LINE = Request::calculateTravelSeconds;
+
+  /**
+   * get the driving time from one location to another
+   * @param from the location to drive from, or null if unknown, as a Location
+   * @param to the location to drive to, or null if unknown, as a Location
+   * @return the driving time in seconds, or 0 if either location is unknown, as a double
+   */
+  double travelSeconds(Location from, Location to);
+
+  /**
+   * get travel times that give the same results and can be used on another thread, e.g. by
+   * another simulator. Travel times that keep the state of their searches return a copy with
+   * its own state; the default returns the travel times themselves.
+   * @return the travel times, as a TravelTimes
+   */
+  default TravelTimes copy() {
+    return this;
+  }
+}
@@ -0,0 +1,409 @@
+package rideshare.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import rideshare.Controller.DispatchListener;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+/**
+ * DispatchHttpServer puts a running RideshareDispatchSimulator behind an embedded HTTP server:
+ * <ul>
+ *   <li>POST /rides with one request line in the body, see RequestLineFormat, submits a ride and
+ *   answers 202 with its id, or 503 while the dispatcher is too far behind to take it</li>
+ *   <li>GET /rides/{id} answers the state of a ride, see RideState</li>
+ *   <li>GET /queues answers the live depths of the queues of the dispatcher</li>
+ * </ul>
+ * Answers are JSON objects. Every HTTP exchange runs on its own virtual thread when the runtime
+ * has them (Java 21), and on a cached thread pool otherwise.
+ *
+ * The simulator keeps its single thread: a StreamingDispatcher runs it, fed by a
+ * RingBufferRequestSource the handlers publish to. The states of the rides and the queue depths
+ * are kept by the DispatchListener of the simulator, on the dispatcher thread, and only read by
+ * the handlers. Done rides are forgotten after the latest RETAINED_RIDES of them.
+ */
+public class DispatchHttpServer {
+
+  private static final int RING_CAPACITY = 1 << 14;
+  private static final int RETAINED_RIDES = 100_000;
+  private static final int BACKLOG = 1024; // connections waiting to be accepted
+
+  static {
+    // without it, small answers wait for a delayed ACK, about 40 ms per call; read once by the
+    // JDK when the first HTTP server is created
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final RideshareDispatchSimulator simulator;
+  private final HttpServer server;
+  private final ExecutorService handlers;
+  private final boolean virtualThreads;
+  private final RingBufferRequestSource source =
+      new RingBufferRequestSource(RING_CAPACITY, WaitStrategy.PARKING);
+  private final StreamingDispatcher dispatcher;
+  private final Thread dispatcherThread;
+  private final AtomicLong nextRideId = new AtomicLong();
+  private final Map<Long, Ride> rides = new ConcurrentHashMap<>();
+  private final Map<Request, Ride> ridesOfRequests =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  // written by the dispatcher thread only
+  private final ArrayDeque<Long> doneRides = new ArrayDeque<>();
+  private volatile long waitingRides;
+  private volatile long activeRides;
+  private volatile long finishedRides;
+  private volatile long cancelledRides;
+  private volatile long timedOutRides;
+  private volatile long rejectedRides;
+  private volatile long simulationTime;
+
+  /**
+   * Constructor of DispatchHttpServer, bound but not started
+   * @param simulator the simulator with its drivers, only run by this server, as a
+   *     RideshareDispatchSimulator
+   * @param pacer the pacer of simulation time, usually real time, as a SimulationPacer
+   * @param address the address to listen on, port 0 for any free port, as an InetSocketAddress
+   * @throws IOException if the address can't be bound
+   */
+  public DispatchHttpServer(RideshareDispatchSimulator simulator, SimulationPacer pacer,
+      InetSocketAddress address) throws IOException {
+    this.simulator = simulator;
+    this.simulationTime = simulator.getTime();
+    simulator.setDispatchListener(new RideStateListener());
+    this.dispatcher = new StreamingDispatcher(simulator, source, pacer);
+    this.dispatcherThread = new Thread(() -> {
+      try {
+        dispatcher.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "dispatcher");
+
+    ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+    this.virtualThreads = virtual != null;
+    this.handlers = virtual != null ? virtual : Executors.newCachedThreadPool();
+    this.server = HttpServer.create(address, BACKLOG);
+    server.setExecutor(handlers);
+    server.createContext("/rides", this::handleRides);
+    server.createContext("/queues", this::handleQueues);
+  }
+
+  /**
+   * get an executor that starts a virtual thread per task, when the runtime has them
+   * @return the executor, or null before Java 21, as an ExecutorService
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null; // no virtual threads, or only as a preview feature that is not enabled
+    }
+  }
+
+  /**
+   * start the dispatcher and take HTTP requests
+   */
+  public void start() {
+    dispatcherThread.start();
+    server.start();
+  }
+
+  /**
+   * stop taking HTTP requests, and stop the dispatcher without waiting for the rides in flight
+   * @throws InterruptedException if interrupted while waiting for the dispatcher
+   */
+  public void stop() throws InterruptedException {
+    server.stop(0);
+    source.close();
+    dispatcher.stop();
+    dispatcherThread.join();
+    handlers.shutdown();
+  }
+
+  /**
+   * handle /rides: submit a ride, or get the state of one
+   * @param exchange the HTTP exchange, as an HttpExchange
+   * @throws IOException if the answer can't be sent
+   */
+  private void handleRides(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    if ("POST".equals(exchange.getRequestMethod()) && path.matches("/rides/?")) {
+      submitRide(exchange);
+    } else if ("GET".equals(exchange.getRequestMethod()) && path.matches("/rides/\\d{1,18}")) {
+      Ride ride = rides.get(Long.parseLong(path.substring("/rides/".length())));
+      if (ride == null) {
+        answer(exchange, 404, error("No such ride"));
+      } else {
+        answer(exchange, 200, ride.toJson());
+      }
+    } else {
+      answer(exchange, 405, error("Use POST /rides or GET /rides/{id}"));
+    }
+  }
+
+  /**
+   * submit the ride in the body of a request
+   * @param exchange the HTTP exchange, as an HttpExchange
+   * @throws IOException if the body can't be read or the answer can't be sent
+   */
+  private void submitRide(HttpExchange exchange) throws IOException {
+    Request request;
+    try (InputStream body = exchange.getRequestBody()) {
+      request = RequestLineFormat.parse(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException e) {
+      answer(exchange, 400, error(e.getMessage()));
+      return;
+    }
+    if (request == null) {
+      answer(exchange, 400, error("Expected a request line"));
+      return;
+    }
+    Ride ride = new Ride(nextRideId.getAndIncrement(), request);
+    rides.put(ride.id, ride);
+    ridesOfRequests.put(request, ride); // before the dispatcher can see the request
+    boolean accepted;
+    try {
+      accepted = source.offer(request);
+    } catch (IllegalStateException e) {
+      accepted = false; // stopping
+    }
+    if (!accepted) {
+      rides.remove(ride.id);
+      ridesOfRequests.remove(request);
+      exchange.getResponseHeaders().set("Retry-After", "1");
+      answer(exchange, 503, error("Too many rides waiting to be dispatched"));
+      return;
+    }
+    answer(exchange, 202, ride.toJson());
+  }
+
+  /**
+   * handle /queues: the live depths of the queues
+   * @param exchange the HTTP exchange, as an HttpExchange
+   * @throws IOException if the answer can't be sent
+   */
+  private void handleQueues(HttpExchange exchange) throws IOException {
+    if (!"GET".equals(exchange.getRequestMethod())) {
+      answer(exchange, 405, error("Use GET /queues"));
+      return;
+    }
+    answer(exchange, 200, "{\"submitted\":" + source.size()
+        + ",\"waiting\":" + waitingRides
+        + ",\"active\":" + activeRides
+        + ",\"finished\":" + finishedRides
+        + ",\"cancelled\":" + cancelledRides
+        + ",\"timedOut\":" + timedOutRides
+        + ",\"rejected\":" + rejectedRides
+        + ",\"time\":" + simulationTime + "}");
+  }
+
+  /**
+   * send a JSON answer and close the exchange
+   * @param exchange the HTTP exchange, as an HttpExchange
+   * @param status the HTTP status, as an int
+   * @param json the answer, as a String
+   * @throws IOException if the answer can't be sent
+   */
+  private static void answer(HttpExchange exchange, int status, String json) throws IOException {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream body = exchange.getResponseBody()) {
+      body.write(bytes);
+    }
+  }
+
+  /**
+   * get an error answer
+   * @param message the error, as a String
+   * @return the answer, as a String
+   */
+  private static String error(String message) {
+    return "{\"error\":" + quote(message) + "}";
+  }
+
+  /**
+   * quote a string for JSON
+   * @param text the string, as a String
+   * @return the quoted string, as a String
+   */
+  static String quote(String text) {
+    StringBuilder quoted = new StringBuilder("\"");
+    for (char c : text.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < ' ') {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+  /**
+   * get the port the server listens on
+   * @return the port, as an int
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * check if every HTTP exchange runs on its own virtual thread
+   * @return true with virtual threads, false with a thread pool, as a boolean
+   */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * get the simulator, only safe to use once stopped
+   * @return the simulator, as a RideshareDispatchSimulator
+   */
+  public RideshareDispatchSimulator getSimulator() {
+    return simulator;
+  }
+
+  /**
+   * Ride is a ride submitted over HTTP and its state, written by the dispatcher thread.
+   */
+  private static class Ride {
+
+    private final long id;
+    private final String customerName;
+    private volatile RideState state = RideState.SUBMITTED;
+    private volatile long arrivalTime = -1; // epoch second of the drop-off once assigned
+
+    /**
+     * Constructor of Ride
+     * @param id the id of the ride, as a long
+     * @param request the request, as a Request
+     */
+    Ride(long id, Request request) {
+      this.id = id;
+      this.customerName = request.getCustomerName();
+    }
+
+    /**
+     * get the ride as a JSON object
+     * @return the ride, as a String
+     */
+    String toJson() {
+      long arrival = arrivalTime;
+      return "{\"id\":" + id + ",\"customer\":" + quote(customerName) + ",\"state\":\"" + state
+          + "\"" + (arrival < 0 ? "" : ",\"arrivalTime\":" + arrival) + "}";
+    }
+  }
+
+  /**
+   * RideStateListener moves the rides from state to state and counts the depths of the queues.
+   */
+  private class RideStateListener implements DispatchListener {
+
+    @Override
+    public void onRideQueued(Request request, long time) {
+      move(request, RideState.WAITING, time);
+    }
+
+    @Override
+    public void onRideAssigned(Request request, Driver driver, long time) {
+      Ride ride = move(request, RideState.ACTIVE, time);
+      if (ride != null) {
+        ride.arrivalTime = request.getActualArrivalEpochSecond();
+      }
+    }
+
+    @Override
+    public void onRideFinished(Request request, long time) {
+      move(request, RideState.FINISHED, time);
+    }
+
+    @Override
+    public void onRideCancelled(Request request, long time) {
+      move(request, RideState.CANCELLED, time);
+    }
+
+    @Override
+    public void onRequestTimedOut(Request request, long time) {
+      move(request, RideState.TIMED_OUT, time);
+    }
+
+    @Override
+    public void onRequestRejected(Request request, long time) {
+      move(request, RideState.REJECTED, time);
+    }
+
+    /**
+     * move the ride of a request to a new state
+     * @param request the request, as a Request
+     * @param state the new state, as a RideState
+     * @param time the current time in epoch seconds, as a long
+     * @return the ride, or null if the request was not submitted over HTTP, as a Ride
+     */
+    private Ride move(Request request, RideState state, long time) {
+      simulationTime = time;
+      Ride ride = state.isDone() ? ridesOfRequests.remove(request) : ridesOfRequests.get(request);
+      if (ride == null) {
+        return null;
+      }
+      count(ride.state, -1);
+      count(state, 1);
+      ride.state = state;
+      if (state.isDone()) {
+        doneRides.add(ride.id);
+        if (doneRides.size() > RETAINED_RIDES) {
+          rides.remove(doneRides.poll());
+        }
+      }
+      return ride;
+    }
+
+    /**
+     * change the count of rides in a state
+     * @param state the state, as a RideState
+     * @param change the change, as an int
+     */
+    private void count(RideState state, int change) {
+      switch (state) {
+        case WAITING:
+          waitingRides += change;
+          break;
+        case ACTIVE:
+          activeRides += change;
+          break;
+        case FINISHED:
+          finishedRides += change;
+          break;
+        case CANCELLED:
+          cancelledRides += change;
+          break;
+        case TIMED_OUT:
+          timedOutRides += change;
+          break;
+        case REJECTED:
+          rejectedRides += change;
+          break;
+        default:
+          break; // submitted rides are counted by the ring
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package rideshare.Stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import rideshare.objects.Request;
+
+/**
+ * FileTailRequestSource reads requests from a file, one RequestLineFormat line each.
+ * When following, it keeps waiting for lines appended to the file, like tail -f, until closed;
+ * otherwise it is exhausted at the end of the file. Lines that are not requests are skipped
+ * and counted.
+ */
+public class FileTailRequestSource implements RequestSource {
+
+  private static final long POLL_INTERVAL_MILLIS = 20;
+
+  private final InputStream in;
+  private final boolean follow;
+  private final byte[] buffer = new byte[8192];
+  private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+  private int position;
+  private int limit;
+  private boolean endOfFile;
+  private volatile boolean closed;
+  private int rejectedLines;
+
+  /**
+   * Constructor of FileTailRequestSource
+   * @param file the file to read, as a Path
+   * @param follow true to wait for appended lines at the end of the file
+   * @throws IOException if the file can't be opened
+   */
+  public FileTailRequestSource(Path file, boolean follow) throws IOException {
+    this.in = Files.newInputStream(file);
+    this.follow = follow;
+  }
+
+  @Override
+  public Request poll(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (!closed) {
+      String line = nextLine();
+      if (line != null) {
+        try {
+          Request request = RequestLineFormat.parse(line);
+          if (request != null) {
+            return request;
+          }
+        } catch (IllegalArgumentException e) {
+          rejectedLines++;
+        }
+        continue;
+      }
+      long remaining = deadline - System.currentTimeMillis();
+      if (isExhausted() || remaining <= 0) {
+        return null;
+      }
+      Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, remaining));
+    }
+    return null;
+  }
+
+  /**
+   * read the next complete line. Without follow, the last line needs no line separator.
+   * @return the line, or null if there's no complete line yet
+   */
+  private String nextLine() {
+    try {
+      while (true) {
+        if (position == limit) {
+          int read = in.read(buffer);
+          if (read <= 0) {
+            endOfFile = true;
+            if (!follow && partialLine.size() > 0) {
+              return takePartialLine();
+            }
+            return null;
+          }
+          endOfFile = false;
+          position = 0;
+          limit = read;
+        }
+        while (position < limit) {
+          byte b = buffer[position++];
+          if (b == '\n') {
+            return takePartialLine();
+          }
+          partialLine.write(b);
+        }
+      }
+    } catch (IOException e) {
+      if (closed) {
+        return null;
+      }
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * take the bytes read so far as a line
+   * @return the line, as a String
+   */
+  private String takePartialLine() {
+    String line = partialLine.toString(StandardCharsets.UTF_8);
+    partialLine.reset();
+    return line;
+  }
+
+  @Override
+  public boolean isExhausted() {
+    return closed || (!follow && endOfFile && partialLine.size() == 0);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      in.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * get the number of lines skipped because they are not requests
+   * @return the number of rejected lines, as an int
+   */
+  public int getRejectedLines() {
+    return rejectedLines;
+  }
+}
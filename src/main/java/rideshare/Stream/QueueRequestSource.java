@@ -0,0 +1,54 @@
+package rideshare.Stream;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+/**
+ * QueueRequestSource is an in-process request source: any thread submits requests, and the
+ * dispatcher takes them in submission order. It is exhausted once closed and drained.
+ */
+public class QueueRequestSource implements RequestSource {
+
+  // put on the queue on close, so a waiting poll wakes up
+  private static final Request END = new Request("", "", "", 0.0, 0L, RideType.STANDARD);
+
+  private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+  private volatile boolean closed;
+
+  /**
+   * submit a request
+   * @param request the request, as a Request
+   * @throws IllegalStateException if the source is closed
+   */
+  public void submit(Request request) {
+    if (closed) {
+      throw new IllegalStateException("Request source is closed");
+    }
+    queue.add(request);
+  }
+
+  @Override
+  public Request poll(long timeoutMillis) throws InterruptedException {
+    Request request = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    if (request == END) {
+      queue.add(END); // keep waking up later polls
+      return null;
+    }
+    return request;
+  }
+
+  @Override
+  public boolean isExhausted() {
+    return closed && queue.peek() == END;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      queue.add(END);
+    }
+  }
+}
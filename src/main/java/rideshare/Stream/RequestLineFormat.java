@@ -0,0 +1,59 @@
+package rideshare.Stream;
+
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+/**
+ * RequestLineFormat reads and writes a request as one line of text, as sent to the file and
+ * socket request sources:
+ * customerName,startLocation,endLocation,distance,requestTime,rideType
+ * The request time is in epoch seconds and may be left empty for "now".
+ * Blank lines and lines starting with # are ignored.
+ */
+public final class RequestLineFormat {
+
+  /**
+   * Request time of a line without one, for the dispatcher to replace with the current time.
+   */
+  public static final long NOW = Long.MIN_VALUE;
+
+  private RequestLineFormat() {
+  }
+
+  /**
+   * parse a line
+   * @param line the line, as a String
+   * @return the request, or null if the line is blank or a comment
+   * @throws IllegalArgumentException if the line is not a request
+   */
+  public static Request parse(String line) {
+    String trimmed = line.trim();
+    if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+      return null;
+    }
+    String[] fields = trimmed.split(",", -1);
+    if (fields.length != 6) {
+      throw new IllegalArgumentException("Expected 6 fields but got " + fields.length + ": " + line);
+    }
+    try {
+      double distance = Double.parseDouble(fields[3].trim());
+      long requestTime = fields[4].trim().isEmpty() ? NOW : Long.parseLong(fields[4].trim());
+      RideType rideType = RideType.valueOf(fields[5].trim());
+      return new Request(fields[0].trim(), fields[1].trim(), fields[2].trim(), distance,
+          requestTime, rideType);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Not a request: " + line, e);
+    }
+  }
+
+  /**
+   * format a request as a line, without line separator
+   * @param request the request, as a Request
+   * @return the line, as a String
+   */
+  public static String format(Request request) {
+    return String.join(",", request.getCustomerName(), request.getStartLocation(),
+        request.getEndLocation(), String.valueOf(request.getDistance()),
+        String.valueOf(request.getRequestEpochSecond()), request.getRideType().name());
+  }
+}
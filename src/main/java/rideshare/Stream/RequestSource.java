@@ -0,0 +1,47 @@
+package rideshare.Stream;
+
+import java.util.function.Consumer;
+import rideshare.objects.Request;
+
+/**
+ * RequestSource delivers ride requests to a StreamingDispatcher one at a time, as they come in.
+ */
+public interface RequestSource extends AutoCloseable {
+
+  /**
+   * wait for the next request
+   * @param timeoutMillis the longest time to wait in milliseconds, 0 to not wait, as a long
+   * @return the next request, or null if none came in time or the source is exhausted
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  Request poll(long timeoutMillis) throws InterruptedException;
+
+  /**
+   * take the requests that already came in, up to a most, without waiting
+   * @param sink takes every request in order, as a Consumer of Request
+   * @param maxRequests the most requests to take, as an int
+   * @return the number of requests taken, as an int
+   * @throws InterruptedException if the thread is interrupted
+   */
+  default int drainTo(Consumer<Request> sink, int maxRequests) throws InterruptedException {
+    int taken = 0;
+    Request request;
+    while (taken < maxRequests && (request = poll(0)) != null) {
+      sink.accept(request);
+      taken++;
+    }
+    return taken;
+  }
+
+  /**
+   * check if the source will not deliver any more requests
+   * @return true if the source is exhausted
+   */
+  boolean isExhausted();
+
+  /**
+   * stop accepting requests. Requests already received are still delivered.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,23 @@
+package rideshare.Stream;
+
+/**
+ * Enum for the states of a ride submitted to a DispatchHttpServer
+ */
+public enum RideState {
+
+  SUBMITTED, // accepted, not taken by the dispatcher yet
+  WAITING, // waiting for a driver
+  ACTIVE, // a driver is on the way or riding
+  FINISHED,
+  CANCELLED,
+  TIMED_OUT,
+  REJECTED; // turned away under overload, see SimulationConfig.setOverloadPolicy
+
+  /**
+   * check if the ride is over, one way or another
+   * @return true if finished, cancelled, timed out or rejected, as a boolean
+   */
+  public boolean isDone() {
+    return this == FINISHED || this == CANCELLED || this == TIMED_OUT || this == REJECTED;
+  }
+}
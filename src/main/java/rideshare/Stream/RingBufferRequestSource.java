@@ -0,0 +1,300 @@
+package rideshare.Stream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import rideshare.objects.Request;
+
+/**
+ * RingBufferRequestSource is an in-process request source for many producer threads and one
+ * consumer, the dispatcher, that takes no lock on either side.
+ *
+ * The requests go through a preallocated ring of slots. A producer claims the next sequence with
+ * a compare-and-set on the claim counter, waiting while the ring is full, stores its request in
+ * the slot of the sequence and then publishes the slot by writing the sequence to it with release
+ * semantics. The consumer takes the slots in sequence order once published, and frees them by
+ * advancing its own counter, once per batch when draining. Producers only ever wait for the
+ * consumer, never for each other beyond a failed compare-and-set.
+ *
+ * How the consumer waits for requests is a WaitStrategy. Only one thread may poll or drain.
+ */
+public class RingBufferRequestSource implements RequestSource {
+
+  private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int PRODUCER_SPINS = 100;
+
+  private final Request[] slots;
+  private final long[] published; // the sequence last published in every slot
+  private final int mask;
+  private final WaitStrategy waitStrategy;
+  private final Sequence claimed = new Sequence(); // sequences claimed by producers
+  private final Sequence consumed = new Sequence(); // sequences freed by the consumer
+  private long next; // the next sequence to consume, owned by the consumer
+  private volatile Thread parkedConsumer;
+  private volatile boolean closed;
+
+  /**
+   * Constructor of RingBufferRequestSource
+   * @param capacity the number of slots, a power of two, as an int
+   * @param waitStrategy how the consumer waits for requests, as a WaitStrategy
+   * @throws IllegalArgumentException if the capacity is not a power of two
+   */
+  public RingBufferRequestSource(int capacity, WaitStrategy waitStrategy) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.slots = new Request[capacity];
+    this.published = new long[capacity];
+    Arrays.fill(published, -1);
+    this.mask = capacity - 1;
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * submit a request, waiting while the ring is full
+   * @param request the request, as a Request
+   * @throws IllegalStateException if the source is closed
+   */
+  public void submit(Request request) {
+    publish(request, true);
+  }
+
+  /**
+   * submit a request unless the ring is full
+   * @param request the request, as a Request
+   * @return true if submitted, false if the ring is full, as a boolean
+   * @throws IllegalStateException if the source is closed
+   */
+  public boolean offer(Request request) {
+    return publish(request, false);
+  }
+
+  /**
+   * claim a sequence and publish a request in its slot
+   * @param request the request, as a Request
+   * @param wait true to wait while the ring is full, false to give up, as a boolean
+   * @return true if published, as a boolean
+   */
+  private boolean publish(Request request, boolean wait) {
+    Objects.requireNonNull(request, "request");
+    if (closed) {
+      throw new IllegalStateException("Request source is closed");
+    }
+    long sequence;
+    int round = 0;
+    while (true) {
+      sequence = claimed.get();
+      if (sequence - slots.length >= consumed.getAcquire()) {
+        if (!wait) {
+          return false;
+        }
+        if (closed) {
+          // the consumer may have stopped draining, so the ring may never free a slot
+          throw new IllegalStateException("Request source is closed");
+        }
+        backOff(round++);
+      } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+        break;
+      }
+    }
+    // closed after the check above: the sequence can't be given back, so publish an empty slot
+    // the consumer skips. isExhausted saw the claim, or this thread now sees closed.
+    boolean accepted = !closed;
+    int slot = (int) sequence & mask;
+    slots[slot] = accepted ? request : null;
+    PUBLISHED.setRelease(published, slot, sequence);
+    if (waitStrategy.parks()) {
+      VarHandle.fullFence(); // publish before looking for a parked consumer
+      Thread consumer = parkedConsumer;
+      if (consumer != null) {
+        LockSupport.unpark(consumer);
+      }
+    }
+    if (!accepted) {
+      throw new IllegalStateException("Request source is closed");
+    }
+    return true;
+  }
+
+  /**
+   * wait for the consumer to free a slot
+   * @param round the number of times this producer waited already, as an int
+   */
+  private static void backOff(int round) {
+    if (round < PRODUCER_SPINS) {
+      Thread.onSpinWait();
+    } else if (round < 2 * PRODUCER_SPINS) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(1_000);
+    }
+  }
+
+  @Override
+  public Request poll(long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    int round = 0;
+    while (true) {
+      int slot = (int) next & mask;
+      if ((long) PUBLISHED.getVolatile(published, slot) == next) {
+        Request request = slots[slot];
+        slots[slot] = null;
+        consumed.setRelease(++next);
+        if (request != null) {
+          return request;
+        }
+        continue; // an empty slot published after close
+      }
+      if (isExhausted()) {
+        return null;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      if (waitStrategy.parks()) {
+        parkedConsumer = Thread.currentThread();
+        // a producer that published before seeing the parked consumer is seen here
+        if ((long) PUBLISHED.getVolatile(published, slot) != next && !closed) {
+          waitStrategy.idle(round++, remaining);
+        }
+        parkedConsumer = null;
+      } else {
+        waitStrategy.idle(round++, remaining);
+      }
+    }
+  }
+
+  /**
+   * take the requests published so far, up to a most, without waiting. The slots are freed
+   * once the whole batch went to the sink, so producers see one update per batch.
+   * @param sink takes every request in submission order, as a Consumer of Request
+   * @param maxRequests the most requests to take, as an int
+   * @return the number of requests taken, as an int
+   */
+  @Override
+  public int drainTo(Consumer<Request> sink, int maxRequests) {
+    long first = next;
+    long end = first;
+    int taken = 0;
+    while (taken < maxRequests) {
+      int slot = (int) end & mask;
+      if ((long) PUBLISHED.getAcquire(published, slot) != end) {
+        break;
+      }
+      Request request = slots[slot];
+      slots[slot] = null;
+      end++;
+      if (request != null) {
+        sink.accept(request);
+        taken++;
+      }
+    }
+    if (end != first) {
+      next = end;
+      consumed.setRelease(end);
+    }
+    return taken;
+  }
+
+  @Override
+  public boolean isExhausted() {
+    return closed && claimed.get() == next;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    Thread consumer = parkedConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * get the number of slots
+   * @return the capacity, as an int
+   */
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  /**
+   * get the number of requests claimed but not consumed yet, exact only when no producer runs
+   * @return the number of requests, as an int
+   */
+  public int size() {
+    return (int) (claimed.get() - consumed.getAcquire());
+  }
+
+  /**
+   * get how the consumer waits for requests
+   * @return the wait strategy, as a WaitStrategy
+   */
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  /**
+   * Sequence is a counter padded on both sides, so the producers' claim counter and the
+   * consumer's counter don't share a cache line with each other or with other hot fields.
+   */
+  @SuppressWarnings("unused")
+  private static final class Sequence {
+
+    private static final VarHandle VALUE;
+
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long value;
+    private long q1, q2, q3, q4, q5, q6, q7;
+
+    /**
+     * read the counter with volatile semantics
+     * @return the counter, as a long
+     */
+    long get() {
+      return value;
+    }
+
+    /**
+     * read the counter with acquire semantics
+     * @return the counter, as a long
+     */
+    long getAcquire() {
+      return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * write the counter with release semantics, from its only writer
+     * @param newValue the new counter, as a long
+     */
+    void setRelease(long newValue) {
+      VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * set the counter if it still has the expected value
+     * @param expected the expected counter, as a long
+     * @param newValue the new counter, as a long
+     * @return true if set, as a boolean
+     */
+    boolean compareAndSet(long expected, long newValue) {
+      return VALUE.compareAndSet(this, expected, newValue);
+    }
+  }
+}
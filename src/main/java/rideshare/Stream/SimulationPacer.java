@@ -0,0 +1,85 @@
+package rideshare.Stream;
+
+/**
+ * SimulationPacer ties simulation time to the wall clock: once started, simulation time runs
+ * speedup times as fast as the wall clock. An unpaced pacer has no wall clock at all,
+ * and simulation time only moves on with the requests.
+ */
+public class SimulationPacer {
+
+  private final double speedup;
+  private long originSecond;
+  private long originNanos;
+
+  /**
+   * Constructor of SimulationPacer
+   * @param speedup simulated seconds per wall-clock second, or infinity for unpaced, as a double
+   */
+  private SimulationPacer(double speedup) {
+    if (!(speedup > 0)) {
+      throw new IllegalArgumentException("Speedup must be positive: " + speedup);
+    }
+    this.speedup = speedup;
+  }
+
+  /**
+   * a pacer that runs the simulation as fast as the requests come in
+   * @return the pacer, as a SimulationPacer
+   */
+  public static SimulationPacer asFastAsPossible() {
+    return new SimulationPacer(Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * a pacer that runs the simulation in real time
+   * @return the pacer, as a SimulationPacer
+   */
+  public static SimulationPacer realTime() {
+    return new SimulationPacer(1);
+  }
+
+  /**
+   * a pacer that runs the simulation faster (or slower) than real time
+   * @param speedup simulated seconds per wall-clock second, as a double
+   * @return the pacer, as a SimulationPacer
+   */
+  public static SimulationPacer accelerated(double speedup) {
+    return new SimulationPacer(speedup);
+  }
+
+  /**
+   * anchor simulation time to the wall clock
+   * @param originSecond the simulation time right now in epoch seconds, as a long
+   */
+  public void start(long originSecond) {
+    this.originSecond = originSecond;
+    this.originNanos = System.nanoTime();
+  }
+
+  /**
+   * check if simulation time follows the wall clock
+   * @return true unless the pacer is unpaced
+   */
+  public boolean isPaced() {
+    return speedup != Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * get the simulation time for the wall clock now
+   * @return the current simulated second in epoch seconds, as a long
+   */
+  public long now() {
+    return originSecond + (long) Math.floor((System.nanoTime() - originNanos) * speedup / 1e9);
+  }
+
+  /**
+   * get the wall-clock time until the simulation reaches a second
+   * @param second the simulated second in epoch seconds, as a long
+   * @return the milliseconds to wait, 0 if it's reached already, as a long
+   */
+  public long millisUntil(long second) {
+    double wallNanos = (second - originSecond) / speedup * 1e9;
+    long remaining = (long) Math.ceil((originNanos + wallNanos - System.nanoTime()) / 1e6);
+    return Math.max(0, remaining);
+  }
+}
@@ -0,0 +1,123 @@
+package rideshare.Stream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import rideshare.objects.Request;
+
+/**
+ * SocketRequestSource listens on a local port, and reads requests from every connection,
+ * one RequestLineFormat line each. Every connection is read on its own thread into a
+ * QueueRequestSource, so requests of different connections are delivered as they arrive.
+ * Lines that are not requests are skipped and counted.
+ */
+public class SocketRequestSource implements RequestSource {
+
+  private final ServerSocket serverSocket;
+  private final QueueRequestSource requests = new QueueRequestSource();
+  private final List<Socket> connections = new CopyOnWriteArrayList<>();
+  private final AtomicInteger rejectedLines = new AtomicInteger();
+
+  /**
+   * Constructor of SocketRequestSource. Starts listening on the loopback address.
+   * @param port the port, or 0 for any free port, as an int
+   * @throws IOException if the port can't be bound
+   */
+  public SocketRequestSource(int port) throws IOException {
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::acceptConnections, "request-source-" + getPort());
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * accept connections until the server socket is closed
+   */
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.add(socket);
+        Thread reader = new Thread(() -> readConnection(socket),
+            "request-source-" + socket.getPort());
+        reader.setDaemon(true);
+        reader.start();
+      } catch (IOException e) {
+        return; // closed
+      }
+    }
+  }
+
+  /**
+   * read requests from a connection until the client or the source closes it
+   * @param socket the connection, as a Socket
+   */
+  private void readConnection(Socket socket) {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          Request request = RequestLineFormat.parse(line);
+          if (request != null) {
+            requests.submit(request);
+          }
+        } catch (IllegalArgumentException e) {
+          rejectedLines.incrementAndGet();
+        }
+      }
+    } catch (IOException | IllegalStateException e) {
+      // the connection or the source was closed
+    } finally {
+      connections.remove(socket);
+    }
+  }
+
+  @Override
+  public Request poll(long timeoutMillis) throws InterruptedException {
+    return requests.poll(timeoutMillis);
+  }
+
+  @Override
+  public boolean isExhausted() {
+    return requests.isExhausted();
+  }
+
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+      for (Socket socket : connections) {
+        socket.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      requests.close();
+    }
+  }
+
+  /**
+   * get the port the source listens on
+   * @return the port, as an int
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * get the number of lines skipped because they are not requests
+   * @return the number of rejected lines, as an int
+   */
+  public int getRejectedLines() {
+    return rejectedLines.get();
+  }
+}
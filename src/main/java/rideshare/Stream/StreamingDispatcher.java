@@ -0,0 +1,145 @@
+package rideshare.Stream;
+
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.objects.Request;
+
+/**
+ * StreamingDispatcher runs a RideshareDispatchSimulator on requests that come in one at a time
+ * from a RequestSource, instead of a workload generated up front. Assignments and finished rides
+ * are reported as they happen to the DispatchListener of the simulator; a simulator configured
+ * not to retain finished requests then only holds the requests in flight.
+ *
+ * Unpaced, every request is dispatched as soon as it arrives: events up to its request time
+ * are processed with it, so requests are expected in request time order. Requests that came in
+ * while one was dispatched are then drained from the source in a batch. Paced, events are
+ * processed when their second has passed on the pacer's clock, and requests arriving late are
+ * moved to the current simulation time. Requests without a request time get the current time.
+ */
+public class StreamingDispatcher {
+
+  private static final long IDLE_POLL_MILLIS = 100;
+  private static final int BATCH_SIZE = 256;
+
+  private final RideshareDispatchSimulator simulator;
+  private final RequestSource source;
+  private final SimulationPacer pacer;
+  private volatile boolean stopped;
+  private long receivedRequests;
+
+  /**
+   * Constructor of StreamingDispatcher
+   * @param simulator the simulator with its drivers, as a RideshareDispatchSimulator
+   * @param source the source of requests, as a RequestSource
+   * @param pacer the pacer of simulation time, as a SimulationPacer
+   */
+  public StreamingDispatcher(RideshareDispatchSimulator simulator, RequestSource source,
+      SimulationPacer pacer) {
+    this.simulator = simulator;
+    this.source = source;
+    this.pacer = pacer;
+  }
+
+  /**
+   * dispatch requests until the source is exhausted and every ride has finished,
+   * or until stopped
+   * @throws InterruptedException if the thread is interrupted while waiting for requests
+   */
+  public void run() throws InterruptedException {
+    pacer.start(simulator.getTime());
+    if (pacer.isPaced()) {
+      runPaced();
+    } else {
+      runUnpaced();
+    }
+  }
+
+  /**
+   * dispatch every request as soon as it arrives
+   * @throws InterruptedException if the thread is interrupted while waiting for requests
+   */
+  private void runUnpaced() throws InterruptedException {
+    while (!stopped) {
+      Request request = source.poll(IDLE_POLL_MILLIS);
+      if (request == null) {
+        if (source.isExhausted()) {
+          simulator.runUntil(Long.MAX_VALUE);
+          return;
+        }
+        continue;
+      }
+      dispatch(request);
+      // then whatever else came in meanwhile, without waiting for it one by one
+      source.drainTo(this::dispatch, BATCH_SIZE);
+    }
+  }
+
+  /**
+   * dispatch a request as soon as it arrives, processing the events up to its request time
+   * @param request the request, as a Request
+   */
+  private void dispatch(Request request) {
+    if (request.getRequestEpochSecond() != RequestLineFormat.NOW) {
+      simulator.runUntil(request.getRequestEpochSecond());
+    }
+    long requestTime = submit(request, simulator.getTime());
+    simulator.runUntil(requestTime + 1);
+  }
+
+  /**
+   * process events as their second passes on the pacer's clock, taking requests in between
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  private void runPaced() throws InterruptedException {
+    while (!stopped) {
+      long now = pacer.now();
+      simulator.runUntil(now);
+      long nextEventTime = simulator.nextEventTime();
+      // an event's second has passed once the clock reaches the next second
+      long waitMillis = nextEventTime == Long.MAX_VALUE
+          ? IDLE_POLL_MILLIS : Math.min(IDLE_POLL_MILLIS, pacer.millisUntil(nextEventTime + 1));
+      if (source.isExhausted()) {
+        if (nextEventTime == Long.MAX_VALUE) {
+          return;
+        }
+        Thread.sleep(waitMillis);
+        continue;
+      }
+      Request request = source.poll(waitMillis);
+      if (request != null) {
+        submit(request, pacer.now());
+      }
+    }
+  }
+
+  /**
+   * add a request to the simulator, not before the given time
+   * @param request the request, as a Request
+   * @param earliest the earliest request time in epoch seconds, as a long
+   * @return the request time it was added at in epoch seconds, as a long
+   */
+  private long submit(Request request, long earliest) {
+    long requestTime = Math.max(request.getRequestEpochSecond(),
+        Math.max(earliest, simulator.getTime()));
+    if (requestTime != request.getRequestEpochSecond()) {
+      request.setRequestEpochSecond(requestTime);
+    }
+    simulator.submitRequest(request);
+    receivedRequests++;
+    return requestTime;
+  }
+
+  /**
+   * stop dispatching; run returns after the request it is waiting for, if any
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * get the number of requests received from the source
+   * @return the number of requests, as a long
+   */
+  public long getReceivedRequests() {
+    return receivedRequests;
+  }
+}
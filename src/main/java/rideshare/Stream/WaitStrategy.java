@@ -0,0 +1,77 @@
+package rideshare.Stream;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WaitStrategy is how the consumer of a RingBufferRequestSource waits for the next request,
+ * trading the latency of picking it up against the CPU burnt while there's none.
+ */
+public enum WaitStrategy {
+
+  /** spin on the CPU: lowest latency, but takes a whole core even when idle */
+  BUSY_SPIN {
+    @Override
+    void idle(int round, long maxNanos) {
+      Thread.onSpinWait();
+    }
+  },
+
+  /** spin a little, then yield the CPU to other threads */
+  YIELDING {
+    @Override
+    void idle(int round, long maxNanos) {
+      if (round < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    }
+  },
+
+  /** spin, then yield, then sleep a tenth of a millisecond at a time */
+  SLEEPING {
+    @Override
+    void idle(int round, long maxNanos) {
+      if (round < SPINS) {
+        Thread.onSpinWait();
+      } else if (round < 2 * SPINS) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(Math.min(maxNanos, SLEEP_NANOS));
+      }
+    }
+  },
+
+  /**
+   * spin, then park until a producer publishes a request. Producers then check for a parked
+   * consumer after every request, without taking a lock.
+   */
+  PARKING {
+    @Override
+    void idle(int round, long maxNanos) {
+      if (round < SPINS) {
+        Thread.onSpinWait();
+      } else {
+        LockSupport.parkNanos(maxNanos);
+      }
+    }
+  };
+
+  private static final int SPINS = 100;
+  private static final long SLEEP_NANOS = 100_000;
+
+  /**
+   * wait a little while for a request
+   * @param round the number of times the consumer waited for this request already, as an int
+   * @param maxNanos the longest time to wait in nanoseconds, as a long
+   */
+  abstract void idle(int round, long maxNanos);
+
+  /**
+   * check if the consumer parks until woken up by a producer
+   * @return true if producers must wake the consumer up, as a boolean
+   */
+  boolean parks() {
+    return this == PARKING;
+  }
+}
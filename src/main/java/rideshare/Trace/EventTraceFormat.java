@@ -0,0 +1,31 @@
+package rideshare.Trace;
+
+/**
+ * EventTraceFormat is the layout of an event trace file: a 32-byte header followed by fixed
+ * 32-byte records, both little-endian.
+ *
+ * Header: magic (int), version (int), record count (long), then zero padding.
+ * Record: time in epoch seconds (long), event type ordinal (byte), three bytes padding,
+ * request id (int), driver id (int), idle drivers (int), waiting requests (int) and
+ * active requests (int), the last three after the event was processed. Ids are -1 if not set.
+ */
+final class EventTraceFormat {
+
+  static final int MAGIC = 0x52535452; // "RSTR"
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  static final int RECORD_BYTES = 32;
+
+  static final int COUNT_OFFSET = 8;
+
+  static final int TIME_OFFSET = 0;
+  static final int TYPE_OFFSET = 8;
+  static final int REQUEST_OFFSET = 12;
+  static final int DRIVER_OFFSET = 16;
+  static final int IDLE_OFFSET = 20;
+  static final int WAITING_OFFSET = 24;
+  static final int ACTIVE_OFFSET = 28;
+
+  private EventTraceFormat() {
+  }
+}
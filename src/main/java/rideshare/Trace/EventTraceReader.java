@@ -0,0 +1,223 @@
+package rideshare.Trace;
+
+import static rideshare.Trace.EventTraceFormat.*;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import rideshare.Event.EventType;
+
+/**
+ * EventTraceReader maps an event trace file read-only and reads its records by index, without
+ * copying or allocating per record. Records are in processing order, so they are sorted by time,
+ * and find can seek to a time by binary search.
+ */
+public class EventTraceReader implements AutoCloseable {
+
+  private static final int REGION_RECORDS = 1 << 25; // 1 GB regions
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] regions;
+  private final long count;
+
+  /**
+   * Constructor of EventTraceReader
+   * @param file the trace file, as a Path
+   * @throws IOException if the file can't be read or is not a complete trace
+   */
+  public EventTraceReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException("Not an event trace: " + file);
+      }
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      if (header.getInt(0) != MAGIC) {
+        throw new IOException("Not an event trace, or the recorder was not closed: " + file);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported event trace version " + header.getInt(4));
+      }
+      this.count = header.getLong(COUNT_OFFSET);
+      if (channel.size() < HEADER_BYTES + count * RECORD_BYTES) {
+        throw new IOException("Event trace is truncated: " + file);
+      }
+      this.regions = new MappedByteBuffer[(int) ((count + REGION_RECORDS - 1) / REGION_RECORDS)];
+      for (int i = 0; i < regions.length; i++) {
+        long firstRecord = (long) i * REGION_RECORDS;
+        long records = Math.min(REGION_RECORDS, count - firstRecord);
+        regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+            HEADER_BYTES + firstRecord * RECORD_BYTES, records * RECORD_BYTES);
+        regions[i].order(ByteOrder.LITTLE_ENDIAN);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * get the number of records
+   * @return the number of records, as a long
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * get the time of a record
+   * @param record the index of the record, as a long
+   * @return the time in epoch seconds, as a long
+   */
+  public long time(long record) {
+    return region(record).getLong(position(record) + TIME_OFFSET);
+  }
+
+  /**
+   * get the event type of a record
+   * @param record the index of the record, as a long
+   * @return the event type, as an EventType
+   */
+  public EventType type(long record) {
+    return EventType.fromTag(region(record).get(position(record) + TYPE_OFFSET));
+  }
+
+  /**
+   * get the request id of a record
+   * @param record the index of the record, as a long
+   * @return the request id, or -1, as an int
+   */
+  public int requestId(long record) {
+    return region(record).getInt(position(record) + REQUEST_OFFSET);
+  }
+
+  /**
+   * get the driver id of a record
+   * @param record the index of the record, as a long
+   * @return the driver id, or -1, as an int
+   */
+  public int driverId(long record) {
+    return region(record).getInt(position(record) + DRIVER_OFFSET);
+  }
+
+  /**
+   * get the number of idle drivers after the event of a record
+   * @param record the index of the record, as a long
+   * @return the number of idle drivers, as an int
+   */
+  public int idleDrivers(long record) {
+    return region(record).getInt(position(record) + IDLE_OFFSET);
+  }
+
+  /**
+   * get the number of waiting requests after the event of a record
+   * @param record the index of the record, as a long
+   * @return the number of waiting requests, as an int
+   */
+  public int waitingRequests(long record) {
+    return region(record).getInt(position(record) + WAITING_OFFSET);
+  }
+
+  /**
+   * get the number of active requests after the event of a record
+   * @param record the index of the record, as a long
+   * @return the number of active requests, as an int
+   */
+  public int activeRequests(long record) {
+    return region(record).getInt(position(record) + ACTIVE_OFFSET);
+  }
+
+  /**
+   * find the first record at or after a time
+   * @param time the time in epoch seconds, as a long
+   * @return the index of the record, or size() if every record is before the time, as a long
+   */
+  public long find(long time) {
+    long low = 0;
+    long high = count;
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (time(middle) < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * replay every record in order
+   * @param visitor the visitor, as a TraceVisitor
+   */
+  public void replay(TraceVisitor visitor) {
+    replay(0, count, visitor);
+  }
+
+  /**
+   * replay a range of records in order
+   * @param from the index of the first record, inclusive, as a long
+   * @param to the index of the last record, exclusive, as a long
+   * @param visitor the visitor, as a TraceVisitor
+   */
+  public void replay(long from, long to, TraceVisitor visitor) {
+    for (long record = from; record < to; record++) {
+      MappedByteBuffer buffer = region(record);
+      int position = position(record);
+      visitor.visit(buffer.getLong(position + TIME_OFFSET),
+          EventType.fromTag(buffer.get(position + TYPE_OFFSET)),
+          buffer.getInt(position + REQUEST_OFFSET), buffer.getInt(position + DRIVER_OFFSET),
+          buffer.getInt(position + IDLE_OFFSET), buffer.getInt(position + WAITING_OFFSET),
+          buffer.getInt(position + ACTIVE_OFFSET));
+    }
+  }
+
+  /**
+   * get the region of a record
+   * @param record the index of the record, as a long
+   * @return the region, as a MappedByteBuffer
+   */
+  private MappedByteBuffer region(long record) {
+    if (record < 0 || record >= count) {
+      throw new IndexOutOfBoundsException("Record " + record + " of " + count);
+    }
+    return regions[(int) (record / REGION_RECORDS)];
+  }
+
+  /**
+   * get the position of a record in its region
+   * @param record the index of the record, as a long
+   * @return the byte position, as an int
+   */
+  private static int position(long record) {
+    return (int) (record % REGION_RECORDS) * RECORD_BYTES;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * TraceVisitor is called for every record replayed.
+   */
+  public interface TraceVisitor {
+
+    /**
+     * visit a record
+     * @param time the time of the event in epoch seconds, as a long
+     * @param type the type of the event, as an EventType
+     * @param requestId the id of the request of the event, or -1, as an int
+     * @param driverId the id of the driver assigned or released by the event, or -1, as an int
+     * @param idleDrivers number of idle drivers after the event, as an int
+     * @param waitingRequests number of waiting requests after the event, as an int
+     * @param activeRequests number of active requests after the event, as an int
+     */
+    void visit(long time, EventType type, int requestId, int driverId, int idleDrivers,
+        int waitingRequests, int activeRequests);
+  }
+}
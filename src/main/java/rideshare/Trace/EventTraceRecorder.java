@@ -0,0 +1,139 @@
+package rideshare.Trace;
+
+import static rideshare.Trace.EventTraceFormat.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import rideshare.Event.EventType;
+
+/**
+ * EventTraceRecorder appends every processed event of a simulator to a memory-mapped binary file,
+ * see EventTraceFormat. The file is mapped one region at a time, so recording an event is a few
+ * stores into memory, and the operating system writes the pages out in the background.
+ * Closing the recorder writes the record count and trims the file to the records written, where
+ * the platform can trim a file that was mapped.
+ */
+public class EventTraceRecorder implements AutoCloseable {
+
+  private static final int DEFAULT_REGION_RECORDS = 1 << 20; // 32 MB regions
+
+  private final FileChannel channel;
+  private final int regionRecords;
+  private MappedByteBuffer region;
+  private long regionStart; // index of the first record of the region
+  private long count;
+  private boolean closed;
+
+  /**
+   * Constructor of EventTraceRecorder. Creates the file, or overwrites it.
+   * @param file the trace file, as a Path
+   * @throws IOException if the file can't be created
+   */
+  public EventTraceRecorder(Path file) throws IOException {
+    this(file, DEFAULT_REGION_RECORDS);
+  }
+
+  /**
+   * Constructor of EventTraceRecorder. Creates the file, or overwrites it.
+   * @param file the trace file, as a Path
+   * @param regionRecords number of records mapped at a time, as an int
+   * @throws IOException if the file can't be created
+   */
+  public EventTraceRecorder(Path file, int regionRecords) throws IOException {
+    if (regionRecords < 1) {
+      throw new IllegalArgumentException("Region must hold at least one record: " + regionRecords);
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    this.regionRecords = regionRecords;
+    mapRegion(0);
+  }
+
+  /**
+   * append a record
+   * @param time the time of the event in epoch seconds, as a long
+   * @param type the type of the event, as an EventType
+   * @param requestId the id of the request of the event, or -1, as an int
+   * @param driverId the id of the driver assigned or released by the event, or -1, as an int
+   * @param idleDrivers number of idle drivers after the event, as an int
+   * @param waitingRequests number of waiting requests after the event, as an int
+   * @param activeRequests number of active requests after the event, as an int
+   */
+  public void record(long time, EventType type, int requestId, int driverId, int idleDrivers,
+      int waitingRequests, int activeRequests) {
+    if (count - regionStart == regionRecords) {
+      mapRegion(count);
+    }
+    int position = (int) (count - regionStart) * RECORD_BYTES;
+    region.putLong(position + TIME_OFFSET, time);
+    region.put(position + TYPE_OFFSET, (byte) type.ordinal());
+    region.putInt(position + REQUEST_OFFSET, requestId);
+    region.putInt(position + DRIVER_OFFSET, driverId);
+    region.putInt(position + IDLE_OFFSET, idleDrivers);
+    region.putInt(position + WAITING_OFFSET, waitingRequests);
+    region.putInt(position + ACTIVE_OFFSET, activeRequests);
+    count++;
+  }
+
+  /**
+   * map the region starting at a record, growing the file
+   * @param firstRecord the index of the first record of the region, as a long
+   */
+  private void mapRegion(long firstRecord) {
+    try {
+      region = channel.map(FileChannel.MapMode.READ_WRITE,
+          HEADER_BYTES + firstRecord * RECORD_BYTES, (long) regionRecords * RECORD_BYTES);
+      region.order(ByteOrder.LITTLE_ENDIAN);
+      regionStart = firstRecord;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * get the number of records written
+   * @return the number of records, as a long
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * write the header, trim the file to the records written and close it
+   * @throws IOException if the file can't be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    region.force();
+    region = null;
+    // the header goes through the channel, so no new mapping is open when the file is trimmed
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(0, MAGIC);
+    header.putInt(4, VERSION);
+    header.putLong(COUNT_OFFSET, count);
+    try {
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      channel.force(false);
+      try {
+        channel.truncate(HEADER_BYTES + count * RECORD_BYTES);
+      } catch (IOException e) {
+        // a region is only unmapped once collected, and some platforms, e.g. Windows, can't
+        // trim a mapped file. The records end where the count in the header says they do.
+      }
+    } finally {
+      channel.close();
+    }
+  }
+}
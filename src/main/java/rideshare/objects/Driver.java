@@ -8,6 +8,19 @@ import java.util.Objects;
 public class Driver {
 
   private String name;
+  private int id = -1;
+  private Location position;
+
+  /**
+   * Constructor for Driver class.
+   *
+   * @param id the dense id of the driver, used to refer to the driver in packed events, as an int
+   * @param name name of the driver, as a String
+   */
+  public Driver(int id, String name) {
+    this.id = id;
+    this.name = name;
+  }
 
   /**
    * Constructor for Driver class.
@@ -34,6 +47,33 @@ public class Driver {
     return name;
   }
 
+  /**
+   * Getter for position of the driver. It is updated when the driver finishes a ride.
+   *
+   * @return the position, or null if unknown, as a Location
+   */
+  public Location getPosition() {
+    return position;
+  }
+
+  /**
+   * Setter for position of the driver.
+   *
+   * @param position the position, or null if unknown, as a Location
+   */
+  public void setPosition(Location position) {
+    this.position = position;
+  }
+
+  /**
+   * Getter for id of the driver.
+   *
+   * @return the id of the driver, or -1 if not set, as an int
+   */
+  public int getId() {
+    return id;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
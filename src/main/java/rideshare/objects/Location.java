@@ -0,0 +1,90 @@
+package rideshare.objects;
+
+import java.util.Objects;
+
+/**
+ * Location class represents a point in the city, in miles east (x) and north (y) of the
+ * south-west corner of the city.
+ */
+public class Location {
+
+  private static final double HOUR_TO_SECONDS = 3600;
+
+  private final double x;
+  private final double y;
+
+  /**
+   * Constructor for Location class.
+   *
+   * @param x miles east of the city's south-west corner, as a double
+   * @param y miles north of the city's south-west corner, as a double
+   */
+  public Location(double x, double y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  /**
+   * Getter for the x coordinate.
+   *
+   * @return miles east of the city's south-west corner, as a double
+   */
+  public double getX() {
+    return x;
+  }
+
+  /**
+   * Getter for the y coordinate.
+   *
+   * @return miles north of the city's south-west corner, as a double
+   */
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * Calculates the straight-line distance to another location.
+   *
+   * @param other the other location, as a Location
+   * @return the distance in miles, as a double
+   */
+  public double distanceTo(Location other) {
+    return Math.hypot(x - other.x, y - other.y);
+  }
+
+  /**
+   * Calculates the time to drive to another location.
+   *
+   * @param other the other location, as a Location
+   * @param speedMilePerHour the driving speed, as a double
+   * @return the driving time in seconds, as a double
+   */
+  public double travelSecondsTo(Location other, double speedMilePerHour) {
+    return distanceTo(other) / speedMilePerHour * HOUR_TO_SECONDS;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Location location = (Location) o;
+    return Double.compare(x, location.x) == 0 && Double.compare(y, location.y) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(x, y);
+  }
+
+  @Override
+  public String toString() {
+    return "Location{" +
+        "x=" + x +
+        ", y=" + y +
+        '}';
+  }
+}
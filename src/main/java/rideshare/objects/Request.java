@@ -1,29 +1,41 @@
 package rideshare.objects;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import rideshare.Controller.SimulationClock;
 import rideshare.objects.Driver;
 import rideshare.objects.RideType;
 
 /**
  * Request class represents a request from a customer.
+ * Times are kept in epoch seconds, see SimulationClock. The LocalDateTime getters and setters
+ * convert on every call and are meant for reporting and tests, not for the simulation loop.
+ * A request can also be a view of a row of a RequestStore, see RequestStore.view, so everything
+ * but the id and the waiting index is read through the getters.
  */
 public class Request {
 
+  public static final int MIN_PRIORITY = -2; // lowest priority calculatePriority can give
+  public static final int MAX_PRIORITY = 3; // highest priority calculatePriority can give
   private static final Integer SPEED_MILE_PER_HOUR = 60;
   private static final Integer HOUR_TO_SECONDS = 3600;
+  private static final long NOT_SET = Long.MIN_VALUE;
+  private int id;
   private Driver assignedDriver;
   private String customerName;
   private String startLocation;
   private String endLocation;
-  private Double distance;
-  private LocalDateTime requestTime;
+  private double distance;
+  private long requestTime;
   private RideType rideType;
-  private Integer priority;
+  private int priority;
+  private int effectivePriority; // the priority raised by waiting, see RideshareDispatchSimulator
+  private int waitingIndex = -1; // position in a waiting or active queue, kept by the queue
   private double ridingTime;
-  private LocalDateTime estimatedArrivalTime;
-  private LocalDateTime actualArrivalTime;
+  private long estimatedArrivalTime;
+  private long actualArrivalTime;
+  private Location startCoordinates;
+  private Location endCoordinates;
 
   /**
    * Constructor for Request class.
@@ -37,6 +49,23 @@ public class Request {
    */
   public Request(String customerName, String startLocation, String endLocation,
       Double distance, LocalDateTime requestTime, RideType rideType) {
+    this(customerName, startLocation, endLocation, distance,
+        SimulationClock.toEpochSecond(requestTime), rideType);
+  }
+
+  /**
+   * Constructor for Request class.
+   *
+   * @param customerName the name of the customer, as a String
+   * @param startLocation the starting location of the ride, as a String
+   * @param endLocation the ending location of the ride, as a String
+   * @param distance the distance of the ride, as a Double
+   * @param requestTime the time of the request in epoch seconds, as a long
+   * @param rideType the type of the ride, as a RideType
+   */
+  public Request(String customerName, String startLocation, String endLocation,
+      Double distance, long requestTime, RideType rideType) {
+    this.id = -1;
     this.assignedDriver = null;
     this.customerName = customerName;
     this.startLocation = startLocation;
@@ -44,22 +73,46 @@ public class Request {
 
     this.distance = distance;
     this.rideType = rideType;
-    this.priority = this.calculatePriority(distance, rideType);
+    this.priority = calculatePriority(distance, rideType);
+    this.effectivePriority = priority;
 
     this.requestTime = requestTime;
-    this.ridingTime = this.calculateRidingSeconds();
+    this.ridingTime = calculateRidingSeconds(distance);
     this.estimatedArrivalTime = this.estimateArrivalTime();
+    this.actualArrivalTime = NOT_SET;
+  }
+
+  /**
+   * Constructor for a view of a row of a RequestStore, which overrides every getter and setter
+   * of the ride.
+   */
+  Request() {
+    this.id = -1;
+  }
+
+  /**
+   * Copy constructor for Request class. Copies the ride itself, not its dispatch state:
+   * the copy has no id, no assigned driver and no actual arrival time.
+   *
+   * @param other the request to copy, as a Request
+   */
+  public Request(Request other) {
+    this(other.getCustomerName(), other.getStartLocation(), other.getEndLocation(),
+        other.getDistance(), other.getRequestEpochSecond(), other.getRideType());
+    this.startCoordinates = other.getStartCoordinates();
+    this.endCoordinates = other.getEndCoordinates();
   }
 
   /**
    * Calculates the priority of the request based on the distance and ride type.
    * The smaller the distance, the higher the priority.
-   * @param distance the distance of the ride, as a Double
+   * @param distance the distance of the ride, as a double
    * @param rideType the type of the ride, as a RideType
-   * @return the priority of the request, as an Integer
+   * @return the priority of the request, as an int
    */
-  private Integer calculatePriority(Double distance, RideType rideType) {
+  static int calculatePriority(double distance, RideType rideType) {
     // Set base priority based on ride type
+    int priority = 0;
     switch (rideType) {
       case EXPRESS:
         priority = 3;
@@ -83,21 +136,51 @@ public class Request {
   }
 
   /**
-   * Calculates the riding time of the request based on the distance and speed.
+   * Calculates the riding time of a ride based on the distance and speed.
    *
-   * @return the riding time of the request, as a double
+   * @param distance the distance of the ride, as a double
+   * @return the riding time of the ride, as a double
    */
-  private double calculateRidingSeconds() {
+  static double calculateRidingSeconds(double distance) {
     return (distance / SPEED_MILE_PER_HOUR) * HOUR_TO_SECONDS;
   }
 
+  /**
+   * Calculates the time for a driver to reach the start of the ride.
+   *
+   * @param driverPosition the position of the driver, or null if unknown, as a Location
+   * @return the pickup time in seconds, or 0 if either position is unknown, as a double
+   */
+  public double calculatePickupSeconds(Location driverPosition) {
+    Location start = getStartCoordinates();
+    if (driverPosition == null || start == null) {
+      return 0;
+    }
+    return driverPosition.travelSecondsTo(start, SPEED_MILE_PER_HOUR);
+  }
+
+  /**
+   * Calculates the driving time between two locations at the speed of a ride, e.g. between the
+   * stops of a shared ride.
+   *
+   * @param from the location to drive from, or null if unknown, as a Location
+   * @param to the location to drive to, or null if unknown, as a Location
+   * @return the driving time in seconds, or 0 if either location is unknown, as a double
+   */
+  public static double calculateTravelSeconds(Location from, Location to) {
+    if (from == null || to == null) {
+      return 0;
+    }
+    return from.travelSecondsTo(to, SPEED_MILE_PER_HOUR);
+  }
+
   /**
    * Estimates the arrival time of the request based on the request time and riding time.
    *
-   * @return the estimated arrival time of the request, as a LocalDateTime
+   * @return the estimated arrival time of the request in epoch seconds, as a long
    */
-  public LocalDateTime estimateArrivalTime() {
-    return requestTime.plusSeconds((long)(this.ridingTime));
+  public long estimateArrivalTime() {
+    return getRequestEpochSecond() + (long) getRidingSeconds();
   }
 
   /**
@@ -107,7 +190,26 @@ public class Request {
    * @return the waiting seconds of the request, as an Integer
    */
   public Integer calculateWaitingSeconds() {
-    return (int) (ChronoUnit.SECONDS.between(estimatedArrivalTime, actualArrivalTime));
+    return (int) (getActualArrivalEpochSecond() - getEstimatedArrivalEpochSecond());
+  }
+
+  /**
+   * Gets the id of the request, its index in the simulator that registered it.
+   * The id is not part of equals and hashCode.
+   *
+   * @return the id of the request, or -1 if not registered, as an int
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Sets the id of the request.
+   *
+   * @param id the id of the request, as an int
+   */
+  public void setId(int id) {
+    this.id = id;
   }
 
   /**
@@ -146,6 +248,35 @@ public class Request {
     return endLocation;
   }
 
+  /**
+   * Gets the coordinates of the start location of the request.
+   *
+   * @return the start coordinates, or null if unknown, as a Location
+   */
+  public Location getStartCoordinates() {
+    return startCoordinates;
+  }
+
+  /**
+   * Gets the coordinates of the end location of the request.
+   *
+   * @return the end coordinates, or null if unknown, as a Location
+   */
+  public Location getEndCoordinates() {
+    return endCoordinates;
+  }
+
+  /**
+   * Sets the coordinates of the start and end location of the request.
+   *
+   * @param startCoordinates the start coordinates, or null if unknown, as a Location
+   * @param endCoordinates the end coordinates, or null if unknown, as a Location
+   */
+  public void setCoordinates(Location startCoordinates, Location endCoordinates) {
+    this.startCoordinates = startCoordinates;
+    this.endCoordinates = endCoordinates;
+  }
+
   /**
    * Gets the distance of the request.
    *
@@ -161,9 +292,29 @@ public class Request {
    * @return the request time of the request, as a LocalDateTime
    */
   public LocalDateTime getRequestTime() {
+    return SimulationClock.toLocalDateTime(getRequestEpochSecond());
+  }
+
+  /**
+   * Gets the request time of the request.
+   *
+   * @return the request time of the request in epoch seconds, as a long
+   */
+  public long getRequestEpochSecond() {
     return requestTime;
   }
 
+  /**
+   * Sets the request time of the request, e.g. when it arrives late from a stream, and with it
+   * the estimated arrival time.
+   *
+   * @param requestTime the request time of the request in epoch seconds, as a long
+   */
+  public void setRequestEpochSecond(long requestTime) {
+    this.requestTime = requestTime;
+    this.estimatedArrivalTime = this.estimateArrivalTime();
+  }
+
   /**
    * Gets the ride type of the request.
    *
@@ -182,6 +333,44 @@ public class Request {
     return priority;
   }
 
+  /**
+   * Gets the effective priority of the request: its priority, raised while it waits if the
+   * simulator ages waiting requests. Waiting requests are ordered by it.
+   *
+   * @return the effective priority of the request, as an int
+   */
+  public int getEffectivePriority() {
+    return effectivePriority;
+  }
+
+  /**
+   * Sets the effective priority of the request. While the request is in a waiting queue, it
+   * has to be changed with WaitingQueue.changePriority instead.
+   *
+   * @param effectivePriority the effective priority, as an int
+   */
+  public void setEffectivePriority(int effectivePriority) {
+    this.effectivePriority = effectivePriority;
+  }
+
+  /**
+   * Gets the position of the request in the waiting queue holding it, as kept by that queue.
+   *
+   * @return the position, or -1 if the request is not waiting, as an int
+   */
+  public int getWaitingIndex() {
+    return waitingIndex;
+  }
+
+  /**
+   * Sets the position of the request in the waiting queue holding it. Only waiting queues call it.
+   *
+   * @param waitingIndex the position, or -1 if the request is not waiting, as an int
+   */
+  public void setWaitingIndex(int waitingIndex) {
+    this.waitingIndex = waitingIndex;
+  }
+
   /**
    * Gets the riding time of the request.
    *
@@ -191,12 +380,32 @@ public class Request {
     return ridingTime;
   }
 
+  /**
+   * Sets the riding time of the request, e.g. from a road network, and with it the estimated
+   * arrival time.
+   *
+   * @param ridingSeconds the riding time of the request, as a double
+   */
+  public void setRidingSeconds(double ridingSeconds) {
+    this.ridingTime = ridingSeconds;
+    this.estimatedArrivalTime = this.estimateArrivalTime();
+  }
+
   /**
    * Gets the estimated arrival time of the request.
    *
    * @return the estimated arrival time of the request, as a LocalDateTime
    */
   public LocalDateTime getEstimatedArrivalTime() {
+    return SimulationClock.toLocalDateTime(getEstimatedArrivalEpochSecond());
+  }
+
+  /**
+   * Gets the estimated arrival time of the request.
+   *
+   * @return the estimated arrival time of the request in epoch seconds, as a long
+   */
+  public long getEstimatedArrivalEpochSecond() {
     return estimatedArrivalTime;
   }
 
@@ -215,6 +424,16 @@ public class Request {
    * @param actualArrivalTime the actual arrival time of the request, as a LocalDateTime
    */
   public void setActualArrivalTime(LocalDateTime actualArrivalTime) {
+    setActualArrivalEpochSecond(actualArrivalTime == null
+        ? NOT_SET : SimulationClock.toEpochSecond(actualArrivalTime));
+  }
+
+  /**
+   * Sets the actual arrival time of the request.
+   *
+   * @param actualArrivalTime the actual arrival time of the request in epoch seconds, as a long
+   */
+  public void setActualArrivalEpochSecond(long actualArrivalTime) {
     this.actualArrivalTime = actualArrivalTime;
   }
 
@@ -224,6 +443,15 @@ public class Request {
    * @param estimatedArrivalTime the estimated arrival time of the request, as a LocalDateTime
    */
   public void setEstimatedArrivalTime(LocalDateTime estimatedArrivalTime) {
+    setEstimatedArrivalEpochSecond(SimulationClock.toEpochSecond(estimatedArrivalTime));
+  }
+
+  /**
+   * Sets the estimated arrival time of the request.
+   *
+   * @param estimatedArrivalTime the estimated arrival time of the request in epoch seconds, as a long
+   */
+  public void setEstimatedArrivalEpochSecond(long estimatedArrivalTime) {
     this.estimatedArrivalTime = estimatedArrivalTime;
   }
 
@@ -233,15 +461,25 @@ public class Request {
    * @return the riding time of the request, as a double
    */
   public double getRidingTime() {
-    return ridingTime;
+    return getRidingSeconds();
   }
 
   /**
    * Gets the actual arrival time of the request.
    *
-   * @return the actual arrival time of the request, as a LocalDateTime
+   * @return the actual arrival time of the request, as a LocalDateTime, or null if not set yet
    */
   public LocalDateTime getActualArrivalTime() {
+    long actualArrival = getActualArrivalEpochSecond();
+    return actualArrival == NOT_SET ? null : SimulationClock.toLocalDateTime(actualArrival);
+  }
+
+  /**
+   * Gets the actual arrival time of the request.
+   *
+   * @return the actual arrival time of the request in epoch seconds, as a long
+   */
+  public long getActualArrivalEpochSecond() {
     return actualArrivalTime;
   }
 
@@ -250,40 +488,47 @@ public class Request {
     if (this == o) {
       return true;
     }
-    if (o == null || getClass() != o.getClass()) {
+    if (!(o instanceof Request)) {
       return false;
     }
     Request request = (Request) o;
-    return Double.compare(ridingTime, request.ridingTime) == 0 && Objects.equals(
-        assignedDriver, request.assignedDriver) && Objects.equals(customerName,
-        request.customerName) && Objects.equals(startLocation, request.startLocation)
-        && Objects.equals(endLocation, request.endLocation) && Objects.equals(
-        distance, request.distance) && Objects.equals(requestTime, request.requestTime)
-        && rideType == request.rideType && Objects.equals(priority, request.priority)
-        && Objects.equals(estimatedArrivalTime, request.estimatedArrivalTime)
-        && Objects.equals(actualArrivalTime, request.actualArrivalTime);
+    return Double.compare(getRidingSeconds(), request.getRidingSeconds()) == 0
+        && Objects.equals(getAssignedDriver(), request.getAssignedDriver())
+        && Objects.equals(getCustomerName(), request.getCustomerName())
+        && Objects.equals(getStartLocation(), request.getStartLocation())
+        && Objects.equals(getEndLocation(), request.getEndLocation())
+        && Double.compare(getDistance(), request.getDistance()) == 0
+        && getRequestEpochSecond() == request.getRequestEpochSecond()
+        && getRideType() == request.getRideType()
+        && getPriority().intValue() == request.getPriority().intValue()
+        && getEstimatedArrivalEpochSecond() == request.getEstimatedArrivalEpochSecond()
+        && getActualArrivalEpochSecond() == request.getActualArrivalEpochSecond()
+        && Objects.equals(getStartCoordinates(), request.getStartCoordinates())
+        && Objects.equals(getEndCoordinates(), request.getEndCoordinates());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(assignedDriver, customerName, startLocation, endLocation, distance,
-        requestTime, rideType, priority, ridingTime, estimatedArrivalTime, actualArrivalTime);
+    return Objects.hash(getAssignedDriver(), getCustomerName(), getStartLocation(),
+        getEndLocation(), getDistance(), getRequestEpochSecond(), getRideType(), getPriority(),
+        getRidingSeconds(), getEstimatedArrivalEpochSecond(), getActualArrivalEpochSecond(),
+        getStartCoordinates(), getEndCoordinates());
   }
 
   @Override
   public String toString() {
     return "Request{" +
-        "assignedDriver=" + assignedDriver +
-        ", customerName='" + customerName + '\'' +
-        ", startLocation='" + startLocation + '\'' +
-        ", endLocation='" + endLocation + '\'' +
-        ", distance=" + distance +
-        ", requestTime=" + requestTime +
-        ", rideType=" + rideType +
-        ", priority=" + priority +
-        ", ridingTime=" + ridingTime +
-        ", estimatedArrivalTime=" + estimatedArrivalTime +
-        ", actualArrivalTime=" + actualArrivalTime +
+        "assignedDriver=" + getAssignedDriver() +
+        ", customerName='" + getCustomerName() + '\'' +
+        ", startLocation='" + getStartLocation() + '\'' +
+        ", endLocation='" + getEndLocation() + '\'' +
+        ", distance=" + getDistance() +
+        ", requestTime=" + getRequestTime() +
+        ", rideType=" + getRideType() +
+        ", priority=" + getPriority() +
+        ", ridingTime=" + getRidingSeconds() +
+        ", estimatedArrivalTime=" + getEstimatedArrivalTime() +
+        ", actualArrivalTime=" + getActualArrivalTime() +
         '}';
   }
 }
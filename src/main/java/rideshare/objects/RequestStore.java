@@ -0,0 +1,690 @@
+package rideshare.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RequestStore keeps many requests column by column, one primitive array per field, instead of
+ * one Request object each. A row takes about 50 bytes, against several hundred for a Request with
+ * its strings, boxed values and coordinates, so tens of millions of requests fit in a few GB.
+ *
+ * Names are optional and dictionary encoded: every distinct name is kept once, and a row holds
+ * its index. The name and coordinate columns are only allocated once a row has them.
+ * The dispatch state of a row, i.e. effective priority, actual arrival and assigned driver, is
+ * kept too, so a simulator working on views of the rows leaves its outcome in the store.
+ *
+ * A Row is a Request viewing a row of the store: it holds only the row index, and reads and
+ * writes every field of the ride in the columns. Views are created on demand, see view, so only
+ * the requests in flight exist as objects.
+ */
+public class RequestStore {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final long NOT_SET = Long.MIN_VALUE;
+  private static final RideType[] RIDE_TYPES = RideType.values();
+
+  private int size;
+  private double[] distances;
+  private long[] requestTimes;
+  private byte[] rideTypes;
+  private byte[] priorities;
+  private byte[] effectivePriorities;
+  private double[] ridingSeconds;
+  private long[] estimatedArrivals;
+  private long[] actualArrivals;
+  private int[] drivers; // driver id + 1, 0 for none
+  private int[] customerNames; // name index, 0 for none; null until a row has a name
+  private int[] startNames;
+  private int[] endNames;
+  private double[] coordinates; // start x, start y, end x, end y per row, NaN for unknown
+  private final List<String> names = new ArrayList<>(); // by name index, from 1
+  private final Map<String, Integer> nameIndexes = new HashMap<>();
+  private Driver[] driverTable = new Driver[0]; // by driver id
+
+  /**
+   * Constructor of RequestStore
+   */
+  public RequestStore() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructor of RequestStore with room for a number of requests
+   * @param capacity the number of requests to make room for, as an int
+   */
+  public RequestStore(int capacity) {
+    capacity = Math.max(1, capacity);
+    distances = new double[capacity];
+    requestTimes = new long[capacity];
+    rideTypes = new byte[capacity];
+    priorities = new byte[capacity];
+    effectivePriorities = new byte[capacity];
+    ridingSeconds = new double[capacity];
+    estimatedArrivals = new long[capacity];
+    actualArrivals = new long[capacity];
+    drivers = new int[capacity];
+    names.add(null);
+  }
+
+  /**
+   * add a request, computing its priority, riding time and estimated arrival like Request does
+   * @param customerName the name of the customer, or null, as a String
+   * @param startLocation the starting location of the ride, or null, as a String
+   * @param endLocation the ending location of the ride, or null, as a String
+   * @param distance the distance of the ride, as a double
+   * @param requestTime the time of the request in epoch seconds, as a long
+   * @param rideType the type of the ride, as a RideType
+   * @return the row of the request, as an int
+   */
+  public int add(String customerName, String startLocation, String endLocation,
+      double distance, long requestTime, RideType rideType) {
+    if (size == distances.length) {
+      grow();
+    }
+    int row = size++;
+    distances[row] = distance;
+    requestTimes[row] = requestTime;
+    rideTypes[row] = (byte) rideType.ordinal();
+    priorities[row] = (byte) Request.calculatePriority(distance, rideType);
+    ridingSeconds[row] = Request.calculateRidingSeconds(distance);
+    estimatedArrivals[row] = requestTime + (long) ridingSeconds[row];
+    resetDispatch(row);
+    if (customerName != null || startLocation != null || endLocation != null) {
+      if (customerNames == null) {
+        customerNames = new int[distances.length];
+        startNames = new int[distances.length];
+        endNames = new int[distances.length];
+      }
+      customerNames[row] = nameIndex(customerName);
+      startNames[row] = nameIndex(startLocation);
+      endNames[row] = nameIndex(endLocation);
+    }
+    if (coordinates != null) {
+      Arrays.fill(coordinates, 4 * row, 4 * row + 4, Double.NaN);
+    }
+    return row;
+  }
+
+  /**
+   * add a copy of the ride of a request, with its coordinates but without its dispatch state,
+   * like the copy constructor of Request
+   * @param request the request, as a Request
+   * @return the row of the request, as an int
+   */
+  public int add(Request request) {
+    int row = add(request.getCustomerName(), request.getStartLocation(),
+        request.getEndLocation(), request.getDistance(), request.getRequestEpochSecond(),
+        request.getRideType());
+    setCoordinates(row, request.getStartCoordinates(), request.getEndCoordinates());
+    return row;
+  }
+
+  /**
+   * create a store holding copies of the rides of requests
+   * @param requests the requests, as a List of Request
+   * @return the store, with the requests in the same order, as a RequestStore
+   */
+  public static RequestStore of(List<Request> requests) {
+    RequestStore store = new RequestStore(requests.size());
+    for (Request request : requests) {
+      store.add(request);
+    }
+    return store;
+  }
+
+  /**
+   * create a view of a row. Every call creates a new view; views of the same row are equal.
+   * @param row the row, as an int
+   * @return the view, as a Row
+   */
+  public Row view(int row) {
+    checkRow(row);
+    return new Row(this, row);
+  }
+
+  /**
+   * clear the dispatch state of a row: its effective priority is its priority again, and it has
+   * no actual arrival and no assigned driver
+   * @param row the row, as an int
+   */
+  public void resetDispatch(int row) {
+    effectivePriorities[row] = priorities[row];
+    actualArrivals[row] = NOT_SET;
+    drivers[row] = 0;
+  }
+
+  /**
+   * get the number of requests
+   * @return the number of requests, as an int
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * check if the rows are in the order of their request times
+   * @return true if no row is requested before the row before it, as a boolean
+   */
+  public boolean isSortedByRequestTime() {
+    for (int row = 1; row < size; row++) {
+      if (requestTimes[row] < requestTimes[row - 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * reorder the rows by request time, keeping the order of rows requested at the same time.
+   * Views created before must not be used any more, as their rows have moved.
+   * @throws IllegalStateException if the request times span more than 2^31 seconds
+   */
+  public void sortByRequestTime() {
+    if (size == 0 || isSortedByRequestTime()) {
+      return;
+    }
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (int row = 0; row < size; row++) {
+      first = Math.min(first, requestTimes[row]);
+      last = Math.max(last, requestTimes[row]);
+    }
+    if (last - first > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Request times span too long to sort: " + (last - first));
+    }
+    // the time since the first request above the row, so equal times keep their row order
+    long[] keys = new long[size];
+    for (int row = 0; row < size; row++) {
+      keys[row] = (requestTimes[row] - first) << 32 | row;
+    }
+    Arrays.sort(keys);
+    int[] order = new int[size];
+    for (int row = 0; row < size; row++) {
+      order[row] = (int) keys[row];
+    }
+    keys = null;
+
+    distances = permute(distances, order, 1);
+    requestTimes = permute(requestTimes, order);
+    rideTypes = permute(rideTypes, order);
+    priorities = permute(priorities, order);
+    effectivePriorities = permute(effectivePriorities, order);
+    ridingSeconds = permute(ridingSeconds, order, 1);
+    estimatedArrivals = permute(estimatedArrivals, order);
+    actualArrivals = permute(actualArrivals, order);
+    drivers = permute(drivers, order);
+    if (customerNames != null) {
+      customerNames = permute(customerNames, order);
+      startNames = permute(startNames, order);
+      endNames = permute(endNames, order);
+    }
+    if (coordinates != null) {
+      coordinates = permute(coordinates, order, 4);
+    }
+  }
+
+  /**
+   * get the customer name of a row
+   * @param row the row, as an int
+   * @return the customer name, or null, as a String
+   */
+  public String getCustomerName(int row) {
+    return customerNames == null ? null : names.get(customerNames[row]);
+  }
+
+  /**
+   * get the start location of a row
+   * @param row the row, as an int
+   * @return the start location, or null, as a String
+   */
+  public String getStartLocation(int row) {
+    return startNames == null ? null : names.get(startNames[row]);
+  }
+
+  /**
+   * get the end location of a row
+   * @param row the row, as an int
+   * @return the end location, or null, as a String
+   */
+  public String getEndLocation(int row) {
+    return endNames == null ? null : names.get(endNames[row]);
+  }
+
+  /**
+   * get the distance of a row
+   * @param row the row, as an int
+   * @return the distance in miles, as a double
+   */
+  public double getDistance(int row) {
+    return distances[row];
+  }
+
+  /**
+   * get the request time of a row
+   * @param row the row, as an int
+   * @return the request time in epoch seconds, as a long
+   */
+  public long getRequestEpochSecond(int row) {
+    return requestTimes[row];
+  }
+
+  /**
+   * get the ride type of a row
+   * @param row the row, as an int
+   * @return the ride type, as a RideType
+   */
+  public RideType getRideType(int row) {
+    return RIDE_TYPES[rideTypes[row]];
+  }
+
+  /**
+   * get the priority of a row
+   * @param row the row, as an int
+   * @return the priority, as an int
+   */
+  public int getPriority(int row) {
+    return priorities[row];
+  }
+
+  /**
+   * get the effective priority of a row, see Request.getEffectivePriority
+   * @param row the row, as an int
+   * @return the effective priority, as an int
+   */
+  public int getEffectivePriority(int row) {
+    return effectivePriorities[row];
+  }
+
+  /**
+   * get the riding time of a row
+   * @param row the row, as an int
+   * @return the riding time in seconds, as a double
+   */
+  public double getRidingSeconds(int row) {
+    return ridingSeconds[row];
+  }
+
+  /**
+   * get the estimated arrival time of a row
+   * @param row the row, as an int
+   * @return the estimated arrival time in epoch seconds, as a long
+   */
+  public long getEstimatedArrivalEpochSecond(int row) {
+    return estimatedArrivals[row];
+  }
+
+  /**
+   * get the actual arrival time of a row
+   * @param row the row, as an int
+   * @return the actual arrival time in epoch seconds, or Long.MIN_VALUE if not set, as a long
+   */
+  public long getActualArrivalEpochSecond(int row) {
+    return actualArrivals[row];
+  }
+
+  /**
+   * get the waiting time of a served row, see Request.calculateWaitingSeconds
+   * @param row the row, as an int
+   * @return the waiting seconds, as an int
+   */
+  public int calculateWaitingSeconds(int row) {
+    return (int) (actualArrivals[row] - estimatedArrivals[row]);
+  }
+
+  /**
+   * get the driver assigned to a row
+   * @param row the row, as an int
+   * @return the driver, or null if none, as a Driver
+   */
+  public Driver getAssignedDriver(int row) {
+    return drivers[row] == 0 ? null : driverTable[drivers[row] - 1];
+  }
+
+  /**
+   * get the id of the driver assigned to a row
+   * @param row the row, as an int
+   * @return the driver id, or -1 if none, as an int
+   */
+  public int getAssignedDriverId(int row) {
+    return drivers[row] - 1;
+  }
+
+  /**
+   * get the start coordinates of a row
+   * @param row the row, as an int
+   * @return the start coordinates, or null if unknown, as a Location
+   */
+  public Location getStartCoordinates(int row) {
+    return location(4 * row);
+  }
+
+  /**
+   * get the end coordinates of a row
+   * @param row the row, as an int
+   * @return the end coordinates, or null if unknown, as a Location
+   */
+  public Location getEndCoordinates(int row) {
+    return location(4 * row + 2);
+  }
+
+  /**
+   * set the coordinates of the start and end location of a row
+   * @param row the row, as an int
+   * @param startCoordinates the start coordinates, or null if unknown, as a Location
+   * @param endCoordinates the end coordinates, or null if unknown, as a Location
+   */
+  public void setCoordinates(int row, Location startCoordinates, Location endCoordinates) {
+    if (coordinates == null) {
+      if (startCoordinates == null && endCoordinates == null) {
+        return;
+      }
+      coordinates = new double[4 * distances.length];
+      Arrays.fill(coordinates, Double.NaN);
+    }
+    coordinates[4 * row] = startCoordinates == null ? Double.NaN : startCoordinates.getX();
+    coordinates[4 * row + 1] = startCoordinates == null ? Double.NaN : startCoordinates.getY();
+    coordinates[4 * row + 2] = endCoordinates == null ? Double.NaN : endCoordinates.getX();
+    coordinates[4 * row + 3] = endCoordinates == null ? Double.NaN : endCoordinates.getY();
+  }
+
+  /**
+   * get a location of the coordinate column
+   * @param index the index of its x coordinate, as an int
+   * @return the location, or null if unknown, as a Location
+   */
+  private Location location(int index) {
+    if (coordinates == null || Double.isNaN(coordinates[index])) {
+      return null;
+    }
+    return new Location(coordinates[index], coordinates[index + 1]);
+  }
+
+  /**
+   * get the index of a name, adding it to the names if it is new
+   * @param name the name, or null, as a String
+   * @return the index, or 0 for null, as an int
+   */
+  private int nameIndex(String name) {
+    if (name == null) {
+      return 0;
+    }
+    Integer index = nameIndexes.get(name);
+    if (index == null) {
+      index = names.size();
+      names.add(name);
+      nameIndexes.put(name, index);
+    }
+    return index;
+  }
+
+  /**
+   * remember the driver of a row, by id
+   * @param row the row, as an int
+   * @param driver the driver, or null for none, as a Driver
+   * @throws IllegalArgumentException if the driver has no id
+   */
+  private void setAssignedDriver(int row, Driver driver) {
+    if (driver == null) {
+      drivers[row] = 0;
+      return;
+    }
+    int id = driver.getId();
+    if (id < 0) {
+      throw new IllegalArgumentException("Only drivers with an id can be stored: " + driver);
+    }
+    if (id >= driverTable.length) {
+      driverTable = Arrays.copyOf(driverTable, Math.max(id + 1, 2 * driverTable.length));
+    }
+    driverTable[id] = driver;
+    drivers[row] = id + 1;
+  }
+
+  /**
+   * check that a row is in the store
+   * @param row the row, as an int
+   * @throws IndexOutOfBoundsException if it isn't
+   */
+  private void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " is not in a store of " + size);
+    }
+  }
+
+  /**
+   * double the capacity of every column
+   */
+  private void grow() {
+    int capacity = 2 * distances.length;
+    distances = Arrays.copyOf(distances, capacity);
+    requestTimes = Arrays.copyOf(requestTimes, capacity);
+    rideTypes = Arrays.copyOf(rideTypes, capacity);
+    priorities = Arrays.copyOf(priorities, capacity);
+    effectivePriorities = Arrays.copyOf(effectivePriorities, capacity);
+    ridingSeconds = Arrays.copyOf(ridingSeconds, capacity);
+    estimatedArrivals = Arrays.copyOf(estimatedArrivals, capacity);
+    actualArrivals = Arrays.copyOf(actualArrivals, capacity);
+    drivers = Arrays.copyOf(drivers, capacity);
+    if (customerNames != null) {
+      customerNames = Arrays.copyOf(customerNames, capacity);
+      startNames = Arrays.copyOf(startNames, capacity);
+      endNames = Arrays.copyOf(endNames, capacity);
+    }
+    if (coordinates != null) {
+      int used = coordinates.length;
+      coordinates = Arrays.copyOf(coordinates, 4 * capacity);
+      Arrays.fill(coordinates, used, coordinates.length, Double.NaN);
+    }
+  }
+
+  /**
+   * reorder a column of doubles
+   * @param column the column, as a double[]
+   * @param order the old row of every new row, as an int[]
+   * @param width the number of values per row, as an int
+   * @return the reordered column, as a double[]
+   */
+  private double[] permute(double[] column, int[] order, int width) {
+    double[] permuted = new double[column.length];
+    for (int row = 0; row < size; row++) {
+      System.arraycopy(column, width * order[row], permuted, width * row, width);
+    }
+    if (width > 1) {
+      Arrays.fill(permuted, width * size, permuted.length, Double.NaN);
+    }
+    return permuted;
+  }
+
+  /**
+   * reorder a column of longs
+   * @param column the column, as a long[]
+   * @param order the old row of every new row, as an int[]
+   * @return the reordered column, as a long[]
+   */
+  private long[] permute(long[] column, int[] order) {
+    long[] permuted = new long[column.length];
+    for (int row = 0; row < size; row++) {
+      permuted[row] = column[order[row]];
+    }
+    return permuted;
+  }
+
+  /**
+   * reorder a column of ints
+   * @param column the column, as an int[]
+   * @param order the old row of every new row, as an int[]
+   * @return the reordered column, as an int[]
+   */
+  private int[] permute(int[] column, int[] order) {
+    int[] permuted = new int[column.length];
+    for (int row = 0; row < size; row++) {
+      permuted[row] = column[order[row]];
+    }
+    return permuted;
+  }
+
+  /**
+   * reorder a column of bytes
+   * @param column the column, as a byte[]
+   * @param order the old row of every new row, as an int[]
+   * @return the reordered column, as a byte[]
+   */
+  private byte[] permute(byte[] column, int[] order) {
+    byte[] permuted = new byte[column.length];
+    for (int row = 0; row < size; row++) {
+      permuted[row] = column[order[row]];
+    }
+    return permuted;
+  }
+
+  /**
+   * Row is a Request viewing a row of a RequestStore. Only its id, waiting index and cached
+   * coordinates live in the view; everything else is read and written in the store.
+   */
+  public static final class Row extends Request {
+
+    private final RequestStore store;
+    private final int row;
+    private Location startCoordinates; // cached, as the simulator asks for them often
+    private Location endCoordinates;
+
+    /**
+     * Constructor of Row, see RequestStore.view
+     * @param store the store, as a RequestStore
+     * @param row the row, as an int
+     */
+    private Row(RequestStore store, int row) {
+      this.store = store;
+      this.row = row;
+      this.startCoordinates = store.getStartCoordinates(row);
+      this.endCoordinates = store.getEndCoordinates(row);
+    }
+
+    /**
+     * get the store of the view
+     * @return the store, as a RequestStore
+     */
+    public RequestStore getStore() {
+      return store;
+    }
+
+    /**
+     * get the row of the view
+     * @return the row, as an int
+     */
+    public int getRow() {
+      return row;
+    }
+
+    @Override
+    public Driver getAssignedDriver() {
+      return store.getAssignedDriver(row);
+    }
+
+    @Override
+    public void setAssignedDriver(Driver assignedDriver) {
+      store.setAssignedDriver(row, assignedDriver);
+    }
+
+    @Override
+    public String getCustomerName() {
+      return store.getCustomerName(row);
+    }
+
+    @Override
+    public String getStartLocation() {
+      return store.getStartLocation(row);
+    }
+
+    @Override
+    public String getEndLocation() {
+      return store.getEndLocation(row);
+    }
+
+    @Override
+    public Location getStartCoordinates() {
+      return startCoordinates;
+    }
+
+    @Override
+    public Location getEndCoordinates() {
+      return endCoordinates;
+    }
+
+    @Override
+    public void setCoordinates(Location startCoordinates, Location endCoordinates) {
+      store.setCoordinates(row, startCoordinates, endCoordinates);
+      this.startCoordinates = startCoordinates;
+      this.endCoordinates = endCoordinates;
+    }
+
+    @Override
+    public Double getDistance() {
+      return store.distances[row];
+    }
+
+    @Override
+    public long getRequestEpochSecond() {
+      return store.requestTimes[row];
+    }
+
+    @Override
+    public void setRequestEpochSecond(long requestTime) {
+      store.requestTimes[row] = requestTime;
+      store.estimatedArrivals[row] = estimateArrivalTime();
+    }
+
+    @Override
+    public RideType getRideType() {
+      return RIDE_TYPES[store.rideTypes[row]];
+    }
+
+    @Override
+    public Integer getPriority() {
+      return (int) store.priorities[row];
+    }
+
+    @Override
+    public int getEffectivePriority() {
+      return store.effectivePriorities[row];
+    }
+
+    @Override
+    public void setEffectivePriority(int effectivePriority) {
+      store.effectivePriorities[row] = (byte) effectivePriority;
+    }
+
+    @Override
+    public double getRidingSeconds() {
+      return store.ridingSeconds[row];
+    }
+
+    @Override
+    public void setRidingSeconds(double ridingSeconds) {
+      store.ridingSeconds[row] = ridingSeconds;
+      store.estimatedArrivals[row] = estimateArrivalTime();
+    }
+
+    @Override
+    public long getEstimatedArrivalEpochSecond() {
+      return store.estimatedArrivals[row];
+    }
+
+    @Override
+    public void setEstimatedArrivalEpochSecond(long estimatedArrivalTime) {
+      store.estimatedArrivals[row] = estimatedArrivalTime;
+    }
+
+    @Override
+    public long getActualArrivalEpochSecond() {
+      return store.actualArrivals[row];
+    }
+
+    @Override
+    public void setActualArrivalEpochSecond(long actualArrivalTime) {
+      store.actualArrivals[row] = actualArrivalTime;
+    }
+  }
+}
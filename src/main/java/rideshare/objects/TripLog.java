@@ -0,0 +1,416 @@
+package rideshare.objects;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * TripLog keeps trips off the heap, as fixed-width records in direct ByteBuffers, so a log of
+ * any length costs the garbage collector nothing but a few buffer references. Records are
+ * appended in chunks, read back by position or by request id, and scanned in order.
+ *
+ * A record holds the ride and its dispatch state: id, assigned driver id, request time,
+ * estimated and actual arrival, distance, riding time, ride type, effective priority and
+ * coordinates. Names have no fixed width and are not kept, so the requests read back have none.
+ * The drivers are found again by id in a table on the heap, which grows with the fleet only.
+ * The index from request id to position is kept off the heap too, in chunks of ids, so ids
+ * should be dense, as the ids given by a simulator are.
+ *
+ * As a List, the log materializes a new Request on every get, which is fine for a report that
+ * scans it once; the field getters by position read a record without creating any object.
+ * Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the maximum heap size.
+ */
+public class TripLog extends AbstractList<Request> implements RandomAccess {
+
+  private static final int RECORD_BYTES = 88;
+  private static final int RECORDS_PER_CHUNK = 1 << 16;
+  private static final int IDS_PER_CHUNK = 1 << 20;
+  private static final RideType[] RIDE_TYPES = RideType.values();
+  // offsets of the fields in a record
+  private static final int ID = 0;
+  private static final int DRIVER = 4; // driver id, -1 for none
+  private static final int REQUEST_TIME = 8;
+  private static final int ESTIMATED_ARRIVAL = 16;
+  private static final int ACTUAL_ARRIVAL = 24;
+  private static final int DISTANCE = 32;
+  private static final int RIDING_SECONDS = 40;
+  private static final int RIDE_TYPE = 48;
+  private static final int EFFECTIVE_PRIORITY = 49;
+  private static final int COORDINATES = 56; // start x, start y, end x, end y, NaN for unknown
+
+  private final List<ByteBuffer> chunks = new ArrayList<>();
+  private final List<ByteBuffer> idChunks = new ArrayList<>(); // position + 1 by id, 0 for none
+  private Driver[] driverTable = new Driver[0]; // by driver id
+  private int size;
+
+  /**
+   * append a trip, with its dispatch state
+   * @param request the trip, as a Request
+   * @return true, as a boolean
+   * @throws IllegalArgumentException if the trip has a driver without an id
+   */
+  @Override
+  public boolean add(Request request) {
+    int driverId = registerDriver(request.getAssignedDriver());
+    if (size == chunks.size() * RECORDS_PER_CHUNK) {
+      chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_BYTES)
+          .order(ByteOrder.nativeOrder()));
+    }
+    int position = size++;
+    write(position, request, driverId);
+    indexId(request.getId(), position);
+    modCount++;
+    return true;
+  }
+
+  /**
+   * overwrite the trip at a position, e.g. with its outcome. The position stays indexed under
+   * the id it had, and is indexed under the id of the trip too.
+   * @param position the position, as an int
+   * @param request the trip, as a Request
+   * @return the trip that was there, as a Request
+   * @throws IllegalArgumentException if the trip has a driver without an id
+   */
+  @Override
+  public Request set(int position, Request request) {
+    Request previous = get(position);
+    write(position, request, registerDriver(request.getAssignedDriver()));
+    indexId(request.getId(), position);
+    return previous;
+  }
+
+  /**
+   * read the trip at a position into a new Request, without names
+   * @param position the position, as an int
+   * @return the trip, as a Request
+   */
+  @Override
+  public Request get(int position) {
+    ByteBuffer chunk = chunk(position);
+    int offset = offset(position);
+    Request request = new Request(null, null, null, chunk.getDouble(offset + DISTANCE),
+        chunk.getLong(offset + REQUEST_TIME), RIDE_TYPES[chunk.get(offset + RIDE_TYPE)]);
+    request.setId(chunk.getInt(offset + ID));
+    request.setRidingSeconds(chunk.getDouble(offset + RIDING_SECONDS));
+    request.setEstimatedArrivalEpochSecond(chunk.getLong(offset + ESTIMATED_ARRIVAL));
+    request.setActualArrivalEpochSecond(chunk.getLong(offset + ACTUAL_ARRIVAL));
+    request.setEffectivePriority(chunk.get(offset + EFFECTIVE_PRIORITY));
+    request.setAssignedDriver(getAssignedDriver(position));
+    request.setCoordinates(readLocation(chunk, offset + COORDINATES),
+        readLocation(chunk, offset + COORDINATES + 16));
+    return request;
+  }
+
+  /**
+   * read the trip of a request id into a new Request
+   * @param id the request id, as an int
+   * @return the trip, or null if no trip has the id, as a Request
+   */
+  public Request getById(int id) {
+    int position = positionOf(id);
+    return position < 0 ? null : get(position);
+  }
+
+  /**
+   * find the position of the trip of a request id, the latest one if several had it
+   * @param id the request id, as an int
+   * @return the position, or -1 if no trip has the id, as an int
+   */
+  public int positionOf(int id) {
+    if (id < 0 || id / IDS_PER_CHUNK >= idChunks.size()) {
+      return -1;
+    }
+    return idChunks.get(id / IDS_PER_CHUNK).getInt(4 * (id % IDS_PER_CHUNK)) - 1;
+  }
+
+  /**
+   * get the number of trips
+   * @return the number of trips, as an int
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * get the bytes allocated off the heap, for the records and the id index
+   * @return the bytes, as a long
+   */
+  public long getOffHeapBytes() {
+    return (long) chunks.size() * RECORDS_PER_CHUNK * RECORD_BYTES
+        + (long) idChunks.size() * IDS_PER_CHUNK * 4;
+  }
+
+  /**
+   * get the request id of the trip at a position
+   * @param position the position, as an int
+   * @return the request id, as an int
+   */
+  public int getId(int position) {
+    return chunk(position).getInt(offset(position) + ID);
+  }
+
+  /**
+   * get the request time of the trip at a position
+   * @param position the position, as an int
+   * @return the request time in epoch seconds, as a long
+   */
+  public long getRequestEpochSecond(int position) {
+    return chunk(position).getLong(offset(position) + REQUEST_TIME);
+  }
+
+  /**
+   * get the estimated arrival of the trip at a position
+   * @param position the position, as an int
+   * @return the estimated arrival in epoch seconds, as a long
+   */
+  public long getEstimatedArrivalEpochSecond(int position) {
+    return chunk(position).getLong(offset(position) + ESTIMATED_ARRIVAL);
+  }
+
+  /**
+   * get the actual arrival of the trip at a position
+   * @param position the position, as an int
+   * @return the actual arrival in epoch seconds, or Long.MIN_VALUE if not set, as a long
+   */
+  public long getActualArrivalEpochSecond(int position) {
+    return chunk(position).getLong(offset(position) + ACTUAL_ARRIVAL);
+  }
+
+  /**
+   * get the distance of the trip at a position
+   * @param position the position, as an int
+   * @return the distance, as a double
+   */
+  public double getDistance(int position) {
+    return chunk(position).getDouble(offset(position) + DISTANCE);
+  }
+
+  /**
+   * get the ride type of the trip at a position
+   * @param position the position, as an int
+   * @return the ride type, as a RideType
+   */
+  public RideType getRideType(int position) {
+    return RIDE_TYPES[chunk(position).get(offset(position) + RIDE_TYPE)];
+  }
+
+  /**
+   * get the id of the driver assigned to the trip at a position
+   * @param position the position, as an int
+   * @return the driver id, or -1 if none, as an int
+   */
+  public int getAssignedDriverId(int position) {
+    return chunk(position).getInt(offset(position) + DRIVER);
+  }
+
+  /**
+   * get the driver assigned to the trip at a position
+   * @param position the position, as an int
+   * @return the driver, or null if none, as a Driver
+   */
+  public Driver getAssignedDriver(int position) {
+    int id = getAssignedDriverId(position);
+    return id < 0 ? null : driverTable[id];
+  }
+
+  /**
+   * calculate the waiting seconds of the trip at a position, like Request.calculateWaitingSeconds
+   * @param position the position, as an int
+   * @return the seconds between the estimated and the actual arrival, as an int
+   */
+  public int calculateWaitingSeconds(int position) {
+    return (int) (getActualArrivalEpochSecond(position)
+        - getEstimatedArrivalEpochSecond(position));
+  }
+
+  /**
+   * check that the trips are in request time order, e.g. to be fed to a simulator
+   * @return true if no trip is requested before the one in front of it, as a boolean
+   */
+  public boolean isSortedByRequestTime() {
+    for (int position = 1; position < size; position++) {
+      if (getRequestEpochSecond(position) < getRequestEpochSecond(position - 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * reorder the trips by request time, keeping the order of trips requested at the same time.
+   * The records are moved in place along the cycles of the order, so only the sort keys and one
+   * record are on the heap meanwhile.
+   * @throws IllegalStateException if the request times span more than 2^31 seconds
+   */
+  public void sortByRequestTime() {
+    if (size == 0 || isSortedByRequestTime()) {
+      return;
+    }
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (int position = 0; position < size; position++) {
+      first = Math.min(first, getRequestEpochSecond(position));
+      last = Math.max(last, getRequestEpochSecond(position));
+    }
+    if (last - first > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Request times span too long to sort: " + (last - first));
+    }
+    // the time since the first request above the position, so equal times keep their order
+    long[] keys = new long[size];
+    for (int position = 0; position < size; position++) {
+      keys[position] = (getRequestEpochSecond(position) - first) << 32 | position;
+    }
+    Arrays.sort(keys);
+
+    byte[] held = new byte[RECORD_BYTES];
+    byte[] moving = new byte[RECORD_BYTES];
+    for (int start = 0; start < size; start++) {
+      if (keys[start] == -1 || (int) keys[start] == start) {
+        continue;
+      }
+      copyOut(start, held);
+      int target = start;
+      while (true) {
+        int source = (int) keys[target];
+        keys[target] = -1;
+        if (source == start) {
+          copyIn(held, target);
+          break;
+        }
+        copyOut(source, moving);
+        copyIn(moving, target);
+        target = source;
+      }
+    }
+    for (int position = 0; position < size; position++) {
+      indexId(getId(position), position);
+    }
+    modCount++;
+  }
+
+  /**
+   * write a trip into the record at a position
+   * @param position the position, as an int
+   * @param request the trip, as a Request
+   * @param driverId the id of its driver, see registerDriver, as an int
+   */
+  private void write(int position, Request request, int driverId) {
+    ByteBuffer chunk = chunk(position);
+    int offset = offset(position);
+    chunk.putInt(offset + ID, request.getId());
+    chunk.putInt(offset + DRIVER, driverId);
+    chunk.putLong(offset + REQUEST_TIME, request.getRequestEpochSecond());
+    chunk.putLong(offset + ESTIMATED_ARRIVAL, request.getEstimatedArrivalEpochSecond());
+    chunk.putLong(offset + ACTUAL_ARRIVAL, request.getActualArrivalEpochSecond());
+    chunk.putDouble(offset + DISTANCE, request.getDistance());
+    chunk.putDouble(offset + RIDING_SECONDS, request.getRidingSeconds());
+    chunk.put(offset + RIDE_TYPE, (byte) request.getRideType().ordinal());
+    chunk.put(offset + EFFECTIVE_PRIORITY, (byte) request.getEffectivePriority());
+    writeLocation(chunk, offset + COORDINATES, request.getStartCoordinates());
+    writeLocation(chunk, offset + COORDINATES + 16, request.getEndCoordinates());
+  }
+
+  /**
+   * keep a driver in the driver table
+   * @param driver the driver, or null, as a Driver
+   * @return the id of the driver, or -1 for none, as an int
+   * @throws IllegalArgumentException if the driver has no id
+   */
+  private int registerDriver(Driver driver) {
+    if (driver == null) {
+      return -1;
+    }
+    int id = driver.getId();
+    if (id < 0) {
+      throw new IllegalArgumentException("Only drivers with an id can be logged: " + driver);
+    }
+    if (id >= driverTable.length) {
+      driverTable = Arrays.copyOf(driverTable, Math.max(id + 1, 2 * driverTable.length));
+    }
+    driverTable[id] = driver;
+    return id;
+  }
+
+  /**
+   * index a position under a request id, allocating the chunks of ids up to it
+   * @param id the request id, ignored if negative, as an int
+   * @param position the position, as an int
+   */
+  private void indexId(int id, int position) {
+    if (id < 0) {
+      return;
+    }
+    while (id / IDS_PER_CHUNK >= idChunks.size()) {
+      // direct buffers start zeroed, i.e. with no position for any id
+      idChunks.add(ByteBuffer.allocateDirect(IDS_PER_CHUNK * 4).order(ByteOrder.nativeOrder()));
+    }
+    idChunks.get(id / IDS_PER_CHUNK).putInt(4 * (id % IDS_PER_CHUNK), position + 1);
+  }
+
+  /**
+   * get the chunk holding a position
+   * @param position the position, as an int
+   * @return the chunk, as a ByteBuffer
+   * @throws IndexOutOfBoundsException if there's no trip at the position
+   */
+  private ByteBuffer chunk(int position) {
+    if (position < 0 || position >= size) {
+      throw new IndexOutOfBoundsException("Position " + position + " of " + size + " trips");
+    }
+    return chunks.get(position / RECORDS_PER_CHUNK);
+  }
+
+  /**
+   * get the offset of the record of a position in its chunk
+   * @param position the position, as an int
+   * @return the offset in bytes, as an int
+   */
+  private static int offset(int position) {
+    return (position % RECORDS_PER_CHUNK) * RECORD_BYTES;
+  }
+
+  /**
+   * copy the record at a position to the heap
+   * @param position the position, as an int
+   * @param record the bytes to copy to, as a byte[]
+   */
+  private void copyOut(int position, byte[] record) {
+    chunk(position).get(offset(position), record);
+  }
+
+  /**
+   * copy a record from the heap to a position
+   * @param record the bytes to copy from, as a byte[]
+   * @param position the position, as an int
+   */
+  private void copyIn(byte[] record, int position) {
+    chunk(position).put(offset(position), record);
+  }
+
+  /**
+   * write a location, or NaN for none
+   * @param chunk the chunk, as a ByteBuffer
+   * @param offset the offset of the location, as an int
+   * @param location the location, or null, as a Location
+   */
+  private static void writeLocation(ByteBuffer chunk, int offset, Location location) {
+    chunk.putDouble(offset, location == null ? Double.NaN : location.getX());
+    chunk.putDouble(offset + 8, location == null ? Double.NaN : location.getY());
+  }
+
+  /**
+   * read a location written by writeLocation
+   * @param chunk the chunk, as a ByteBuffer
+   * @param offset the offset of the location, as an int
+   * @return the location, or null for none, as a Location
+   */
+  private static Location readLocation(ByteBuffer chunk, int offset) {
+    double x = chunk.getDouble(offset);
+    return Double.isNaN(x) ? null : new Location(x, chunk.getDouble(offset + 8));
+  }
+}
@@ -37,6 +37,28 @@ class AnalysisReportTest {
     assertEquals(7200, averageTime[1]);
   }
 
+  @Test
+  void calculatePercentileWaitingSeconds() {
+    // waiting times are 0 and 3600 seconds
+    assertEquals(0, AnalysisReport.calculatePercentileWaitingSeconds(finishedRequests, 50));
+    assertEquals(3600, AnalysisReport.calculatePercentileWaitingSeconds(finishedRequests, 90));
+    assertEquals(0, AnalysisReport.calculatePercentileWaitingSeconds(new ArrayList<>(), 90));
+  }
+
+  @Test
+  void calculatePassengersPerDriverHour() {
+    // 2 passengers, 2 drivers from 6:00 to 10:00
+    assertEquals(0.25,
+        AnalysisReport.calculatePassengersPerDriverHour(finishedRequests, 2), 1e-9);
+    assertEquals(0, AnalysisReport.calculatePassengersPerDriverHour(new ArrayList<>(), 2));
+  }
+
+  @Test
+  void calculateRejectionPercentage() {
+    assertEquals(20, AnalysisReport.calculateRejectionPercentage(8, 2), 1e-9);
+    assertEquals(0, AnalysisReport.calculateRejectionPercentage(0, 0));
+  }
+
   @Test
   void calculateOptimalDriverNumber() {
     Integer optimalDriverNumber = AnalysisReport.calculateOptimalDriverNumber(finishedRequests);
@@ -0,0 +1,90 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AssignmentSolverTest {
+
+  AssignmentSolver solver;
+  Random random;
+
+  @BeforeEach
+  void setUp() {
+    solver = new AssignmentSolver();
+    random = new Random(17);
+  }
+
+  @Test
+  void solve_OptimalOnDenseMatrices() {
+    for (int round = 0; round < 200; round++) {
+      int rows = 1 + random.nextInt(5);
+      int columns = rows + random.nextInt(3);
+      double[][] costs = new double[rows][columns];
+      int[] edgeStart = new int[rows + 1];
+      int[] edgeColumn = new int[rows * columns];
+      double[] edgeCost = new double[rows * columns];
+      for (int row = 0; row < rows; row++) {
+        for (int column = 0; column < columns; column++) {
+          costs[row][column] = random.nextInt(100);
+          edgeColumn[row * columns + column] = column;
+          edgeCost[row * columns + column] = costs[row][column];
+        }
+        edgeStart[row + 1] = (row + 1) * columns;
+      }
+
+      int[] match = solver.solve(rows, columns, edgeStart, edgeColumn, edgeCost);
+      boolean[] used = new boolean[columns];
+      double total = 0;
+      for (int row = 0; row < rows; row++) {
+        assertNotEquals(AssignmentSolver.NONE, match[row]);
+        assertFalse(used[match[row]]);
+        used[match[row]] = true;
+        total += costs[row][match[row]];
+      }
+      assertEquals(bruteForce(costs, 0, new boolean[columns]), total, 1e-9);
+    }
+  }
+
+  @Test
+  void solve_SparseRowsGivenFirstWin() {
+    // rows 0 and 1 only fit column 0; row 2 has no candidate
+    int[] edgeStart = {0, 1, 2, 2, 4};
+    int[] edgeColumn = {0, 0, 0, 1};
+    double[] edgeCost = {5, 1, 2, 3};
+    int[] match = solver.solve(4, 2, edgeStart, edgeColumn, edgeCost);
+    assertArrayEquals(new int[] {0, AssignmentSolver.NONE, AssignmentSolver.NONE, 1}, match);
+  }
+
+  @Test
+  void solve_ReroutesEarlierRows() {
+    // row 0 alone would take column 0, but row 1 needs it more
+    int[] edgeStart = {0, 2, 4};
+    int[] edgeColumn = {0, 1, 0, 1};
+    double[] edgeCost = {1, 2, 1, 10};
+    assertArrayEquals(new int[] {1, 0}, solver.solve(2, 2, edgeStart, edgeColumn, edgeCost));
+    // the solver can be reused
+    assertArrayEquals(new int[] {0}, solver.solve(1, 1, new int[] {0, 1}, new int[] {0},
+        new double[] {4}));
+  }
+
+  /**
+   * find the cheapest assignment of the remaining rows by trying every permutation
+   */
+  private static double bruteForce(double[][] costs, int row, boolean[] used) {
+    if (row == costs.length) {
+      return 0;
+    }
+    double best = Double.POSITIVE_INFINITY;
+    for (int column = 0; column < used.length; column++) {
+      if (!used[column]) {
+        used[column] = true;
+        best = Math.min(best, costs[row][column] + bruteForce(costs, row + 1, used));
+        used[column] = false;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,80 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+class DispatchPolicyTest {
+
+  List<Request> workload;
+  long start;
+
+  @BeforeEach
+  void setUp() {
+    start = SimulationClock.DEFAULT_START_SECOND;
+    workload = new ArrayList<>();
+    // the first ride keeps the only driver busy while the others queue up
+    workload.add(new Request("First", "a", "b", 10.0, start, RideType.STANDARD));
+    workload.add(new Request("Long", "a", "b", 30.0, start + 1, RideType.WAIT_AND_SAVE));
+    workload.add(new Request("Express", "a", "b", 20.0, start + 2, RideType.EXPRESS));
+    workload.add(new Request("Short", "a", "b", 2.0, start + 3, RideType.ENVIRONMENTALLY_CONSCIOUS));
+  }
+
+  @Test
+  void waitingOrder_OfEveryStandardPolicy() {
+    assertEquals(List.of("First", "Express", "Long", "Short"),
+        servingOrder(StandardDispatchPolicy.PRIORITY));
+    assertEquals(List.of("First", "Long", "Express", "Short"),
+        servingOrder(StandardDispatchPolicy.FIFO));
+    assertEquals(List.of("First", "Short", "Express", "Long"),
+        servingOrder(StandardDispatchPolicy.SHORTEST_RIDE_FIRST));
+    // estimated arrivals: Short after 2 minutes, Express after 20, Long after 30
+    assertEquals(List.of("First", "Short", "Express", "Long"),
+        servingOrder(StandardDispatchPolicy.EARLIEST_DEADLINE));
+  }
+
+  @Test
+  void customPolicy_PicksDrivers() {
+    DispatchPolicy newestDriver = new DispatchPolicy() {
+      @Override
+      public Comparator<Request> waitingOrder() {
+        return StandardDispatchPolicy.FIFO.waitingOrder();
+      }
+
+      @Override
+      public Driver selectDriver(Request request, DriverPool idleDrivers,
+          SpatialDriverIndex nearbyDrivers) {
+        List<Driver> drivers = idleDrivers.toList();
+        return drivers.get(drivers.size() - 1);
+      }
+    };
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(3, workload.subList(0, 1),
+        new SimulationConfig().setDispatchPolicy(newestDriver));
+    simulator.run();
+    assertEquals("Driver2", simulator.getFinishedRequests().get(0).getAssignedDriver().getName());
+    assertThrows(IllegalStateException.class, () -> SimulationCheckpoint.toBytes(simulator));
+  }
+
+  /**
+   * simulate the workload with one driver
+   * @param policy the dispatch policy, as a DispatchPolicy
+   * @return the customers in the order they were served, as a List of String
+   */
+  private List<String> servingOrder(DispatchPolicy policy) {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+        new SimulationConfig().setDispatchPolicy(policy));
+    simulator.run();
+    List<String> customers = new ArrayList<>();
+    for (Request request : simulator.getFinishedRequests()) {
+      customers.add(request.getCustomerName());
+    }
+    return customers;
+  }
+}
@@ -0,0 +1,87 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+class DriverCountSweepTest {
+
+  List<Request> workload;
+
+  @BeforeEach
+  void setUp() {
+    workload = RequestGenerator.generateRequests(300, SimulationClock.DEFAULT_START_SECOND,
+        new Random(3));
+  }
+
+  @Test
+  void findMinimumDrivers_AverageWaiting() {
+    DriverCountSweep sweep = new DriverCountSweep(workload, new SimulationConfig(),
+        ServiceLevelTarget.averageWaiting(300), 4);
+    SweepPoint minimum = sweep.findMinimumDrivers(300);
+    assertNotNull(minimum);
+    assertTrue(minimum.isTargetMet());
+    assertTrue(minimum.getAverageWaitingSeconds() <= 300);
+
+    // one driver less misses the target
+    SweepPoint fewer = sweep.simulate(minimum.getNumberOfDrivers() - 1);
+    assertFalse(fewer.isTargetMet());
+    // the search did not simulate every count
+    assertTrue(sweep.getEvaluatedPoints().size() < minimum.getNumberOfDrivers());
+  }
+
+  @Test
+  void findMinimumDrivers_PercentileWaitingSameAsSequential() {
+    ServiceLevelTarget target = ServiceLevelTarget.percentileWaiting(90, 0);
+    SweepPoint parallel = new DriverCountSweep(workload, new SimulationConfig(), target, 8)
+        .findMinimumDrivers(300);
+    SweepPoint sequential = new DriverCountSweep(workload, new SimulationConfig(), target, 1)
+        .findMinimumDrivers(300);
+    assertEquals(sequential.getNumberOfDrivers(), parallel.getNumberOfDrivers());
+    assertEquals(0, parallel.getPercentileWaitingSeconds());
+  }
+
+  @Test
+  void findMinimumDrivers_Unreachable() {
+    DriverCountSweep sweep = new DriverCountSweep(workload, new SimulationConfig(),
+        ServiceLevelTarget.averageWaiting(-1), 2);
+    assertNull(sweep.findMinimumDrivers(5));
+  }
+
+  @Test
+  void simulate_WorkloadNotChanged() {
+    DriverCountSweep sweep = new DriverCountSweep(workload, new SimulationConfig(),
+        ServiceLevelTarget.averageWaiting(300), 1);
+    SweepPoint first = sweep.simulate(3);
+    SweepPoint second = sweep.simulate(3);
+    assertEquals(first.getAverageWaitingSeconds(), second.getAverageWaitingSeconds());
+    assertNull(workload.get(0).getAssignedDriver());
+  }
+
+  @Test
+  void simulate_TimeoutsMissTheTarget() {
+    // with a longest wait of a minute, the served requests of any fleet wait little
+    SimulationConfig config = new SimulationConfig().setMaxWaitSeconds(60);
+    ServiceLevelTarget target = ServiceLevelTarget.averageWaiting(300);
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+        config.copy());
+    simulator.run();
+    assertTrue(simulator.getTimedOutRequestCount() > 0);
+    assertTrue(target.evaluate(1, simulator.getFinishedRequests()).isTargetMet());
+
+    DriverCountSweep sweep = new DriverCountSweep(workload, config, target, 2);
+    SweepPoint one = sweep.simulate(1);
+    assertTrue(one.getDropPercentage() > 50, one.toString());
+    assertFalse(one.isTargetMet());
+    SweepPoint minimum = sweep.findMinimumDrivers(300);
+    assertEquals(0, minimum.getDropPercentage());
+    assertTrue(minimum.getNumberOfDrivers() > 1);
+    assertTrue(new DriverCountSweep(workload, config, target.allowingDrops(100), 1)
+        .simulate(1).isTargetMet());
+  }
+}
@@ -0,0 +1,72 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Driver;
+
+class DriverPoolTest {
+
+  DriverPool pool;
+  Driver[] drivers;
+
+  @BeforeEach
+  void setUp() {
+    pool = new DriverPool(4);
+    drivers = new Driver[40];
+    for (int i = 0; i < drivers.length; i++) {
+      drivers[i] = new Driver(i, "Driver" + i);
+    }
+  }
+
+  @Test
+  void pollLongestIdleFirst() {
+    pool.add(drivers[3]);
+    pool.add(drivers[1]);
+    pool.add(drivers[2]);
+    assertEquals(3, pool.size());
+    assertSame(drivers[3], pool.peek());
+    assertSame(drivers[3], pool.poll());
+    assertSame(drivers[1], pool.poll());
+    pool.add(drivers[3]);
+    assertEquals(List.of(drivers[2], drivers[3]), pool.toList());
+  }
+
+  @Test
+  void removeAnyDriver() {
+    for (int i = 0; i < 5; i++) {
+      pool.add(drivers[i]);
+    }
+    assertTrue(pool.remove(drivers[2]));
+    assertTrue(pool.remove(drivers[4]));
+    assertTrue(pool.remove(drivers[0]));
+    assertFalse(pool.remove(drivers[0]));
+    assertFalse(pool.contains(drivers[0]));
+    assertTrue(pool.contains(drivers[1]));
+    assertEquals(List.of(drivers[1], drivers[3]), pool.toList());
+    assertEquals(2, pool.size());
+  }
+
+  @Test
+  void growsBeyondExpectedDrivers() {
+    for (int i = drivers.length - 1; i >= 0; i--) {
+      pool.add(drivers[i]);
+    }
+    assertEquals(40, pool.size());
+    assertSame(drivers[39], pool.peek());
+    while (!pool.isEmpty()) {
+      pool.poll();
+    }
+    assertNull(pool.poll());
+    assertNull(pool.peek());
+  }
+
+  @Test
+  void add_Invalid() {
+    pool.add(drivers[0]);
+    assertThrows(IllegalStateException.class, () -> pool.add(drivers[0]));
+    assertThrows(IllegalArgumentException.class, () -> pool.add(new Driver("No id")));
+  }
+}
@@ -0,0 +1,83 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+import rideshare.objects.WaitingComparator;
+
+class IndexedWaitingHeapTest {
+
+  IndexedWaitingHeap queue;
+  List<Request> requests;
+
+  @BeforeEach
+  void setUp() {
+    queue = new IndexedWaitingHeap(StandardDispatchPolicy.FIFO.waitingOrder());
+    requests = RequestGenerator.generateRequests(5000, SimulationClock.DEFAULT_START_SECOND,
+        new Random(5));
+    for (int i = 0; i < requests.size(); i++) {
+      requests.get(i).setId(i);
+    }
+    requests.sort(StandardDispatchPolicy.FIFO.waitingOrder());
+  }
+
+  @Test
+  void poll_InOrder() {
+    List<Request> shuffled = new ArrayList<>(requests);
+    Collections.shuffle(shuffled, new Random(1));
+    queue.addAll(shuffled);
+    assertEquals(requests, new ArrayList<>(queue));
+    for (Request request : requests) {
+      assertSame(request, queue.poll());
+      assertEquals(-1, request.getWaitingIndex());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  void remove_AnyRequest() {
+    queue.addAll(requests);
+    List<Request> remaining = new ArrayList<>();
+    Random random = new Random(2);
+    for (Request request : requests) {
+      if (random.nextBoolean()) {
+        assertTrue(queue.remove(request));
+        assertFalse(queue.contains(request));
+      } else {
+        remaining.add(request);
+      }
+    }
+    assertEquals(remaining.size(), queue.size());
+    for (Request request : remaining) {
+      assertSame(request, queue.poll());
+    }
+  }
+
+  @Test
+  void changePriority_Reorders() {
+    IndexedWaitingHeap byPriority = new IndexedWaitingHeap(new WaitingComparator());
+    byPriority.addAll(requests);
+    Random random = new Random(3);
+    for (Request request : requests) {
+      if (random.nextInt(4) == 0 && request.getEffectivePriority() < Request.MAX_PRIORITY) {
+        assertTrue(byPriority.changePriority(request, request.getEffectivePriority() + 1));
+      }
+    }
+    Request previous = byPriority.poll();
+    while (!byPriority.isEmpty()) {
+      Request next = byPriority.poll();
+      assertTrue(next.getEffectivePriority() < previous.getEffectivePriority()
+          || (next.getEffectivePriority() == previous.getEffectivePriority()
+          && next.getEstimatedArrivalEpochSecond() >= previous.getEstimatedArrivalEpochSecond()));
+      previous = next;
+    }
+    assertFalse(byPriority.changePriority(previous, Request.MAX_PRIORITY));
+  }
+}
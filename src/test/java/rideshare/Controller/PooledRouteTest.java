@@ -0,0 +1,84 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Routing.TravelTimes;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+class PooledRouteTest {
+
+  long start;
+  Driver driver;
+  Request first;
+
+  @BeforeEach
+  void setUp() {
+    start = SimulationClock.DEFAULT_START_SECOND;
+    driver = new Driver(0, "Driver");
+    driver.setPosition(new Location(0, 0));
+    first = new Request("Jane", "1", "2", 10.0, start, RideType.EXPRESS);
+    first.setCoordinates(new Location(0, 0), new Location(0, 10));
+  }
+
+  @Test
+  void insertCheapest_OnTheWay() {
+    PooledRoute route = new PooledRoute(driver, 2, TravelTimes.STRAIGHT_LINE);
+    route.start(first, start, start + 900);
+    Request onTheWay = new Request("John", "3", "4", 6.0, start, RideType.EXPRESS);
+    onTheWay.setCoordinates(new Location(0, 2), new Location(0, 8));
+
+    assertEquals(0, route.findCheapestInsertion(onTheWay, start + 1000), 1e-9);
+    List<Request> delayed = new ArrayList<>();
+    assertEquals(start + 480, route.insertCheapest(onTheWay, start + 1000, delayed), 1e-9);
+    assertTrue(delayed.isEmpty());
+    assertEquals(4, route.size());
+    assertSame(first, route.getRequest(0));
+    assertSame(onTheWay, route.getRequest(1));
+    assertTrue(route.isPickup(1));
+    assertSame(onTheWay, route.getRequest(2));
+    assertFalse(route.isPickup(2));
+    assertSame(first, route.getRequest(3));
+  }
+
+  @Test
+  void findCheapestInsertion_SeatsAndDetour() {
+    PooledRoute route = new PooledRoute(driver, 1, TravelTimes.STRAIGHT_LINE);
+    route.start(first, start, start + 900);
+    Request onTheWay = new Request("John", "3", "4", 6.0, start, RideType.EXPRESS);
+    onTheWay.setCoordinates(new Location(0, 2), new Location(0, 8));
+
+    // one seat: John only fits after Jane is dropped off, driving back south
+    assertEquals(480 + 360, route.findCheapestInsertion(onTheWay, start + 1500), 1e-9);
+    // too late for that
+    assertEquals(Double.POSITIVE_INFINITY, route.findCheapestInsertion(onTheWay, start + 1400));
+  }
+
+  @Test
+  void dropOff_PassesPickups() {
+    PooledRoute route = new PooledRoute(driver, 2, TravelTimes.STRAIGHT_LINE);
+    route.start(first, start, start + 900);
+    Request onTheWay = new Request("John", "3", "4", 6.0, start, RideType.EXPRESS);
+    onTheWay.setCoordinates(new Location(0, 2), new Location(0, 8));
+    route.findCheapestInsertion(onTheWay, start + 1000);
+    route.insertCheapest(onTheWay, start + 1000, new ArrayList<>());
+
+    route.advance(start + 60);
+    assertEquals(new Location(0, 1), route.getOrigin());
+    assertEquals(3, route.size());
+
+    assertTrue(route.dropOff(onTheWay));
+    assertEquals(new Location(0, 8), route.getOrigin());
+    assertEquals(start + 480, route.getOriginTime(), 1e-9);
+    assertEquals(1, route.size());
+    assertFalse(route.dropOff(onTheWay));
+    assertTrue(route.dropOff(first));
+    assertTrue(route.isEmpty());
+  }
+}
@@ -0,0 +1,151 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+import rideshare.objects.WaitingComparator;
+
+class PriorityLevelQueueTest {
+
+  PriorityLevelQueue queue;
+  List<Request> requests;
+
+  @BeforeEach
+  void setUp() {
+    queue = new PriorityLevelQueue();
+    requests = RequestGenerator.generateRequests(5000, SimulationClock.DEFAULT_START_SECOND,
+        new Random(21));
+  }
+
+  @Test
+  void poll_SameOrderAsWaitingComparator() {
+    PriorityQueue<Request> reference = new PriorityQueue<>(new WaitingComparator());
+    Random random = new Random(4);
+    for (Request request : requests) {
+      queue.add(request);
+      reference.add(request);
+      // drain now and then, so adds and polls interleave
+      while (random.nextInt(3) == 0 && !queue.isEmpty()) {
+        assertSameKey(reference.poll(), queue.poll());
+      }
+    }
+    assertEquals(reference.size(), queue.size());
+    while (!queue.isEmpty()) {
+      assertSameKey(reference.poll(), queue.poll());
+    }
+    assertNull(queue.poll());
+    assertNull(queue.peek());
+  }
+
+  @Test
+  void poll_TiesInInsertionOrder() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    Request first = new Request("First", "a", "b", 3.0, start, RideType.EXPRESS);
+    Request second = new Request("Second", "a", "b", 3.0, start, RideType.EXPRESS);
+    Request third = new Request("Third", "a", "b", 3.0, start, RideType.EXPRESS);
+    queue.add(second);
+    queue.add(first);
+    queue.add(third);
+    assertSame(second, queue.peek());
+    assertEquals(List.of(second, first, third), new ArrayList<>(queue));
+    assertSame(second, queue.poll());
+    assertSame(first, queue.poll());
+    assertSame(third, queue.poll());
+  }
+
+  @Test
+  void iterator_PollingOrder() {
+    queue.addAll(requests);
+    List<Request> iterated = new ArrayList<>(queue);
+    List<Request> polled = new ArrayList<>();
+    while (!queue.isEmpty()) {
+      polled.add(queue.poll());
+    }
+    assertEquals(polled, iterated);
+  }
+
+  @Test
+  void offer_PriorityOutOfRange() {
+    PriorityLevelQueue narrow = new PriorityLevelQueue(0, 1);
+    Request request = new Request("Jane", "a", "b", 3.0, SimulationClock.DEFAULT_START_SECOND,
+        RideType.EXPRESS);
+    assertThrows(IllegalArgumentException.class, () -> narrow.add(request));
+  }
+
+  @Test
+  void remove_AnyRequestInLogTime() {
+    queue.addAll(requests);
+    PriorityQueue<Request> reference = new PriorityQueue<>(new WaitingComparator());
+    Random random = new Random(6);
+    for (Request request : requests) {
+      if (random.nextInt(3) == 0) {
+        assertTrue(queue.remove(request));
+        assertFalse(queue.contains(request));
+        assertFalse(queue.remove(request));
+      } else {
+        reference.add(request);
+      }
+    }
+    assertEquals(reference.size(), queue.size());
+    while (!queue.isEmpty()) {
+      assertSameKey(reference.poll(), queue.poll());
+    }
+  }
+
+  @Test
+  void changePriority_MovesToNewLevel() {
+    queue.addAll(requests);
+    Random random = new Random(8);
+    for (Request request : requests) {
+      if (random.nextInt(4) == 0 && request.getEffectivePriority() < Request.MAX_PRIORITY) {
+        assertTrue(queue.changePriority(request, request.getEffectivePriority() + 1));
+        assertTrue(queue.contains(request));
+      }
+    }
+    PriorityQueue<Request> reference = new PriorityQueue<>(new WaitingComparator());
+    reference.addAll(requests);
+    while (!queue.isEmpty()) {
+      Request expected = reference.poll();
+      Request actual = queue.poll();
+      assertEquals(expected.getEffectivePriority(), actual.getEffectivePriority());
+      assertEquals(expected.getEstimatedArrivalEpochSecond(),
+          actual.getEstimatedArrivalEpochSecond());
+    }
+    assertFalse(queue.changePriority(requests.get(0), Request.MAX_PRIORITY));
+  }
+
+  @Test
+  void changePriority_KeepsInsertionOrder() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    Request first = new Request("First", "a", "b", 3.0, start, RideType.STANDARD);
+    Request second = new Request("Second", "a", "b", 3.0, start, RideType.STANDARD);
+    queue.add(first);
+    queue.add(second);
+    queue.changePriority(second, second.getPriority() + 1);
+    queue.changePriority(first, first.getPriority() + 1);
+    assertSame(first, queue.poll());
+    assertSame(second, queue.poll());
+  }
+
+  @Test
+  void offer_WaitingAlready() {
+    queue.add(requests.get(0));
+    assertThrows(IllegalStateException.class, () -> queue.add(requests.get(0)));
+  }
+
+  /**
+   * check that two requests have the same priority and estimated arrival
+   */
+  private static void assertSameKey(Request expected, Request actual) {
+    assertEquals(expected.getPriority(), actual.getPriority());
+    assertEquals(expected.getEstimatedArrivalEpochSecond(), actual.getEstimatedArrivalEpochSecond());
+  }
+}
@@ -0,0 +1,41 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicationRunnerTest {
+
+  ReplicationRunner testRunner;
+
+  @BeforeEach
+  void setUp() {
+    testRunner = new ReplicationRunner(3, 40, new SimulationConfig());
+  }
+
+  @Test
+  void run_Reproducible() {
+    List<ReplicationResult> results = testRunner.run(6, 7L, 3);
+    List<ReplicationResult> again = testRunner.run(6, 7L, 2);
+    assertEquals(6, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).getReplication());
+      assertEquals(40, results.get(i).getFinishedRequests());
+      assertEquals(results.get(i).getSeed(), again.get(i).getSeed());
+      assertEquals(results.get(i).getAverageWaitingSeconds(),
+          again.get(i).getAverageWaitingSeconds());
+    }
+    // different seeds give different workloads
+    assertNotEquals(results.get(0).getAverageRidingSeconds(),
+        results.get(1).getAverageRidingSeconds());
+  }
+
+  @Test
+  void replicationSeeds() {
+    long[] seeds = ReplicationRunner.replicationSeeds(3, 1L);
+    assertArrayEquals(seeds, ReplicationRunner.replicationSeeds(3, 1L));
+    assertNotEquals(seeds[0], seeds[1]);
+  }
+}
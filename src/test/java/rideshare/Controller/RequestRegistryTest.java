@@ -0,0 +1,90 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+class RequestRegistryTest {
+
+  RequestRegistry registry;
+  List<Request> requests;
+
+  @BeforeEach
+  void setUp() {
+    registry = new RequestRegistry();
+    requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      requests.add(new Request("Customer" + i, "A", "B", 10.0 + i, 0L, RideType.STANDARD));
+    }
+  }
+
+  @Test
+  void register_IdsInOrder() {
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, registry.register(requests.get(i)));
+    }
+    assertEquals(100, registry.size());
+    assertSame(requests.get(42), registry.get(42));
+    assertEquals(requests, registry.toList());
+  }
+
+  @Test
+  void release_DropsReleasedFront() {
+    for (int i = 0; i < 10; i++) {
+      registry.register(requests.get(i));
+    }
+    registry.release(1);
+    assertEquals(10, registry.size());
+    registry.release(0);
+    assertEquals(8, registry.size());
+    assertSame(requests.get(2), registry.get(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> registry.get(0));
+  }
+
+  @Test
+  void register_GrowsAcrossWrapAround() {
+    // keep a sliding window of ten requests, then grow while the window wraps around
+    for (int i = 0; i < 60; i++) {
+      registry.register(requests.get(i));
+      if (i >= 10) {
+        registry.release(i - 10);
+      }
+    }
+    for (int i = 60; i < 100; i++) {
+      registry.register(requests.get(i));
+    }
+    assertEquals(50, registry.size());
+    for (int i = 50; i < 100; i++) {
+      assertSame(requests.get(i), registry.get(i));
+    }
+  }
+
+  @Test
+  void indexOf_LowBitsOfIdsInFlight() {
+    RequestRegistry indexed = new RequestRegistry(15);
+    // ids run far past the 16 indexes while at most ten requests are in flight
+    for (int i = 0; i < 100; i++) {
+      int id = indexed.register(requests.get(i));
+      assertEquals(i, id);
+      assertEquals(i % 16, indexed.indexOf(id));
+      if (i >= 10) {
+        indexed.release(i - 10);
+      }
+    }
+    for (int id = 90; id < 100; id++) {
+      assertSame(requests.get(id), indexed.get(indexed.idOf(indexed.indexOf(id))));
+    }
+    // a released request is not mistaken for one in flight
+    assertNull(indexed.find(indexed.idOf(indexed.indexOf(89))));
+
+    for (int i = 0; i < 5; i++) {
+      indexed.register(requests.get(i));
+    }
+    assertThrows(IllegalStateException.class, () -> indexed.register(requests.get(5)));
+  }
+}
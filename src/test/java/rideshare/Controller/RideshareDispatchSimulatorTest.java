@@ -3,13 +3,23 @@ package rideshare.Controller;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
 import rideshare.Event.RideFinishedEvent;
 import rideshare.Event.RideRequestedEvent;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
 import rideshare.objects.Request;
+import rideshare.objects.RequestStore;
 import rideshare.objects.RideType;
+import rideshare.objects.TripLog;
 
 class RideshareDispatchSimulatorTest {
 
@@ -25,6 +35,7 @@ class RideshareDispatchSimulatorTest {
     assertEquals(1, testSimulation.getNumberOfIdleDrivers());
     assertEquals(1, testSimulation.getAvailableDrivers().size());
 
+    assertEquals(SimulationClock.DEFAULT_START_SECOND, testSimulation.getTime());
     assertEquals(3, testSimulation.getEventQueue().size());
     // test if the first event is RideRequestedEvent
     assertEquals("RideRequestedEvent",
@@ -40,6 +51,70 @@ class RideshareDispatchSimulatorTest {
     assertEquals(3, testSimulation.getFinishedRequests().size());
   }
 
+  @Test
+  void run_AllEventQueueTypes() {
+    for (EventQueueType type : EventQueueType.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(3, 50, type);
+      simulator.run();
+      assertTrue(simulator.getEventQueue().isEmpty());
+      assertEquals(50, simulator.getFinishedRequests().size());
+    }
+  }
+
+  @Test
+  void run_PackedEvents() {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(3, 50,
+        new SimulationConfig().setEventMode(EventMode.PACKED));
+    assertEquals(0, simulator.getEventQueue().size());
+    assertEquals(50, simulator.getPackedEventQueue().size());
+    simulator.run();
+    assertTrue(simulator.getPackedEventQueue().isEmpty());
+    assertEquals(50, simulator.getFinishedRequests().size());
+  }
+
+  @Test
+  void run_SameSeedSameResultInEveryMode() {
+    List<Request> reference = null;
+    for (EventMode mode : EventMode.values()) {
+      for (EventQueueType type : EventQueueType.values()) {
+        RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(4, 200,
+            new SimulationConfig().setSeed(11L).setEventMode(mode).setEventQueueType(type));
+        simulator.run();
+        if (reference == null) {
+          reference = simulator.getFinishedRequests();
+        } else {
+          assertEquals(reference, simulator.getFinishedRequests());
+        }
+      }
+    }
+  }
+
+  @Test
+  void run_FinishesBeforeRequestsInSameTick() {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, 0);
+    LocalDateTime start = LocalDateTime.of(2023, 10, 1, 6, 0, 0);
+    // 60 miles is one hour of riding
+    Request first = new Request("Jane", "1", "1", 60.00, start, RideType.STANDARD);
+    Request second = new Request("John", "1", "1", 60.00, start, RideType.STANDARD);
+    Request third = new Request("Joe", "1", "1", 60.00, start.plusHours(1), RideType.EXPRESS);
+    first.setId(0);
+    second.setId(1);
+    third.setId(2);
+    // scheduled out of order on purpose
+    simulator.scheduleEvent(new RideRequestedEvent(third.getRequestTime(), simulator, third));
+    simulator.scheduleEvent(new RideRequestedEvent(second.getRequestTime(), simulator, second));
+    simulator.scheduleEvent(new RideRequestedEvent(first.getRequestTime(), simulator, first));
+
+    simulator.run();
+
+    // the first ride finishes when the third is requested, so its driver goes to the waiting second
+    assertEquals(start.plusHours(1), first.getActualArrivalTime());
+    assertEquals(start.plusHours(2), second.getActualArrivalTime());
+    assertEquals(start.plusHours(3), third.getActualArrivalTime());
+    assertEquals(List.of(first, second, third), simulator.getFinishedRequests());
+    assertEquals(1, simulator.getNumberOfIdleDrivers());
+  }
+
   @Test
   void handleRideRequested_OnlyOneRequest() {
     Request testRequest = new Request("Jane", "1", "1",
@@ -75,4 +150,545 @@ class RideshareDispatchSimulatorTest {
     assertFalse(testEvent.equals(null));
     assertFalse(testEvent.equals(testRequest));
   }
-}
\ No newline at end of file
+
+  @Test
+  void nearestMatching_PicksNearestDriverAndAddsPickup() {
+    Driver far = new Driver(0, "Far");
+    far.setPosition(new Location(0, 0));
+    Driver near = new Driver(1, "Near");
+    near.setPosition(new Location(9, 10));
+    Request request = new Request("Jane", "1", "2", 6.0, SimulationClock.DEFAULT_START_SECOND,
+        RideType.EXPRESS);
+    request.setCoordinates(new Location(10, 10), new Location(10, 16));
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(List.of(far, near),
+        List.of(request), new SimulationConfig().setDriverMatching(DriverMatching.NEAREST));
+    simulator.run();
+
+    Request finished = simulator.getFinishedRequests().get(0);
+    assertEquals(near, finished.getAssignedDriver());
+    // one mile pickup and six miles riding at 60 miles per hour
+    assertEquals(SimulationClock.DEFAULT_START_SECOND + 7 * 60,
+        finished.getActualArrivalEpochSecond());
+    assertEquals(new Location(10, 16), near.getPosition());
+    assertEquals(new Location(0, 0), far.getPosition());
+  }
+
+  @Test
+  void nearestMatching_ShorterPickupsThanLongestIdle() {
+    List<Request> workload = RequestGenerator.generateSpatialRequests(2000,
+        SimulationClock.DEFAULT_START_SECOND, 10, new Random(3));
+    double[] averagePickup = new double[2];
+    for (DriverMatching matching : DriverMatching.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(200, workload,
+          new SimulationConfig().setDriverMatching(matching).setCitySizeMiles(10).setSeed(3L));
+      simulator.run();
+      assertEquals(workload.size(), simulator.getFinishedRequests().size());
+      long pickupSeconds = 0;
+      for (Request request : simulator.getFinishedRequests()) {
+        long start = request.getActualArrivalEpochSecond() - (long) request.getRidingSeconds();
+        assertTrue(start >= request.getRequestEpochSecond());
+        pickupSeconds += start - request.getRequestEpochSecond();
+      }
+      averagePickup[matching.ordinal()] = (double) pickupSeconds / workload.size();
+    }
+    assertTrue(averagePickup[DriverMatching.NEAREST.ordinal()]
+        < averagePickup[DriverMatching.LONGEST_IDLE.ordinal()]);
+  }
+
+  @Test
+  void dispatchWindow_MinimizesTotalPickup() {
+    Driver west = new Driver(0, "West");
+    west.setPosition(new Location(0, 0));
+    Driver east = new Driver(1, "East");
+    east.setPosition(new Location(3, 0));
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    Request first = new Request("Jane", "1", "2", 6.0, start + 1, RideType.EXPRESS);
+    first.setCoordinates(new Location(1, 0), new Location(1, 6));
+    Request second = new Request("John", "3", "4", 6.0, start + 2, RideType.EXPRESS);
+    second.setCoordinates(new Location(-1, 0), new Location(-1, 6));
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(List.of(west, east),
+        List.of(first, second), new SimulationConfig().setDriverMatching(DriverMatching.NEAREST)
+            .setDispatchWindowSeconds(5));
+    simulator.run();
+
+    // greedy matching would pick up the first request from the west in one mile and the
+    // second from the east in four, the window matching takes two and one
+    Request firstFinished = simulator.getFinishedRequests().get(0);
+    Request secondFinished = simulator.getFinishedRequests().get(1);
+    assertEquals("John", firstFinished.getCustomerName());
+    assertEquals(west, firstFinished.getAssignedDriver());
+    assertEquals(start + 5 + 60 + 360, firstFinished.getActualArrivalEpochSecond());
+    assertEquals(east, secondFinished.getAssignedDriver());
+    assertEquals(start + 5 + 120 + 360, secondFinished.getActualArrivalEpochSecond());
+  }
+
+  @Test
+  void dispatchWindow_AssignsOnlyAtWindowEnds() {
+    List<Request> workload = RequestGenerator.generateSpatialRequests(1000,
+        SimulationClock.DEFAULT_START_SECOND, 10, new Random(9));
+    for (DriverMatching matching : DriverMatching.values()) {
+      for (EventMode mode : EventMode.values()) {
+        RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(50, workload,
+            new SimulationConfig().setDriverMatching(matching).setEventMode(mode).setSeed(9L)
+                .setCitySizeMiles(10).setDispatchWindowSeconds(7));
+        List<Long> assignmentTimes = new ArrayList<>();
+        simulator.setDispatchListener(new DispatchListener() {
+          @Override
+          public void onRideAssigned(Request request, Driver driver, long time) {
+            assignmentTimes.add(time);
+          }
+        });
+        simulator.run();
+        assertEquals(workload.size(), simulator.getFinishedRequests().size());
+        assertEquals(50, simulator.getNumberOfIdleDrivers());
+        assertEquals(workload.size(), assignmentTimes.size());
+        for (long time : assignmentTimes) {
+          assertEquals(0, (time - SimulationClock.DEFAULT_START_SECOND) % 7);
+        }
+      }
+    }
+  }
+
+  @Test
+  void sharedRide_PicksUpOnTheWay() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    for (EventMode mode : EventMode.values()) {
+      Driver driver = new Driver(0, "Driver");
+      driver.setPosition(new Location(0, 0));
+      Request first = new Request("Jane", "1", "2", 10.0, start, RideType.EXPRESS);
+      first.setCoordinates(new Location(0, 0), new Location(0, 10));
+      Request onTheWay = new Request("John", "3", "4", 6.0, start + 60, RideType.EXPRESS);
+      onTheWay.setCoordinates(new Location(0, 2), new Location(0, 8));
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(List.of(driver),
+          List.of(first, onTheWay), new SimulationConfig().setEventMode(mode)
+              .setDriverMatching(DriverMatching.NEAREST).setSeatCapacity(2));
+      simulator.run();
+
+      // the driver is a mile north when John requests, one more to pick him up
+      List<Request> finished = simulator.getFinishedRequests();
+      assertEquals(2, finished.size());
+      assertEquals("John", finished.get(0).getCustomerName());
+      assertEquals(start + 60 + 60 + 360, finished.get(0).getActualArrivalEpochSecond());
+      assertEquals(driver, finished.get(0).getAssignedDriver());
+      assertEquals(start + 600, finished.get(1).getActualArrivalEpochSecond());
+      assertEquals(1, simulator.getNumberOfIdleDrivers());
+      assertEquals(new Location(0, 10), driver.getPosition());
+    }
+  }
+
+  @Test
+  void sharedRide_DelaysWithinDetour() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    for (EventMode mode : EventMode.values()) {
+      for (long maxDetour : new long[] {60, 300}) {
+        Driver driver = new Driver(0, "Driver");
+        driver.setPosition(new Location(0, 0));
+        Request first = new Request("Jane", "1", "2", 10.0, start, RideType.EXPRESS);
+        first.setCoordinates(new Location(0, 0), new Location(0, 10));
+        Request aside = new Request("John", "3", "4", 8.0, start + 60, RideType.EXPRESS);
+        aside.setCoordinates(new Location(1, 1), new Location(1, 9));
+        RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(
+            List.of(driver), List.of(first, aside), new SimulationConfig().setEventMode(mode)
+                .setDriverMatching(DriverMatching.NEAREST).setSeatCapacity(2)
+                .setMaxDetourSeconds(maxDetour));
+        simulator.run();
+
+        List<Request> finished = simulator.getFinishedRequests();
+        assertEquals(2, finished.size());
+        if (maxDetour == 60) {
+          // the detour of the first ride would be 85 seconds, so John waits for the driver
+          assertEquals("Jane", finished.get(0).getCustomerName());
+          assertEquals(start + 600, finished.get(0).getActualArrivalEpochSecond());
+        } else {
+          // a mile over and back, the first ride is rescheduled
+          assertEquals("John", finished.get(0).getCustomerName());
+          assertEquals(start + 600, finished.get(0).getActualArrivalEpochSecond());
+          assertEquals(start + 684, finished.get(1).getActualArrivalEpochSecond());
+        }
+        assertTrue(simulator.getActiveRequests().isEmpty());
+      }
+    }
+  }
+
+  @Test
+  void sharedRide_NeedsNearestMatching() {
+    assertThrows(IllegalArgumentException.class, () -> new RideshareDispatchSimulator(1,
+        new ArrayList<>(), new SimulationConfig().setSeatCapacity(2)));
+    assertThrows(IllegalArgumentException.class, () -> new SimulationConfig().setSeatCapacity(0));
+  }
+
+  @Test
+  void travelTimes_SetPickupsAndRides() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    for (EventMode mode : EventMode.values()) {
+      for (int seats : new int[] {1, 2}) {
+        Driver driver = new Driver(0, "Driver");
+        driver.setPosition(new Location(0, 0));
+        Request request = new Request("Jane", "1", "2", 10.0, start, RideType.EXPRESS);
+        request.setCoordinates(new Location(0, 3), new Location(0, 13));
+        // roads twice as long as the straight line
+        RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(List.of(driver),
+            List.of(request), new SimulationConfig().setEventMode(mode)
+                .setDriverMatching(DriverMatching.NEAREST).setSeatCapacity(seats)
+                .setTravelTimes((from, to) -> 2 * Request.calculateTravelSeconds(from, to)));
+        simulator.run();
+
+        Request finished = simulator.getFinishedRequests().get(0);
+        assertEquals(1200, finished.getRidingSeconds());
+        assertEquals(start + 1200, finished.getEstimatedArrivalEpochSecond());
+        assertEquals(start + 360 + 1200, finished.getActualArrivalEpochSecond());
+      }
+    }
+  }
+
+  @Test
+  void cancellation_OnlyWhileWaiting() {
+    for (EventMode mode : EventMode.values()) {
+      long start = SimulationClock.DEFAULT_START_SECOND;
+      Request first = new Request("Jane", "1", "1", 60.00, start, RideType.STANDARD);
+      Request second = new Request("John", "1", "1", 60.00, start, RideType.STANDARD);
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1,
+          List.of(first, second), new SimulationConfig().setEventMode(mode));
+      List<Request> cancelled = new ArrayList<>();
+      simulator.setDispatchListener(new DispatchListener() {
+        @Override
+        public void onRideCancelled(Request request, long time) {
+          cancelled.add(request);
+        }
+      });
+      simulator.runUntil(start + 1);
+      assertEquals(1, simulator.getWaitingRequests().size());
+      Request riding = simulator.getActiveRequests().peek();
+      Request waiting = simulator.getWaitingRequests().peek();
+      simulator.scheduleCancellation(start + 60, riding);
+      simulator.scheduleCancellation(start + 60, waiting);
+      simulator.run();
+
+      assertEquals(List.of(riding), simulator.getFinishedRequests());
+      assertEquals(List.of(waiting), simulator.getCancelledRequests());
+      assertEquals(List.of(waiting), cancelled);
+      assertTrue(simulator.getWaitingRequests().isEmpty());
+      assertThrows(IllegalArgumentException.class,
+          () -> simulator.scheduleCancellation(start, waiting));
+    }
+  }
+
+  @Test
+  void maxWait_TimesOutWaitingRequests() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    // 60 miles is one hour of riding
+    List<Request> workload = List.of(
+        new Request("Customer0", "1", "1", 60.00, start, RideType.STANDARD),
+        new Request("Customer1", "1", "1", 60.00, start, RideType.STANDARD),
+        new Request("Customer2", "1", "1", 60.00, start + 1, RideType.STANDARD));
+    for (EventMode mode : EventMode.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+          new SimulationConfig().setEventMode(mode).setMaxWaitSeconds(3600));
+      List<Long> timeouts = new ArrayList<>();
+      simulator.setDispatchListener(new DispatchListener() {
+        @Override
+        public void onRequestTimedOut(Request request, long time) {
+          timeouts.add(time - request.getRequestEpochSecond());
+        }
+      });
+      simulator.run();
+
+      // the second request gets the driver in the tick it would time out, the third never does
+      assertEquals(2, simulator.getFinishedRequests().size());
+      assertEquals("Customer1", simulator.getFinishedRequests().get(1).getCustomerName());
+      assertEquals(1, simulator.getTimedOutRequests().size());
+      assertEquals("Customer2", simulator.getTimedOutRequests().get(0).getCustomerName());
+      assertEquals(List.of(3600L), timeouts);
+    }
+  }
+
+  @Test
+  void aging_LowPriorityNotStarved() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    List<Request> workload = new ArrayList<>();
+    workload.add(new Request("First", "1", "1", 60.00, start, RideType.EXPRESS));
+    workload.add(new Request("Patient", "1", "1", 60.00, start + 1,
+        RideType.ENVIRONMENTALLY_CONSCIOUS));
+    for (int i = 2; i < 60; i++) {
+      workload.add(new Request("Express" + i, "1", "1", 60.00, start + 60 * i,
+          RideType.EXPRESS));
+    }
+    for (long agingInterval : new long[] {0, 600}) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+          new SimulationConfig().setAgingIntervalSeconds(agingInterval));
+      simulator.run();
+      List<Request> finished = simulator.getFinishedRequests();
+      assertEquals(workload.size(), finished.size());
+      int served = 0;
+      while (!finished.get(served).getCustomerName().equals("Patient")) {
+        served++;
+      }
+      // without aging every express request waiting goes first
+      assertEquals(agingInterval == 0 ? workload.size() - 1 : 1, served);
+    }
+  }
+
+  @Test
+  void admission_RejectsOverMostWaiting() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    List<Request> workload = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      workload.add(new Request("Customer" + i, "1", "1", 60.00, start, RideType.STANDARD));
+    }
+    for (EventMode mode : EventMode.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+          new SimulationConfig().setEventMode(mode).setMaxWaitingRequests(2));
+      List<Request> rejected = new ArrayList<>();
+      simulator.setDispatchListener(new DispatchListener() {
+        @Override
+        public void onRequestRejected(Request request, long time) {
+          rejected.add(request);
+        }
+      });
+      simulator.runUntil(start + 1);
+      assertEquals(2, simulator.getWaitingRequests().size());
+      simulator.run();
+
+      assertEquals(3, simulator.getFinishedRequests().size());
+      assertEquals(1, simulator.getRejectedRequestCount());
+      assertEquals("Customer3", simulator.getRejectedRequests().get(0).getCustomerName());
+      assertEquals(simulator.getRejectedRequests(), rejected);
+    }
+  }
+
+  @Test
+  void admission_ShedsLowestPriorityRideType() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    List<Request> workload = List.of(
+        new Request("Riding", "1", "1", 60.00, start, RideType.STANDARD),
+        new Request("Saver", "1", "1", 60.00, start, RideType.WAIT_AND_SAVE),
+        new Request("Express", "1", "1", 60.00, start + 1, RideType.EXPRESS),
+        new Request("Standard", "1", "1", 60.00, start + 2, RideType.STANDARD));
+    for (EventMode mode : EventMode.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+          new SimulationConfig().setEventMode(mode).setMaxWaitingRequests(1)
+              .setOverloadPolicy(OverloadPolicy.SHED_LOWEST_PRIORITY));
+      simulator.run();
+
+      // the saver makes room for the express ride, nothing waiting is below a standard ride
+      assertEquals(List.of("Riding", "Express"), customerNames(simulator.getFinishedRequests()));
+      assertEquals(List.of("Saver", "Standard"), customerNames(simulator.getRejectedRequests()));
+    }
+  }
+
+  @Test
+  void admission_DefersUntilLongestWait() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    // 60 miles is one hour of riding
+    List<Request> workload = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      workload.add(new Request("Customer" + i, "1", "1", 60.00, start, RideType.STANDARD));
+    }
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setMaxWaitingRequests(1).setOverloadPolicy(OverloadPolicy.DEFER).setDeferSeconds(600);
+
+      // deferred every 10 minutes until the second request gets the driver after an hour,
+      // then it waits and times out
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(1, workload,
+          config.copy().setMaxWaitSeconds(4000));
+      simulator.run();
+      assertEquals(2, simulator.getFinishedRequests().size());
+      assertEquals(6, simulator.getDeferredRequestCount());
+      assertEquals(List.of("Customer2"), customerNames(simulator.getTimedOutRequests()));
+      assertEquals(0, simulator.getRejectedRequestCount());
+
+      // rejected once it would be requested again after its longest wait
+      simulator = new RideshareDispatchSimulator(1, workload,
+          config.copy().setMaxWaitSeconds(3000));
+      simulator.run();
+      assertEquals(4, simulator.getDeferredRequestCount());
+      assertEquals(List.of("Customer2"), customerNames(simulator.getRejectedRequests()));
+    }
+  }
+
+  @Test
+  void aging_DeferredRequestAgesFromRequestTime() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    // 60 miles is one hour of riding, 5 miles five minutes
+    List<Request> workload = List.of(
+        new Request("Long", "1", "1", 60.00, start, RideType.STANDARD),
+        new Request("Short", "1", "1", 5.00, start, RideType.STANDARD),
+        new Request("Next", "1", "1", 5.00, start, RideType.STANDARD),
+        new Request("Waiting", "1", "1", 60.00, start, RideType.STANDARD),
+        new Request("Deferred", "1", "1", 60.00, start + 1, RideType.ENVIRONMENTALLY_CONSCIOUS),
+        new Request("Newer", "1", "1", 60.00, start + 400, RideType.ENVIRONMENTALLY_CONSCIOUS),
+        new Request("Late", "1", "1", 60.00, start + 700, RideType.STANDARD));
+    for (EventMode mode : EventMode.values()) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(2, workload,
+          new SimulationConfig().setEventMode(mode).setMaxWaitingRequests(2)
+              .setOverloadPolicy(OverloadPolicy.DEFER).setDeferSeconds(600)
+              .setAgingIntervalSeconds(600));
+      simulator.runUntil(start + 701);
+
+      // the deferred request started waiting after the newer one, at start + 601, and has
+      // waited a full interval since its request time by start + 700, the newer one has not
+      assertEquals(2, simulator.getDeferredRequestCount());
+      assertEquals(List.of("Deferred", "Newer"), customerNames(
+          new ArrayList<>(simulator.getWaitingRequests())));
+      for (Request waiting : simulator.getWaitingRequests()) {
+        int raises = waiting.getCustomerName().equals("Deferred") ? 1 : 0;
+        assertEquals(waiting.getPriority() + raises, waiting.getEffectivePriority());
+      }
+    }
+  }
+
+  @Test
+  void admission_WaitingForDispatchWindowNotCounted() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    List<Request> workload = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      workload.add(new Request("Customer" + i, "1", "1", 10.00, start, RideType.STANDARD));
+    }
+    for (long window : new long[] {0, 5}) {
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(100, workload,
+          new SimulationConfig().setDispatchWindowSeconds(window).setMaxWaitingRequests(10)
+              .setMaxPredictedWaitSeconds(60));
+      simulator.run();
+
+      // the idle drivers take every request at the end of the window
+      assertEquals(20, simulator.getFinishedRequests().size());
+      assertEquals(0, simulator.getRejectedRequestCount());
+    }
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(5, workload,
+        new SimulationConfig().setDispatchWindowSeconds(5).setMaxWaitingRequests(10));
+    simulator.run();
+    assertEquals(15, simulator.getFinishedRequests().size());
+    assertEquals(5, simulator.getRejectedRequestCount());
+  }
+
+  @Test
+  void admission_PredictedWaitPerBusyDriver() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    Driver driver = new Driver(0, "Driver");
+    driver.setPosition(new Location(0, 0));
+    Request first = new Request("Jane", "1", "2", 10.0, start, RideType.EXPRESS);
+    first.setCoordinates(new Location(0, 0), new Location(0, 10));
+    Request onTheWay = new Request("John", "3", "4", 6.0, start + 60, RideType.EXPRESS);
+    onTheWay.setCoordinates(new Location(0, 2), new Location(0, 8));
+    Request waiting = new Request("Jim", "5", "6", 1.0, start + 61, RideType.EXPRESS);
+    waiting.setCoordinates(new Location(9, 0), new Location(9, 1));
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(List.of(driver),
+        List.of(first, onTheWay, waiting), new SimulationConfig()
+            .setDriverMatching(DriverMatching.NEAREST).setSeatCapacity(2));
+    simulator.runUntil(start + 62);
+
+    // John gets off about 7 minutes later, then one driver, not two, serves the waiting
+    // request in about 10 minutes
+    assertEquals(1, simulator.getWaitingRequests().size());
+    assertEquals(2, simulator.getActiveRequests().size());
+    assertTrue(simulator.predictWaitSeconds() >= 1000);
+  }
+
+  @Test
+  void admission_LimitsPredictedWait() {
+    long start = SimulationClock.DEFAULT_START_SECOND;
+    List<Request> workload = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      workload.add(new Request("Customer" + i, "1", "1", 60.00, start, RideType.STANDARD));
+    }
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(2, workload,
+        new SimulationConfig().setMaxPredictedWaitSeconds(5000));
+    simulator.runUntil(start + 1);
+
+    // both drivers ride for an hour, then the one waiting request takes half an hour of each
+    assertEquals(1, simulator.getWaitingRequests().size());
+    assertEquals(5400, simulator.predictWaitSeconds());
+    assertEquals(List.of("Customer3", "Customer4"),
+        customerNames(simulator.getRejectedRequests()));
+  }
+
+  List<String> customerNames(List<Request> requests) {
+    List<String> names = new ArrayList<>();
+    for (Request request : requests) {
+      names.add(request.getCustomerName());
+    }
+    return names;
+  }
+
+  @Test
+  void workloadStore_SameAsRequests() {
+    List<Request> workload = RequestGenerator.generateRequests(300,
+        SimulationClock.DEFAULT_START_SECOND, new Random(5));
+    workload.sort(Comparator.comparingLong(Request::getRequestEpochSecond));
+    RequestStore store = RequestStore.of(workload);
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setAgingIntervalSeconds(600);
+      RideshareDispatchSimulator requests = new RideshareDispatchSimulator(10, workload, config);
+      requests.run();
+      RideshareDispatchSimulator rows = new RideshareDispatchSimulator(10, store, config);
+      rows.run();
+
+      assertEquals(requests.getFinishedRequests(), rows.getFinishedRequests());
+      Request last = requests.getFinishedRequests().get(299);
+      int row = ((RequestStore.Row) rows.getFinishedRequests().get(299)).getRow();
+      assertEquals(last.getActualArrivalEpochSecond(), store.getActualArrivalEpochSecond(row));
+      assertEquals(last.getAssignedDriver().getId(), store.getAssignedDriverId(row));
+    }
+    store.add(null, null, null, 10.0, SimulationClock.DEFAULT_START_SECOND, RideType.STANDARD);
+    assertThrows(IllegalArgumentException.class,
+        () -> new RideshareDispatchSimulator(10, store, new SimulationConfig()));
+  }
+
+  @Test
+  void tripLog_SameAsRequests() {
+    TripLog trips = RequestGenerator.generateTripLog(300, SimulationClock.DEFAULT_START_SECOND,
+        3600, new Random(5));
+    List<Request> workload = new ArrayList<>(trips);
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setAgingIntervalSeconds(600);
+      RideshareDispatchSimulator requests = new RideshareDispatchSimulator(10, workload, config);
+      requests.run();
+      RideshareDispatchSimulator offHeap = new RideshareDispatchSimulator(10, trips,
+          config.copy().setFinishedRequestsOffHeap(true));
+      offHeap.run();
+
+      assertTrue(offHeap.getFinishedRequests() instanceof TripLog);
+      assertEquals(requests.getFinishedRequests(), offHeap.getFinishedRequests());
+      TripLog finished = (TripLog) offHeap.getFinishedRequests();
+      Request last = requests.getFinishedRequests().get(299);
+      assertEquals(last, finished.getById(last.getId()));
+      assertEquals(last.getAssignedDriver().getId(),
+          finished.getAssignedDriverId(finished.positionOf(last.getId())));
+      assertThrows(IllegalStateException.class, offHeap::getRequests);
+    }
+    trips.add(new Request(null, null, null, 10.0, SimulationClock.DEFAULT_START_SECOND - 1,
+        RideType.STANDARD));
+    assertThrows(IllegalArgumentException.class,
+        () -> new RideshareDispatchSimulator(10, trips, new SimulationConfig()));
+  }
+
+  @Test
+  void tripLog_UnservedRequestsOffHeap() {
+    TripLog trips = RequestGenerator.generateTripLog(300, SimulationClock.DEFAULT_START_SECOND,
+        3600, new Random(5));
+    List<Request> workload = new ArrayList<>(trips);
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setMaxWaitingRequests(20).setMaxWaitSeconds(1200);
+      RideshareDispatchSimulator requests = new RideshareDispatchSimulator(5, workload, config);
+      requests.run();
+      RideshareDispatchSimulator offHeap = new RideshareDispatchSimulator(5, trips,
+          config.copy().setFinishedRequestsOffHeap(true));
+      offHeap.run();
+
+      assertFalse(requests.getTimedOutRequests().isEmpty());
+      assertFalse(requests.getRejectedRequests().isEmpty());
+      assertTrue(offHeap.getTimedOutRequests() instanceof TripLog);
+      assertTrue(offHeap.getRejectedRequests() instanceof TripLog);
+      assertTrue(offHeap.getCancelledRequests() instanceof TripLog);
+      assertEquals(requests.getFinishedRequests(), offHeap.getFinishedRequests());
+      assertEquals(requests.getTimedOutRequests(), offHeap.getTimedOutRequests());
+      assertEquals(requests.getRejectedRequests(), offHeap.getRejectedRequests());
+      assertEquals(requests.getTimedOutRequestCount(), offHeap.getTimedOutRequestCount());
+      assertEquals(requests.getRejectedRequestCount(), offHeap.getRejectedRequestCount());
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+class ShardedDispatcherTest {
+
+  ShardedDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    dispatcher = new ShardedDispatcher(3);
+  }
+
+  List<Request> workload(int numberOfRequests, long seed) {
+    return RequestGenerator.generateRequests(numberOfRequests,
+        SimulationClock.DEFAULT_START_SECOND, new Random(seed));
+  }
+
+  @Test
+  void finish_SameAsRunningEveryMarketAlone() throws InterruptedException {
+    List<RideshareDispatchSimulator> alone = new ArrayList<>();
+    for (int market = 0; market < 6; market++) {
+      // markets of very different sizes
+      int requests = 100 + 600 * market;
+      RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(10 + market,
+          workload(requests, market), new SimulationConfig());
+      simulator.runUntil(Long.MAX_VALUE);
+      alone.add(simulator);
+      dispatcher.addShard("city" + market, new RideshareDispatchSimulator(10 + market,
+          workload(requests, market), new SimulationConfig()));
+    }
+    dispatcher.finish();
+
+    long finished = 0;
+    for (int market = 0; market < 6; market++) {
+      DispatcherShard shard = dispatcher.getShard("city" + market);
+      assertTrue(shard.isDone());
+      assertEquals(alone.get(market).getFinishedRequests(),
+          shard.getSimulator().getFinishedRequests());
+      assertEquals(alone.get(market).getFinishedRequests().size(),
+          shard.getMetrics().getFinishedRequests());
+      finished += alone.get(market).getFinishedRequests().size();
+    }
+    ShardMetrics metrics = dispatcher.getMetrics();
+    assertEquals(6, metrics.getShards());
+    assertEquals(finished, metrics.getFinishedRequests());
+    assertEquals(finished, metrics.getAssignedRequests());
+    assertEquals(0, metrics.getReceivedRequests());
+    assertTrue(metrics.getSlices() > 6); // the big markets gave their worker up in between
+  }
+
+  @Test
+  void submit_FromSeveralThreads() throws InterruptedException {
+    int markets = 4;
+    for (int market = 0; market < markets; market++) {
+      dispatcher.addShard("city" + market, new RideshareDispatchSimulator(8, new ArrayList<>(),
+          new SimulationConfig()));
+    }
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < 4; producer++) {
+      List<Request> requests = workload(2000, producer);
+      producers.add(new Thread(() -> {
+        for (int i = 0; i < requests.size(); i++) {
+          dispatcher.submit("city" + i % markets, requests.get(i));
+        }
+      }));
+    }
+    for (Thread producer : producers) {
+      producer.start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    dispatcher.finish();
+
+    ShardMetrics metrics = dispatcher.getMetrics();
+    assertEquals(8000, metrics.getReceivedRequests());
+    assertEquals(8000, metrics.getFinishedRequests());
+    for (DispatcherShard shard : dispatcher.getShards()) {
+      assertEquals(0, shard.getInboxSize());
+      assertEquals(2000, shard.getSimulator().getFinishedRequests().size());
+      assertEquals(8, shard.getSimulator().getNumberOfIdleDrivers());
+    }
+  }
+
+  @Test
+  void submit_RejectedOnceClosed() throws InterruptedException {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(2, workload(10, 1),
+        new SimulationConfig());
+    DispatcherShard shard = dispatcher.addShard("city", simulator);
+    assertThrows(IllegalArgumentException.class, () -> dispatcher.addShard("city", simulator));
+    assertThrows(IllegalArgumentException.class,
+        () -> dispatcher.submit("elsewhere", workload(1, 2).get(0)));
+    shard.close();
+    assertThrows(IllegalStateException.class, () -> shard.submit(workload(1, 2).get(0)));
+    dispatcher.finish();
+    assertEquals(10, shard.getSimulator().getFinishedRequests().size());
+  }
+
+  @Test
+  void finish_FailsWithTheMarket() {
+    dispatcher.addShard("city", new RideshareDispatchSimulator(2, workload(10, 1),
+        new SimulationConfig()), new DispatchListener() {
+          @Override
+          public void onRideAssigned(Request request, Driver driver, long time) {
+            throw new IllegalArgumentException("bad market");
+          }
+        });
+    IllegalStateException e = assertThrows(IllegalStateException.class, dispatcher::finish);
+    assertEquals("bad market", e.getCause().getMessage());
+    assertTrue(dispatcher.getShard("city").isDone());
+  }
+}
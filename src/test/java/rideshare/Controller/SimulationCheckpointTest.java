@@ -0,0 +1,213 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+class SimulationCheckpointTest {
+
+  List<Request> workload;
+  long checkpointTime;
+
+  @BeforeEach
+  void setUp() {
+    workload = RequestGenerator.generateRequests(500, SimulationClock.DEFAULT_START_SECOND,
+        new Random(11));
+    checkpointTime = SimulationClock.DEFAULT_START_SECOND + 1800;
+  }
+
+  @Test
+  void resume_SameAsUninterruptedRunInEveryMode() {
+    for (EventQueueType type : EventQueueType.values()) {
+      for (EventMode mode : EventMode.values()) {
+        SimulationConfig config = new SimulationConfig().setEventQueueType(type).setEventMode(mode);
+        RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(20, workload,
+            config);
+        uninterrupted.run();
+
+        RideshareDispatchSimulator original = new RideshareDispatchSimulator(20, workload, config);
+        original.runUntil(checkpointTime);
+        byte[] checkpoint = SimulationCheckpoint.toBytes(original);
+        RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(checkpoint);
+
+        assertEquals(original.getTime(), resumed.getTime());
+        assertEquals(type, resumed.getEventQueueType());
+        assertEquals(mode, resumed.getEventMode());
+        assertEquals(original.getNumberOfIdleDrivers(), resumed.getNumberOfIdleDrivers());
+        assertEquals(original.getWaitingRequests().size(), resumed.getWaitingRequests().size());
+        assertEquals(original.getFinishedRequests(), resumed.getFinishedRequests());
+
+        resumed.run();
+        assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+      }
+    }
+  }
+
+  @Test
+  void fromBytes_ForksIndependentRuns() {
+    RideshareDispatchSimulator original = new RideshareDispatchSimulator(20, workload,
+        new SimulationConfig());
+    original.runUntil(checkpointTime);
+    byte[] checkpoint = SimulationCheckpoint.toBytes(original);
+
+    RideshareDispatchSimulator first = SimulationCheckpoint.fromBytes(checkpoint);
+    first.run();
+    RideshareDispatchSimulator second = SimulationCheckpoint.fromBytes(checkpoint);
+    assertTrue(second.getFinishedRequests().size() < workload.size());
+    second.run();
+    assertEquals(first.getFinishedRequests(), second.getFinishedRequests());
+  }
+
+  @Test
+  void saveAndLoad(@TempDir Path directory) throws IOException {
+    RideshareDispatchSimulator original = new RideshareDispatchSimulator(20, workload,
+        new SimulationConfig().setEventQueueType(EventQueueType.TIMING_WHEEL));
+    original.runUntil(checkpointTime);
+    Path file = directory.resolve("warm.ckpt");
+    SimulationCheckpoint.save(original, file);
+
+    RideshareDispatchSimulator resumed = SimulationCheckpoint.load(file);
+    original.run();
+    resumed.run();
+    assertEquals(original.getFinishedRequests(), resumed.getFinishedRequests());
+  }
+
+  @Test
+  void resume_NearestMatching() {
+    List<Request> spatialWorkload = RequestGenerator.generateSpatialRequests(500,
+        SimulationClock.DEFAULT_START_SECOND, 10, new Random(11));
+    SimulationConfig config = new SimulationConfig().setDriverMatching(DriverMatching.NEAREST)
+        .setCitySizeMiles(10).setSeed(11L);
+    RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(20, spatialWorkload,
+        config);
+    uninterrupted.run();
+
+    RideshareDispatchSimulator original = new RideshareDispatchSimulator(20, spatialWorkload,
+        config);
+    original.runUntil(checkpointTime);
+    RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(
+        SimulationCheckpoint.toBytes(original));
+    assertEquals(DriverMatching.NEAREST, resumed.getDriverMatching());
+    resumed.run();
+    assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+  }
+
+  @Test
+  void resume_SharedRides() {
+    List<Request> spatialWorkload = RequestGenerator.generateSpatialRequests(500,
+        SimulationClock.DEFAULT_START_SECOND, 10, new Random(11));
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setDriverMatching(DriverMatching.NEAREST)
+          .setEventMode(mode).setCitySizeMiles(10).setSeed(11L).setSeatCapacity(3);
+      RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(10,
+          spatialWorkload, config);
+      uninterrupted.run();
+
+      RideshareDispatchSimulator original = new RideshareDispatchSimulator(10, spatialWorkload,
+          config);
+      original.runUntil(checkpointTime);
+      assertFalse(original.getRoutes().isEmpty());
+      RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(
+          SimulationCheckpoint.toBytes(original));
+      assertEquals(3, resumed.getSeatCapacity());
+      assertEquals(original.getRoutes().size(), resumed.getRoutes().size());
+      resumed.run();
+      assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+    }
+  }
+
+  @Test
+  void resume_AgingAndTimeouts() {
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setAgingIntervalSeconds(300).setMaxWaitSeconds(2400);
+      RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(5, workload,
+          config);
+      uninterrupted.run();
+      assertFalse(uninterrupted.getTimedOutRequests().isEmpty());
+
+      RideshareDispatchSimulator original = new RideshareDispatchSimulator(5, workload, config);
+      original.runUntil(checkpointTime);
+      RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(
+          SimulationCheckpoint.toBytes(original));
+      assertEquals(300, resumed.getAgingIntervalSeconds());
+      assertEquals(2400, resumed.getMaxWaitSeconds());
+      assertEquals(original.getTimedOutRequests(), resumed.getTimedOutRequests());
+      resumed.run();
+      assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+      assertEquals(uninterrupted.getTimedOutRequests(), resumed.getTimedOutRequests());
+    }
+  }
+
+  @Test
+  void resume_AdmissionControl() {
+    for (OverloadPolicy policy : OverloadPolicy.values()) {
+      SimulationConfig config = new SimulationConfig().setMaxWaitingRequests(10)
+          .setOverloadPolicy(policy).setMaxWaitSeconds(2400);
+      RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(5, workload,
+          config);
+      uninterrupted.run();
+      assertTrue(uninterrupted.getRejectedRequestCount() > 0);
+
+      RideshareDispatchSimulator original = new RideshareDispatchSimulator(5, workload, config);
+      original.runUntil(checkpointTime);
+      RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(
+          SimulationCheckpoint.toBytes(original));
+      assertEquals(policy, resumed.getOverloadPolicy());
+      assertEquals(10, resumed.getMaxWaitingRequests());
+      assertEquals(original.getDeferredRequestCount(), resumed.getDeferredRequestCount());
+      resumed.run();
+      assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+      assertEquals(uninterrupted.getRejectedRequests(), resumed.getRejectedRequests());
+      assertEquals(uninterrupted.getDeferredRequestCount(), resumed.getDeferredRequestCount());
+    }
+  }
+
+  @Test
+  void resume_DeferAndAging() {
+    for (EventMode mode : EventMode.values()) {
+      SimulationConfig config = new SimulationConfig().setEventMode(mode)
+          .setMaxWaitingRequests(10).setOverloadPolicy(OverloadPolicy.DEFER).setDeferSeconds(300)
+          .setAgingIntervalSeconds(300).setMaxWaitSeconds(2400);
+      RideshareDispatchSimulator uninterrupted = new RideshareDispatchSimulator(5, workload,
+          config);
+      uninterrupted.run();
+
+      RideshareDispatchSimulator original = new RideshareDispatchSimulator(5, workload, config);
+      // by then deferred requests have started waiting behind newer ones
+      original.runUntil(checkpointTime + 1800);
+      assertTrue(original.getDeferredRequestCount() > 0);
+      RideshareDispatchSimulator resumed = SimulationCheckpoint.fromBytes(
+          SimulationCheckpoint.toBytes(original));
+      resumed.run();
+      assertEquals(uninterrupted.getFinishedRequests(), resumed.getFinishedRequests());
+      assertEquals(uninterrupted.getTimedOutRequests(), resumed.getTimedOutRequests());
+      assertEquals(uninterrupted.getRejectedRequests(), resumed.getRejectedRequests());
+      assertEquals(uninterrupted.getDeferredRequestCount(), resumed.getDeferredRequestCount());
+    }
+  }
+
+  @Test
+  void write_OnlyStraightLines() {
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(2, workload,
+        new SimulationConfig().setTravelTimes((from, to) -> 60));
+    assertThrows(IllegalStateException.class, () -> SimulationCheckpoint.toBytes(simulator));
+  }
+
+  @Test
+  void read_NotACheckpoint() {
+    assertThrows(IOException.class,
+        () -> SimulationCheckpoint.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})));
+  }
+}
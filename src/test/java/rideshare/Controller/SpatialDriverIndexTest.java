@@ -0,0 +1,95 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Driver;
+import rideshare.objects.Location;
+
+class SpatialDriverIndexTest {
+
+  SpatialDriverIndex index;
+  List<Driver> drivers;
+  Random random;
+
+  @BeforeEach
+  void setUp() {
+    index = new SpatialDriverIndex(10, 8, 4);
+    drivers = new ArrayList<>();
+    random = new Random(5);
+    for (int i = 0; i < 300; i++) {
+      Driver driver = new Driver(i, "Driver" + i);
+      driver.setPosition(new Location(random.nextDouble() * 10, random.nextDouble() * 10));
+      drivers.add(driver);
+      index.add(driver);
+    }
+  }
+
+  @Test
+  void nearest_SameAsBruteForce() {
+    for (int i = 0; i < 200; i++) {
+      // some query points are outside the city
+      Location point = new Location(random.nextDouble() * 14 - 2, random.nextDouble() * 14 - 2);
+      assertEquals(bruteForce(point, drivers).subList(0, 5), index.nearest(point, 5));
+      assertSame(bruteForce(point, drivers).get(0), index.nearest(point));
+    }
+  }
+
+  @Test
+  void withinRadius_SameAsBruteForce() {
+    for (int i = 0; i < 50; i++) {
+      Location point = new Location(random.nextDouble() * 10, random.nextDouble() * 10);
+      List<Driver> expected = new ArrayList<>();
+      for (Driver driver : bruteForce(point, drivers)) {
+        if (driver.getPosition().distanceTo(point) <= 1.5) {
+          expected.add(driver);
+        }
+      }
+      assertEquals(expected, index.withinRadius(point, 1.5));
+    }
+  }
+
+  @Test
+  void moveAndRemove() {
+    List<Driver> remaining = new ArrayList<>(drivers);
+    for (int i = 0; i < 100; i++) {
+      Driver removed = remaining.remove(random.nextInt(remaining.size()));
+      assertTrue(index.remove(removed));
+      assertFalse(index.remove(removed));
+      Driver moved = remaining.get(random.nextInt(remaining.size()));
+      index.move(moved, new Location(random.nextDouble() * 10, random.nextDouble() * 10));
+    }
+    assertEquals(remaining.size(), index.size());
+    Location point = new Location(3, 7);
+    assertEquals(bruteForce(point, remaining).subList(0, 10), index.nearest(point, 10));
+    assertEquals(remaining.size(), index.nearest(point, 1000).size());
+  }
+
+  @Test
+  void add_Twice() {
+    assertThrows(IllegalStateException.class, () -> index.add(drivers.get(0)));
+    assertThrows(IllegalArgumentException.class, () -> index.add(new Driver(400, "Driver400")));
+  }
+
+  @Test
+  void nearest_Empty() {
+    SpatialDriverIndex empty = SpatialDriverIndex.forCity(10, 100);
+    assertNull(empty.nearest(new Location(1, 1)));
+    assertTrue(empty.nearest(new Location(1, 1), 3).isEmpty());
+  }
+
+  /**
+   * sort drivers by distance to a point, then by id
+   */
+  private static List<Driver> bruteForce(Location point, List<Driver> drivers) {
+    List<Driver> sorted = new ArrayList<>(drivers);
+    sorted.sort(Comparator.comparingDouble((Driver driver) -> driver.getPosition().distanceTo(point))
+        .thenComparingInt(Driver::getId));
+    return sorted;
+  }
+}
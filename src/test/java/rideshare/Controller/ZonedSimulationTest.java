@@ -0,0 +1,141 @@
+package rideshare.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventQueueType;
+import rideshare.Model.RequestGenerator;
+import rideshare.Model.RoadNetworkGenerator;
+import rideshare.Routing.DijkstraRouter;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+class ZonedSimulationTest {
+
+  List<Request> workload;
+
+  @BeforeEach
+  void setUp() {
+    workload = RequestGenerator.generateRequests(2000, SimulationClock.DEFAULT_START_SECOND,
+        new Random(7));
+  }
+
+  @Test
+  void runParallel_SameAsSequential() {
+    ZonedSimulation sequential = new ZonedSimulation(60, workload, 8, new SimulationConfig());
+    sequential.runSequential();
+    ZonedSimulation parallel = new ZonedSimulation(60, workload, 8, new SimulationConfig());
+    parallel.runParallel(4);
+
+    assertEquals(workload.size(), sequential.getFinishedRequests().size());
+    assertTrue(sequential.getNumberOfHandoffs() > 0);
+    assertEquals(sequential.getNumberOfHandoffs(), parallel.getNumberOfHandoffs());
+    assertEquals(sequential.getFinishedRequests(), parallel.getFinishedRequests());
+  }
+
+  @Test
+  void runParallel_SameInEveryMode() {
+    ZonedSimulation reference = new ZonedSimulation(60, workload, 4, new SimulationConfig());
+    reference.runParallel(4);
+    for (EventQueueType type : EventQueueType.values()) {
+      for (EventMode mode : EventMode.values()) {
+        ZonedSimulation zoned = new ZonedSimulation(60, workload, 4,
+            new SimulationConfig().setEventQueueType(type).setEventMode(mode));
+        zoned.runParallel(2);
+        assertEquals(reference.getFinishedRequests(), zoned.getFinishedRequests());
+      }
+    }
+  }
+
+  @Test
+  void roadNetwork_LookaheadIsShortestRoadRide() {
+    SimulationConfig config = new SimulationConfig().setCitySizeMiles(5)
+        .setTravelTimes(new DijkstraRouter(RoadNetworkGenerator.generateGrid(20, 5,
+            new Random(3))));
+    // rides between nearby points may start and end at the same node, i.e. take no time
+    List<Request> spatial = new ArrayList<>();
+    for (Request request : RequestGenerator.generateSpatialRequests(2000,
+        SimulationClock.DEFAULT_START_SECOND, 5, new Random(8))) {
+      if (request.getStartCoordinates().distanceTo(request.getEndCoordinates()) >= 1) {
+        spatial.add(request);
+      }
+    }
+    ZonedSimulation sequential = new ZonedSimulation(60, spatial, 4, config);
+    long shortestRoadRide = Long.MAX_VALUE;
+    for (Request request : spatial) {
+      shortestRoadRide = Math.min(shortestRoadRide, (long) config.getTravelTimes()
+          .travelSeconds(request.getStartCoordinates(), request.getEndCoordinates()));
+    }
+    assertEquals(shortestRoadRide, sequential.getLookahead());
+    assertNotEquals(new ZonedSimulation(60, spatial, 4, new SimulationConfig()).getLookahead(),
+        sequential.getLookahead());
+    sequential.runSequential();
+    ZonedSimulation parallel = new ZonedSimulation(60, spatial, 4, config);
+    parallel.runParallel(4);
+
+    assertFalse(sequential.getFinishedRequests().isEmpty());
+    assertTrue(sequential.getNumberOfHandoffs() > 0);
+    assertEquals(sequential.getNumberOfHandoffs(), parallel.getNumberOfHandoffs());
+    assertEquals(sequential.getFinishedRequests(), parallel.getFinishedRequests());
+  }
+
+  @Test
+  void roadNetwork_RideWithoutTime_Rejected() {
+    SimulationConfig config = new SimulationConfig().setCitySizeMiles(5)
+        .setTravelTimes(new DijkstraRouter(RoadNetworkGenerator.generateGrid(20, 5,
+            new Random(3))));
+    Request sameCorner = new Request("Customer", "Start", "End", 0.5,
+        SimulationClock.DEFAULT_START_SECOND, workload.get(0).getRideType());
+    sameCorner.setCoordinates(new Location(1, 1), new Location(1.01, 1.01));
+    assertTrue(sameCorner.getRidingSeconds() >= 1);
+    assertThrows(IllegalArgumentException.class,
+        () -> new ZonedSimulation(60, List.of(sameCorner), 4, config));
+  }
+
+  @Test
+  void zoneOf_CellsOfTheCity() {
+    assertEquals(0, ZonedSimulation.zoneOf(new Location(0, 0), 20, 8));
+    assertEquals(4, ZonedSimulation.zoneOf(new Location(10, 10), 20, 8));
+    assertEquals(7, ZonedSimulation.zoneOf(new Location(19.9, 19.9), 20, 8));
+    assertEquals(7, ZonedSimulation.zoneOf(new Location(25, 30), 20, 8));
+    assertEquals(ZonedSimulation.zoneOf(new Location(3, 3), 20, 8),
+        ZonedSimulation.zoneOf(new Location(3.1, 3.2), 20, 8));
+    boolean[] used = new boolean[8];
+    for (int x = 0; x < 20; x++) {
+      for (int y = 0; y < 20; y++) {
+        used[ZonedSimulation.zoneOf(new Location(x + 0.5, y + 0.5), 20, 8)] = true;
+      }
+    }
+    for (boolean zoneUsed : used) {
+      assertTrue(zoneUsed);
+    }
+  }
+
+  @Test
+  void oneZone_SameAsGlobalSimulator() {
+    RideshareDispatchSimulator global = new RideshareDispatchSimulator(60, workload,
+        new SimulationConfig());
+    global.run();
+    ZonedSimulation zoned = new ZonedSimulation(60, workload, 1, new SimulationConfig());
+    zoned.runParallel(2);
+    assertEquals(0, zoned.getNumberOfHandoffs());
+    assertEquals(global.getFinishedRequests(), zoned.getFinishedRequests());
+  }
+
+  @Test
+  void driversStayInTheSystem() {
+    ZonedSimulation zoned = new ZonedSimulation(60, workload, 8, new SimulationConfig());
+    zoned.runParallel(4);
+    int idleDrivers = 0;
+    for (int zone = 0; zone < 8; zone++) {
+      idleDrivers += zoned.getZone(zone).getNumberOfIdleDrivers();
+    }
+    assertEquals(60, idleDrivers);
+    assertTrue(zoned.getLookahead() > 0);
+  }
+}
@@ -0,0 +1,101 @@
+package rideshare.Event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Controller.SimulationClock;
+
+class EventQueueTest {
+
+  long origin;
+
+  @BeforeEach
+  void setUp() {
+    origin = SimulationClock.DEFAULT_START_SECOND;
+  }
+
+  private Event eventAt(long secondsFromStart) {
+    return new RideRequestedEvent(origin + secondsFromStart, null, null);
+  }
+
+  private void assertSameOrderAsHeap(EventQueueType type) {
+    EventQueue reference = new HeapEventQueue();
+    EventQueue testQueue = type.create(origin);
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      // pre-scheduled events, many sharing the same second, and a few far in the future
+      long seconds = i % 100 == 0 ? random.nextInt(1 << 30) : random.nextInt(3600);
+      Event event = eventAt(seconds);
+      reference.add(event);
+      testQueue.add(event);
+    }
+    while (!reference.isEmpty()) {
+      assertEquals(reference.size(), testQueue.size());
+      Event expected = reference.poll();
+      assertEquals(expected.time, testQueue.peek().time);
+      Event actual = testQueue.poll();
+      assertEquals(expected.time, actual.time);
+      // events scheduled while running are never earlier than the current event
+      if (random.nextInt(3) == 0) {
+        Event followUp = new RideFinishedEvent(actual.time + random.nextInt(7200), null, null);
+        reference.add(followUp);
+        testQueue.add(followUp);
+      }
+    }
+    assertTrue(testQueue.isEmpty());
+    assertNull(testQueue.poll());
+    assertNull(testQueue.peek());
+  }
+
+  @Test
+  void calendarQueue_SameOrderAsHeap() {
+    assertSameOrderAsHeap(EventQueueType.CALENDAR);
+  }
+
+  @Test
+  void timingWheel_SameOrderAsHeap() {
+    assertSameOrderAsHeap(EventQueueType.TIMING_WHEEL);
+  }
+
+  @Test
+  void calendarQueue_WidthFromEventsNearTheHead() {
+    long[] sample = new long[25];
+    for (int i = 0; i < 24; i++) {
+      sample[i] = 10L * i;
+    }
+    sample[24] = 1L << 30; // e.g. a timeout far ahead
+    assertEquals(30, CalendarEventQueue.estimateWidth(sample, 25));
+    assertEquals(1, CalendarEventQueue.estimateWidth(new long[] {5, 5, 5}, 3));
+    assertEquals(1, CalendarEventQueue.estimateWidth(sample, 1));
+  }
+
+  @Test
+  void sameSecond_InsertionOrder() {
+    for (EventQueueType type : new EventQueueType[] {EventQueueType.CALENDAR,
+        EventQueueType.TIMING_WHEEL}) {
+      EventQueue testQueue = type.create(origin);
+      Event first = eventAt(10);
+      Event second = eventAt(10);
+      Event earlier = eventAt(5);
+      testQueue.add(first);
+      testQueue.add(second);
+      testQueue.add(earlier);
+      assertSame(earlier, testQueue.poll());
+      assertSame(first, testQueue.poll());
+      assertSame(second, testQueue.poll());
+    }
+  }
+
+  @Test
+  void timingWheel_AddBehindCursorAfterPeek() {
+    EventQueue testQueue = new TimingWheelEventQueue(origin);
+    testQueue.add(eventAt(1000));
+    assertEquals(origin + 1000, testQueue.peek().time);
+    // the cursor has moved to 1000, an event at 500 must still come out first
+    testQueue.add(eventAt(500));
+    assertEquals(origin + 500, testQueue.poll().time);
+    assertEquals(origin + 1000, testQueue.poll().time);
+  }
+}
@@ -0,0 +1,61 @@
+package rideshare.Event;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Controller.SimulationClock;
+
+class PackedEventQueueTest {
+
+  PackedEventQueue testQueue;
+  long origin;
+
+  @BeforeEach
+  void setUp() {
+    origin = SimulationClock.DEFAULT_START_SECOND;
+    testQueue = new PackedEventQueue(origin);
+  }
+
+  @Test
+  void poll_OrderedByTimeThenTypeThenIndex() {
+    testQueue.add(origin + 60, EventType.RIDE_REQUESTED, 7);
+    testQueue.add(origin + 60, EventType.RIDE_FINISHED, 9);
+    testQueue.add(origin + 5, EventType.RIDE_REQUESTED, 100);
+    testQueue.add(origin + 60, EventType.RIDE_REQUESTED, 3);
+    assertEquals(4, testQueue.size());
+
+    long first = testQueue.poll();
+    assertEquals(origin + 5, testQueue.timeOf(first));
+    assertEquals(100, PackedEventQueue.indexOf(first));
+
+    long second = testQueue.poll();
+    assertEquals(origin + 60, testQueue.timeOf(second));
+    assertEquals(EventType.RIDE_FINISHED, EventType.fromTag(PackedEventQueue.typeOf(second)));
+    assertEquals(9, PackedEventQueue.indexOf(second));
+
+    assertEquals(3, PackedEventQueue.indexOf(testQueue.poll()));
+    assertEquals(7, PackedEventQueue.indexOf(testQueue.peek()));
+    assertEquals(7, PackedEventQueue.indexOf(testQueue.poll()));
+    assertTrue(testQueue.isEmpty());
+  }
+
+  @Test
+  void add_Grows() {
+    for (int i = 999; i >= 0; i--) {
+      testQueue.add(origin + i, EventType.RIDE_REQUESTED, i);
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, PackedEventQueue.indexOf(testQueue.poll()));
+    }
+  }
+
+  @Test
+  void add_OutOfRange() {
+    assertThrows(IllegalArgumentException.class,
+        () -> testQueue.add(origin - 1, EventType.RIDE_REQUESTED, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> testQueue.add(origin, EventType.RIDE_REQUESTED, 1 << 28));
+    assertThrows(IllegalStateException.class, () -> testQueue.poll());
+  }
+}
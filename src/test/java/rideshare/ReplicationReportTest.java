@@ -0,0 +1,35 @@
+package rideshare;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ReplicationReportTest {
+
+  @Test
+  void meanAndVariance() {
+    double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+    assertEquals(5.0, ReplicationReport.mean(values), 1e-9);
+    assertEquals(32.0 / 7, ReplicationReport.variance(values), 1e-9);
+  }
+
+  @Test
+  void quantiles() {
+    assertEquals(1.95996, ReplicationReport.normalQuantile(0.975), 1e-4);
+    assertEquals(-2.32635, ReplicationReport.normalQuantile(0.01), 1e-4);
+    assertEquals(12.706, ReplicationReport.studentTQuantile(0.975, 1), 1e-3);
+    assertEquals(4.303, ReplicationReport.studentTQuantile(0.975, 2), 1e-3);
+    assertEquals(2.228, ReplicationReport.studentTQuantile(0.975, 10), 1e-3);
+    assertEquals(2.045, ReplicationReport.studentTQuantile(0.975, 29), 1e-3);
+  }
+
+  @Test
+  void confidenceInterval() {
+    double[] values = {10, 12, 14};
+    double[] interval = ReplicationReport.confidenceInterval(values, 0.95);
+    // mean 12, standard error 2 / sqrt(3), t(0.975, 2) = 4.303
+    double halfWidth = 4.303 * 2 / Math.sqrt(3);
+    assertEquals(12 - halfWidth, interval[0], 1e-2);
+    assertEquals(12 + halfWidth, interval[1], 1e-2);
+  }
+}
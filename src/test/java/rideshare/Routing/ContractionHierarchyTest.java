@@ -0,0 +1,85 @@
+package rideshare.Routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RoadNetworkGenerator;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+class ContractionHierarchyTest {
+
+  RoadNetwork city;
+  ContractionHierarchy hierarchy;
+
+  @BeforeEach
+  void setUp() {
+    city = RoadNetworkGenerator.generateGrid(30, 4, new Random(6));
+    hierarchy = ContractionHierarchy.build(city);
+  }
+
+  @Test
+  void shortestMillis_MatchesDijkstra() {
+    DijkstraRouter router = new DijkstraRouter(city);
+    Random random = new Random(7);
+    for (int i = 0; i < 1000; i++) {
+      int source = random.nextInt(city.getNodeCount());
+      int target = random.nextInt(city.getNodeCount());
+      assertEquals(router.shortestMillis(source, target), hierarchy.shortestMillis(source, target));
+    }
+    assertTrue(hierarchy.getShortcutCount() > 0);
+  }
+
+  @Test
+  void shortestMillis_OneWayStreets() {
+    // random one-way arcs, so some nodes can't be reached from others
+    Random random = new Random(8);
+    int nodeCount = 300;
+    double[] xs = new double[nodeCount];
+    double[] ys = new double[nodeCount];
+    int[] tails = new int[3 * nodeCount];
+    int[] heads = new int[tails.length];
+    int[] millis = new int[tails.length];
+    for (int node = 0; node < nodeCount; node++) {
+      xs[node] = random.nextDouble();
+      ys[node] = random.nextDouble();
+    }
+    for (int arc = 0; arc < tails.length; arc++) {
+      tails[arc] = random.nextInt(nodeCount);
+      heads[arc] = random.nextInt(nodeCount);
+      millis[arc] = random.nextInt(100_000);
+    }
+    RoadNetwork network = new RoadNetwork(xs, ys, tails, heads, millis);
+    ContractionHierarchy oneWay = ContractionHierarchy.build(network);
+    DijkstraRouter router = new DijkstraRouter(network);
+    int unreachable = 0;
+    for (int source = 0; source < nodeCount; source += 3) {
+      for (int target = 0; target < nodeCount; target += 7) {
+        int expected = router.shortestMillis(source, target);
+        assertEquals(expected, oneWay.shortestMillis(source, target));
+        if (expected == RoadNetwork.NO_PATH) {
+          unreachable++;
+        }
+      }
+    }
+    assertTrue(unreachable > 0);
+  }
+
+  @Test
+  void travelSeconds_SnapsToNodes() {
+    Location from = new Location(0.3, 3.9);
+    Location to = new Location(3.7, 0.2);
+    double seconds = hierarchy.travelSeconds(from, to);
+    assertEquals(new DijkstraRouter(city).travelSeconds(from, to), seconds);
+    assertEquals(hierarchy.shortestMillis(city.nearestNode(from), city.nearestNode(to)) / 1000.0,
+        seconds);
+    // slower than driving straight, and the same on a copy
+    assertTrue(seconds > Request.calculateTravelSeconds(from, to));
+    ContractionHierarchy copy = hierarchy.copy();
+    assertNotSame(hierarchy, copy);
+    assertEquals(seconds, copy.travelSeconds(from, to));
+    assertEquals(0, hierarchy.travelSeconds(null, to));
+  }
+}
@@ -0,0 +1,107 @@
+package rideshare.Routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rideshare.Model.RequestGenerator;
+import rideshare.Model.RoadNetworkGenerator;
+import rideshare.objects.Location;
+
+class RoadNetworkTest {
+
+  static final String SQUARE = String.join("\n",
+      "# a square block, one-way along the top",
+      "n 0 0 0",
+      "n 1 1 0",
+      "n 3 0 1",
+      "n 2 1 1",
+      "",
+      "e 0 1 60",
+      "e 1 2 60.5",
+      "e 0 3 90",
+      "a 2 3 30");
+
+  RoadNetwork square;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    square = read(SQUARE);
+  }
+
+  static RoadNetwork read(String text) throws IOException {
+    return RoadNetwork.read(new BufferedReader(new StringReader(text)));
+  }
+
+  @Test
+  void read_TextFormat() {
+    assertEquals(4, square.getNodeCount());
+    assertEquals(7, square.getArcCount());
+    assertEquals(new Location(1, 1), square.getLocation(2));
+    assertEquals(0, square.getFirstArc(0));
+    assertEquals(2, square.getFirstArc(1));
+    assertEquals(60500, square.getArcMillis(square.getFirstArc(2)));
+    assertEquals(3, square.getArcHead(square.getFirstArc(3) - 1));
+
+    DijkstraRouter router = new DijkstraRouter(square);
+    assertEquals(120500, router.shortestMillis(0, 2));
+    assertEquals(120000, router.shortestMillis(2, 0));
+    assertEquals(0, router.shortestMillis(3, 3));
+  }
+
+  @Test
+  void read_Malformed() {
+    assertThrows(IllegalArgumentException.class, () -> read("n 0 0 0\nn 0 1 1"));
+    assertThrows(IllegalArgumentException.class, () -> read("n 1 0 0"));
+    assertThrows(IllegalArgumentException.class, () -> read("n 0 0 0\na 0 1 5"));
+    assertThrows(IllegalArgumentException.class, () -> read("n 0 0 0\nn 1 0 0\na 0 1 -5"));
+    assertThrows(IllegalArgumentException.class, () -> read("n 0 0 0\nx 0 1 5"));
+    assertThrows(IllegalArgumentException.class, () -> read("n 0 0"));
+    assertThrows(IllegalArgumentException.class, () -> read("# nothing"));
+  }
+
+  @Test
+  void write_ReadBack(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("city.roads");
+    RoadNetwork city = RoadNetworkGenerator.generateGrid(12, 3, new Random(4));
+    city.write(file);
+    RoadNetwork readBack = RoadNetwork.read(file);
+
+    assertEquals(city.getNodeCount(), readBack.getNodeCount());
+    assertEquals(city.getArcCount(), readBack.getArcCount());
+    for (int node = 0; node < city.getNodeCount(); node++) {
+      assertEquals(city.getLocation(node), readBack.getLocation(node));
+      assertEquals(city.getFirstArc(node), readBack.getFirstArc(node));
+    }
+    for (int arc = 0; arc < city.getArcCount(); arc++) {
+      assertEquals(city.getArcHead(arc), readBack.getArcHead(arc));
+      assertEquals(city.getArcMillis(arc), readBack.getArcMillis(arc));
+    }
+  }
+
+  @Test
+  void nearestNode_MatchesLinearScan() {
+    RoadNetwork city = RoadNetworkGenerator.generateGrid(40, 5, new Random(2));
+    Random random = new Random(3);
+    for (int i = 0; i < 2000; i++) {
+      // some points outside the city too
+      Location point = RequestGenerator.generateRandomLocation(7, random);
+      point = new Location(point.getX() - 1, point.getY() - 1);
+      int nearest = 0;
+      for (int node = 1; node < city.getNodeCount(); node++) {
+        if (city.getLocation(node).distanceTo(point)
+            < city.getLocation(nearest).distanceTo(point)) {
+          nearest = node;
+        }
+      }
+      assertEquals(nearest, city.nearestNode(point));
+    }
+    assertEquals(2, square.nearestNode(new Location(0.9, 0.8)));
+  }
+}
@@ -0,0 +1,107 @@
+package rideshare.Routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Location;
+import rideshare.objects.Request;
+
+class TravelTimeCacheTest {
+
+  AtomicInteger computed;
+  TravelTimes counting;
+
+  @BeforeEach
+  void setUp() {
+    computed = new AtomicInteger();
+    counting = (from, to) -> {
+      computed.incrementAndGet();
+      return Request.calculateTravelSeconds(from, to);
+    };
+  }
+
+  @Test
+  void travelSeconds_BetweenCellCenters() {
+    TravelTimeCache cache = new TravelTimeCache(counting, 10, 1, 1024);
+    Location from = new Location(0.2, 0.9);
+    Location to = new Location(3.1, 4.8);
+
+    // from the center of cell (0, 0) to the center of cell (3, 4)
+    assertEquals(300, cache.travelSeconds(from, to), 1e-9);
+    assertEquals(300, cache.travelSeconds(new Location(0.7, 0.1), new Location(3.9, 4.5)), 1e-9);
+    assertEquals(1, computed.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0.5, cache.getHitRate());
+
+    // the other way is another pair, and outside the city is clamped to the border
+    assertEquals(300, cache.travelSeconds(to, from), 1e-9);
+    assertEquals(300, cache.travelSeconds(new Location(-5, -5), to), 1e-9);
+    assertEquals(2, computed.get());
+    assertEquals(0, cache.travelSeconds(null, to));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void put_EvictsLeastRecentlyUsed() {
+    TravelTimeCache cache = new TravelTimeCache(counting, 100, 1, 16);
+    assertEquals(16, cache.getCapacity());
+    Random random = new Random(1);
+    Location hot = new Location(50, 50);
+    for (int i = 0; i < 5000; i++) {
+      cache.travelSeconds(hot, hot);
+      cache.travelSeconds(RequestGenerator.generateRandomLocation(100, random),
+          RequestGenerator.generateRandomLocation(100, random));
+    }
+    assertEquals(16, cache.size());
+    assertEquals(cache.getMisses() - 16, cache.getEvictions());
+    // looked up every other time, the hot pair is never the least recently used of its set
+    assertTrue(cache.getHits() >= 4999);
+    assertEquals(computed.get(), cache.getMisses());
+  }
+
+  @Test
+  void copy_SharesTableAcrossThreads() throws InterruptedException {
+    TravelTimeCache cache = new TravelTimeCache(counting, 20, 0.5, 1 << 12);
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> failures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      TravelTimeCache copy = cache.copy();
+      Random random = new Random(t);
+      threads.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < 20_000; i++) {
+            Location from = RequestGenerator.generateRandomLocation(3, random);
+            Location to = RequestGenerator.generateRandomLocation(3, random);
+            double expected = Request.calculateTravelSeconds(
+                new Location((Math.floor(from.getX() * 2) + 0.5) / 2,
+                    (Math.floor(from.getY() * 2) + 0.5) / 2),
+                new Location((Math.floor(to.getX() * 2) + 0.5) / 2,
+                    (Math.floor(to.getY() * 2) + 0.5) / 2));
+            assertEquals(expected, copy.travelSeconds(from, to), 1e-9);
+          }
+        } catch (Throwable e) {
+          synchronized (failures) {
+            failures.add(e);
+          }
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(List.of(), failures);
+    assertEquals(80_000, cache.getHits() + cache.getMisses());
+    assertTrue(cache.size() <= cache.getCapacity());
+    assertTrue(cache.getHits() > cache.getMisses());
+  }
+}
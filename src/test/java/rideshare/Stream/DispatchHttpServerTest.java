@@ -0,0 +1,95 @@
+package rideshare.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationConfig;
+
+class DispatchHttpServerTest {
+
+  DispatchHttpServer server;
+  HttpClient client = HttpClient.newHttpClient();
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    server.stop();
+  }
+
+  void start(int numberOfDrivers, SimulationPacer pacer) throws IOException {
+    server = new DispatchHttpServer(new RideshareDispatchSimulator(numberOfDrivers,
+        Collections.emptyList(), new SimulationConfig()), pacer,
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    server.start();
+  }
+
+  HttpResponse<String> send(String method, String path, String body)
+      throws IOException, InterruptedException {
+    HttpRequest.BodyPublisher publisher = body == null
+        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+    return client.send(HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getPort() + path))
+        .method(method, publisher).build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  String waitFor(String path, String expected) throws IOException, InterruptedException {
+    String body = "";
+    for (int i = 0; i < 500 && !body.contains(expected); i++) {
+      Thread.sleep(10);
+      body = send("GET", path, null).body();
+    }
+    assertTrue(body.contains(expected), body);
+    return body;
+  }
+
+  @Test
+  void submit_RideGoesFromSubmittedToFinished() throws IOException, InterruptedException {
+    start(2, SimulationPacer.accelerated(10_000));
+    HttpResponse<String> submitted = send("POST", "/rides", "Alice,A,B,10.0,,EXPRESS\n");
+    assertEquals(202, submitted.statusCode());
+    // the dispatcher may have taken the ride already
+    assertTrue(submitted.body().startsWith("{\"id\":0,\"customer\":\"Alice\",\"state\":\""),
+        submitted.body());
+
+    String finished = waitFor("/rides/0", "FINISHED");
+    assertTrue(finished.contains("\"arrivalTime\":"));
+    assertTrue(waitFor("/queues", "\"finished\":1").contains("\"active\":0"));
+  }
+
+  @Test
+  void queues_CountWaitingAndActiveRides() throws IOException, InterruptedException {
+    // unpaced, rides only move on with the requests, so they stay active
+    start(1, SimulationPacer.asFastAsPossible());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(202,
+          send("POST", "/rides", "Customer" + i + ",A,B,30.0,,STANDARD").statusCode());
+    }
+    String queues = waitFor("/queues", "\"waiting\":2");
+    assertTrue(queues.contains("\"active\":1"), queues);
+    assertTrue(queues.contains("\"submitted\":0"), queues);
+    assertTrue(send("GET", "/rides/0", null).body().contains("ACTIVE"));
+    assertTrue(send("GET", "/rides/2", null).body().contains("WAITING"));
+  }
+
+  @Test
+  void errors() throws IOException, InterruptedException {
+    start(1, SimulationPacer.asFastAsPossible());
+    HttpResponse<String> bad = send("POST", "/rides", "not a request");
+    assertEquals(400, bad.statusCode());
+    assertTrue(bad.body().startsWith("{\"error\":\"Expected 6 fields"));
+    assertEquals(400, send("POST", "/rides", "").statusCode());
+    assertEquals(404, send("GET", "/rides/7", null).statusCode());
+    assertEquals(405, send("DELETE", "/rides/0", null).statusCode());
+    assertEquals(405, send("POST", "/queues", "").statusCode());
+    assertEquals("\"a\\\"b\\u000a\"", DispatchHttpServer.quote("a\"b\n"));
+  }
+}
@@ -0,0 +1,37 @@
+package rideshare.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+class RequestLineFormatTest {
+
+  @Test
+  void formatAndParse() {
+    Request request = new Request("Alice", "Pike Place", "Space Needle", 12.5, 1696118400L,
+        RideType.EXPRESS);
+    String line = RequestLineFormat.format(request);
+    assertEquals("Alice,Pike Place,Space Needle,12.5,1696118400,EXPRESS", line);
+    assertEquals(request, RequestLineFormat.parse(line));
+  }
+
+  @Test
+  void parse_WithoutRequestTime() {
+    Request request = RequestLineFormat.parse("Bob,A,B,20,,WAIT_AND_SAVE");
+    assertEquals(RequestLineFormat.NOW, request.getRequestEpochSecond());
+    assertEquals(RideType.WAIT_AND_SAVE, request.getRideType());
+  }
+
+  @Test
+  void parse_IgnoredAndInvalidLines() {
+    assertNull(RequestLineFormat.parse("   "));
+    assertNull(RequestLineFormat.parse("# comment"));
+    assertThrows(IllegalArgumentException.class, () -> RequestLineFormat.parse("a,b,c"));
+    assertThrows(IllegalArgumentException.class,
+        () -> RequestLineFormat.parse("a,b,c,far,0,STANDARD"));
+    assertThrows(IllegalArgumentException.class,
+        () -> RequestLineFormat.parse("a,b,c,1.0,0,FLYING"));
+  }
+}
@@ -0,0 +1,130 @@
+package rideshare.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rideshare.objects.Request;
+import rideshare.objects.RideType;
+
+class RingBufferRequestSourceTest {
+
+  RingBufferRequestSource source;
+
+  @BeforeEach
+  void setUp() {
+    source = new RingBufferRequestSource(4, WaitStrategy.YIELDING);
+  }
+
+  Request request(int producer, int i) {
+    Request request = new Request("Customer" + i, "A", "B", 1.0, i, RideType.STANDARD);
+    request.setId(producer);
+    return request;
+  }
+
+  @Test
+  void offer_FalseWhenFull() throws InterruptedException {
+    for (int i = 0; i < 4; i++) {
+      assertTrue(source.offer(request(0, i)));
+    }
+    assertFalse(source.offer(request(0, 4)));
+    assertEquals(4, source.size());
+    assertEquals("Customer0", source.poll(0).getCustomerName());
+    assertTrue(source.offer(request(0, 4)));
+
+    List<Request> batch = new ArrayList<>();
+    assertEquals(3, source.drainTo(batch::add, 3));
+    assertEquals("Customer1", batch.get(0).getCustomerName());
+    assertEquals("Customer3", batch.get(2).getCustomerName());
+    assertEquals(1, source.size());
+    assertEquals("Customer4", source.poll(0).getCustomerName());
+    assertNull(source.poll(0));
+    assertEquals(0, source.drainTo(batch::add, 10));
+  }
+
+  @Test
+  void close_ExhaustedOnceDrained() throws InterruptedException {
+    source.submit(request(0, 0));
+    source.close();
+    assertThrows(IllegalStateException.class, () -> source.submit(request(0, 1)));
+    assertFalse(source.isExhausted());
+    assertNotNull(source.poll(0));
+    assertTrue(source.isExhausted());
+    assertNull(source.poll(1000));
+  }
+
+  @Test
+  void close_WakesBlockedProducer() throws InterruptedException {
+    for (int i = 0; i < 4; i++) {
+      source.submit(request(0, i));
+    }
+    List<RuntimeException> thrown = new ArrayList<>();
+    Thread producer = new Thread(() -> {
+      try {
+        source.submit(request(0, 4));
+      } catch (RuntimeException e) {
+        thrown.add(e);
+      }
+    });
+    producer.start();
+    Thread.sleep(50);
+    assertTrue(producer.isAlive());
+    source.close();
+    producer.join(2000);
+
+    assertFalse(producer.isAlive());
+    assertEquals(1, thrown.size());
+    assertTrue(thrown.get(0) instanceof IllegalStateException);
+    assertEquals(4, source.size());
+  }
+
+  @Test
+  void capacity_PowerOfTwo() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new RingBufferRequestSource(6, WaitStrategy.BUSY_SPIN));
+    assertThrows(NullPointerException.class, () -> source.submit(null));
+  }
+
+  @Test
+  void submit_EveryRequestOnceInProducerOrder() throws InterruptedException {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      RingBufferRequestSource ring = new RingBufferRequestSource(64, waitStrategy);
+      int producers = 4;
+      int requests = 5000;
+      List<Thread> threads = new ArrayList<>();
+      for (int producer = 0; producer < producers; producer++) {
+        int id = producer;
+        threads.add(new Thread(() -> {
+          for (int i = 0; i < requests; i++) {
+            ring.submit(request(id, i));
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+
+      long[] nextOfProducer = new long[producers];
+      int received = 0;
+      while (received < producers * requests) {
+        // alternate single polls and batches
+        Request request = ring.poll(1000);
+        assertNotNull(request, waitStrategy.toString());
+        assertEquals(nextOfProducer[request.getId()]++, request.getRequestEpochSecond());
+        received++;
+        received += ring.drainTo(r -> assertEquals(nextOfProducer[r.getId()]++,
+            r.getRequestEpochSecond()), 32);
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      ring.close();
+      assertTrue(ring.isExhausted());
+      for (int producer = 0; producer < producers; producer++) {
+        assertEquals(requests, nextOfProducer[producer]);
+      }
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package rideshare.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rideshare.Controller.DispatchListener;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Driver;
+import rideshare.objects.Request;
+
+class StreamingDispatcherTest {
+
+  List<Request> workload;
+  RideshareDispatchSimulator simulator;
+  List<Request> finished;
+  CountDownLatch assigned;
+
+  @BeforeEach
+  void setUp() {
+    workload = RequestGenerator.generateRequests(300, SimulationClock.DEFAULT_START_SECOND,
+        new Random(5));
+    workload.sort(Comparator.comparingLong(Request::getRequestEpochSecond));
+    simulator = new RideshareDispatchSimulator(20, Collections.emptyList(),
+        new SimulationConfig().setRetainFinishedRequests(false));
+    finished = Collections.synchronizedList(new ArrayList<>());
+    assigned = new CountDownLatch(5);
+    simulator.setDispatchListener(new DispatchListener() {
+      @Override
+      public void onRideAssigned(Request request, Driver driver, long time) {
+        assigned.countDown();
+      }
+
+      @Override
+      public void onRideFinished(Request request, long time) {
+        finished.add(request);
+      }
+    });
+  }
+
+  @Test
+  void run_QueueSourceSameAsBatchSimulation() throws InterruptedException {
+    QueueRequestSource source = new QueueRequestSource();
+    for (Request request : workload) {
+      source.submit(new Request(request));
+    }
+    source.close();
+    StreamingDispatcher dispatcher = new StreamingDispatcher(simulator, source,
+        SimulationPacer.asFastAsPossible());
+    dispatcher.run();
+
+    assertEquals(300, dispatcher.getReceivedRequests());
+    assertEquals(300, finished.size());
+    assertTrue(simulator.getFinishedRequests().isEmpty());
+    assertTrue(source.isExhausted());
+
+    RideshareDispatchSimulator batch = new RideshareDispatchSimulator(20, workload,
+        new SimulationConfig());
+    batch.run();
+    Map<String, Long> batchArrivals = new HashMap<>();
+    for (Request request : batch.getFinishedRequests()) {
+      batchArrivals.put(request.getCustomerName(), request.getActualArrivalEpochSecond());
+    }
+    for (Request request : finished) {
+      assertEquals(batchArrivals.get(request.getCustomerName()),
+          request.getActualArrivalEpochSecond());
+    }
+  }
+
+  @Test
+  void run_RingBufferSourceFromProducerThreads() throws InterruptedException {
+    RingBufferRequestSource source = new RingBufferRequestSource(16, WaitStrategy.PARKING);
+    StreamingDispatcher dispatcher = new StreamingDispatcher(simulator, source,
+        SimulationPacer.asFastAsPossible());
+    Thread thread = new Thread(() -> {
+      try {
+        dispatcher.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    List<Thread> producers = new ArrayList<>();
+    for (int producer = 0; producer < 3; producer++) {
+      List<Request> requests = workload.subList(producer * 100, producer * 100 + 100);
+      producers.add(new Thread(() -> {
+        for (Request request : requests) {
+          source.submit(new Request(request));
+        }
+      }));
+    }
+    for (Thread producer : producers) {
+      producer.start();
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    source.close();
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+    assertEquals(300, dispatcher.getReceivedRequests());
+    assertEquals(300, finished.size());
+    assertTrue(source.isExhausted());
+  }
+
+  @Test
+  void run_FileSource(@TempDir Path directory) throws IOException, InterruptedException {
+    List<String> lines = new ArrayList<>();
+    lines.add("# customer,start,end,distance,requestTime,rideType");
+    for (Request request : workload.subList(0, 50)) {
+      lines.add(RequestLineFormat.format(request));
+    }
+    lines.add("not a request");
+    Path file = directory.resolve("requests.csv");
+    Files.write(file, lines);
+
+    FileTailRequestSource source = new FileTailRequestSource(file, false);
+    new StreamingDispatcher(simulator, source, SimulationPacer.asFastAsPossible()).run();
+    assertEquals(50, finished.size());
+    assertEquals(1, source.getRejectedLines());
+    source.close();
+  }
+
+  @Test
+  void run_SocketSource() throws Exception {
+    SocketRequestSource source = new SocketRequestSource(0);
+    StreamingDispatcher dispatcher = new StreamingDispatcher(simulator, source,
+        SimulationPacer.asFastAsPossible());
+    Thread thread = new Thread(() -> {
+      try {
+        dispatcher.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), source.getPort());
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+      for (int i = 0; i < 5; i++) {
+        writer.write("Customer" + i + ",A" + i + ",B" + i + ",12.5,,STANDARD\n");
+      }
+      writer.flush();
+      assertTrue(assigned.await(5, TimeUnit.SECONDS));
+    }
+    source.close();
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+    assertEquals(5, finished.size());
+  }
+
+  @Test
+  void run_Paced() throws InterruptedException {
+    QueueRequestSource source = new QueueRequestSource();
+    for (Request request : workload.subList(0, 30)) {
+      source.submit(new Request(request));
+    }
+    source.close();
+    long start = System.nanoTime();
+    // 3,000,000 simulated seconds per wall-clock second
+    new StreamingDispatcher(simulator, source, SimulationPacer.accelerated(3_000_000)).run();
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    assertEquals(30, finished.size());
+    // the last ride finishes hours after the start, which takes milliseconds at this speed
+    long simulated = finished.get(finished.size() - 1).getActualArrivalEpochSecond()
+        - SimulationClock.DEFAULT_START_SECOND;
+    assertTrue(elapsedMillis >= simulated / 3000 - 1);
+  }
+
+  @Test
+  void pacer_MillisUntil() {
+    SimulationPacer pacer = SimulationPacer.accelerated(1000);
+    pacer.start(0);
+    assertTrue(pacer.isPaced());
+    assertTrue(pacer.now() >= 0);
+    assertTrue(pacer.millisUntil(5000) > 4000);
+    assertEquals(0, pacer.millisUntil(-1));
+    assertFalse(SimulationPacer.asFastAsPossible().isPaced());
+  }
+}
@@ -0,0 +1,107 @@
+package rideshare.Trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rideshare.Controller.RideshareDispatchSimulator;
+import rideshare.Controller.SimulationClock;
+import rideshare.Controller.SimulationConfig;
+import rideshare.Event.EventMode;
+import rideshare.Event.EventType;
+import rideshare.Model.RequestGenerator;
+import rideshare.objects.Request;
+
+class EventTraceTest {
+
+  @TempDir
+  Path directory;
+  List<Request> workload;
+
+  @BeforeEach
+  void setUp() {
+    workload = RequestGenerator.generateRequests(400, SimulationClock.DEFAULT_START_SECOND,
+        new Random(9));
+  }
+
+  /**
+   * run the workload with a trace recorder mapping small regions
+   */
+  private Path record(EventMode eventMode, String name) throws IOException {
+    Path file = directory.resolve(name);
+    RideshareDispatchSimulator simulator = new RideshareDispatchSimulator(15, workload,
+        new SimulationConfig().setEventMode(eventMode));
+    try (EventTraceRecorder recorder = new EventTraceRecorder(file, 64)) {
+      simulator.setEventTrace(recorder);
+      simulator.run();
+      assertEquals(800, recorder.getCount());
+    }
+    return file;
+  }
+
+  @Test
+  void recordAndRead() throws IOException {
+    Path file = record(EventMode.OBJECT, "object.trace");
+    assertEquals(32 + 800 * 32, Files.size(file));
+
+    try (EventTraceReader reader = new EventTraceReader(file)) {
+      assertEquals(800, reader.size());
+      int[] finished = new int[1];
+      long[] lastTime = {Long.MIN_VALUE};
+      reader.replay((time, type, requestId, driverId, idle, waiting, active) -> {
+        assertTrue(time >= lastTime[0]);
+        lastTime[0] = time;
+        assertTrue(requestId >= 0 && requestId < 400);
+        assertEquals(15, idle + active);
+        if (type == EventType.RIDE_FINISHED) {
+          finished[0]++;
+          assertTrue(driverId >= 0);
+        }
+      });
+      assertEquals(400, finished[0]);
+      assertEquals(0, reader.waitingRequests(799));
+      assertEquals(0, reader.activeRequests(799));
+      assertEquals(EventType.RIDE_FINISHED, reader.type(799));
+    }
+  }
+
+  @Test
+  void packedModeSameTrace() throws IOException {
+    try (EventTraceReader object = new EventTraceReader(record(EventMode.OBJECT, "o.trace"));
+        EventTraceReader packed = new EventTraceReader(record(EventMode.PACKED, "p.trace"))) {
+      assertEquals(object.size(), packed.size());
+      for (long i = 0; i < object.size(); i++) {
+        assertEquals(object.time(i), packed.time(i));
+        assertEquals(object.type(i), packed.type(i));
+        assertEquals(object.requestId(i), packed.requestId(i));
+        assertEquals(object.driverId(i), packed.driverId(i));
+        assertEquals(object.waitingRequests(i), packed.waitingRequests(i));
+      }
+    }
+  }
+
+  @Test
+  void find() throws IOException {
+    try (EventTraceReader reader = new EventTraceReader(record(EventMode.OBJECT, "f.trace"))) {
+      long time = reader.time(300);
+      long first = reader.find(time);
+      assertEquals(time, reader.time(first));
+      assertTrue(first == 0 || reader.time(first - 1) < time);
+      assertEquals(0, reader.find(Long.MIN_VALUE));
+      assertEquals(reader.size(), reader.find(Long.MAX_VALUE));
+    }
+  }
+
+  @Test
+  void read_NotATrace() throws IOException {
+    Path file = directory.resolve("empty.trace");
+    Files.write(file, new byte[64]);
+    assertThrows(IOException.class, () -> new EventTraceReader(file));
+  }
+}
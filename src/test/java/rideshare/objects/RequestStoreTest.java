@@ -0,0 +1,108 @@
+package rideshare.objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestStoreTest {
+
+  RequestStore store;
+  Request jane;
+  Request john;
+
+  @BeforeEach
+  void setUp() {
+    jane = new Request("Jane", "1", "2", 120.00, 2000L, RideType.EXPRESS);
+    jane.setCoordinates(new Location(1, 2), new Location(3, 4));
+    john = new Request("John", "2", "1", 12.5, 1000L, RideType.WAIT_AND_SAVE);
+    store = RequestStore.of(List.of(jane, john));
+  }
+
+  @Test
+  void view_EqualToRequest() {
+    assertEquals(2, store.size());
+    RequestStore.Row view = store.view(0);
+    assertEquals(jane, view);
+    assertEquals(jane.hashCode(), view.hashCode());
+    assertEquals(jane.toString(), view.toString());
+    assertEquals(new Location(1, 2), view.getStartCoordinates());
+    assertEquals(john, store.view(1));
+    assertNull(store.view(1).getStartCoordinates());
+    assertEquals(store.view(1), store.view(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> store.view(2));
+  }
+
+  @Test
+  void view_WritesToStore() {
+    RequestStore.Row view = store.view(1);
+    Driver driver = new Driver(7, "Driver7");
+    view.setAssignedDriver(driver);
+    view.setActualArrivalEpochSecond(5000);
+    view.setEffectivePriority(3);
+    view.setRequestEpochSecond(1500);
+
+    assertSame(driver, store.getAssignedDriver(1));
+    assertEquals(7, store.getAssignedDriverId(1));
+    assertEquals(5000, store.getActualArrivalEpochSecond(1));
+    assertEquals(3, store.getEffectivePriority(1));
+    assertEquals(1500 + (long) john.getRidingSeconds(), store.getEstimatedArrivalEpochSecond(1));
+    assertEquals((int) (5000 - store.getEstimatedArrivalEpochSecond(1)),
+        view.calculateWaitingSeconds());
+    assertSame(driver, store.view(1).getAssignedDriver());
+
+    store.resetDispatch(1);
+    assertNull(view.getAssignedDriver());
+    assertNull(view.getActualArrivalTime());
+    assertEquals(john.getPriority(), view.getEffectivePriority());
+    assertThrows(IllegalArgumentException.class, () -> view.setAssignedDriver(new Driver()));
+  }
+
+  @Test
+  void names_KeptOnce() {
+    List<Request> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      requests.add(new Request("Customer" + (i % 3), "A", null, 10.0, i, RideType.STANDARD));
+    }
+    RequestStore names = RequestStore.of(requests);
+    assertEquals("Customer1", names.getCustomerName(4));
+    assertEquals("A", names.view(99).getStartLocation());
+    assertNull(names.getEndLocation(99));
+
+    RequestStore anonymous = new RequestStore();
+    anonymous.add(null, null, null, 10.0, 0, RideType.STANDARD);
+    assertNull(anonymous.getCustomerName(0));
+  }
+
+  @Test
+  void sortByRequestTime_MovesEveryColumn() {
+    assertFalse(store.isSortedByRequestTime());
+    store.view(0).setActualArrivalEpochSecond(9000);
+    store.sortByRequestTime();
+
+    assertTrue(store.isSortedByRequestTime());
+    assertEquals(john, store.view(0));
+    assertEquals("Jane", store.getCustomerName(1));
+    assertEquals(new Location(3, 4), store.getEndCoordinates(1));
+    assertEquals(9000, store.getActualArrivalEpochSecond(1));
+    assertNull(store.getEndCoordinates(0));
+  }
+
+  @Test
+  void add_GrowsEveryColumn() {
+    RequestStore grown = new RequestStore(1);
+    for (int i = 0; i < 1000; i++) {
+      int row = grown.add(null, null, null, 10.0 + i, i, RideType.EXPRESS);
+      if (i == 500) {
+        grown.setCoordinates(row, new Location(5, 5), null);
+      }
+    }
+    assertEquals(1000, grown.size());
+    assertEquals(509.0, grown.getDistance(499));
+    assertEquals(new Location(5, 5), grown.getStartCoordinates(500));
+    assertNull(grown.getStartCoordinates(999));
+    assertNull(grown.getStartCoordinates(0));
+  }
+}
@@ -3,6 +3,7 @@ package rideshare.objects;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -37,6 +38,16 @@ class RequestTest {
     assertEquals(LocalDateTime.of(2023, 10, 1, 6, 0, 0), testRequest.getRequestTime());
   }
 
+  @Test
+  void getRequestEpochSecond() {
+    assertEquals(LocalDateTime.of(2023, 10, 1, 6, 0, 0).toEpochSecond(ZoneOffset.UTC),
+        testRequest.getRequestEpochSecond());
+    // riding time is 120 miles at 60 mph
+    assertEquals(testRequest.getRequestEpochSecond() + 7200,
+        testRequest.getEstimatedArrivalEpochSecond());
+    assertNull(testRequest.getActualArrivalTime());
+  }
+
   @Test
   void getRideType() {
     assertEquals(RideType.EXPRESS, testRequest.getRideType());
@@ -101,6 +112,19 @@ class RequestTest {
 
   }
 
+  @Test
+  void copyConstructor() {
+    testRequest.setId(5);
+    testRequest.setAssignedDriver(new Driver());
+    testRequest.setActualArrivalTime(LocalDateTime.of(2023, 10, 1, 9, 0, 0));
+    Request copy = new Request(testRequest);
+    assertEquals(-1, copy.getId());
+    assertNull(copy.getAssignedDriver());
+    assertNull(copy.getActualArrivalTime());
+    assertEquals(testRequest.getEstimatedArrivalTime(), copy.getEstimatedArrivalTime());
+    assertEquals(testRequest.getPriority(), copy.getPriority());
+  }
+
   @Test
   void testHashCode() {
     Request testRequest2 = new Request("Jane", "1", "2",
@@ -0,0 +1,97 @@
+package rideshare.objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TripLogTest {
+
+  TripLog trips;
+  Request jane;
+  Request john;
+
+  @BeforeEach
+  void setUp() {
+    jane = new Request(null, null, null, 120.00, 2000L, RideType.EXPRESS);
+    jane.setId(4);
+    jane.setCoordinates(new Location(1, 2), new Location(3, 4));
+    jane.setAssignedDriver(new Driver(7, "Driver7"));
+    jane.setActualArrivalEpochSecond(9000);
+    jane.setEffectivePriority(3);
+    john = new Request(null, null, null, 12.5, 1000L, RideType.WAIT_AND_SAVE);
+    john.setId(2);
+    john.setRidingSeconds(600.5);
+    trips = new TripLog();
+    trips.add(jane);
+    trips.add(john);
+  }
+
+  @Test
+  void get_EqualToRequest() {
+    assertEquals(2, trips.size());
+    assertEquals(List.of(jane, john), trips);
+    Request read = trips.get(0);
+    assertEquals(4, read.getId());
+    assertSame(jane.getAssignedDriver(), read.getAssignedDriver());
+    assertEquals(3, read.getEffectivePriority());
+    assertEquals(new Location(3, 4), read.getEndCoordinates());
+    assertNull(trips.get(1).getActualArrivalTime());
+    assertNull(trips.get(1).getStartCoordinates());
+    assertEquals(600.5, trips.get(1).getRidingSeconds());
+    assertEquals(7, trips.getAssignedDriverId(0));
+    assertEquals(-1, trips.getAssignedDriverId(1));
+    assertEquals((int) (9000 - jane.getEstimatedArrivalEpochSecond()),
+        trips.calculateWaitingSeconds(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> trips.get(2));
+  }
+
+  @Test
+  void getById() {
+    assertEquals(john, trips.getById(2));
+    assertEquals(0, trips.positionOf(4));
+    assertEquals(-1, trips.positionOf(3));
+    assertEquals(-1, trips.positionOf(5_000_000));
+    assertNull(trips.getById(-1));
+
+    Request later = new Request(john);
+    later.setId(4);
+    trips.set(1, later);
+    assertEquals(1, trips.positionOf(4));
+    assertEquals(later, trips.getById(4));
+    jane.setAssignedDriver(new Driver());
+    assertThrows(IllegalArgumentException.class, () -> trips.add(jane));
+    assertEquals(2, trips.size());
+  }
+
+  @Test
+  void sortByRequestTime_MovesRecordsAndIds() {
+    assertFalse(trips.isSortedByRequestTime());
+    Request same = new Request(null, null, null, 30.0, 1000L, RideType.STANDARD);
+    same.setId(0);
+    trips.add(same);
+    trips.sortByRequestTime();
+
+    assertTrue(trips.isSortedByRequestTime());
+    assertEquals(List.of(john, same, jane), trips);
+    assertEquals(2, trips.positionOf(4));
+    assertEquals(1, trips.positionOf(0));
+    assertEquals(new Location(1, 2), trips.get(2).getStartCoordinates());
+  }
+
+  @Test
+  void add_GrowsOverChunks() {
+    TripLog grown = new TripLog();
+    for (int i = 0; i < 100_000; i++) {
+      Request request = new Request(null, null, null, 10.0 + i, i, RideType.STANDARD);
+      request.setId(i);
+      grown.add(request);
+    }
+    assertEquals(100_000, grown.size());
+    assertEquals(99_999, grown.getRequestEpochSecond(99_999));
+    assertEquals(70_010.0, grown.getById(70_000).getDistance());
+    assertEquals(RideType.STANDARD, grown.getRideType(65_536));
+    assertTrue(grown.getOffHeapBytes() >= 100_000L * 88);
+  }
+}